@@ -126,7 +126,9 @@ public class TestAll extends TestGroup {
             TestSTFactory.class.getName(),
             TestUserSettingsData.class.getName(),
             TestImportOldVotes.class.getName(),
-            TestAnnotationVotes.class.getName()
+            TestAnnotationVotes.class.getName(),
+            TestVoteWriter.class.getName(),
+            TestSurveyThread.class.getName()
             },
             "All tests in CLDR Web");
     }
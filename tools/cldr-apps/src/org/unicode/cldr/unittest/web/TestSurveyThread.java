@@ -0,0 +1,236 @@
+package org.unicode.cldr.unittest.web;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.unicode.cldr.web.CLDRProgressIndicator;
+import org.unicode.cldr.web.SurveyThread;
+import org.unicode.cldr.web.SurveyThread.Priority;
+import org.unicode.cldr.web.SurveyThread.SurveyTask;
+
+import com.ibm.icu.dev.test.TestFmwk;
+
+public class TestSurveyThread extends TestFmwk {
+    private static final long TIMEOUT_SECONDS = 10;
+
+    public static void main(String[] args) {
+        new TestSurveyThread().run(args);
+    }
+
+    /**
+     * Counts the progress opened and closed.
+     */
+    private static class CountingProgress implements CLDRProgressIndicator {
+        final AtomicInteger opened = new AtomicInteger();
+        final AtomicInteger closed = new AtomicInteger();
+
+        @Override
+        public CLDRProgressTask openProgress(String what) {
+            return openProgress(what, -1);
+        }
+
+        @Override
+        public CLDRProgressTask openProgress(String what, int max) {
+            opened.incrementAndGet();
+            return new CLDRProgressTask() {
+                @Override
+                public void close() {
+                    closed.incrementAndGet();
+                }
+
+                @Override
+                public void update(int count) {
+                }
+
+                @Override
+                public void update(int count, String what) {
+                }
+
+                @Override
+                public void update(String what) {
+                }
+
+                @Override
+                public long startTime() {
+                    return 0;
+                }
+            };
+        }
+    }
+
+    /**
+     * A task that records its name when it is run.
+     */
+    private static class RecordingTask extends SurveyTask {
+        private final List<String> record;
+        private final CountDownLatch done;
+
+        RecordingTask(String name, List<String> record, CountDownLatch done) {
+            super(name);
+            this.record = record;
+            this.done = done;
+        }
+
+        @Override
+        public void run() throws Throwable {
+            record.add(name);
+            done.countDown();
+        }
+    }
+
+    /**
+     * A task that holds its worker until it is released.
+     */
+    private static class GateTask extends SurveyTask {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicBoolean interrupted = new AtomicBoolean();
+
+        GateTask(String name) {
+            super(name);
+        }
+
+        @Override
+        public void run() throws Throwable {
+            started.countDown();
+            try {
+                release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted.set(true);
+            }
+        }
+    }
+
+    public void TestOrder() throws InterruptedException {
+        SurveyThread pool = startPool(new CountingProgress());
+        try {
+            GateTask gate = new GateTask("gate");
+            pool.addTask(gate);
+            assertTrue("gate started", gate.started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+            List<String> record = Collections.synchronizedList(new ArrayList<String>());
+            CountDownLatch done = new CountDownLatch(5);
+            pool.addTask(new RecordingTask("normal1", record, done));
+            pool.addTask(new RecordingTask("low1", record, done).setPriority(Priority.LOW));
+            pool.addTask(new RecordingTask("high1", record, done).setPriority(Priority.HIGH));
+            pool.addTask(new RecordingTask("normal2", record, done));
+            pool.addTask(new RecordingTask("high2", record, done).setPriority(Priority.HIGH));
+            gate.release.countDown();
+
+            assertTrue("tasks done", done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            assertEquals("order", Arrays.asList("high1", "high2", "normal1", "normal2", "low1"), record);
+        } finally {
+            stopPool(pool);
+        }
+    }
+
+    public void TestStopWaiting() throws InterruptedException {
+        SurveyThread pool = startPool(new CountingProgress());
+        try {
+            GateTask gate = new GateTask("gate");
+            pool.addTask(gate);
+            assertTrue("gate started", gate.started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+            List<String> record = Collections.synchronizedList(new ArrayList<String>());
+            CountDownLatch done = new CountDownLatch(2);
+            SurveyTask stopped = new RecordingTask("stopped", record, done);
+            pool.addTask(stopped);
+            pool.addTask(new RecordingTask("kept", record, done));
+            stopped.stop();
+            assertEquals("waiting after stop", 1, pool.tasksRemaining());
+            gate.release.countDown();
+
+            assertFalse("stopped task not run", done.await(1, TimeUnit.SECONDS));
+            assertEquals("run", Arrays.asList("kept"), record);
+        } finally {
+            stopPool(pool);
+        }
+    }
+
+    public void TestKill() throws InterruptedException {
+        SurveyThread pool = startPool(new CountingProgress());
+        try {
+            List<String> record = Collections.synchronizedList(new ArrayList<String>());
+            CountDownLatch done = new CountDownLatch(1);
+            SurveyTask finished = new RecordingTask("finished", record, done);
+            pool.addTask(finished);
+            assertTrue("first done", done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+            // killing a finished task doesn't touch the next task on the same worker
+            GateTask next = new GateTask("next");
+            pool.addTask(next);
+            assertTrue("next started", next.started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            finished.kill();
+            next.release.countDown();
+            waitForIdle(pool);
+            assertFalse("next not interrupted", next.interrupted.get());
+
+            GateTask killed = new GateTask("killed");
+            pool.addTask(killed);
+            assertTrue("killed started", killed.started.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            killed.kill();
+            waitForIdle(pool);
+            assertTrue("killed interrupted", killed.interrupted.get());
+        } finally {
+            stopPool(pool);
+        }
+    }
+
+    public void TestCloseProgress() throws InterruptedException {
+        CountingProgress progress = new CountingProgress();
+        SurveyThread pool = startPool(progress);
+        try {
+            final CountDownLatch done = new CountDownLatch(1);
+            pool.addTask(new SurveyTask("progress") {
+                @Override
+                public void run() throws Throwable {
+                    openProgress("closed").close();
+                    openProgress("left open", 10);
+                    done.countDown();
+                }
+            });
+            assertTrue("task done", done.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            waitForIdle(pool);
+            assertEquals("opened", 2, progress.opened.get());
+            assertEquals("closed", 2, progress.closed.get());
+        } finally {
+            stopPool(pool);
+        }
+    }
+
+    private SurveyThread startPool(CLDRProgressIndicator progress) {
+        SurveyThread pool = new SurveyThread(progress);
+        pool.start(1);
+        return pool;
+    }
+
+    private void waitForIdle(SurveyThread pool) throws InterruptedException {
+        long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+        while (pool.tasksRemaining() > 0 || !pool.getCurrentTasks().isEmpty()) {
+            if (System.currentTimeMillis() > end) {
+                errln("Still busy: " + pool);
+                return;
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private void stopPool(SurveyThread pool) throws InterruptedException {
+        pool.requestStop();
+        long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+        while (pool.isAlive()) {
+            if (System.currentTimeMillis() > end) {
+                errln("Workers didn't stop: " + pool);
+                pool.interruptStop();
+                return;
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package org.unicode.cldr.unittest.web;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.unicode.cldr.util.CLDRLocale;
+import org.unicode.cldr.web.VoteWriter;
+import org.unicode.cldr.web.VoteWriter.Vote;
+
+import com.ibm.icu.dev.test.TestFmwk;
+
+/**
+ * Tests the failure paths of VoteWriter, with writers that don't use the database.
+ */
+public class TestVoteWriter extends TestFmwk {
+
+    public static void main(String[] args) {
+        new TestVoteWriter().run(args);
+    }
+
+    private static final int VOTE_COUNT = 20;
+
+    private static List<Vote> makeVotes() {
+        List<Vote> votes = new ArrayList<Vote>();
+        CLDRLocale de = CLDRLocale.getInstance("de");
+        for (int i = 0; i < VOTE_COUNT; i++) {
+            votes.add(new Vote(de, i, 1, "value" + i, null));
+        }
+        return votes;
+    }
+
+    /**
+     * Batches that always fail are given up on, and counted as lost rather than written.
+     * The writer keeps taking votes.
+     */
+    public void TestGiveUp() {
+        final List<Vote> givenUp = Collections.synchronizedList(new ArrayList<Vote>());
+        VoteWriter writer = new VoteWriter(1) {
+            @Override
+            protected void write(List<Vote> batch) throws SQLException {
+                throw new IllegalStateException("test failure");
+            }
+
+            @Override
+            protected void giveUp(List<Vote> batch, Throwable t) {
+                givenUp.addAll(batch);
+            }
+        };
+        try {
+            List<Vote> votes = makeVotes();
+            for (Vote vote : votes) {
+                assertTrue("queued " + vote, writer.queue(vote));
+            }
+            assertFalse("flush reports the lost votes", writer.flush());
+            assertEquals("lost", VOTE_COUNT, writer.getLost());
+            assertEquals("written", 0, writer.getWritten());
+            assertEquals("given up on", new HashSet<Vote>(votes), new HashSet<Vote>(givenUp));
+            assertTrue("still running after a failed batch", writer.isRunning());
+        } finally {
+            writer.shutdown();
+        }
+    }
+
+    /**
+     * If the writer thread stops, the votes left in the queue are still written, and
+     * further votes are refused, so that the caller writes them.
+     */
+    public void TestWriterStops() {
+        final Set<Vote> written = Collections.synchronizedSet(new HashSet<Vote>());
+        final boolean[] failed = { false };
+        VoteWriter writer = new VoteWriter(1) {
+            @Override
+            protected void write(List<Vote> batch) throws SQLException {
+                synchronized (failed) {
+                    if (!failed[0]) {
+                        // the retry is interrupted, which stops the thread
+                        failed[0] = true;
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("test failure");
+                    }
+                }
+                written.addAll(batch);
+            }
+
+            @Override
+            protected void giveUp(List<Vote> batch, Throwable t) {
+                errln("Gave up on " + batch + ": " + t);
+            }
+        };
+        try {
+            List<Vote> votes = makeVotes();
+            for (Vote vote : votes) {
+                if (!writer.queue(vote)) {
+                    written.add(vote); // as voteForValue writes it itself
+                }
+            }
+            assertTrue("flush", writer.flush());
+            assertEquals("all votes written", new HashSet<Vote>(votes), written);
+            assertFalse("stopped", writer.isRunning());
+            assertEquals("lost", 0, writer.getLost());
+            assertFalse("refuses votes after stopping", writer.queue(new Vote(CLDRLocale.getInstance("de"), VOTE_COUNT, 1, "x", null)));
+        } finally {
+            writer.shutdown();
+        }
+    }
+}
@@ -14,6 +14,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Timestamp;
 import java.util.BitSet;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -26,7 +27,10 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.Vector;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import org.unicode.cldr.icu.LDMLConstants;
 import org.unicode.cldr.test.CheckCLDR;
@@ -45,6 +49,7 @@ import org.unicode.cldr.util.LocaleIDParser;
 import org.unicode.cldr.util.LruMap;
 import org.unicode.cldr.util.Pair;
 import org.unicode.cldr.util.PathHeader;
+import org.unicode.cldr.util.PathValueIndex;
 import org.unicode.cldr.util.SimpleXMLSource;
 import org.unicode.cldr.util.VoteResolver;
 import org.unicode.cldr.util.VoteResolver.Status;
@@ -132,7 +137,7 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
 
     }
 
-    private static final String VOTE_OVERRIDE = "vote_override";
+    static final String VOTE_OVERRIDE = "vote_override";
 
     public class DataBackedSource extends DelegateXMLSource {
         PerLocaleData ballotBox;
@@ -574,6 +579,7 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
 //        private Map<Integer, Set<String>> xpathToOtherValues = new HashMap<Integer, Set<String>>();
         private boolean oldFileMissing;
         private XMLSource resolvedXmlsource = null;
+        private PathValueIndex valueIndex = null;
         /**
          * Parent locale - or null.
          */
@@ -712,6 +718,9 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
              * TODO: move the readonly check to the caller
              */
             if (!readonly) {
+                if (voteWriter != null && !voteWriter.flush()) { // so that the votes read include those still queued
+                    SurveyLog.logger.warning("VoteWriter gave up on some votes; they will be missing when " + locale + " is loaded. " + voteWriter);
+                }
                 VoteResolver<String> resolver = null; // save recalculating this.
                 ElapsedTimer et = (SurveyLog.DEBUG) ? new ElapsedTimer("Loading PLD for " + locale) : null;
                 Connection conn = null;
@@ -810,6 +819,7 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
                  */
                 stamp.next();
                 targetXmlSource.addListener(gTestCache);
+                targetXmlSource.addListener(sidewaysCache);
             }
         }
 
@@ -1130,6 +1140,21 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
             }
         }
 
+        /**
+         * Get the index of the resolved values, for searching. It is made the first time,
+         * and then kept up to date with the votes in this locale and its parents.
+         */
+        public synchronized PathValueIndex getValueIndex() {
+            if (valueIndex == null) {
+                PathValueIndex index = new PathValueIndex(getFile(true));
+                for (String id = locale.getBaseName(); id != null; id = LocaleIDParser.getParent(id)) {
+                    index.listenTo(STFactory.this.makeSource(id, false));
+                }
+                valueIndex = index;
+            }
+            return valueIndex;
+        }
+
         /**
          * Make a vetted source for this PerLocaleData, suitable for producing vxml
          * with vote-resolution done on more paths.
@@ -1197,92 +1222,35 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
             if (!readonly) {
                 boolean didClearFlag = false;
                 makeSource(false);
-                ElapsedTimer et = !SurveyLog.DEBUG ? null : new ElapsedTimer("{0} Recording PLD for " + locale + " "
-                    + distinguishingXpath + " : " + user + " voting for '" + value);
-                Connection conn = null;
-                PreparedStatement saveOld = null; // save off old value
-                PreparedStatement ps = null; // all for mysql, or 1st step for
-                // derby
-                PreparedStatement ps2 = null; // 2nd step for derby
-                ResultSet rs = null;
                 int xpathId = sm.xpt.getByXpath(distinguishingXpath);
                 final boolean wasFlagged = getFlag(locale, xpathId); // do this outside of the txn..
-                int submitter = user.id;
-                try {
-                    conn = DBUtils.getInstance().getDBConnection();
-
-                    String add0 = "", add1 = "", add2 = "";
-
-                    // #1 - save the "VOTE_VALUE_ALT"  ( possible proposal) value.
-                    if (DBUtils.db_Mysql) {
-                        add0 = "IGNORE";
-                        // add1="ON DUPLICATE KEY IGNORE";
-                    } else {
-                        add2 = "and not exists (select * from " + DBUtils.Table.VOTE_VALUE_ALT + " where " + DBUtils.Table.VOTE_VALUE_ALT + ".locale="
-                            + DBUtils.Table.VOTE_VALUE
-                            + ".locale and " + DBUtils.Table.VOTE_VALUE_ALT + ".xpath=" + DBUtils.Table.VOTE_VALUE + ".xpath " + " and "
-                            + DBUtils.Table.VOTE_VALUE_ALT
-                            + ".value=" + DBUtils.Table.VOTE_VALUE + ".value )";
-                    }
-                    String sql = "insert " + add0 + " into " + DBUtils.Table.VOTE_VALUE_ALT + "   " + add1 + " select " + DBUtils.Table.VOTE_VALUE + ".locale,"
-                        + DBUtils.Table.VOTE_VALUE + ".xpath," + DBUtils.Table.VOTE_VALUE + ".value "
-                        + " from " + DBUtils.Table.VOTE_VALUE + " where locale=? and xpath=? and submitter=? and value is not null " + add2;
-                    // if(DEBUG) System.out.println(sql);
-                    saveOld = DBUtils.prepareStatementWithArgs(conn, sql, locale.getBaseName(), xpathId, user.id);
-
-                    int oldSaved = saveOld.executeUpdate();
-                    // System.err.println("SaveOld: saved " + oldSaved +
-                    // " values");
-
-                    // #2 - save the actual vote.
-                    if (DBUtils.db_Mysql) { // use 'on duplicate key' syntax
-                        ps = DBUtils.prepareForwardReadOnly(conn, "INSERT INTO " + DBUtils.Table.VOTE_VALUE
-                            + " (locale,xpath,submitter,value,last_mod," + VOTE_OVERRIDE + ") values (?,?,?,?,CURRENT_TIMESTAMP,?) "
-                            + "ON DUPLICATE KEY UPDATE locale=?,xpath=?,submitter=?,value=?,last_mod=CURRENT_TIMESTAMP," + VOTE_OVERRIDE + "=?");
-                        int colNum = 6;
-                        ps.setString(colNum++, locale.getBaseName());
-                        ps.setInt(colNum++, xpathId);
-                        ps.setInt(colNum++, submitter);
-                        DBUtils.setStringUTF8(ps, colNum++, value);
-                        DBUtils.setInteger(ps, colNum++, withVote);
-                    } else { // derby
-                        ps2 = DBUtils.prepareForwardReadOnly(conn, "DELETE FROM " + DBUtils.Table.VOTE_VALUE
-                            + " where locale=? and xpath=? and submitter=? ");
-                        ps = DBUtils.prepareForwardReadOnly(conn, "INSERT INTO " + DBUtils.Table.VOTE_VALUE
-                            + " (locale,xpath,submitter,value,last_mod," + VOTE_OVERRIDE + ") VALUES (?,?,?,?,CURRENT_TIMESTAMP,?) ");
-                        int colNum = 1;
-                        ps2.setString(colNum++, locale.getBaseName());
-                        ps2.setInt(colNum++, xpathId);
-                        ps2.setInt(colNum++, submitter);
-                        // NB:  no "VOTE_OVERRIDE" column on delete.
+                VoteWriter.Vote vote = new VoteWriter.Vote(locale, xpathId, user.id, value, withVote);
+                // Clearing a flag is written at once, in the same txn as the vote.
+                if (voteWriter == null || (wasFlagged && UserRegistry.userIsTC(user)) || !voteWriter.queue(vote)) {
+                    ElapsedTimer et = !SurveyLog.DEBUG ? null : new ElapsedTimer("{0} Recording PLD for " + locale + " "
+                        + distinguishingXpath + " : " + user + " voting for '" + value);
+                    if (voteWriter != null) {
+                        voteWriter.flush(); // not to be overwritten by earlier queued votes
                     }
+                    Connection conn = null;
+                    try {
+                        conn = DBUtils.getInstance().getDBConnection();
+                        VoteWriter.writeVotes(conn, Collections.singletonList(vote));
 
-                    {
-                        int colNum = 1;
-                        ps.setString(colNum++, locale.getBaseName());
-                        ps.setInt(colNum++, xpathId);
-                        ps.setInt(colNum++, submitter);
-                        DBUtils.setStringUTF8(ps, colNum++, value);
-                        DBUtils.setInteger(ps, colNum++, withVote);
-                    }
-                    if (ps2 != null) {
-                        ps2.executeUpdate();
-                    }
-                    ps.executeUpdate();
-
-                    if (wasFlagged && UserRegistry.userIsTC(user)) {
-                        clearFlag(conn, locale, xpathId, user);
-                        didClearFlag = true;
+                        if (wasFlagged && UserRegistry.userIsTC(user)) {
+                            clearFlag(conn, locale, xpathId, user);
+                            didClearFlag = true;
+                        }
+                        conn.commit();
+                    } catch (SQLException e) {
+                        SurveyLog.logException(e);
+                        SurveyMain.busted("Could not vote for value in locale locale " + locale, e);
+                        throw new InternalError("Could not load locale " + locale + " : " + DBUtils.unchainSqlException(e));
+                    } finally {
+                        DBUtils.close(conn);
                     }
-                    conn.commit();
-                } catch (SQLException e) {
-                    SurveyLog.logException(e);
-                    SurveyMain.busted("Could not vote for value in locale locale " + locale, e);
-                    throw new InternalError("Could not load locale " + locale + " : " + DBUtils.unchainSqlException(e));
-                } finally {
-                    DBUtils.close(saveOld, rs, ps, ps2, conn);
+                    SurveyLog.debug(et);
                 }
-                SurveyLog.debug(et);
 
                 if (didClearFlag) {
                     // now, outside of THAT txn, make a forum post about clearing the flag.
@@ -1678,7 +1646,9 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
                 good++;
             }
         }
-        sb.append(good + "/" + locales.size() + " locales. TestCache:" + gTestCache + ", diskTestCache:" + gDiskTestCache + "}");
+        sb.append(good + "/" + locales.size() + " locales, " + loading.size() + " loading. TestCache:" + gTestCache + ", diskTestCache:" + gDiskTestCache
+            + ", " + sidewaysCache
+            + (voteWriter == null ? "" : ", " + voteWriter) + "}");
         return sb.toString();
     }
 
@@ -1687,13 +1657,58 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
         return get(locale);
     }
 
+    /**
+     * Writes votes in the background, if CLDR_VOTE_WRITE_BEHIND is set; otherwise null.
+     */
+    private final VoteWriter voteWriter = VoteWriter.WRITE_BEHIND ? new VoteWriter() : null;
+
+    /**
+     * The values of each path in related locales, for the sideways view. Kept up to date by
+     * listening to the vote-backed sources, like gTestCache.
+     */
+    private final SidewaysCache sidewaysCache = new SidewaysCache(this);
+
+    /**
+     * Get the winning values of a path in the related locales of a top locale, for the sideways view.
+     * @param topLocale
+     * @param xpath
+     * @return
+     */
+    public SidewaysCache.Values getSidewaysValues(CLDRLocale topLocale, String xpath) {
+        return sidewaysCache.get(topLocale, xpath);
+    }
+
+    /**
+     * Write any votes that are waiting to be written, and stop writing votes in the background.
+     * Called when the Survey Tool is shutting down.
+     */
+    public void shutdown() {
+        if (voteWriter != null) {
+            voteWriter.shutdown();
+        }
+    }
+
     /**
      * Per locale map
      */
-    private Map<CLDRLocale, Reference<PerLocaleData>> locales = new HashMap<CLDRLocale, Reference<PerLocaleData>>();
+    private Map<CLDRLocale, Reference<PerLocaleData>> locales = new ConcurrentHashMap<CLDRLocale, Reference<PerLocaleData>>();
 
+    /**
+     * Recently used locales, so that they aren't GC'ed. Guarded by itself, along with changes to locales.
+     */
     private LruMap<CLDRLocale, PerLocaleData> rLocales = new LruMap<CLDRLocale, PerLocaleData>(5);
 
+    /**
+     * Locales that are being loaded. A thread that wants one of these waits for it to be loaded,
+     * rather than loading it again. Other locales are not held up.
+     */
+    private final ConcurrentHashMap<CLDRLocale, FutureTask<PerLocaleData>> loading = new ConcurrentHashMap<CLDRLocale, FutureTask<PerLocaleData>>();
+
+    /**
+     * The time in ms that each locale took to load, the last time it was loaded.
+     */
+    private final Map<CLDRLocale, Long> loadTimes = new ConcurrentHashMap<CLDRLocale, Long>();
+
     private Map<CLDRLocale, MutableStamp> localeStamps = new ConcurrentHashMap<CLDRLocale, MutableStamp>(SurveyMain.getLocales().length);
 
     /**
@@ -1715,8 +1730,11 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
     public MutableStamp mintLocaleStamp(CLDRLocale locale) {
         MutableStamp s = localeStamps.get(locale);
         if (s == null) {
-            s = MutableStamp.getInstance();
-            localeStamps.put(locale, s);
+            MutableStamp newStamp = MutableStamp.getInstance();
+            s = localeStamps.putIfAbsent(locale, newStamp);
+            if (s == null) {
+                s = newStamp;
+            }
         }
         return s;
     }
@@ -1730,34 +1748,110 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
         return get(loc).getStamp();
     }
 
+    /**
+     * Get the time that each locale took to load, the last time it was loaded,
+     * including the time to load any parents that weren't already loaded.
+     * @return map from locale to time in ms
+     */
+    public Map<CLDRLocale, Long> getLocaleLoadTimes() {
+        return Collections.unmodifiableMap(loadTimes);
+    }
+
     /**
      * Fetch a locale from the per locale data, create if not there.
+     * Only one thread loads a given locale; other threads that want it wait for it,
+     * while locales that are already loaded are returned without waiting.
      *
      * @param locale
      * @return
      */
-    private synchronized final PerLocaleData get(CLDRLocale locale) {
-        PerLocaleData pld = rLocales.get(locale);
-        if (pld == null) {
-            Reference<PerLocaleData> ref = locales.get(locale);
-            if (ref != null) {
-                SurveyLog.debug("STFactory: " + locale + " was not in LRUMap.");
-                pld = ref.get();
-                if (pld == null) {
-                    SurveyLog.debug("STFactory: " + locale + " was GC'ed." + SurveyMain.freeMem());
-                    ref.clear();
-                }
+    private final PerLocaleData get(final CLDRLocale locale) {
+        PerLocaleData pld = peek(locale);
+        if (pld != null) {
+            return pld;
+        }
+        FutureTask<PerLocaleData> task = new FutureTask<PerLocaleData>(new Callable<PerLocaleData>() {
+            @Override
+            public PerLocaleData call() {
+                return load(locale);
+            }
+        });
+        FutureTask<PerLocaleData> existing = loading.putIfAbsent(locale, task);
+        if (existing == null) {
+            try {
+                task.run();
+            } finally {
+                loading.remove(locale, task);
             }
+            existing = task;
+        }
+        try {
+            return existing.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalError("Interrupted while loading locale " + locale);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new InternalError("Could not load locale " + locale + " : " + cause);
+        }
+    }
+
+    /**
+     * Get a locale if it is loaded and hasn't been GC'ed.
+     *
+     * @param locale
+     * @return the locale, or null
+     */
+    private PerLocaleData peek(CLDRLocale locale) {
+        synchronized (rLocales) {
+            PerLocaleData pld = rLocales.get(locale);
             if (pld == null) {
-                pld = new PerLocaleData(locale);
-                rLocales.put(locale, pld);
-                locales.put(locale, (new SoftReference<PerLocaleData>(pld)));
-                // update the locale display name cache.
-                OutputFileManager.updateLocaleDisplayName(pld.getFile(true), locale);
-            } else {
-                rLocales.put(locale, pld); // keep it in the lru
+                Reference<PerLocaleData> ref = locales.get(locale);
+                if (ref != null) {
+                    SurveyLog.debug("STFactory: " + locale + " was not in LRUMap.");
+                    pld = ref.get();
+                    if (pld == null) {
+                        SurveyLog.debug("STFactory: " + locale + " was GC'ed." + SurveyMain.freeMem());
+                        ref.clear();
+                    }
+                }
+                if (pld != null) {
+                    rLocales.put(locale, pld); // keep it in the lru
+                }
             }
+            return pld;
         }
+    }
+
+    /**
+     * Load a locale, in the thread of the task in loading.
+     *
+     * @param locale
+     * @return
+     */
+    private PerLocaleData load(CLDRLocale locale) {
+        // It may have been loaded after the check in get(), before the task was added.
+        PerLocaleData pld = peek(locale);
+        if (pld != null) {
+            return pld;
+        }
+        long start = System.currentTimeMillis();
+        pld = new PerLocaleData(locale);
+        // Add it before making the resolved file below, which looks up this locale again.
+        synchronized (rLocales) {
+            rLocales.put(locale, pld);
+            locales.put(locale, (new SoftReference<PerLocaleData>(pld)));
+        }
+        // update the locale display name cache.
+        OutputFileManager.updateLocaleDisplayName(pld.getFile(true), locale);
+        long time = System.currentTimeMillis() - start;
+        loadTimes.put(locale, time);
+        SurveyLog.debug("STFactory: loaded " + locale + " in " + time + "ms");
         return pld;
     }
 
@@ -1845,6 +1939,15 @@ public class STFactory extends Factory implements BallotBoxFactory<UserRegistry.
         return make(loc.getBaseName(), resolved);
     }
 
+    /**
+     * Get the index of the resolved values of a locale, for searching.
+     * @param loc
+     * @return
+     */
+    public PathValueIndex getValueIndex(CLDRLocale loc) {
+        return get(loc).getValueIndex();
+    }
+
     public XMLSource makeSource(String localeID, boolean resolved) {
         if (localeID == null)
             return null; // ?!
@@ -0,0 +1,133 @@
+package org.unicode.cldr.web;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.unicode.cldr.util.CLDRConfig;
+import org.unicode.cldr.util.CLDRLocale;
+import org.unicode.cldr.util.Pair;
+import org.unicode.cldr.util.XMLSource;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Caches the "sideways" view of a path: the winning value of the path in each of the related locales
+ * of a top locale, such as all of the es_* locales, as shown by the getsideways request.
+ *
+ * The cache listens to the vote-backed sources of the locales (STFactory adds it along with the TestCache),
+ * and a change to a path in a locale drops the view of that path for the top locale of the locale.
+ * A value that a path gets from a changed path through an alias is not noticed, so views also expire
+ * after CLDR_SIDEWAYS_CACHE_MINUTES.
+ */
+public class SidewaysCache implements XMLSource.Listener {
+    private static final int MAX_SIZE = CLDRConfig.getInstance().getProperty("CLDR_SIDEWAYS_CACHE_SIZE", 20000);
+    private static final int EXPIRE_MINUTES = CLDRConfig.getInstance().getProperty("CLDR_SIDEWAYS_CACHE_MINUTES", 10);
+
+    /**
+     * The values of a path in the related locales of a top locale.
+     */
+    public static final class Values {
+        /**
+         * Each value, with the locales that have it.
+         */
+        public final Map<String, List<String>> others;
+        /**
+         * The locales without a value.
+         */
+        public final List<String> novalue;
+
+        Values(Map<String, List<String>> others, List<String> novalue) {
+            this.others = Collections.unmodifiableMap(others);
+            this.novalue = Collections.unmodifiableList(novalue);
+        }
+    }
+
+    private final STFactory factory;
+    private final Cache<Pair<CLDRLocale, String>, Values> cache = CacheBuilder.newBuilder()
+        .maximumSize(MAX_SIZE)
+        .expireAfterWrite(EXPIRE_MINUTES, TimeUnit.MINUTES)
+        .recordStats()
+        .build();
+    /**
+     * Counts the changes, so that a view made while a value changed isn't kept.
+     */
+    private final AtomicLong changes = new AtomicLong();
+
+    public SidewaysCache(STFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Get the values of a path in the related locales of a top locale.
+     *
+     * @param topLocale
+     *            the highest non-root parent of the locale being viewed
+     * @param xpath
+     *            the distinguishing xpath
+     */
+    public Values get(CLDRLocale topLocale, String xpath) {
+        Pair<CLDRLocale, String> key = Pair.of(topLocale, xpath);
+        Values result = cache.getIfPresent(key);
+        if (result == null) {
+            long changesBefore = changes.get();
+            result = getValues(topLocale, xpath);
+            synchronized (this) {
+                if (changes.get() == changesBefore) {
+                    cache.put(key, result);
+                }
+            }
+        }
+        return result;
+    }
+
+    private Values getValues(CLDRLocale topLocale, String xpath) {
+        Map<String, List<String>> others = new LinkedHashMap<String, List<String>>();
+        List<String> novalue = new ArrayList<String>();
+        for (CLDRLocale ol : factory.sm.getRelatedLocs(topLocale)) {
+            /*
+             * Use resolved = true for src to get the winning value for each related locale.
+             * Formerly it was false, leading to a bug in which the client wrongly guessed
+             * the values for locales in json.novalue.
+             * Reference: https://unicode.org/cldr/trac/ticket/11688
+             */
+            XMLSource src = factory.makeSource(ol.getBaseName(), true);
+            String ov = src.getValueAtDPath(xpath);
+            if (ov != null) {
+                List<String> other = others.get(ov);
+                if (other == null) {
+                    others.put(ov, other = new ArrayList<String>());
+                }
+                other.add(ol.getBaseName());
+            } else {
+                novalue.add(ol.getBaseName());
+            }
+        }
+        return new Values(others, novalue);
+    }
+
+    @Override
+    public void valueChanged(String xpath, XMLSource source) {
+        CLDRLocale topLocale = CLDRLocale.getInstance(source.getLocaleID()).getHighestNonrootParent();
+        if (topLocale == null) {
+            return; // root
+        }
+        synchronized (this) {
+            changes.incrementAndGet();
+            cache.invalidate(Pair.of(topLocale, xpath));
+        }
+    }
+
+    /**
+     * For statistics
+     */
+    @Override
+    public String toString() {
+        return "SidewaysCache{size:" + cache.size() + ", " + cache.stats() + "}";
+    }
+}
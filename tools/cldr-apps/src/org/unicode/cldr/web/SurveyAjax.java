@@ -48,6 +48,7 @@ import org.unicode.cldr.util.Level;
 import org.unicode.cldr.util.Organization;
 import org.unicode.cldr.util.PathHeader;
 import org.unicode.cldr.util.PathHeader.SurveyToolStatus;
+import org.unicode.cldr.util.PathValueIndex;
 import org.unicode.cldr.util.SpecialLocales;
 import org.unicode.cldr.util.SupplementalDataInfo;
 import org.unicode.cldr.util.VoteResolver;
@@ -258,6 +259,11 @@ public class SurveyAjax extends HttpServlet {
 
     public static final int oldestVersionForImportingVotes = 25; // Oldest table is cldr_vote_value_25, as of 2018-05-23.
 
+    /**
+     * The most results that a search returns, since a search for a substring of values can match many paths.
+     */
+    private static final int MAX_SEARCH_RESULTS = 500;
+
     String settablePrefsList[] = { SurveyMain.PREF_CODES_PER_PAGE, SurveyMain.PREF_COVLEV,
         "dummy" }; // list of prefs OK to get/set
 
@@ -856,31 +862,13 @@ public class SurveyAjax extends HttpServlet {
                         }
                         final CLDRLocale topLocale = l.getHighestNonrootParent();
                         r.put("topLocale", topLocale);
-                        final Collection<CLDRLocale> relatedLocs = sm.getRelatedLocs(topLocale); // sublocales of the 'top' locale
+                        // values of the sublocales of the 'top' locale
+                        final SidewaysCache.Values values = sm.getSTFactory().getSidewaysValues(topLocale, xpathString);
                         JSONObject others = new JSONObject(); // values
-                        JSONArray novalue = new JSONArray(); // no value
-                        for (CLDRLocale ol : relatedLocs) {
-                            /*
-                             * Use resolved = true for src to get the winning value for each related locale.
-                             * Formerly it was false, leading to a bug in which the client wrongly guessed
-                             * the values for locales in json.novalue.
-                             * Reference: https://unicode.org/cldr/trac/ticket/11688
-                             */
-                            XMLSource src = sm.getSTFactory().makeSource(ol.getBaseName(), true);
-                            String ov = src.getValueAtDPath(xpathString);
-                            if (ov != null) {
-                                JSONArray other = null;
-                                if (others.has(ov)) {
-                                    other = others.getJSONArray(ov);
-                                } else {
-                                    other = new JSONArray();
-                                    others.put(ov, other);
-                                }
-                                other.put(ol.getBaseName());
-                            } else {
-                                novalue.put(ol.getBaseName());
-                            }
+                        for (Map.Entry<String, List<String>> e : values.others.entrySet()) {
+                            others.put(e.getKey(), new JSONArray(e.getValue()));
                         }
+                        JSONArray novalue = new JSONArray(values.novalue); // no value
                         r.put("others", others);
                         r.put("novalue", novalue);
                         send(r, out);
@@ -1156,13 +1144,11 @@ public class SurveyAjax extends HttpServlet {
 
         if (new UnicodeSet("[:Letter:]").containsSome(q)) {
             // check English
-            Set<String> retrievedPaths = new HashSet<String>();
             SurveyMain sm = CookieSession.sm;
-            sm.getTranslationHintsFile().getPathsWithValue(q, "", null, retrievedPaths);
             final STFactory stFactory = sm.getSTFactory();
-            if (l != null) {
-                stFactory.make(l, true).getPathsWithValue(q, "", null, retrievedPaths);
-            }
+            // keep the best matches of each index, rather than sorting all of a common substring's matches
+            Set<String> retrievedPaths = PathValueIndex.getPathsContaining(q, MAX_SEARCH_RESULTS,
+                sm.getTranslationHintsIndex(), stFactory.getValueIndex(l));
             for (String xp : retrievedPaths) {
                 PathHeader ph = stFactory.getPathHeader(xp);
                 if (ph != null) {
@@ -1173,6 +1159,9 @@ public class SurveyAjax extends HttpServlet {
         // add any others
         CoverageInfo covInfo = CLDRConfig.getInstance().getCoverageInfo();
         for (PathHeader ph : resultPh) {
+            if (results.length() >= MAX_SEARCH_RESULTS) {
+                break;
+            }
             try {
                 final String originalPath = ph.getOriginalPath();
                 if (ph.getSectionId() != PathHeader.SectionId.Special &&
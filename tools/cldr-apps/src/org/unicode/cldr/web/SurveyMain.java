@@ -90,6 +90,7 @@ import org.unicode.cldr.util.PathHeader;
 import org.unicode.cldr.util.PathHeader.PageId;
 import org.unicode.cldr.util.PathHeader.SurveyToolStatus;
 import org.unicode.cldr.util.PathUtilities;
+import org.unicode.cldr.util.PathValueIndex;
 import org.unicode.cldr.util.PatternCache;
 import org.unicode.cldr.util.SimpleFactory;
 import org.unicode.cldr.util.SpecialLocales;
@@ -528,7 +529,7 @@ public class SurveyMain extends HttpServlet implements CLDRProgressIndicator, Ex
                 public void run() throws Throwable {
                     doStartup();
                 }
-            });
+            }.setPriority(SurveyThread.Priority.HIGH));
         } catch (Throwable t) {
             SurveyLog.logException(t, "Initializing SurveyTool");
             SurveyMain.busted("Error initializing SurveyTool.", t);
@@ -4046,6 +4047,7 @@ public class SurveyMain extends HttpServlet implements CLDRProgressIndicator, Ex
     public static final String CLDRDBSRC = "_source";
 
     private static CLDRFile gTranslationHintsFile = null;
+    private static PathValueIndex gTranslationHintsIndex = null;
     private static ExampleGenerator gTranslationHintsExample = null;
 
     private Factory gFactory = null;
@@ -4148,6 +4150,17 @@ public class SurveyMain extends HttpServlet implements CLDRProgressIndicator, Ex
         return gTranslationHintsFile;
     }
 
+    /**
+     * Get the index of the values of the translation hints file, for searching.
+     * @return
+     */
+    public synchronized PathValueIndex getTranslationHintsIndex() {
+        if (gTranslationHintsIndex == null) {
+            gTranslationHintsIndex = new PathValueIndex(getTranslationHintsFile());
+        }
+        return gTranslationHintsIndex;
+    }
+
     Set<UserLocaleStuff> allUserLocaleStuffs = new HashSet<UserLocaleStuff>();
 
     public static final String DATAROW_JSP = "datarow_jsp"; // context tag for which datarow jsp to use
@@ -5247,6 +5260,10 @@ public class SurveyMain extends HttpServlet implements CLDRProgressIndicator, Ex
                 System.err.println("Timer thread cancelled." + destroyTimer);
                 Thread.yield();
             }
+            if (gSTFactory != null) {
+                progress.update("Writing queued votes..." + destroyTimer);
+                gSTFactory.shutdown();
+            }
             progress.update("Shutting down database..." + destroyTimer);
             doShutdownDB();
             progress.update("Shutting down SVN..." + destroyTimer);
@@ -5,9 +5,9 @@ package org.unicode.cldr.web;
 
 import java.util.Comparator;
 import java.util.Deque;
-import java.util.LinkedList;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentLinkedDeque;
 
 import org.unicode.cldr.util.StackTracker;
 
@@ -20,7 +20,7 @@ import com.ibm.icu.text.NumberFormat;
  */
 public class SurveyProgressManager implements CLDRProgressIndicator {
     private static final boolean DEBUG_PROGRESS = true;
-    private Deque<SurveyProgressTask> tasks = new LinkedList<SurveyProgressTask>();
+    private Deque<SurveyProgressTask> tasks = new ConcurrentLinkedDeque<SurveyProgressTask>(); // opened and closed by several threads
 
     private class SurveyProgressTask implements CLDRProgressIndicator.CLDRProgressTask {
         boolean dead = false;
@@ -3,15 +3,34 @@
  */
 package org.unicode.cldr.web;
 
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.unicode.cldr.util.CLDRConfig;
 
 /**
  * @author srl
  *
- *         A worker thread that performs various SurveyTool tasks, starting with
- *         booting.
+ *         A pool of worker threads that perform various SurveyTool tasks, starting with
+ *         booting. The number of workers is set with CLDR_SURVEYTHREAD_WORKERS; tasks
+ *         are taken in order of their priority, and then in the order they were added.
  */
-public class SurveyThread extends Thread {
+public class SurveyThread {
+
+    /**
+     * The default number of workers, if CLDR_SURVEYTHREAD_WORKERS isn't set.
+     */
+    private static final int DEFAULT_WORKERS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * The priority of a task. Waiting tasks of a higher priority are run first.
+     */
+    public enum Priority {
+        HIGH, NORMAL, LOW
+    }
 
     public static boolean shouldStop() {
         SurveyTask ct = currentTask();
@@ -24,7 +43,7 @@ public class SurveyThread extends Thread {
 
     public static boolean inTask() {
         Thread th = Thread.currentThread();
-        if (th instanceof SurveyThread) {
+        if (th instanceof Worker) {
             return true;
         } else {
             return false;
@@ -33,19 +52,33 @@ public class SurveyThread extends Thread {
 
     public static SurveyTask currentTask() {
         Thread th = Thread.currentThread();
-        if (th instanceof SurveyThread) {
-            SurveyThread st = (SurveyThread) th;
+        if (th instanceof Worker) {
+            Worker w = (Worker) th;
 
-            return st.current;
+            return w.current;
         } else {
             return null;
         }
     }
 
+    /**
+     * The order in which waiting tasks are taken.
+     */
+    private static final Comparator<SurveyTask> TASK_ORDER = new Comparator<SurveyTask>() {
+        @Override
+        public int compare(SurveyTask o1, SurveyTask o2) {
+            int diff = o1.priority.compareTo(o2.priority);
+            if (diff != 0) {
+                return diff;
+            }
+            return Long.compare(o1.sequence, o2.sequence);
+        }
+    };
+
     /**
      * Are we still running?
      */
-    boolean surveyThreadIsRunning = true;
+    volatile boolean surveyThreadIsRunning = true;
 
     boolean mainThreadRunning() {
         return surveyThreadIsRunning;
@@ -66,24 +99,55 @@ public class SurveyThread extends Thread {
          */
         public String name;
 
-        private boolean taskRunning = true;
+        private volatile boolean taskRunning = true;
+
+        private Priority priority = Priority.NORMAL;
+
+        /**
+         * Order in which the task was added, for tasks of the same priority.
+         */
+        private long sequence;
+
+        /**
+         * The worker running this task, or null if it isn't running.
+         */
+        private volatile Worker worker = null;
 
         /**
-         * Request this task to stop.
+         * Progress opened by this task and not yet closed.
+         */
+        private final List<TaskProgress> openProgress = new ArrayList<TaskProgress>();
+
+        /**
+         * Request this task to stop. If it is still waiting, it is taken off the queue.
          */
         public void stop() {
             System.err.println(this + " - stop requested.");
             taskRunning = false;
+            if (theThread != null) {
+                theThread.removeTask(this);
+            }
         }
 
         /**
-         * Kill this task by interrupting. (Doesn't actually kill the thread?)
+         * Kill this task by interrupting the worker running it. (Doesn't actually kill the thread.)
          */
         public void kill() {
             stop();
-            theThread.interrupt();
+            Worker w = worker;
+            if (w != null) {
+                synchronized (w.handoff) {
+                    // the worker may have finished this task and taken another one
+                    if (worker == w) {
+                        w.interrupt();
+                    }
+                }
+            }
         }
 
+        /**
+         * The pool that this task was added to.
+         */
         protected SurveyThread theThread = null;
 
         /**
@@ -109,14 +173,28 @@ public class SurveyThread extends Thread {
         void setName(String taskName) {
             name = taskName;
 
-            // if possible, update current thread name.
-            Thread th = Thread.currentThread();
-            if (th instanceof SurveyThread) {
-                SurveyThread st = (SurveyThread) th;
-                st.setName();
+            // if possible, update the name of the worker running it.
+            Worker w = worker;
+            if (w != null) {
+                w.setName();
             }
         }
 
+        public Priority getPriority() {
+            return priority;
+        }
+
+        /**
+         * Set the priority. Only has an effect before the task is added.
+         *
+         * @param priority
+         * @return this, for chaining
+         */
+        public SurveyTask setPriority(Priority priority) {
+            this.priority = priority;
+            return this;
+        }
+
         /**
          * Get some info about the task.
          */
@@ -138,20 +216,83 @@ public class SurveyThread extends Thread {
         abstract public void run() throws Throwable;
 
         // ----- CLDRProgressIndicator overrides. For now, delegate to
-        // theThread.sm
+        // theThread.progress, keeping track of the progress so that the worker can close it
+        // if the task doesn't.
         @Override
         public CLDRProgressTask openProgress(String what) {
             if (running())
-                return theThread.sm.openProgress(what);
+                return track(theThread.progress.openProgress(what));
             return null;
         }
 
         @Override
         public CLDRProgressTask openProgress(String what, int max) {
             if (running())
-                return theThread.sm.openProgress(what, max);
+                return track(theThread.progress.openProgress(what, max));
             return null;
         }
+
+        private CLDRProgressTask track(CLDRProgressTask progress) {
+            TaskProgress result = new TaskProgress(progress);
+            synchronized (openProgress) {
+                openProgress.add(result);
+            }
+            return result;
+        }
+
+        /**
+         * Close any progress that the task left open, such as after an exception.
+         */
+        private void closeProgress() {
+            List<TaskProgress> toClose;
+            synchronized (openProgress) {
+                toClose = new ArrayList<TaskProgress>(openProgress);
+            }
+            for (TaskProgress progress : toClose) {
+                progress.close();
+            }
+        }
+
+        /**
+         * A progress of the task, which forgets itself when it is closed.
+         */
+        private final class TaskProgress implements CLDRProgressTask {
+            private final CLDRProgressTask delegate;
+
+            TaskProgress(CLDRProgressTask delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void close() {
+                synchronized (openProgress) {
+                    if (!openProgress.remove(this)) {
+                        return; // already closed
+                    }
+                }
+                delegate.close();
+            }
+
+            @Override
+            public void update(int count) {
+                delegate.update(count);
+            }
+
+            @Override
+            public void update(int count, String what) {
+                delegate.update(count, what);
+            }
+
+            @Override
+            public void update(String what) {
+                delegate.update(what);
+            }
+
+            @Override
+            public long startTime() {
+                return delegate.startTime();
+            }
+        }
     }
 
     /**
@@ -182,22 +323,69 @@ public class SurveyThread extends Thread {
     }
 
     /**
-     * The current state of the thread.
+     * How many tasks of a certain kind will be taken before a task?
+     *
+     * @return the number of waiting tasks ahead of it, or 0 if it isn't waiting
+     */
+    public int tasksAhead(SurveyTask t, @SuppressWarnings("rawtypes") Class ofClass) {
+        if (!tasks.contains(t)) {
+            return 0;
+        }
+        int ret = 0;
+        for (SurveyTask other : tasks) {
+            if (ofClass.isInstance(other) && TASK_ORDER.compare(other, t) < 0) {
+                ret++;
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * The number of workers, or 0 if they haven't been started.
+     */
+    public int getWorkerCount() {
+        Worker[] w = workers;
+        return w == null ? 0 : w.length;
+    }
+
+    /**
+     * The tasks being run now.
+     */
+    public List<SurveyTask> getCurrentTasks() {
+        List<SurveyTask> ret = new ArrayList<SurveyTask>();
+        Worker[] w = workers;
+        if (w != null) {
+            for (Worker worker : w) {
+                SurveyTask current = worker.current;
+                if (current != null) {
+                    ret.add(current);
+                }
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * The current state of the threads.
      */
     public String toString() {
-        return "{ST Threads: Tasks waiting:" + tasksRemaining() + ", Current:" + current + ", Running:" + surveyThreadIsRunning
-            + "}";
+        return "{ST Threads: Workers:" + getWorkerCount() + ", Tasks waiting:" + tasksRemaining() + ", Current:" + getCurrentTasks()
+            + ", Running:" + surveyThreadIsRunning + "}";
     }
 
     /**
      * The status, as HTML
      */
     public String htmlStatus() {
-        if (tasksRemaining() == 0 && current == null)
+        List<SurveyTask> current = getCurrentTasks();
+        if (tasksRemaining() == 0 && current.isEmpty())
             return null;
         StringBuffer sb = new StringBuffer();
-        if (current != null) {
-            sb.append(current);
+        for (SurveyTask t : current) {
+            if (sb.length() > 0) {
+                sb.append(" * ");
+            }
+            sb.append(t);
         }
         if (tasksRemaining() > 0) {
             if (sb.length() > 0) {
@@ -209,49 +397,90 @@ public class SurveyThread extends Thread {
     }
 
     /**
-     * The current task, or null if none.
+     * A worker thread. Perform tasks or wait.
      */
-    SurveyTask current = null;
+    private final class Worker extends Thread {
+        private final int number;
 
-    /**
-     * The main run loop. Perform tasks or wait.
-     */
-    public void run() {
-        if (DEBUG)
-            System.err.println("SurveyThread: Bootation.");
-        setName();
-        while (this.surveyThreadIsRunning) {
-            try {
-                if (DEBUG)
-                    System.err.println("SurveyThread: About to take from queue (count:" + tasksRemaining() + "):");
-                current = tasks.take();
+        /**
+         * The current task, or null if none.
+         */
+        volatile SurveyTask current = null;
+
+        /**
+         * Held while a task is given to or taken from this worker, so that kill() only interrupts
+         * the task that it was called on.
+         */
+        final Object handoff = new Object();
+
+        Worker(int number) {
+            this.number = number;
+            setName();
+        }
+
+        void setName() {
+            SurveyTask t = current;
+            this.setName("SurveyThread-" + number + (t == null ? " (idle)" : ": " + t));
+        }
+
+        /**
+         * The main run loop.
+         */
+        public void run() {
+            if (DEBUG)
+                System.err.println(getName() + ": Bootation.");
+            while (surveyThreadIsRunning) {
+                SurveyTask t = null;
+                try {
+                    if (DEBUG)
+                        System.err.println(getName() + ": About to take from queue (count:" + tasksRemaining() + "):");
+                    t = tasks.take();
+                } catch (InterruptedException e) {
+                    if (DEBUG)
+                        System.err.println(getName() + ": Interrupted- running=" + surveyThreadIsRunning);
+                }
+                if (t == null) {
+                    continue;
+                }
+                if (!t.running()) {
+                    if (DEBUG)
+                        System.err.println(getName() + ": Skipping stopped task: " + t);
+                    continue;
+                }
+                synchronized (handoff) {
+                    t.worker = this;
+                    current = t;
+                }
                 setName();
-                if (DEBUG)
-                    System.err.println("SurveyThread: Got: " + current);
-                current.theThread = this; // set the back pointer
-            } catch (InterruptedException e) {
-                if (DEBUG)
-                    System.err.println("SurveyThread: Interrupted- running=" + surveyThreadIsRunning);
-            }
-            if (current != null)
                 try {
-                if (DEBUG)
-                    System.err.println("SurveyThread(count:" + tasksRemaining() + "): About to run: " + current);
-                current.run();
-                if (DEBUG)
-                    System.err.println("SurveyThread(count:" + tasksRemaining() + "): Done running : " + current);
-                } catch (Throwable t) {
-                if (DEBUG)
-                    System.err.println("SurveyThread(count:" + tasksRemaining() + "): Got exception on: " + current + " - "
-                        + t.toString());
-                t.printStackTrace();
-                SurveyMain.busted("While working on task " + current + " - " + t.toString(), t);
+                    if (DEBUG)
+                        System.err.println(getName() + "(count:" + tasksRemaining() + "): About to run: " + t);
+                    t.run();
+                    if (DEBUG)
+                        System.err.println(getName() + "(count:" + tasksRemaining() + "): Done running : " + t);
+                } catch (Throwable th) {
+                    if (DEBUG)
+                        System.err.println(getName() + "(count:" + tasksRemaining() + "): Got exception on: " + t + " - "
+                            + th.toString());
+                    if (t.running()) {
+                        th.printStackTrace();
+                        SurveyMain.busted("While working on task " + t + " - " + th.toString(), th);
+                    } else {
+                        SurveyLog.logException(th, "While stopping task " + t);
+                    }
+                } finally {
+                    t.closeProgress();
+                    synchronized (handoff) {
+                        t.worker = null;
+                        current = null; /* done. */
+                        Thread.interrupted(); // don't pass on a kill() to the next task
+                    }
+                    setName();
                 }
-            current = null; /* done. */
-            setName();
+            }
+            if (DEBUG)
+                System.err.println(getName() + "(count:" + tasksRemaining() + "): exitting!");
         }
-        if (DEBUG)
-            System.err.println("SurveyThread(count:" + tasksRemaining() + "): exitting!");
     }
 
     /**
@@ -274,6 +503,8 @@ public class SurveyThread extends Thread {
      * @param t
      */
     public void addTask(SurveyTask t) {
+        t.theThread = this; // set the back pointer
+        t.sequence = sequence.getAndIncrement();
         if (!tasks.offer(t)) {
             String complaint = "SurveyThread: can't add task " + t.name;
             System.err.println(complaint);
@@ -290,12 +521,14 @@ public class SurveyThread extends Thread {
      */
     public void requestStop() {
         surveyThreadIsRunning = false; // shutdown the next time through
-        addTask(new SurveyTask("shutdown") {
-            public void run() throws Throwable {
-                System.err.println("Shutdown task: stop requested!");
-                // add other items here.
-            }
-        });
+        for (int i = Math.max(1, getWorkerCount()); i > 0; --i) { // wake up each worker
+            addTask(new SurveyTask("shutdown") {
+                public void run() throws Throwable {
+                    System.err.println("Shutdown task: stop requested!");
+                    // add other items here.
+                }
+            }.setPriority(Priority.HIGH));
+        }
     }
 
     /**
@@ -303,33 +536,84 @@ public class SurveyThread extends Thread {
      */
     public void interruptStop() {
         surveyThreadIsRunning = false;
-        this.interrupt();
+        Worker[] w = workers;
+        if (w != null) {
+            for (Worker worker : w) {
+                worker.interrupt();
+            }
+        }
     }
 
     /**
-     * Construct the thread. Needs a pointer to the SurveyTool..
+     * Construct the pool. Needs a pointer to the SurveyTool (or whatever shows
+     * the progress of the tasks). The workers are made by start().
      *
-     * @param sm
+     * @param progress
+     */
+    public SurveyThread(CLDRProgressIndicator progress) {
+        this.progress = progress;
+    }
+
+    /**
+     * Start the workers. The number is read from the configuration here, since it
+     * isn't available when the SurveyMain is constructed.
      */
-    SurveyThread(SurveyMain sm) {
-        this.sm = sm;
-        current = null;
-        setName();
+    public void start() {
+        start(CLDRConfig.getInstance().getProperty("CLDR_SURVEYTHREAD_WORKERS", DEFAULT_WORKERS));
+    }
+
+    /**
+     * Start the given number of workers.
+     */
+    public synchronized void start(int count) {
+        if (workers != null) {
+            throw new IllegalThreadStateException("SurveyThread already started");
+        }
+        count = Math.max(1, count);
+        Worker[] w = new Worker[count];
+        for (int i = 0; i < count; i++) {
+            w[i] = new Worker(i);
+        }
+        workers = w;
+        for (Worker worker : w) {
+            worker.start();
+        }
     }
 
-    private void setName() {
-        this.setName(toString());
+    /**
+     * Is any worker still alive?
+     */
+    public boolean isAlive() {
+        Worker[] w = workers;
+        if (w != null) {
+            for (Worker worker : w) {
+                if (worker.isAlive()) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
     /**
-     * Main list of tasks.
+     * The workers, or null if not started.
+     */
+    private volatile Worker[] workers = null;
+
+    /**
+     * Counts the tasks added, so that tasks of the same priority are taken in order.
      */
-    LinkedBlockingQueue<SurveyTask> tasks = new LinkedBlockingQueue<SurveyTask>();
+    private final AtomicLong sequence = new AtomicLong();
 
     /**
-     * Back-pointer.
+     * Main list of tasks, by priority and then in the order they were added.
      */
-    SurveyMain sm;
+    PriorityBlockingQueue<SurveyTask> tasks = new PriorityBlockingQueue<SurveyTask>(11, TASK_ORDER);
+
+    /**
+     * Where the progress of the tasks is shown; the SurveyMain.
+     */
+    private final CLDRProgressIndicator progress;
 
     /**
      * Try to shut down the threads cleanly.
@@ -347,22 +631,20 @@ public class SurveyThread extends Thread {
             if (!this.isAlive())
                 return;
 
-            SurveyTask aCurrent = current;
-            if (aCurrent != null) {
+            for (SurveyTask aCurrent : getCurrentTasks()) {
                 System.err.println("Attempting task stop on " + aCurrent + "..");
                 aCurrent.stop();
-                Thread.sleep(1000);
-                if (!this.isAlive())
-                    return;
             }
-            aCurrent = current; // in case it changed
-            if (aCurrent != null) {
+            Thread.sleep(1000);
+            if (!this.isAlive())
+                return;
+            for (SurveyTask aCurrent : getCurrentTasks()) { // in case they changed
                 System.err.println("Attempting task kill on " + aCurrent + "..");
                 aCurrent.kill();
-                Thread.sleep(1000);
-                if (!this.isAlive())
-                    return;
             }
+            Thread.sleep(1000);
+            if (!this.isAlive())
+                return;
 
             System.err.println("Attempting interrupt stop");
             this.interruptStop();
@@ -371,7 +653,7 @@ public class SurveyThread extends Thread {
                 return;
 
             clean = false;
-            System.err.println("Give up. Could not stop thread in time.");
+            System.err.println("Give up. Could not stop threads in time.");
         } catch (Throwable t) {
             clean = false;
             System.err.println("Trying to do a shutdown in SurveyThread: got " + t.toString());
@@ -6,6 +6,7 @@ package org.unicode.cldr.web;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
@@ -158,14 +159,12 @@ public class VettingViewerQueue {
 
     private static class QueueEntry {
         public Task currentTask = null;
-        public Map<Pair<CLDRLocale, Organization>, VVOutput> output = new TreeMap<Pair<CLDRLocale, Organization>, VVOutput>();
+        public Map<Pair<CLDRLocale, Organization>, VVOutput> output = Collections
+            .synchronizedMap(new TreeMap<Pair<CLDRLocale, Organization>, VVOutput>()); // a stopped task may still be writing
     }
 
 //    public static QueueEntry summaryEntry = null;
 
-    private static final Object OnlyOneVetter = new Object() {
-    }; // TODO: remove.
-
     public class Task extends SurveyThread.SurveyTask {
 
         public CLDRLocale locale;
@@ -231,6 +230,8 @@ public class VettingViewerQueue {
             this.sm = sm;
             this.usersLevel = usersLevel; // Level.get(ctx.getEffectiveCoverageLevel());
             this.usersOrg = usersOrg; // VoteResolver.Organization.fromString(ctx.session.user.voterOrg());
+            // the summary of all locales takes much longer, so let single locales go first
+            setPriority(isSummary ? SurveyThread.Priority.LOW : SurveyThread.Priority.NORMAL);
         }
 
         /**
@@ -245,6 +246,11 @@ public class VettingViewerQueue {
         public void run() throws Throwable {
             statusCode = Status.WAITING;
             final CLDRProgressTask progress = openProgress("vv:" + locale, maxn + 100);
+            if (progress == null) { // stopped before it was started
+                status = "Stopped on request.";
+                statusCode = Status.STOPPED;
+                return;
+            }
 
             VettingViewer<Organization> vv = null;
 
@@ -252,99 +258,90 @@ public class VettingViewerQueue {
                 System.err.println("Starting up vv task:" + locale);
 
             try {
-                status = "Waiting...";
-                progress.update("Waiting...");
-                synchronized (OnlyOneVetter) {
-                    if (!running()) {
-                        status = "Stopped on request.";
-                        statusCode = Status.STOPPED;
-                        return;
-                    }
-                    status = "Beginning Process, Calculating";
-
-                    vv = new VettingViewer<Organization>(sm.getSupplementalDataInfo(), sm.getSTFactory(),
-                        getUsersChoice(sm), "Winning " + SurveyMain.getNewVersion());
-                    progress.update("Got VettingViewer");
-                    statusCode = Status.PROCESSING;
-                    start = System.currentTimeMillis();
-                    last = start;
-                    n = 0;
-                    vv.setProgressCallback(new VettingViewer.ProgressCallback() {
-                        public String setRemStr(long now) {
-                            double per = (double) (now - start) / (double) n;
-                            rem = (long) ((maxn - n) * per);
-                            String remStr = ElapsedTimer.elapsedTime(now, now + rem) + " " + "remaining";
-                            if (rem <= 1500) {
-                                remStr = "Finishing...";
-                            }
-                            setStatus(remStr);
-                            return remStr;
+                status = "Beginning Process, Calculating";
+
+                vv = new VettingViewer<Organization>(sm.getSupplementalDataInfo(), sm.getSTFactory(),
+                    getUsersChoice(sm), "Winning " + SurveyMain.getNewVersion());
+                progress.update("Got VettingViewer");
+                statusCode = Status.PROCESSING;
+                start = System.currentTimeMillis();
+                last = start;
+                n = 0;
+                vv.setProgressCallback(new VettingViewer.ProgressCallback() {
+                    public String setRemStr(long now) {
+                        double per = (double) (now - start) / (double) n;
+                        rem = (long) ((maxn - n) * per);
+                        String remStr = ElapsedTimer.elapsedTime(now, now + rem) + " " + "remaining";
+                        if (rem <= 1500) {
+                            remStr = "Finishing...";
                         }
+                        setStatus(remStr);
+                        return remStr;
+                    }
 
-                        public void nudge() {
-                            if (!running()) {
-                                throw new RuntimeException("Not Running- stop now.");
-                            }
-                            long now = System.currentTimeMillis();
-                            n++;
-                            // System.err.println("Nudged: " + n);
-                            if (n > (maxn - 5)) {
-                                maxn = n + 10;
-                                if (!isSummary && n > gMax) {
-                                    gMax = n;
-                                }
-                            }
-
-                            if ((now - last) > 1200) {
-                                last = now;
-                                // StringBuffer bar =
-                                // SurveyProgressManager.appendProgressBar(new
-                                // StringBuffer(),n,ourmax);
-                                // String remStr="";
-                                if (n > 500) {
-                                    progress.update(n, setRemStr(now));
-                                } else {
-                                    progress.update(n);
-                                }
-                                // try {
-                                // mout.println("<script type=\"text/javascript\">document.getElementById('LoadingBar').innerHTML=\""+bar+
-                                // " ("+n+" items loaded" + remStr + ")" +
-                                // "\";</script>");
-                                // mout.flush();
-                                // } catch (java.io.IOException e) {
-                                // System.err.println("Nudge: got IOException  "
-                                // + e.toString() + " after " + n);
-                                // throw new RuntimeException(e); // stop
-                                // processing
-                                // }
+                    public void nudge() {
+                        if (!running()) {
+                            throw new RuntimeException("Not Running- stop now.");
+                        }
+                        long now = System.currentTimeMillis();
+                        n++;
+                        // System.err.println("Nudged: " + n);
+                        if (n > (maxn - 5)) {
+                            maxn = n + 10;
+                            if (!isSummary && n > gMax) {
+                                gMax = n;
                             }
                         }
 
-                        public void done() {
-                            progress.update("Done!");
+                        if ((now - last) > 1200) {
+                            last = now;
+                            // StringBuffer bar =
+                            // SurveyProgressManager.appendProgressBar(new
+                            // StringBuffer(),n,ourmax);
+                            // String remStr="";
+                            if (n > 500) {
+                                progress.update(n, setRemStr(now));
+                            } else {
+                                progress.update(n);
+                            }
+                            // try {
+                            // mout.println("<script type=\"text/javascript\">document.getElementById('LoadingBar').innerHTML=\""+bar+
+                            // " ("+n+" items loaded" + remStr + ")" +
+                            // "\";</script>");
+                            // mout.flush();
+                            // } catch (java.io.IOException e) {
+                            // System.err.println("Nudge: got IOException  "
+                            // + e.toString() + " after " + n);
+                            // throw new RuntimeException(e); // stop
+                            // processing
+                            // }
                         }
-                    });
-
-                    EnumSet<VettingViewer.Choice> choiceSet = EnumSet.allOf(VettingViewer.Choice.class);
-                    if (usersOrg.equals(Organization.surveytool)) {
-                        choiceSet = EnumSet.of(
-                            VettingViewer.Choice.error,
-                            VettingViewer.Choice.warning,
-                            VettingViewer.Choice.hasDispute,
-                            VettingViewer.Choice.notApproved);
                     }
 
-                    if (!isSummary(locale)) {
-                        vv.generateHtmlErrorTables(aBuffer, choiceSet, locale.getBaseName(), usersOrg, usersLevel, true, false);
-                    } else {
-                        if (DEBUG)
-                            System.err.println("Starting summary gen..");
-                        vv.generateSummaryHtmlErrorTables(aBuffer, choiceSet, getLocalesWithVotes(st_org), usersOrg);
-                    }
-                    if (running()) {
-                        aBuffer.append("<hr/>" + PRE + "Processing time: " + ElapsedTimer.elapsedTime(start) + POST);
-                        entry.output.put(new Pair<CLDRLocale, Organization>(locale, usersOrg), new VVOutput(aBuffer));
+                    public void done() {
+                        progress.update("Done!");
                     }
+                });
+
+                EnumSet<VettingViewer.Choice> choiceSet = EnumSet.allOf(VettingViewer.Choice.class);
+                if (usersOrg.equals(Organization.surveytool)) {
+                    choiceSet = EnumSet.of(
+                        VettingViewer.Choice.error,
+                        VettingViewer.Choice.warning,
+                        VettingViewer.Choice.hasDispute,
+                        VettingViewer.Choice.notApproved);
+                }
+
+                if (!isSummary(locale)) {
+                    vv.generateHtmlErrorTables(aBuffer, choiceSet, locale.getBaseName(), usersOrg, usersLevel, true, false);
+                } else {
+                    if (DEBUG)
+                        System.err.println("Starting summary gen..");
+                    vv.generateSummaryHtmlErrorTables(aBuffer, choiceSet, getLocalesWithVotes(st_org), usersOrg);
+                }
+                if (running()) {
+                    aBuffer.append("<hr/>" + PRE + "Processing time: " + ElapsedTimer.elapsedTime(start) + POST);
+                    entry.output.put(new Pair<CLDRLocale, Organization>(locale, usersOrg), new VVOutput(aBuffer));
                 }
                 status = "Finished.";
                 statusCode = Status.READY;
@@ -769,7 +766,7 @@ public class VettingViewerQueue {
         CLDRLocale didKill = null;
 
         if (t != null) {
-            String waiting = waitingString(t.sm.startupThread);
+            String waiting = waitingString(t);
             putTaskStatus(jStatus, t);
             if (t.locale.equals(locale)) {
                 status[0] = Status.PROCESSING;
@@ -824,7 +821,7 @@ public class VettingViewerQueue {
             killMsg = " (Note: Stopped loading: " + didKill.toULocale().getDisplayName(SurveyMain.TRANS_HINT_LOCALE) + ")";
         }
         putTaskStatus(jStatus, t);
-        return PRE + "Started new task: " + waitingString(t.sm.startupThread) + t.status() + "<hr/>" + killMsg + POST;
+        return PRE + "Started new task: " + waitingString(t) + t.status() + "<hr/>" + killMsg + POST;
     }
 
     /**
@@ -833,7 +830,7 @@ public class VettingViewerQueue {
      * @throws JSONException
      */
     public void putTaskStatus(JSONObject jStatus, Task t) throws JSONException {
-        jStatus.put("t_waiting", totalUsersWaiting(t.sm.startupThread));
+        jStatus.put("t_waiting", totalUsersWaiting(t));
         jStatus.put("t_locale", t.locale);
         jStatus.put("t_running", t.running());
         jStatus.put("t_statuscode", t.statusCode);
@@ -842,8 +839,8 @@ public class VettingViewerQueue {
         jStatus.put("t_progressmax", t.maxn);
     }
 
-    private String waitingString(SurveyThread startupThread) {
-        int aheadOfMe = (totalUsersWaiting(startupThread));
+    private String waitingString(Task t) {
+        int aheadOfMe = (totalUsersWaiting(t));
         String waiting = (aheadOfMe > 0) ? ("" + aheadOfMe + " users waiting - ") : "";
         return waiting;
     }
@@ -878,7 +875,7 @@ public class VettingViewerQueue {
 
     LruMap<CLDRLocale, BallotBox<UserRegistry.User>> ballotBoxes = new LruMap<CLDRLocale, BallotBox<User>>(8);
 
-    BallotBox<UserRegistry.User> getBox(SurveyMain sm, CLDRLocale loc) {
+    synchronized BallotBox<UserRegistry.User> getBox(SurveyMain sm, CLDRLocale loc) { // called by tasks in several threads
         BallotBox<User> box = ballotBoxes.get(loc);
         if (box == null) {
             box = sm.getSTFactory().ballotBoxForLocale(loc);
@@ -914,7 +911,10 @@ public class VettingViewerQueue {
 
     }
 
-    private static int totalUsersWaiting(SurveyThread st) {
-        return (st.tasksRemaining(Task.class));
+    /**
+     * The number of vetting tasks that will be started before this one, or 0 if it has been started.
+     */
+    private static int totalUsersWaiting(Task t) {
+        return (t.sm.startupThread.tasksAhead(t, Task.class));
     }
 }
@@ -0,0 +1,398 @@
+package org.unicode.cldr.web;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.unicode.cldr.util.CLDRConfig;
+import org.unicode.cldr.util.CLDRLocale;
+
+/**
+ * Writes votes to the VOTE_VALUE table. With write-behind (CLDR_VOTE_WRITE_BEHIND=true), votes are queued
+ * by STFactory.PerLocaleData.voteForValue after they are applied in memory, and written by a background
+ * thread, many to a transaction, so that voting doesn't wait on the database.
+ *
+ * The lag is bounded by the size of the queue (CLDR_VOTE_WRITE_BEHIND_MAX_PENDING): when it is full,
+ * voting waits for the writer. Before the votes of a locale are read from the database, flush() waits for
+ * the queued votes to be written, and shutdown() writes all of the queued votes.
+ *
+ * A batch that can't be written is tried again, and then given up on (see giveUp). If the writer thread
+ * stops for any other reason, the writer refuses further votes, so that they are written by the caller,
+ * and writes the rest of the queue in the dying thread.
+ */
+public class VoteWriter implements Runnable {
+    public static final boolean WRITE_BEHIND = CLDRConfig.getInstance().getProperty("CLDR_VOTE_WRITE_BEHIND", false);
+
+    private static final int MAX_PENDING = CLDRConfig.getInstance().getProperty("CLDR_VOTE_WRITE_BEHIND_MAX_PENDING", 10000);
+    private static final int MAX_BATCH = 500;
+    private static final int MAX_TRIES = 3;
+    private static final long RETRY_DELAY = TimeUnit.SECONDS.toMillis(5);
+
+    /**
+     * A vote, as written to the VOTE_VALUE table.
+     */
+    public static final class Vote {
+        final CLDRLocale locale;
+        final int xpathId;
+        final int submitter;
+        final String value;
+        final Integer voteOverride;
+        final long queued = System.currentTimeMillis();
+
+        public Vote(CLDRLocale locale, int xpathId, int submitter, String value, Integer voteOverride) {
+            this.locale = locale;
+            this.xpathId = xpathId;
+            this.submitter = submitter;
+            this.value = value;
+            this.voteOverride = voteOverride;
+        }
+
+        /**
+         * Votes with the same key replace each other's rows.
+         */
+        String getKey() {
+            return locale.getBaseName() + "/" + xpathId + "/" + submitter;
+        }
+
+        @Override
+        public String toString() {
+            return "{" + locale + " #" + xpathId + " by #" + submitter + ": " + value + (voteOverride == null ? "" : " @" + voteOverride) + "}";
+        }
+    }
+
+    private static final Vote STOP = new Vote(null, 0, 0, null, null);
+
+    private final LinkedBlockingQueue<Vote> queue = new LinkedBlockingQueue<Vote>(MAX_PENDING);
+    private final Thread thread = new Thread(this, "SurveyTool VoteWriter");
+    private final long retryDelay;
+    private volatile boolean running = true;
+
+    private final AtomicLong queued = new AtomicLong();
+    private long done = 0; // written; guarded by this
+    private long lost = 0; // given up on; guarded by this
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile long lastLag = 0;
+    private volatile long maxLag = 0;
+
+    public VoteWriter() {
+        this(RETRY_DELAY);
+    }
+
+    /**
+     * @param retryDelay
+     *            milliseconds to wait before trying a batch again
+     */
+    protected VoteWriter(long retryDelay) {
+        this.retryDelay = retryDelay;
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Queue a vote to be written.
+     *
+     * @return false if the writer has been shut down, and the vote must be written by the caller
+     */
+    public boolean queue(Vote vote) {
+        if (!running) {
+            return false;
+        }
+        queued.incrementAndGet();
+        try {
+            while (!queue.offer(vote, 1, TimeUnit.SECONDS)) {
+                if (!running) { // the writer stopped while the queue was full
+                    queued.decrementAndGet();
+                    return false;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InternalError("Interrupted while queueing vote " + vote);
+        }
+        if (!running && queue.remove(vote)) {
+            // the writer stopped, and had already written what was left of the queue
+            queued.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Wait for the votes queued so far to be written or given up on.
+     *
+     * @return false if any votes were given up on while waiting
+     */
+    public boolean flush() {
+        long target = queued.get();
+        synchronized (this) {
+            long lostBefore = lost;
+            try {
+                while (done + lost < target && thread.isAlive()) {
+                    wait(1000);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return lost == lostBefore;
+        }
+    }
+
+    /**
+     * Write the queued votes, and stop the writer. Votes queued after this are refused.
+     */
+    public void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        System.out.println("VoteWriter: shutting down, writing " + queue.size() + " votes");
+        try {
+            if (queue.offer(STOP, 1, TimeUnit.MINUTES)) {
+                thread.join(TimeUnit.MINUTES.toMillis(2));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (thread.isAlive()) {
+            SurveyLog.logException("VoteWriter: timed out writing votes, " + queue.size() + " not written");
+        } else {
+            // votes that were queued as the writer stopped
+            writeRest(new ArrayList<Vote>());
+        }
+        System.out.println("VoteWriter: shut down. " + this);
+    }
+
+    @Override
+    public void run() {
+        List<Vote> batch = new ArrayList<Vote>();
+        Set<String> keys = new HashSet<String>();
+        boolean stopped = false;
+        try {
+            for (Vote vote = queue.take(); vote != STOP; vote = queue.take()) {
+                batch.add(vote);
+                keys.add(vote.getKey());
+                // Take what else is queued, up to a second vote for the same row,
+                // since the statements are batched by kind rather than run in order.
+                Vote next;
+                while (batch.size() < MAX_BATCH && (next = queue.peek()) != null && next != STOP && keys.add(next.getKey())) {
+                    batch.add(queue.poll());
+                }
+                writeBatch(batch);
+                batch.clear();
+                keys.clear();
+            }
+            stopped = true;
+        } catch (Throwable t) {
+            SurveyLog.logException(t, "VoteWriter stopped, writing the " + (batch.size() + queue.size()) + " votes left one at a time");
+        } finally {
+            if (!stopped) {
+                running = false; // so that new votes are written by the caller
+                Thread.interrupted(); // so that writing the rest isn't interrupted too
+                writeRest(batch);
+            }
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Write the votes, and then the rest of the queue, one at a time, after the writer has stopped.
+     */
+    private void writeRest(List<Vote> votes) {
+        for (Vote vote; (vote = queue.poll()) != null;) {
+            if (vote != STOP) {
+                votes.add(vote);
+            }
+        }
+        try {
+            for (Vote vote : votes) {
+                writeBatch(Collections.singletonList(vote));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            SurveyLog.logException(e, "VoteWriter: interrupted while writing the votes left");
+        }
+    }
+
+    /**
+     * Write a batch, trying it again if it fails. Any failure counts, not just an SQLException,
+     * so that one bad batch doesn't stop the writer.
+     */
+    private void writeBatch(List<Vote> batch) throws InterruptedException {
+        boolean ok = false;
+        for (int tries = 1;; ++tries) {
+            try {
+                write(batch);
+                ok = true;
+                break;
+            } catch (Throwable t) {
+                failures.incrementAndGet();
+                SurveyLog.logException(t, "VoteWriter: could not write " + batch.size() + " votes, try " + tries + " of " + MAX_TRIES);
+                if (tries >= MAX_TRIES) {
+                    giveUp(batch, t);
+                    break;
+                }
+            }
+            Thread.sleep(retryDelay);
+        }
+        long lag = System.currentTimeMillis() - batch.get(0).queued;
+        lastLag = lag;
+        maxLag = Math.max(maxLag, lag);
+        batches.incrementAndGet();
+        synchronized (this) {
+            if (ok) {
+                done += batch.size();
+            } else {
+                lost += batch.size();
+            }
+            notifyAll();
+        }
+    }
+
+    /**
+     * Write a batch of votes, in a transaction of its own.
+     */
+    protected void write(List<Vote> batch) throws SQLException {
+        Connection conn = null;
+        try {
+            conn = DBUtils.getInstance().getDBConnection();
+            writeVotes(conn, batch);
+            conn.commit();
+        } finally {
+            DBUtils.close(conn);
+        }
+    }
+
+    /**
+     * Called when a batch couldn't be written after MAX_TRIES. The votes are in memory, but not in the database.
+     */
+    protected void giveUp(List<Vote> batch, Throwable t) {
+        SurveyLog.logException(t, "VoteWriter: giving up on votes " + batch);
+        SurveyMain.busted("Could not write votes", t);
+    }
+
+    /**
+     * Write votes, without committing. Each vote first saves the value it replaces to VOTE_VALUE_ALT.
+     * The statements are batched by kind, so no two of the votes may have the same key.
+     */
+    static void writeVotes(Connection conn, List<Vote> votes) throws SQLException {
+        PreparedStatement saveOld = null; // save off old value
+        PreparedStatement ps = null; // all for mysql, or 1st step for derby
+        PreparedStatement ps2 = null; // 2nd step for derby
+        try {
+            String add0 = "", add1 = "", add2 = "";
+
+            // #1 - save the "VOTE_VALUE_ALT"  ( possible proposal) value.
+            if (DBUtils.db_Mysql) {
+                add0 = "IGNORE";
+                // add1="ON DUPLICATE KEY IGNORE";
+            } else {
+                add2 = "and not exists (select * from " + DBUtils.Table.VOTE_VALUE_ALT + " where " + DBUtils.Table.VOTE_VALUE_ALT + ".locale="
+                    + DBUtils.Table.VOTE_VALUE
+                    + ".locale and " + DBUtils.Table.VOTE_VALUE_ALT + ".xpath=" + DBUtils.Table.VOTE_VALUE + ".xpath " + " and "
+                    + DBUtils.Table.VOTE_VALUE_ALT
+                    + ".value=" + DBUtils.Table.VOTE_VALUE + ".value )";
+            }
+            String sql = "insert " + add0 + " into " + DBUtils.Table.VOTE_VALUE_ALT + "   " + add1 + " select " + DBUtils.Table.VOTE_VALUE + ".locale,"
+                + DBUtils.Table.VOTE_VALUE + ".xpath," + DBUtils.Table.VOTE_VALUE + ".value "
+                + " from " + DBUtils.Table.VOTE_VALUE + " where locale=? and xpath=? and submitter=? and value is not null " + add2;
+            saveOld = DBUtils.prepareForwardReadOnly(conn, sql);
+
+            // #2 - save the actual vote.
+            if (DBUtils.db_Mysql) { // use 'on duplicate key' syntax
+                ps = DBUtils.prepareForwardReadOnly(conn, "INSERT INTO " + DBUtils.Table.VOTE_VALUE
+                    + " (locale,xpath,submitter,value,last_mod," + STFactory.VOTE_OVERRIDE + ") values (?,?,?,?,CURRENT_TIMESTAMP,?) "
+                    + "ON DUPLICATE KEY UPDATE locale=?,xpath=?,submitter=?,value=?,last_mod=CURRENT_TIMESTAMP," + STFactory.VOTE_OVERRIDE + "=?");
+            } else { // derby
+                ps2 = DBUtils.prepareForwardReadOnly(conn, "DELETE FROM " + DBUtils.Table.VOTE_VALUE
+                    + " where locale=? and xpath=? and submitter=? ");
+                ps = DBUtils.prepareForwardReadOnly(conn, "INSERT INTO " + DBUtils.Table.VOTE_VALUE
+                    + " (locale,xpath,submitter,value,last_mod," + STFactory.VOTE_OVERRIDE + ") VALUES (?,?,?,?,CURRENT_TIMESTAMP,?) ");
+            }
+
+            for (Vote vote : votes) {
+                saveOld.setString(1, vote.locale.getBaseName());
+                saveOld.setInt(2, vote.xpathId);
+                saveOld.setInt(3, vote.submitter);
+                saveOld.addBatch();
+
+                int colNum = 1;
+                ps.setString(colNum++, vote.locale.getBaseName());
+                ps.setInt(colNum++, vote.xpathId);
+                ps.setInt(colNum++, vote.submitter);
+                DBUtils.setStringUTF8(ps, colNum++, vote.value);
+                DBUtils.setInteger(ps, colNum++, vote.voteOverride);
+                if (DBUtils.db_Mysql) {
+                    ps.setString(colNum++, vote.locale.getBaseName());
+                    ps.setInt(colNum++, vote.xpathId);
+                    ps.setInt(colNum++, vote.submitter);
+                    DBUtils.setStringUTF8(ps, colNum++, vote.value);
+                    DBUtils.setInteger(ps, colNum++, vote.voteOverride);
+                } else {
+                    colNum = 1;
+                    ps2.setString(colNum++, vote.locale.getBaseName());
+                    ps2.setInt(colNum++, vote.xpathId);
+                    ps2.setInt(colNum++, vote.submitter);
+                    // NB:  no "VOTE_OVERRIDE" column on delete.
+                    ps2.addBatch();
+                }
+                ps.addBatch();
+            }
+            saveOld.executeBatch();
+            if (ps2 != null) {
+                ps2.executeBatch();
+            }
+            ps.executeBatch();
+        } finally {
+            DBUtils.close(saveOld, ps, ps2);
+        }
+    }
+
+    /**
+     * For statistics
+     */
+    @Override
+    public synchronized String toString() {
+        long batchCount = batches.get();
+        return "VoteWriter{" + (running ? "" : "stopped, ")
+            + "pending:" + queue.size()
+            + ", written:" + done
+            + ", batches:" + batchCount
+            + ", avgBatch:" + (batchCount == 0 ? 0 : (done + lost) / batchCount)
+            + ", lastLag:" + lastLag + "ms"
+            + ", maxLag:" + maxLag + "ms"
+            + ", failures:" + failures.get()
+            + ", lost:" + lost + "}";
+    }
+
+    /**
+     * The number of votes written.
+     */
+    public synchronized long getWritten() {
+        return done;
+    }
+
+    /**
+     * The number of votes given up on.
+     */
+    public synchronized long getLost() {
+        return lost;
+    }
+
+    /**
+     * Is the writer taking votes? False after shutdown, or if the writer thread stopped.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+}
@@ -0,0 +1,322 @@
+package org.unicode.cldr.unittest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import org.unicode.cldr.tool.Option;
+import org.unicode.cldr.tool.Option.Options;
+import org.unicode.cldr.util.CLDRConfig;
+import org.unicode.cldr.util.CLDRFile;
+import org.unicode.cldr.util.DtdData;
+import org.unicode.cldr.util.DtdType;
+import org.unicode.cldr.util.Factory;
+import org.unicode.cldr.util.LanguageTagParser;
+import org.unicode.cldr.util.LocaleIDParser;
+import org.unicode.cldr.util.PathHeader;
+import org.unicode.cldr.util.SupplementalDataInfo;
+import org.unicode.cldr.util.XMLSource;
+import org.unicode.cldr.util.XPathParts;
+
+import com.ibm.icu.dev.util.CollectionUtilities;
+
+/**
+ * Microbenchmarks for the hot paths in the core classes, so that performance changes can be judged
+ * by comparable numbers. There is no JMH in the build, so this does the essentials itself: warmup
+ * iterations, then timed iterations, reporting the mean, standard deviation and minimum time per
+ * operation. Each iteration calls the operation once for every input (such as every path in the
+ * locale), always in the same order, and folds the results into a checksum so that the JIT can't
+ * discard the work.
+ * <p>
+ * Run with "ant benchmark" in cldr-unittest, which forks a fresh JVM, passing options with
+ * -Dbenchmark.arg="..."; for example -Dbenchmark.arg="-f PathHeader -i 20". Only compare numbers
+ * from the same machine, JVM options and arguments. The benchmarks aren't part of the unit tests,
+ * which share one JVM and would skew the numbers; "-w 0 -i 1" is a quick check that they still run.
+ */
+public class Benchmarks {
+
+    enum MyOptions {
+        filter(".*", ".*", "regex for the names of the benchmarks to run"),
+        locale(".*", "de", "locale for the benchmarks that use locale data"),
+        warmup("\\d+", "5", "number of warmup iterations"),
+        iterations("\\d+", "10", "number of timed iterations"),
+        ;
+
+        // BOILERPLATE TO COPY
+        final Option option;
+
+        private MyOptions(String argumentPattern, String defaultArgument, String helpText) {
+            option = new Option(this, argumentPattern, defaultArgument, helpText);
+        }
+
+        static Options myOptions = new Options();
+        static {
+            for (MyOptions option : MyOptions.values()) {
+                myOptions.add(option, option.option);
+            }
+        }
+
+        private static Set<String> parse(String[] args) {
+            return myOptions.parse(MyOptions.values()[0], args, true);
+        }
+    }
+
+    /**
+     * Accumulates the checksums, so that the results of the operations are used.
+     */
+    private static volatile int sink;
+
+    public static void main(String[] args) {
+        MyOptions.parse(args);
+        String filter = MyOptions.filter.option.getValue();
+        String locale = MyOptions.locale.option.getValue();
+        int warmup = Integer.parseInt(MyOptions.warmup.option.getValue());
+        int iterations = Integer.parseInt(MyOptions.iterations.option.getValue());
+
+        Runtime runtime = Runtime.getRuntime();
+        System.out.println("# " + System.getProperty("java.vm.name") + " " + System.getProperty("java.version")
+            + ", " + runtime.availableProcessors() + " processors, -Xmx" + (runtime.maxMemory() >> 20) + "m");
+        System.out.println("# locale=" + locale + ", warmup=" + warmup + ", iterations=" + iterations);
+        System.out.println(String.format("%-44s%8s%12s%12s%12s", "Benchmark", "Inputs", "ns/op", "± stddev", "min ns/op"));
+        for (Result result : run(filter, locale, warmup, iterations)) {
+            System.out.println(result);
+        }
+    }
+
+    /**
+     * Run the benchmarks whose names match the filter.
+     *
+     * @param filter
+     *            a regex, matched with find()
+     * @param locale
+     *            the locale for the benchmarks that use locale data
+     * @param warmup
+     *            the number of untimed iterations
+     * @param iterations
+     *            the number of timed iterations, at least 1
+     */
+    public static List<Result> run(String filter, String locale, int warmup, int iterations) {
+        Pattern filterPattern = Pattern.compile(filter);
+        List<Result> results = new ArrayList<Result>();
+        for (Benchmark<?> benchmark : getBenchmarks(locale)) {
+            if (!filterPattern.matcher(benchmark.name).find()) {
+                continue;
+            }
+            for (int i = 0; i < warmup; ++i) {
+                time(benchmark);
+            }
+            double[] nanosPerOp = new double[iterations];
+            for (int i = 0; i < iterations; ++i) {
+                nanosPerOp[i] = time(benchmark) / (double) benchmark.inputs.size();
+            }
+            results.add(new Result(benchmark.name, benchmark.inputs.size(), nanosPerOp));
+        }
+        return results;
+    }
+
+    /**
+     * Time one iteration, in nanoseconds.
+     */
+    private static <T> long time(Benchmark<T> benchmark) {
+        benchmark.setUp();
+        int checksum = 0;
+        long start = System.nanoTime();
+        for (T input : benchmark.inputs) {
+            checksum += benchmark.run(input);
+        }
+        long result = System.nanoTime() - start;
+        sink += checksum;
+        return result;
+    }
+
+    /**
+     * A benchmark. One iteration calls run once for each input.
+     */
+    abstract static class Benchmark<T> {
+        final String name;
+        final List<T> inputs;
+
+        Benchmark(String name, Collection<T> inputs) {
+            this.name = name;
+            this.inputs = new ArrayList<T>(inputs);
+        }
+
+        /**
+         * Called before each iteration, outside the timing; for benchmarks of the uncached case.
+         */
+        void setUp() {
+        }
+
+        /**
+         * Do the operation on one input.
+         *
+         * @return any value that depends on the result
+         */
+        abstract int run(T input);
+    }
+
+    public static class Result {
+        public final String name;
+        public final int inputs;
+        public final double mean;
+        public final double stddev;
+        public final double min;
+
+        Result(String name, int inputs, double[] nanosPerOp) {
+            this.name = name;
+            this.inputs = inputs;
+            double sum = 0;
+            double min = Double.MAX_VALUE;
+            for (double value : nanosPerOp) {
+                sum += value;
+                min = Math.min(min, value);
+            }
+            double mean = sum / nanosPerOp.length;
+            double squares = 0;
+            for (double value : nanosPerOp) {
+                squares += (value - mean) * (value - mean);
+            }
+            this.mean = mean;
+            this.stddev = nanosPerOp.length < 2 ? 0 : Math.sqrt(squares / (nanosPerOp.length - 1));
+            this.min = min;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-44s%8d%12.1f%12.1f%12.1f", name, inputs, mean, stddev, min);
+        }
+    }
+
+    private static List<Benchmark<?>> getBenchmarks(final String locale) {
+        final CLDRConfig config = CLDRConfig.getInstance();
+        final Factory factory = config.getCldrFactory();
+        final SupplementalDataInfo sdi = config.getSupplementalDataInfo();
+        final CLDRFile resolved = factory.make(locale, true);
+
+        Set<String> sortedPaths = new TreeSet<String>(CLDRFile.getComparator(DtdType.ldml));
+        CollectionUtilities.addAll(resolved.iterator(), sortedPaths);
+        List<String> fullPaths = new ArrayList<String>();
+        for (String path : sortedPaths) {
+            fullPaths.add(resolved.getFullXPath(path));
+        }
+        Set<String> localeIds = new TreeSet<String>(factory.getAvailable());
+
+        // the unresolved chain, for making fresh resolving sources
+        final List<XMLSource> sources = new ArrayList<XMLSource>();
+        for (String id = locale; id != null; id = LocaleIDParser.getParent(id)) {
+            sources.add(factory.makeSource(id));
+        }
+
+        List<Benchmark<?>> result = new ArrayList<Benchmark<?>>();
+        result.add(new Benchmark<String>("XPathParts.getInstance", sortedPaths) {
+            @Override
+            int run(String path) {
+                return XPathParts.getInstance(path).size();
+            }
+        });
+        result.add(new Benchmark<String>("XPathParts.getFrozenInstance", sortedPaths) {
+            @Override
+            int run(String path) {
+                return XPathParts.getFrozenInstance(path).size();
+            }
+        });
+        result.add(new Benchmark<String>("CLDRFile.getDistinguishingXPath", fullPaths) {
+            @Override
+            int run(String fullPath) {
+                return CLDRFile.getDistinguishingXPath(fullPath, null).length();
+            }
+        });
+        result.add(new Benchmark<String>("CLDRFile.getStringValue (resolved)", sortedPaths) {
+            @Override
+            int run(String path) {
+                String value = resolved.getStringValue(path);
+                return value == null ? 0 : value.length();
+            }
+        });
+        result.add(new Benchmark<String>("ResolvingSource.getCachedFullStatus (cold)", sortedPaths) {
+            CLDRFile fresh;
+            final CLDRFile.Status status = new CLDRFile.Status();
+
+            @Override
+            void setUp() {
+                fresh = new CLDRFile(Factory.makeResolvingSource(sources));
+            }
+
+            @Override
+            int run(String path) {
+                return fresh.getSourceLocaleID(path, status).length();
+            }
+        });
+        result.add(new Benchmark<String>("ResolvingSource.getCachedFullStatus (warm)", sortedPaths) {
+            final CLDRFile.Status status = new CLDRFile.Status();
+
+            @Override
+            int run(String path) {
+                return resolved.getSourceLocaleID(path, status).length();
+            }
+        });
+        final DtdData dtdData = DtdData.getInstance(DtdType.ldml);
+        final List<String> shuffledPaths = new ArrayList<String>(sortedPaths);
+        Collections.shuffle(shuffledPaths, new Random(0));
+        result.add(new Benchmark<List<String>>("DtdComparator sort (per locale)", Collections.singleton(shuffledPaths)) {
+            @Override
+            int run(List<String> paths) {
+                Set<String> sorted = new TreeSet<String>(dtdData.getDtdComparator(null));
+                sorted.addAll(paths);
+                return sorted.size();
+            }
+        });
+        result.add(new Benchmark<List<String>>("DtdData.sortPaths (per locale)", Collections.singleton(shuffledPaths)) {
+            @Override
+            int run(List<String> paths) {
+                return dtdData.sortPaths(paths.iterator()).size();
+            }
+        });
+        final PathHeader.Factory pathHeaderFactory = PathHeader.getFactory(config.getEnglish());
+        result.add(new Benchmark<String>("PathHeader.Factory.fromPath (cold)", sortedPaths) {
+            @Override
+            void setUp() {
+                pathHeaderFactory.clearCache();
+            }
+
+            @Override
+            int run(String path) {
+                return pathHeaderFactory.fromPath(path) == null ? 0 : 1;
+            }
+        });
+        result.add(new Benchmark<String>("PathHeader.Factory.fromPath (warm)", sortedPaths) {
+            @Override
+            int run(String path) {
+                return pathHeaderFactory.fromPath(path) == null ? 0 : 1;
+            }
+        });
+        result.add(new Benchmark<String>("SupplementalDataInfo.getCoverageLevel", sortedPaths) {
+            @Override
+            int run(String path) {
+                return sdi.getCoverageLevel(path, locale).ordinal();
+            }
+        });
+        result.add(new Benchmark<String>("LocaleIDParser.set", localeIds) {
+            final LocaleIDParser parser = new LocaleIDParser();
+
+            @Override
+            int run(String localeId) {
+                return parser.set(localeId).getLanguage().length();
+            }
+        });
+        result.add(new Benchmark<String>("LanguageTagParser.set", localeIds) {
+            final LanguageTagParser parser = new LanguageTagParser();
+
+            @Override
+            int run(String localeId) {
+                return parser.set(localeId).getLanguage().length();
+            }
+        });
+        return result;
+    }
+}
@@ -4,7 +4,10 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.Arrays;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -15,6 +18,7 @@ import org.unicode.cldr.util.CLDRFile;
 import org.unicode.cldr.util.CLDRFile.Status;
 import org.unicode.cldr.util.CLDRPaths;
 import org.unicode.cldr.util.DtdType;
+import org.unicode.cldr.util.SimpleXMLSource;
 import org.unicode.cldr.util.XMLSource;
 
 import com.ibm.icu.dev.test.TestFmwk;
@@ -168,6 +172,51 @@ public class TestAliases extends TestFmwk {
         }
     }
 
+    /**
+     * Test that a change to a value clears the cached resolution of the paths that depend on it,
+     * through an alias or through count="other".
+     */
+    public void TestValueChangedInvalidation() {
+        XMLSource rootSource = config.getCldrFactory().makeSource("root");
+        XMLSource deSource = new SimpleXMLSource("de") {
+            @Override
+            public void putValueAtDPath(String distinguishingXPath, String value) {
+                super.putValueAtDPath(distinguishingXPath, value);
+                notifyListeners(distinguishingXPath);
+            }
+        };
+        CLDRFile resolved = new CLDRFile(deSource, rootSource);
+        Status status = new Status();
+
+        // resolve everything, so that it is all cached
+        Map<String, String> aliasedToTarget = new TreeMap<String, String>();
+        for (String path : resolved) {
+            if (!path.contains("[@count=")
+                && "root".equals(resolved.getSourceLocaleID(path, status))
+                && !path.equals(status.pathWhereFound)) {
+                aliasedToTarget.put(path, status.pathWhereFound);
+            }
+        }
+        assertNotEquals("aliased paths", 0, aliasedToTarget.size());
+        int i = 0;
+        for (Entry<String, String> entry : aliasedToTarget.entrySet()) {
+            if (i++ % 100 != 0) {
+                continue;
+            }
+            String aliased = entry.getKey();
+            deSource.putValueAtDPath(entry.getValue(), "changed");
+            assertEquals("locale after change " + aliased, "de", resolved.getSourceLocaleID(aliased, status));
+            assertEquals("value after change " + aliased, "changed", resolved.getStringValue(aliased));
+        }
+
+        String one = "//ldml/characterLabels/characterLabelPattern[@type=\"strokes\"][@count=\"one\"]";
+        String other = "//ldml/characterLabels/characterLabelPattern[@type=\"strokes\"][@count=\"other\"]";
+        assertEquals("locale before change " + one, "root", resolved.getSourceLocaleID(one, status));
+        deSource.putValueAtDPath(other, "{0} Striche");
+        assertEquals("locale after change " + one, "de", resolved.getSourceLocaleID(one, status));
+        assertEquals("value after change " + one, "{0} Striche", resolved.getStringValue(one));
+    }
+
     /** Test that <alias> elements only are in root.html
      * For speed in testing, just checks for the presence of "<alias" to avoid doing XML parse.
      */
@@ -211,6 +211,7 @@ public class TestAll extends TestGroup {
             "org.unicode.cldr.unittest.TestMetadata",
             "org.unicode.cldr.unittest.TestOutdatedPaths",
             "org.unicode.cldr.unittest.TestPathHeader",
+            "org.unicode.cldr.unittest.TestPathInterner",
             "org.unicode.cldr.unittest.TestPaths",
             "org.unicode.cldr.unittest.TestPseudolocalization",
             "org.unicode.cldr.unittest.TestScriptMetadata",
@@ -224,6 +225,9 @@ public class TestAll extends TestGroup {
             "org.unicode.cldr.unittest.TestValidity",
             "org.unicode.cldr.unittest.TestDtdData",
             "org.unicode.cldr.unittest.TestCldrFactory",
+            "org.unicode.cldr.unittest.TestCldrSnapshot",
+            "org.unicode.cldr.unittest.TestConversionManifest",
+            "org.unicode.cldr.unittest.TestPathValueIndex",
             "org.unicode.cldr.unittest.TestUnContainment",
             //            "org.unicode.cldr.unittest.TestCollators" See Ticket #8288
             "org.unicode.cldr.api.AllTests",
@@ -11,6 +11,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Predicate;
 
 import org.unicode.cldr.util.CLDRConfig;
@@ -184,6 +186,25 @@ public class TestCldrFactory extends TestFmwkPlus {
         assertEquals("enAnnotations == enDoubleWithAnnotations", null, differentPathValue(enAnnotations, enDoubleWithAnnotations));
     }
 
+    public void testPreload() {
+        Factory factory = SimpleFactory.make(CLDRPaths.MAIN_DIRECTORY, ".*");
+        List<String> locales = Arrays.asList("de_CH", "de_AT", "fr_CA", "en_150", "sr_Latn_BA");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            factory.preload(locales, true, executor);
+        } finally {
+            executor.shutdown();
+        }
+        Factory serialFactory = SimpleFactory.make(CLDRPaths.MAIN_DIRECTORY, ".*");
+        String path = "//ldml/localeDisplayNames/languages/language[@type=\"de\"]";
+        for (String locale : locales) {
+            CLDRFile resolved = factory.make(locale, true);
+            assertTrue(locale + " is resolved", resolved.isResolved());
+            assertTrue(locale + " is cached", resolved == factory.make(locale, true));
+            assertEquals(locale + " matches serial load", serialFactory.make(locale, true).getStringValue(path), resolved.getStringValue(path));
+        }
+    }
+
     private CLDRFile cldrFileFromString(String string) {
         byte[] b = string.getBytes(StandardCharsets.UTF_8);
         InputStream fis = new ByteArrayInputStream(b);
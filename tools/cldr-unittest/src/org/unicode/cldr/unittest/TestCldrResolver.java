@@ -4,6 +4,10 @@
  */
 package org.unicode.cldr.unittest;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -54,6 +58,26 @@ public class TestCldrResolver extends TestFmwkPlus {
         }.testResolution();
     }
 
+    public void TestParallelResolution() throws IOException {
+        String locales = "fr.*";
+        File sequentialDir = Files.createTempDirectory("resolver").toFile();
+        File parallelDir = Files.createTempDirectory("resolver").toFile();
+        Factory factory = testInfo.getCldrFactory();
+        new CldrResolver(factory, ResolutionType.SIMPLE).resolve(locales, sequentialDir, 1);
+        new CldrResolver(factory, ResolutionType.SIMPLE).resolve(locales, parallelDir, 4);
+        for (String locale : new CldrResolver(factory, ResolutionType.SIMPLE).getLocaleNames(locales)) {
+            File sequential = new File(sequentialDir, locale + ".xml");
+            File parallel = new File(parallelDir, locale + ".xml");
+            assertTrue(locale + " resolved in parallel", parallel.exists());
+            assertTrue("Parallel resolution of " + locale + " should match sequential",
+                Arrays.equals(Files.readAllBytes(sequential.toPath()), Files.readAllBytes(parallel.toPath())));
+            sequential.delete();
+            parallel.delete();
+        }
+        sequentialDir.delete();
+        parallelDir.delete();
+    }
+
     /**
      * Main method that runs all CLDR Resolver tests
      *
@@ -0,0 +1,43 @@
+package org.unicode.cldr.unittest;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.unicode.cldr.util.CLDRConfig;
+import org.unicode.cldr.util.CLDRFile;
+import org.unicode.cldr.util.CldrSnapshot;
+import org.unicode.cldr.util.Factory;
+
+import com.ibm.icu.dev.test.TestFmwk;
+
+public class TestCldrSnapshot extends TestFmwk {
+    public static void main(String[] args) {
+        new TestCldrSnapshot().run(args);
+    }
+
+    public void TestRoundTrip() throws IOException {
+        Factory factory = CLDRConfig.getInstance().getCldrFactory();
+        List<String> locales = Arrays.asList("de_CH", "en_GB", "sr_Latn");
+        File file = File.createTempFile("cldr", ".snapshot");
+        file.deleteOnExit();
+        CldrSnapshot.write(factory, locales, file);
+
+        Factory snapshotFactory = CldrSnapshot.open(file).makeFactory();
+        assertTrue("parents included", snapshotFactory.getAvailable().contains("root"));
+        assertTrue("parents included", snapshotFactory.getAvailable().contains("en_001"));
+        for (String locale : locales) {
+            for (boolean resolved : Arrays.asList(false, true)) {
+                CLDRFile expected = factory.make(locale, resolved);
+                CLDRFile actual = snapshotFactory.make(locale, resolved);
+                for (String path : expected) {
+                    if (!assertEquals(locale + " " + path, expected.getStringValue(path), actual.getStringValue(path))
+                        || !assertEquals(locale + " " + path, expected.getFullXPath(path), actual.getFullXPath(path))) {
+                        break;
+                    }
+                }
+            }
+        }
+    }
+}
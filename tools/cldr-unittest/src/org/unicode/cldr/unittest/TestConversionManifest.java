@@ -0,0 +1,75 @@
+package org.unicode.cldr.unittest;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.unicode.cldr.util.CLDRConfig;
+import org.unicode.cldr.util.ConversionManifest;
+import org.unicode.cldr.util.Factory;
+
+import com.ibm.icu.dev.test.TestFmwk;
+
+public class TestConversionManifest extends TestFmwk {
+    public static void main(String[] args) {
+        new TestConversionManifest().run(args);
+    }
+
+    public void TestUpToDate() throws IOException {
+        File dir = Files.createTempDirectory("manifest").toFile();
+        File manifestFile = new File(dir, "manifest");
+        File input = write(new File(dir, "de.xml"), "<ldml/>");
+        File shared = write(new File(dir, "supplementalData.xml"), "<supplementalData/>");
+        File output = write(new File(dir, "out/de.txt"), "de{}");
+        List<File> inputs = Collections.singletonList(input);
+        List<File> sharedInputs = Collections.singletonList(shared);
+
+        ConversionManifest manifest = new ConversionManifest(manifestFile, "config", sharedInputs);
+        String digest = manifest.getDigest(inputs);
+        assertFalse("not yet recorded", manifest.isUpToDate("de", digest));
+        manifest.put("de", digest, Arrays.asList(output));
+        manifest.save();
+
+        manifest = new ConversionManifest(manifestFile, "config", sharedInputs);
+        assertEquals("same digest", digest, manifest.getDigest(inputs));
+        assertTrue("reloaded", manifest.isUpToDate("de", digest));
+        assertEquals("relative outputs", Arrays.asList("out" + File.separator + "de.txt"), manifest.getOutputs("de"));
+
+        assertFalse("changed config",
+            new ConversionManifest(manifestFile, "other config", sharedInputs).getDigest(inputs).equals(digest));
+        write(shared, "<supplementalData></supplementalData>");
+        assertFalse("changed shared input", manifest.isUpToDate("de", manifest.getDigest(inputs)));
+        write(input, "<ldml></ldml>");
+        assertFalse("changed input", manifest.getDigest(inputs).equals(digest));
+
+        output.delete();
+        assertFalse("deleted output", manifest.isUpToDate("de", digest));
+    }
+
+    public void TestLocaleFiles() {
+        Factory factory = CLDRConfig.getInstance().getCldrFactory();
+        List<String> names = getNames(ConversionManifest.getLocaleFiles(factory, "de_CH"));
+        assertEquals("parent chain", Arrays.asList("de_CH.xml", "de.xml", "root.xml"), names);
+        names = getNames(ConversionManifest.getLocaleFiles(factory, "en_GB"));
+        assertTrue("explicit parent " + names, names.contains("en_001.xml"));
+    }
+
+    private static List<String> getNames(List<File> files) {
+        String[] result = new String[files.size()];
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = files.get(i).getName();
+        }
+        return Arrays.asList(result);
+    }
+
+    private static File write(File file, String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        file.deleteOnExit();
+        return file;
+    }
+}
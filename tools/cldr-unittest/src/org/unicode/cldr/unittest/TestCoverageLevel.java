@@ -1,5 +1,6 @@
 package org.unicode.cldr.unittest;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.EnumSet;
@@ -11,6 +12,10 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 
 import org.unicode.cldr.test.CoverageLevel2;
@@ -29,6 +34,7 @@ import org.unicode.cldr.util.Level;
 import org.unicode.cldr.util.LogicalGrouping;
 import org.unicode.cldr.util.PathHeader;
 import org.unicode.cldr.util.PathHeader.Factory;
+import org.unicode.cldr.util.PathInterner;
 import org.unicode.cldr.util.PathStarrer;
 import org.unicode.cldr.util.PatternCache;
 import org.unicode.cldr.util.RegexLookup;
@@ -40,6 +46,7 @@ import org.unicode.cldr.util.SupplementalDataInfo.OfficialStatus;
 import org.unicode.cldr.util.SupplementalDataInfo.PopulationData;
 import org.unicode.cldr.util.XPathParts;
 
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.TreeMultimap;
@@ -63,6 +70,62 @@ public class TestCoverageLevel extends TestFmwkPlus {
         new TestCoverageLevel().run(args);
     }
 
+    public void TestCoverageCacheThreads() throws Exception {
+        final List<String> paths = new ArrayList<String>();
+        for (String path : ENGLISH) {
+            paths.add(path);
+        }
+        final String[] locales = { "de", "fr", "ja", "sr_Latn", "zu" };
+        final Map<String, Map<String, Level>> expected = new HashMap<String, Map<String, Level>>();
+        for (String locale : locales) {
+            CoverageLevel2 coverageLevel = CoverageLevel2.getInstance(SDI, locale);
+            Map<String, Level> levels = new HashMap<String, Level>();
+            for (String path : paths) {
+                levels.put(path, coverageLevel.getLevel(path));
+            }
+            expected.put(locale, levels);
+        }
+        CacheStats before = SDI.getCoverageCacheStatistics();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+            for (int i = 0; i < 8; ++i) {
+                final String locale = locales[i % locales.length];
+                tasks.add(new Callable<Integer>() {
+                    @Override
+                    public Integer call() {
+                        int failures = 0;
+                        Map<String, Level> levels = expected.get(locale);
+                        for (String path : paths) {
+                            if (levels.get(path) != SDI.getCoverageLevel(path, locale)) {
+                                ++failures;
+                            }
+                        }
+                        return failures;
+                    }
+                });
+            }
+            int failures = 0;
+            for (Future<Integer> result : executor.invokeAll(tasks)) {
+                failures += result.get();
+            }
+            assertEquals("coverage level mismatches", 0, failures);
+        } finally {
+            executor.shutdown();
+        }
+        CacheStats stats = SDI.getCoverageCacheStatistics().minus(before);
+        assertEquals("lookups", 8L * paths.size(), stats.requestCount());
+        assertTrue("some lookups hit the cache: " + stats, stats.hitCount() > 0);
+        logln("Coverage cache: " + stats);
+    }
+
+    public void TestCoverageCacheDoesNotIntern() {
+        String path = "//ldml/localeDisplayNames/languages/language[@type=\"xx\"][@alt=\"TestCoverageCacheDoesNotIntern\"]";
+        Level level = SDI.getCoverageLevel(path, "de");
+        assertEquals("same level uncached", CoverageLevel2.getInstance(SDI, "de").getLevel(path), level);
+        assertEquals("path not interned", -1, PathInterner.getExistingId(path));
+    }
+
     public void testSpecificPaths() {
         String[][] rows = {
             { "//ldml/characters/parseLenients[@scope=\"number\"][@level=\"lenient\"]/parseLenient[@sample=\",\"]", "moderate", "20" }
@@ -6,15 +6,18 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Random;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeSet;
 
 import org.unicode.cldr.util.CLDRConfig;
+import org.unicode.cldr.util.CLDRFile;
 import org.unicode.cldr.util.CLDRPaths;
 import org.unicode.cldr.util.DtdData;
 import org.unicode.cldr.util.DtdData.Attribute;
@@ -315,6 +318,38 @@ public class TestDtdData extends TestFmwk {
         }
     }
 
+    public void TestSortKeys() {
+        DtdData dtdData = DtdData.getInstance(DtdType.ldml);
+        Comparator<String> comparator = dtdData.getDtdComparator(null);
+        CLDRFile english = testInfo.getEnglish();
+        List<String> paths = new ArrayList<String>();
+        for (String path : english) {
+            paths.add(path);
+            paths.add(english.getFullXPath(path));
+        }
+        // paths that don't fit the DTD fall back to the comparator
+        paths.add("//ldml/localeDisplayNames/_fake/language[@type=\"en\"]");
+        paths.add("//ldml/localeDisplayNames/_fake/language[@type=\"fr\"]");
+        paths.add("//ldml/localeDisplayNames/languages/language[@type=\"en\"][@_q=\"2\"]");
+        paths.add("//ldml/localeDisplayNames/languages/language[@type=\"en\"][@_q=\"10\"]");
+        Collections.shuffle(paths, new Random(0));
+
+        Set<String> expected = new TreeSet<String>(comparator);
+        expected.addAll(paths);
+        assertEquals("sortPaths", new ArrayList<String>(expected), dtdData.sortPaths(paths.iterator()));
+
+        int failures = 0;
+        for (int i = 1; i < paths.size(); ++i) {
+            String a = paths.get(i - 1);
+            String b = paths.get(i);
+            if (Integer.signum(comparator.compare(a, b)) != Integer.signum(dtdData.getSortKey(a).compareTo(dtdData.getSortKey(b)))) {
+                if (++failures < 10) {
+                    errln("SortKey order differs from comparator: " + a + ", " + b);
+                }
+            }
+        }
+    }
+
 //    public void TestNonLeafValues() {
 //        for (DtdType type : DtdType.values()) {
 //            if (type == DtdType.ldmlICU) {
@@ -1,9 +1,16 @@
 package org.unicode.cldr.unittest;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.unicode.cldr.test.ExampleGenerator;
 import org.unicode.cldr.test.ExampleGenerator.ExampleContext;
@@ -16,6 +23,7 @@ import org.unicode.cldr.util.PathStarrer;
 import org.unicode.cldr.util.SupplementalDataInfo.PluralInfo.Count;
 import org.unicode.cldr.util.With;
 
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableSet;
 import com.ibm.icu.dev.test.TestFmwk;
 import com.ibm.icu.dev.util.CollectionUtilities;
@@ -277,6 +285,58 @@ public class TestExampleGenerator extends TestFmwk {
         }
     }
 
+    /**
+     * A single ExampleGenerator shared by several threads gives the same examples as one used by a single thread.
+     */
+    public void TestExampleGeneratorThreads() throws Exception {
+        final CLDRFile cldrFile = info.getCLDRFile("de", true);
+        final List<String> paths = new ArrayList<String>();
+        final List<String> values = new ArrayList<String>();
+        for (String path : cldrFile) {
+            String value = cldrFile.getStringValue(path);
+            if (value != null && !path.endsWith("/alias")) {
+                paths.add(path);
+                values.add(value);
+            }
+        }
+        ExampleGenerator single = new ExampleGenerator(cldrFile, info.getEnglish(), CLDRPaths.DEFAULT_SUPPLEMENTAL_DIRECTORY);
+        final List<String> expected = new ArrayList<String>();
+        for (int i = 0; i < paths.size(); ++i) {
+            expected.add(single.getExampleHtml(paths.get(i), values.get(i)));
+        }
+
+        final ExampleGenerator shared = new ExampleGenerator(cldrFile, info.getEnglish(), CLDRPaths.DEFAULT_SUPPLEMENTAL_DIRECTORY);
+        CacheStats before = ExampleGenerator.getCacheStatistics();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+            for (int i = 0; i < 8; ++i) {
+                tasks.add(new Callable<Integer>() {
+                    @Override
+                    public Integer call() {
+                        int failures = 0;
+                        for (int i = 0; i < paths.size(); ++i) {
+                            if (!Objects.equals(expected.get(i), shared.getExampleHtml(paths.get(i), values.get(i)))) {
+                                ++failures;
+                            }
+                        }
+                        return failures;
+                    }
+                });
+            }
+            int failures = 0;
+            for (Future<Integer> result : executor.invokeAll(tasks)) {
+                failures += result.get();
+            }
+            assertEquals("example mismatches", 0, failures);
+        } finally {
+            executor.shutdown();
+        }
+        CacheStats stats = ExampleGenerator.getCacheStatistics().minus(before);
+        assertTrue("some lookups hit the cache: " + stats, stats.hitCount() > 0);
+        logln("Example cache: " + stats);
+    }
+
     public void TestUnits() {
         ExampleGenerator exampleGenerator = getExampleGenerator("en");
         checkValue("Duration hm", "〖5:37〗", exampleGenerator,
@@ -1,9 +1,16 @@
 package org.unicode.cldr.unittest;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeMap;
 
 import org.unicode.cldr.icu.NewLdml2IcuConverter;
 import org.unicode.cldr.util.CLDRConfig;
@@ -133,6 +140,54 @@ public class TestLdml2ICU extends TestFmwk {
 //        checkSupplementalRegexes("postalCodeData");
 //    }
 
+    /**
+     * Converting locales in parallel must write the same files, byte for byte, as converting them one at a time.
+     */
+    public void TestParallelConversion() throws IOException {
+        final String locales = "root|de|de_CH|fr|fr_CA|ja|sr_Latn";
+        Map<String, byte[]> serial = convertLocales(locales, 1);
+        Map<String, byte[]> parallel = convertLocales(locales, 4);
+        assertEquals("files written", serial.keySet(), parallel.keySet());
+        for (Entry<String, byte[]> entry : serial.entrySet()) {
+            byte[] other = parallel.get(entry.getKey());
+            if (other != null && !Arrays.equals(entry.getValue(), other)) {
+                errln("-j 1 and -j 4 differ in " + entry.getKey());
+            }
+        }
+        assertTrue("files written", serial.size() > 0);
+    }
+
+    /**
+     * Converts the locales into a new directory, and returns the contents of the files written, by relative path.
+     */
+    private Map<String, byte[]> convertLocales(String locales, int jobs) throws IOException {
+        File root = Files.createTempDirectory("ldml2icu").toFile();
+        root.deleteOnExit();
+        File destination = new File(root, "locales");
+        destination.mkdir();
+        new NewLdml2IcuConverter().processArgs(new String[] {
+            "-s", CLDRPaths.MAIN_DIRECTORY,
+            "-m", CLDRPaths.SUPPLEMENTAL_DIRECTORY,
+            "-d", destination.getPath(),
+            "-t", "locales",
+            "-j", String.valueOf(jobs),
+            locales });
+        Map<String, byte[]> result = new TreeMap<String, byte[]>();
+        readFiles(root, "", result);
+        return result;
+    }
+
+    private static void readFiles(File dir, String prefix, Map<String, byte[]> result) throws IOException {
+        for (File file : dir.listFiles()) {
+            file.deleteOnExit();
+            if (file.isDirectory()) {
+                readFiles(file, prefix + file.getName() + "/", result);
+            } else {
+                result.put(prefix + file.getName(), Files.readAllBytes(file.toPath()));
+            }
+        }
+    }
+
     /**
      * Loads the regex files used to convert XPaths to ICU paths.
      */
@@ -0,0 +1,88 @@
+package org.unicode.cldr.unittest;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.unicode.cldr.util.CLDRConfig;
+import org.unicode.cldr.util.CLDRFile;
+import org.unicode.cldr.util.PathIdMap;
+import org.unicode.cldr.util.PathInterner;
+
+import com.ibm.icu.dev.test.TestFmwk;
+
+public class TestPathInterner extends TestFmwk {
+    public static void main(String[] args) {
+        new TestPathInterner().run(args);
+    }
+
+    public void TestIds() {
+        String path = "//ldml/localeDisplayNames/languages/language[@type=\"xx_test\"]";
+        int id = PathInterner.getId(path);
+        assertTrue("id in range", id >= 0 && id < PathInterner.size());
+        assertEquals("same id", id, PathInterner.getId(new String(path)));
+        assertEquals("existing id", id, PathInterner.getExistingId(path));
+        assertEquals("round trip", path, PathInterner.getPath(id));
+        assertTrue("canonical instance", PathInterner.intern(new String(path)) == PathInterner.intern(path));
+        assertEquals("missing id", -1, PathInterner.getExistingId(path + "[@alt=\"never\"]"));
+    }
+
+    public void TestSharedAcrossFiles() {
+        CLDRFile de = CLDRConfig.getInstance().getCldrFactory().make("de", false);
+        CLDRFile fr = CLDRConfig.getInstance().getCldrFactory().make("fr", false);
+        String path = "//ldml/localeDisplayNames/languages/language[@type=\"en\"]";
+        String dePath = null;
+        for (String p : de) {
+            if (p.equals(path)) {
+                dePath = p;
+            }
+        }
+        String frPath = null;
+        for (String p : fr) {
+            if (p.equals(path)) {
+                frPath = p;
+            }
+        }
+        assertTrue("shared path instance", dePath != null && dePath == frPath);
+    }
+
+    public void TestPathIdMap() {
+        PathIdMap<String> map = new PathIdMap<String>();
+        Map<String, String> expected = new HashMap<String, String>();
+        for (int i = 0; i < 1000; ++i) {
+            String path = "//ldml/localeDisplayNames/languages/language[@type=\"xx_map" + i + "\"]";
+            assertEquals("new " + path, null, map.put(path, "v" + i));
+            expected.put(path, "v" + i);
+        }
+        for (int i = 0; i < 1000; i += 3) {
+            String path = "//ldml/localeDisplayNames/languages/language[@type=\"xx_map" + i + "\"]";
+            assertEquals("removed " + path, "v" + i, map.remove(path));
+            expected.remove(path);
+        }
+        String replaced = "//ldml/localeDisplayNames/languages/language[@type=\"xx_map1\"]";
+        assertEquals("replaced", "v1", map.put(replaced, "new"));
+        expected.put(replaced, "new");
+        String readded = "//ldml/localeDisplayNames/languages/language[@type=\"xx_map0\"]";
+        assertEquals("added again", null, map.put(readded, "again"));
+        expected.put(readded, "again");
+
+        assertEquals("size", expected.size(), map.size());
+        for (Entry<String, String> entry : expected.entrySet()) {
+            assertEquals("get " + entry.getKey(), entry.getValue(), map.get(new String(entry.getKey())));
+        }
+        assertEquals("never added", null, map.get("//ldml/localeDisplayNames/languages/language[@type=\"xx_none\"]"));
+        Set<String> keys = new HashSet<String>();
+        for (Iterator<String> it = map.keyIterator(); it.hasNext();) {
+            keys.add(it.next());
+        }
+        assertEquals("keys", expected.keySet(), keys);
+
+        PathIdMap<String> copy = new PathIdMap<String>(map);
+        copy.remove(replaced);
+        assertEquals("copy is separate", "new", map.get(replaced));
+        assertEquals("copy size", expected.size() - 1, copy.size());
+    }
+}
@@ -0,0 +1,152 @@
+package org.unicode.cldr.unittest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.unicode.cldr.util.CLDRConfig;
+import org.unicode.cldr.util.CLDRFile;
+import org.unicode.cldr.util.PathValueIndex;
+import org.unicode.cldr.util.SimpleXMLSource;
+
+import com.ibm.icu.dev.test.TestFmwk;
+
+public class TestPathValueIndex extends TestFmwk {
+    private static final String GERMAN = "//ldml/localeDisplayNames/languages/language[@type=\"de\"]";
+    private static final String FRENCH = "//ldml/localeDisplayNames/languages/language[@type=\"fr\"]";
+    private static final String SHORT = "//ldml/localeDisplayNames/territories/territory[@type=\"DE\"]";
+
+    public static void main(String[] args) {
+        new TestPathValueIndex().run(args);
+    }
+
+    /**
+     * Compare the index with a scan of the values of a resolved locale.
+     */
+    public void TestMatchesScan() {
+        CLDRFile file = CLDRConfig.getInstance().getCldrFactory().make("de", true);
+        PathValueIndex index = new PathValueIndex(file);
+        for (String query : Arrays.asList("Deutsch", "sch", "ei", "a", "Januar", "{0}", "nomatchatall")) {
+            String normalized = SimpleXMLSource.normalize(query);
+            Set<String> containing = new HashSet<String>();
+            Set<String> startingWith = new HashSet<String>();
+            if (!normalized.isEmpty()) {
+                for (String path : file) {
+                    String value = file.getStringValue(path);
+                    if (value == null) {
+                        continue;
+                    }
+                    value = SimpleXMLSource.normalize(value);
+                    if (value.contains(normalized)) {
+                        containing.add(path);
+                    }
+                    if (value.startsWith(normalized)) {
+                        startingWith.add(path);
+                    }
+                }
+            }
+            assertEquals("containing " + query, containing, index.getPathsContaining(query, null));
+            assertEquals("starting with " + query, startingWith, index.getPathsStartingWith(query, null));
+        }
+    }
+
+    /**
+     * Check that changes to a source that the index listens to are indexed.
+     */
+    public void TestValueChanged() {
+        SimpleXMLSource source = new SimpleXMLSource("de") {
+            @Override
+            public void putValueAtDPath(String distinguishingXPath, String value) {
+                super.putValueAtDPath(distinguishingXPath, value);
+                notifyListeners(distinguishingXPath);
+            }
+
+            @Override
+            public void removeValueAtDPath(String distinguishingXPath) {
+                super.removeValueAtDPath(distinguishingXPath);
+                notifyListeners(distinguishingXPath);
+            }
+        };
+        CLDRFile file = new CLDRFile(source);
+        file.add(GERMAN, "Deutsch");
+        file.add(SHORT, "DE");
+        PathValueIndex index = new PathValueIndex(file).listenTo(source);
+        assertEquals("size", 2, index.size());
+        assertEquals("substring", Collections.singleton(GERMAN), index.getPathsContaining("eutsc", null));
+        assertEquals("case and punctuation are ignored", Collections.singleton(GERMAN), index.getPathsContaining("DEUT-SCH", null));
+        assertEquals("short value", new HashSet<String>(Arrays.asList(GERMAN, SHORT)), index.getPathsStartingWith("de", null));
+        assertEquals("not a prefix", Collections.emptySet(), index.getPathsStartingWith("sch", null));
+
+        file.add(FRENCH, "Französisch");
+        file.add(GERMAN, "Hochdeutsch");
+        assertEquals("added", Collections.singleton(FRENCH), index.getPathsContaining("zösi", null));
+        assertEquals("changed", Collections.singleton(GERMAN), index.getPathsStartingWith("hoch", null));
+        assertEquals("old value is gone", Collections.singleton(SHORT), index.getPathsStartingWith("de", null));
+        assertEquals("shared gram", new HashSet<String>(Arrays.asList(GERMAN, FRENCH)), index.getPathsContaining("sch", null));
+
+        file.remove(FRENCH);
+        assertEquals("removed", Collections.emptySet(), index.getPathsContaining("zösi", null));
+        assertEquals("size after changes", 2, index.size());
+    }
+
+    /**
+     * Check that a limited search keeps no more than the limit, with paths that all match.
+     */
+    public void TestLimit() {
+        CLDRFile file = CLDRConfig.getInstance().getCldrFactory().make("de", true);
+        PathValueIndex index = new PathValueIndex(file);
+        for (String query : Arrays.asList("e", "sch")) {
+            Set<String> all = index.getPathsContaining(query, null);
+            assertTrue("many matches for " + query, all.size() > 10);
+            Set<String> limited = PathValueIndex.getPathsContaining(query, 10, index);
+            assertEquals("limited " + query, 10, limited.size());
+            assertTrue("limited matches " + query, all.containsAll(limited));
+            assertEquals("unlimited " + query, all, PathValueIndex.getPathsContaining(query, all.size() + 1, index));
+        }
+    }
+
+    /**
+     * Check that exact and prefix matches are kept ahead of substring matches, and that
+     * one index with many matches doesn't crowd out the matches of another.
+     */
+    public void TestRanking() {
+        CLDRFile hints = new CLDRFile(new SimpleXMLSource("en"));
+        List<String> hintPaths = new ArrayList<String>();
+        for (String code : Arrays.asList("aa", "ab", "af", "ak", "am", "an", "ar", "as", "av", "ay",
+            "az", "ba", "be", "bg", "bi", "bm", "bn", "bo", "br", "bs")) {
+            String path = "//ldml/localeDisplayNames/languages/language[@type=\"" + code + "\"]";
+            hints.add(path, "Hochdeutsch " + code);
+            hintPaths.add(path);
+        }
+        CLDRFile locale = new CLDRFile(new SimpleXMLSource("de"));
+        locale.add(GERMAN, "Deutsch");
+        locale.add(FRENCH, "Schweizerdeutsch");
+        locale.add(SHORT, "Deutschland");
+        PathValueIndex hintsIndex = new PathValueIndex(hints);
+        PathValueIndex localeIndex = new PathValueIndex(locale);
+
+        Map<PathValueIndex.Match, List<String>> ranked = localeIndex.getRankedPathsContaining("deutsch", 10);
+        assertEquals("exact", Collections.singletonList(GERMAN), ranked.get(PathValueIndex.Match.EXACT));
+        assertEquals("prefix", Collections.singletonList(SHORT), ranked.get(PathValueIndex.Match.PREFIX));
+        assertEquals("substring", Collections.singletonList(FRENCH), ranked.get(PathValueIndex.Match.SUBSTRING));
+
+        Set<String> found = PathValueIndex.getPathsContaining("deutsch", 10, hintsIndex, localeIndex);
+        assertEquals("limited", 10, found.size());
+        Iterator<String> it = found.iterator();
+        assertEquals("exact match first", GERMAN, it.next());
+        assertEquals("prefix match next", SHORT, it.next());
+        assertTrue("substring match of the locale kept", found.contains(FRENCH));
+        Set<String> fromHints = new HashSet<String>(found);
+        fromHints.removeAll(Arrays.asList(GERMAN, SHORT, FRENCH));
+        assertEquals("the rest from the hints", 7, fromHints.size());
+        assertTrue("the rest from the hints", hintPaths.containsAll(fromHints));
+
+        found = PathValueIndex.getPathsContaining("deutsch", 1, hintsIndex, localeIndex);
+        assertEquals("exact match kept at the smallest limit", Collections.singleton(GERMAN), found);
+    }
+}
@@ -1,17 +1,27 @@
 package org.unicode.cldr.unittest;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.unicode.cldr.util.CLDRConfig;
 import org.unicode.cldr.util.CLDRFile;
 import org.unicode.cldr.util.DtdData;
 import org.unicode.cldr.util.DtdData.AttributeValueComparator;
 import org.unicode.cldr.util.DtdType;
+import org.unicode.cldr.util.PathHeader;
 import org.unicode.cldr.util.Timer;
 import org.unicode.cldr.util.XPathParts;
 
@@ -196,6 +206,67 @@ public class TestPerf extends TestFmwkPlus {
         return timer.getSeconds() / iterations;
     }
 
+    /**
+     * Throughput of PathHeader.Factory.fromPath over all the English paths, at 1, 4 and 16 threads.
+     * Each run starts with an empty cache (cold), then is repeated with the cache filled (warm).
+     */
+    public void TestPathHeaderThreads() throws Exception {
+        final PathHeader.Factory phf = PathHeader.getFactory(CLDRConfig.getInstance().getEnglish());
+        Map<String, String> expected = new HashMap<String, String>();
+        for (String path : sortedArray) {
+            PathHeader pathHeader = phf.fromPath(path);
+            expected.put(path, pathHeader == null ? null : pathHeader.toString());
+        }
+        for (int threads : new int[] { 1, 4, 16 }) {
+            phf.clearCache();
+            double cold = timePathHeaders(phf, threads, expected);
+            double warm = timePathHeaders(phf, threads, expected);
+            logln("PathHeader.fromPath, " + threads + " thread(s):\t"
+                + Math.round(sortedArray.length / cold) + " paths/sec cold,\t"
+                + Math.round(sortedArray.length / warm) + " paths/sec warm");
+        }
+    }
+
+    /**
+     * Get the PathHeaders for all of sortedArray, with the paths divided among the threads.
+     * Returns the elapsed seconds.
+     */
+    private double timePathHeaders(final PathHeader.Factory phf, final int threads,
+        final Map<String, String> expected) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>();
+            for (int i = 0; i < threads; ++i) {
+                final int start = i;
+                tasks.add(new Callable<Integer>() {
+                    @Override
+                    public Integer call() {
+                        int failures = 0;
+                        for (int j = start; j < sortedArray.length; j += threads) {
+                            String path = sortedArray[j];
+                            PathHeader pathHeader = phf.fromPath(path);
+                            String actual = pathHeader == null ? null : pathHeader.toString();
+                            if (!Objects.equals(expected.get(path), actual)) {
+                                failures++;
+                            }
+                        }
+                        return failures;
+                    }
+                });
+            }
+            Timer timer = new Timer();
+            int failures = 0;
+            for (Future<Integer> result : executor.invokeAll(tasks)) {
+                failures += result.get();
+            }
+            timer.stop();
+            assertEquals("PathHeader mismatches with " + threads + " thread(s)", 0, failures);
+            return timer.getSeconds();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     public void TestUnused() {
 
     }
@@ -37,6 +37,8 @@ import org.unicode.cldr.util.PathHeader;
 import org.unicode.cldr.util.PathHeader.PageId;
 import org.unicode.cldr.util.PatternCache;
 import org.unicode.cldr.util.PluralSamples;
+import org.unicode.cldr.util.RegexLookup;
+import org.unicode.cldr.util.RegexLookup.LookupType;
 import org.unicode.cldr.util.SpecialLocales;
 import org.unicode.cldr.util.StringId;
 import org.unicode.cldr.util.SupplementalDataInfo;
@@ -57,6 +59,7 @@ import com.ibm.icu.lang.UCharacter;
 import com.ibm.icu.lang.UProperty;
 import com.ibm.icu.text.Collator;
 import com.ibm.icu.text.UnicodeSet;
+import com.ibm.icu.util.Output;
 import com.ibm.icu.util.ULocale;
 
 public class TestUtilities extends TestFmwkPlus {
@@ -141,6 +144,45 @@ public class TestUtilities extends TestFmwkPlus {
         }
     }
 
+    public void TestRegexLookupPrefixTrie() {
+        String[] patterns = {
+            "//ldml/dates/calendars/calendar[@type=\"([^\"]*+)\"]/months",
+            "//ldml/dates/(.*)",
+            "//ldml/numbers/symbols[@numberSystem=\"latn\"]/decimal",
+            "//ldml/numbers/(symbols|currencyFormats)",
+            "//ldml/units?/(.*)",
+            "^//ldml/(characters|delimiters)|^//supplementalData",
+            "/alias$",
+            "//ldml/(.*)",
+        };
+        RegexLookup<Integer> standard = RegexLookup.of(LookupType.STANDARD, RegexLookup.RegexFinderTransformPath);
+        RegexLookup<Integer> trie = RegexLookup.of(LookupType.PREFIX_TRIE_LOOKUP, RegexLookup.RegexFinderTransformPath);
+        for (int i = 0; i < patterns.length; ++i) {
+            standard.add(patterns[i], i);
+            trie.add(patterns[i], i);
+        }
+        String[] sources = {
+            "//ldml/dates/calendars/calendar[@type=\"gregorian\"]/months",
+            "//ldml/dates/fields/field[@type=\"era\"]/displayName",
+            "//ldml/numbers/symbols[@numberSystem=\"latn\"]/decimal",
+            "//ldml/numbers/symbols[@numberSystem=\"arab\"]/decimal",
+            "//ldml/unit/foo",
+            "//ldml/units/unitLength[@type=\"long\"]",
+            "//ldml/characters/exemplarCharacters",
+            "//supplementalData/version",
+            "//ldmlBCP47/keyword/alias",
+            "//ldml/localeDisplayNames/languages/language[@type=\"en\"]",
+            "//other",
+        };
+        for (String source : sources) {
+            Output<String[]> standardArgs = new Output<String[]>();
+            Output<String[]> trieArgs = new Output<String[]>();
+            assertEquals(source, standard.get(source, null, standardArgs), trie.get(source, null, trieArgs));
+            assertEquals(source + " args", Arrays.toString(standardArgs.value), Arrays.toString(trieArgs.value));
+            assertEquals(source + " all", standard.getAll(source, null, null, null), trie.getAll(source, null, null, null));
+        }
+    }
+
     public void TestUrlEscape() {
         Matcher byte1 = PatternCache.get("%[A-Za-z0-9]{2}").matcher("");
         Matcher byte2 = PatternCache.get("%[A-Za-z0-9]{2}%[A-Za-z0-9]{2}")
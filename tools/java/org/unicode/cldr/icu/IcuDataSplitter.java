@@ -169,6 +169,14 @@ public class IcuDataSplitter {
         return targetDirs.keySet();
     }
 
+    /**
+     * Adds a file that was written to a directory by an earlier run, so that
+     * it is included in the makefile for the directory.
+     */
+    public void addDirSource(String dir, String name) {
+        add(splitSources, dir, name);
+    }
+
     public Set<String> getDirSources(String dir) {
         return Collections.unmodifiableSet(splitSources.get(dir));
     }
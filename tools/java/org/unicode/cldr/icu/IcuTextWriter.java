@@ -1,8 +1,12 @@
 package org.unicode.cldr.icu;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
@@ -85,6 +89,8 @@ public class IcuTextWriter {
     /**
      * Write a file in ICU format. LDML2ICUConverter currently has some
      * funny formatting in a few cases; don't try to match everything.
+     * The data is written to a temporary file that then replaces the
+     * target, so a failed or interrupted run never leaves a partial file.
      *
      * @param icuData
      *            the icu data structure to be written
@@ -95,7 +101,9 @@ public class IcuTextWriter {
      */
     public static void writeToFile(IcuData icuData, String dirPath) throws IOException {
         String name = icuData.getName();
-        PrintWriter out = FileUtilities.openUTF8Writer(dirPath, name + ".txt");
+        File target = new File(dirPath, name + ".txt");
+        File temp = new File(dirPath, name + ".txt.tmp");
+        PrintWriter out = FileUtilities.openUTF8Writer(dirPath, temp.getName());
         out.write('\uFEFF');
         // Append the header.
         String header = getHeader().replace("%source%", icuData.getSourceFile());
@@ -157,6 +165,15 @@ public class IcuTextWriter {
         }
         out.println("}");
         out.close();
+        if (out.checkError()) {
+            temp.delete();
+            throw new IOException("Error writing " + target);
+        }
+        try {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
     }
 
     /**
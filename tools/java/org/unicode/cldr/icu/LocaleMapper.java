@@ -185,7 +185,7 @@ public class LocaleMapper extends Mapper {
      * @return the set of deprecated territories to be ignored. Remove when no longer
      *         present in CLDR data.
      */
-    private Set<String> getDeprecatedTerritories() {
+    private synchronized Set<String> getDeprecatedTerritories() {
         if (deprecatedTerritories == null) {
             deprecatedTerritories = Builder.with(
                 supplementalDataInfo.getLocaleAliasInfo().get("territory").keySet())
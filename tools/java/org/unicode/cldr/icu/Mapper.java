@@ -1,9 +1,18 @@
 package org.unicode.cldr.icu;
 
+import java.util.ArrayDeque;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.ibm.icu.util.ICUException;
 
 /**
  * Superclass for mappers that convert CLDR data to ICU text files.
@@ -28,7 +37,38 @@ public abstract class Mapper {
         return iterator;
     }
 
-    private class IcuDataIterator implements Iterator<IcuData> {
+    /**
+     * Returns the same IcuData objects as {@link #iterator(Filter)}, in the same order,
+     * but converts up to the specified number of locales at a time on worker threads,
+     * ahead of the caller. The IcuData objects are still returned on the calling thread,
+     * so only fillFromCldr needs to be thread-safe.
+     *
+     * The iterator must be closed, so that the worker threads are stopped if the
+     * caller doesn't iterate to the end.
+     *
+     * @param jobs
+     *            the number of worker threads; 1 or less converts on the calling thread
+     */
+    public CloseableIterator<IcuData> iterator(final Filter filter, int jobs) {
+        if (jobs <= 1) {
+            IcuDataIterator iterator = new IcuDataIterator(filter);
+            iterator.init();
+            return iterator;
+        }
+        ParallelIcuDataIterator iterator = new ParallelIcuDataIterator(filter, jobs);
+        iterator.init();
+        return iterator;
+    }
+
+    /**
+     * An iterator that holds resources until it is closed.
+     */
+    public interface CloseableIterator<T> extends Iterator<T>, AutoCloseable {
+        @Override
+        public void close();
+    }
+
+    private class IcuDataIterator implements CloseableIterator<IcuData> {
         private Filter filter;
         private Iterator<String> localeIterator = getAvailable().iterator();
         private IcuData[] curArray;
@@ -85,6 +125,107 @@ public abstract class Mapper {
         public void remove() {
             throw new UnsupportedOperationException();
         }
+
+        @Override
+        public void close() {
+            // Nothing to release.
+        }
+    }
+
+    private class ParallelIcuDataIterator implements CloseableIterator<IcuData> {
+        private Filter filter;
+        private Iterator<String> localeIterator = getAvailable().iterator();
+        private ExecutorService executor;
+        // Conversions in progress, in locale order.
+        private Deque<Future<IcuData[]>> pending = new ArrayDeque<Future<IcuData[]>>();
+        private int maxPending;
+        private IcuData[] curArray;
+        private int curIndex = -1;
+
+        private ParallelIcuDataIterator(Filter filter, int jobs) {
+            this.filter = filter;
+            executor = Executors.newFixedThreadPool(jobs);
+            // Keep the workers busy while the caller writes, without holding
+            // the data for too many locales in memory.
+            maxPending = jobs * 2;
+        }
+
+        private void init() {
+            curArray = new IcuData[0];
+            submitLocales();
+            loadNextPos();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return curIndex < curArray.length;
+        }
+
+        @Override
+        public IcuData next() {
+            IcuData icuData = curArray[curIndex];
+            sources.add(icuData.getName());
+            loadNextPos();
+            return icuData;
+        }
+
+        /**
+         * Starts converting the next locales that match the filter.
+         */
+        private void submitLocales() {
+            while (pending.size() < maxPending && localeIterator.hasNext()) {
+                final String locale = localeIterator.next();
+                if (!filter.includes(locale)) continue;
+                pending.add(executor.submit(new Callable<IcuData[]>() {
+                    @Override
+                    public IcuData[] call() {
+                        return fillFromCldr(locale);
+                    }
+                }));
+            }
+        }
+
+        /**
+         * Prepares the next item in the iterator, waiting for its locale to be converted if necessary.
+         */
+        private void loadNextPos() {
+            curIndex++;
+            while (true) {
+                for (; curIndex < curArray.length; curIndex++) {
+                    if (filter.includes(curArray[curIndex].getName())) return;
+                }
+                if (pending.isEmpty()) {
+                    // No more items left in the iterator.
+                    executor.shutdown();
+                    return;
+                }
+                try {
+                    curArray = pending.remove().get();
+                } catch (InterruptedException | ExecutionException e) {
+                    close();
+                    throw new ICUException(e);
+                }
+                curIndex = 0;
+                submitLocales();
+            }
+        }
+
+        /**
+         * Stops the conversions that are still pending, if the caller stops early.
+         */
+        @Override
+        public void close() {
+            for (Future<IcuData[]> future : pending) {
+                future.cancel(true);
+            }
+            pending.clear();
+            executor.shutdownNow();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
     }
 
     /**
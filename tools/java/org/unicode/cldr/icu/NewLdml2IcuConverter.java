@@ -7,18 +7,20 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.regex.Pattern;
 
 import org.unicode.cldr.ant.CLDRConverterTool;
 import org.unicode.cldr.icu.ResourceSplitter.SplitInfo;
 import org.unicode.cldr.tool.Option;
 import org.unicode.cldr.tool.Option.Options;
+import org.unicode.cldr.util.CLDRFile;
 import org.unicode.cldr.util.CLDRFile.DraftStatus;
+import org.unicode.cldr.util.ConversionManifest;
 import org.unicode.cldr.util.Factory;
 import org.unicode.cldr.util.FileReaders;
 import org.unicode.cldr.util.PatternCache;
@@ -75,9 +77,14 @@ public class NewLdml2IcuConverter extends CLDRConverterTool {
                 .add("makefile", 'g', ".*", null, "If set, generates makefiles and alias files for the specified type. " +
                     "The value to set should be the name of the makefile.")
                 .add("depgraphfile", 'e', ".*", null, "If set, generates a dependency graph file in JSON form summarizing parent and alias mappings between locale files. Only works when --type=locales.")
-                .add("verbose", 'v', null, null, "Debugging aids");
+                .add("verbose", 'v', null, null, "Debugging aids")
+                .add("jobs", 'j', "\\d+", "1", "The number of locales to convert in parallel. Only used when --type=locales.")
+                .add("incremental", 'i', null, null, "Only convert the locales whose source files, or those of their parent locales, " +
+                    "have changed since the last incremental run. Only used when --type=locales.");
 
     private static final String LOCALES_DIR = "locales";
+    // Records the inputs and outputs of each locale for incremental runs.
+    private static final String MANIFEST_FILENAME = ".ldml2icu_manifest";
 
     private boolean keepTogether = false;
     private Map<String, String> dirMapping;
@@ -89,6 +96,13 @@ public class NewLdml2IcuConverter extends CLDRConverterTool {
     private Filter filter;
     private boolean verbose = false;
 
+    // Only set for incremental runs.
+    private ConversionManifest manifest;
+    private Factory localeFactory;
+    private Factory localeSpecialFactory;
+    private Map<String, String> localeDigests = new HashMap<String, String>();
+    private Set<String> unchangedLocales = new TreeSet<String>();
+
     /**
      * Maps ICU paths to the directories they should end up in.
      */
@@ -243,6 +257,9 @@ public class NewLdml2IcuConverter extends CLDRConverterTool {
                 supplementalDataInfo, options.get("filter").doesOccur(), organization);
             localeMapper.setDebugXPath(debugXPath);
             mapper = localeMapper;
+            if (options.get("incremental").doesOccur()) {
+                loadManifest(factory, specialFactory);
+            }
             break;
         case keyTypeData:
             processBcp47Data();
@@ -261,12 +278,121 @@ public class NewLdml2IcuConverter extends CLDRConverterTool {
         }
 
         if (mapper != null) {
-            convert(mapper);
+            int jobs = type == Type.locales ? Integer.parseInt(options.get("jobs").getValue()) : 1;
+            convert(mapper, jobs);
             option = options.get("makefile");
             generateSynthetics(mapper, option.getValue());
         }
     }
 
+    /**
+     * Loads the manifest of the locales converted by earlier incremental runs,
+     * and changes the filter to skip the locales that haven't changed since.
+     */
+    private void loadManifest(Factory factory, Factory specialFactory) {
+        StringBuilder config = new StringBuilder()
+            .append("version=").append(CLDRFile.GEN_VERSION)
+            .append(";keeptogether=").append(keepTogether)
+            .append(";filter=").append(options.get("filter").doesOccur())
+            .append(";organization=").append(options.get("organization").getValue())
+            .append('\n');
+        if (splitter != null) {
+            for (SplitInfo splitInfo : splitInfos) {
+                config.append(splitInfo.srcNodePath).append(" > ").append(splitInfo.targetDirPath).append('\n');
+            }
+        }
+        config.append(readResource("ldml2icu_locale.txt"));
+        // The locale data also depends on the supplemental data, such as the parent locales.
+        List<File> sharedInputs = new ArrayList<File>();
+        File[] supplementalFiles = new File(supplementalDir).listFiles();
+        if (supplementalFiles != null) {
+            Arrays.sort(supplementalFiles);
+            for (File file : supplementalFiles) {
+                if (file.getName().endsWith(".xml")) {
+                    sharedInputs.add(file);
+                }
+            }
+        }
+        try {
+            manifest = new ConversionManifest(new File(destinationDir, MANIFEST_FILENAME), config.toString(), sharedInputs);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read the manifest in " + destinationDir, e);
+        }
+        localeFactory = factory;
+        localeSpecialFactory = specialFactory;
+        final Filter changedFilter = filter;
+        filter = new Filter() {
+            @Override
+            public boolean includes(String value) {
+                if (!changedFilter.includes(value)) {
+                    return false;
+                }
+                if (manifest.isUpToDate(value, getLocaleDigest(value))) {
+                    unchangedLocales.add(value);
+                    return false;
+                }
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @return the digest of the source files of the locale and its parents
+     */
+    private String getLocaleDigest(String locale) {
+        String digest = localeDigests.get(locale);
+        if (digest == null) {
+            List<File> inputs = ConversionManifest.getLocaleFiles(localeFactory, locale);
+            if (localeSpecialFactory != null) {
+                inputs.addAll(ConversionManifest.getLocaleFiles(localeSpecialFactory, locale));
+            }
+            try {
+                digest = manifest.getDigest(inputs);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Unable to read the source files of " + locale, e);
+            }
+            localeDigests.put(locale, digest);
+        }
+        return digest;
+    }
+
+    /**
+     * Adds the files written for unchanged locales by earlier runs to the
+     * generated sources, so that they are still in the makefiles, and saves the manifest.
+     */
+    private void finishManifest(Mapper mapper) {
+        String fallbackDir = new File(destinationDir).getName();
+        for (String locale : unchangedLocales) {
+            mapper.getGenerated().add(locale);
+            if (splitter == null) continue;
+            for (String output : manifest.getOutputs(locale)) {
+                File file = new File(output);
+                String dir = file.getParent() == null ? fallbackDir : new File(file.getParent()).getName();
+                splitter.addDirSource(dir, file.getName().replaceFirst("\\.txt$", ""));
+            }
+        }
+        System.out.println("Skipped " + unchangedLocales.size() + " unchanged locales");
+        try {
+            manifest.save();
+        } catch (IOException e) {
+            System.err.println("Unable to write the manifest in " + destinationDir);
+            e.printStackTrace();
+        }
+    }
+
+    private static String readResource(String filename) {
+        StringBuilder result = new StringBuilder();
+        try (BufferedReader reader = FileReaders.openFile(NewLdml2IcuConverter.class, filename)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                result.append(line).append('\n');
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to read " + filename, e);
+        }
+        return result.toString();
+    }
+
     private void processBcp47Data() {
         Bcp47Mapper mapper = new Bcp47Mapper(sourceDir);
         IcuData[] icuData = mapper.fillFromCldr();
@@ -313,42 +439,59 @@ public class NewLdml2IcuConverter extends CLDRConverterTool {
      *            the IcuData object to be written
      * @param outputDir
      *            the destination directory of the output file
+     * @return the files that were written, or null if there was an error
      */
-    private void writeIcuData(IcuData icuData, String outputDir) {
+    private List<File> writeIcuData(IcuData icuData, String outputDir) {
         if (icuData.keySet().size() == 0) {
             throw new RuntimeException(icuData.getName() + " was not written because no data was generated.");
         }
+        List<File> written = new ArrayList<File>();
         try {
             // Split data into different directories if necessary.
             // splitInfos is filled from the <remap> element in ICU's build.xml.
             if (splitter == null) {
                 IcuTextWriter.writeToFile(icuData, outputDir);
+                written.add(new File(outputDir, icuData.getName() + ".txt"));
             } else {
                 String fallbackDir = new File(outputDir).getName();
                 Map<String, IcuData> splitData = splitter.split(icuData, fallbackDir);
                 for (String dir : splitData.keySet()) {
                     IcuTextWriter.writeToFile(splitData.get(dir), outputDir + "/../" + dir);
+                    written.add(new File(outputDir + "/../" + dir, icuData.getName() + ".txt"));
                 }
             }
         } catch (IOException e) {
             System.err.println("Error while converting " + icuData.getSourceFile());
             e.printStackTrace();
+            return null;
         }
+        return written;
     }
 
     /**
-     * Converts CLDR XML files using the specified mapper.
+     * Converts CLDR XML files using the specified mapper. The files are always
+     * written in the same order, on this thread, whatever the number of jobs.
+     *
+     * @param jobs
+     *            the number of locales to convert in parallel
      */
-    private void convert(Mapper mapper) {
+    private void convert(Mapper mapper, int jobs) {
         IcuData icuData;
-        Iterator<IcuData> iterator = mapper.iterator(filter);
         final Type type = Type.valueOf(options.get("type").getValue());
-        while (iterator.hasNext()) {
-            long time = System.currentTimeMillis();
-            icuData = iterator.next();
-            writeIcuData(icuData, destinationDir);
-            System.out.println("Converted " + type + ": " + icuData.getName() + ".xml in " +
-                (System.currentTimeMillis() - time) + "ms");
+        try (Mapper.CloseableIterator<IcuData> iterator = mapper.iterator(filter, jobs)) {
+            while (iterator.hasNext()) {
+                long time = System.currentTimeMillis();
+                icuData = iterator.next();
+                List<File> written = writeIcuData(icuData, destinationDir);
+                if (manifest != null && written != null) {
+                    manifest.put(icuData.getName(), getLocaleDigest(icuData.getName()), written);
+                }
+                System.out.println("Converted " + type + ": " + icuData.getName() + ".xml in " +
+                    (System.currentTimeMillis() - time) + "ms");
+            }
+        }
+        if (manifest != null) {
+            finishManifest(mapper);
         }
     }
 
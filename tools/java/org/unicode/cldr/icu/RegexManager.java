@@ -47,9 +47,17 @@ class RegexManager {
     private static Map<String, Function> functionMap = new HashMap<String, Function>();
 
     private String converterFile;
-    private Map<String, RegexResult> unprocessedMatchers;
-    private Map<String, String> xpathVariables;
-    private VariableReplacer cldrVariables;
+
+    /**
+     * The converters are loaded once per thread: the RegexFinders in them lock
+     * their matchers, so sharing them would serialize locales converted in parallel.
+     */
+    private final ThreadLocal<Converters> converters = new ThreadLocal<Converters>() {
+        @Override
+        protected Converters initialValue() {
+            return loadConverters();
+        }
+    };
 
     /**
      * Wrapper class for functions that need to be performed on CLDR values as
@@ -405,8 +413,23 @@ class RegexManager {
         }
     }
 
-    RegexLookup<FallbackInfo> fallbackConverter;
-    RegexLookup<RegexResult> xpathConverter;
+    /**
+     * The data loaded from the converter file.
+     */
+    private class Converters {
+        final RegexLookup<RegexResult> xpathConverter = new RegexLookup<RegexResult>()
+            .setPatternTransform(regexTransform);
+        final RegexLookup<FallbackInfo> fallbackConverter = new RegexLookup<FallbackInfo>()
+            .setValueMerger(new Merger<FallbackInfo>() {
+                @Override
+                public FallbackInfo merge(FallbackInfo a, FallbackInfo into) {
+                    return into.merge(a);
+                }
+            });
+        // Matchers that contain variables to be replaced with values from the CLDRFile.
+        final Map<String, RegexResult> unprocessedMatchers = new HashMap<String, RegexResult>();
+        final Map<String, String> xpathVariables = new HashMap<String, String>();
+    }
 
     // One FallbackInfo object for every type of rbPath.
     class FallbackInfo implements Iterable<R3<Finder, String, List<String>>> {
@@ -480,7 +503,6 @@ class RegexManager {
      */
     RegexManager(String converterFile) {
         this.converterFile = converterFile;
-        unprocessedMatchers = new HashMap<String, RegexResult>();
     }
 
     /**
@@ -488,52 +510,44 @@ class RegexManager {
      *         values.
      */
     RegexLookup<FallbackInfo> getFallbackConverter() {
-        if (fallbackConverter == null) {
-            loadConverters();
-        }
-        return fallbackConverter;
+        return converters.get().fallbackConverter;
     }
 
     /**
      * @return a RegexLookup for matching xpaths
      */
     RegexLookup<RegexResult> getPathConverter() {
-        if (xpathConverter == null) {
-            loadConverters();
-        }
-        return xpathConverter;
+        return converters.get().xpathConverter;
     }
 
     RegexLookup<RegexResult> getPathConverter(CLDRFile cldrFile) {
-        RegexLookup<RegexResult> basePathConverter = getPathConverter();
-
+        Converters loaded = converters.get();
         RegexLookup<RegexResult> processedPathConverter = new RegexLookup<RegexResult>()
             .setPatternTransform(regexTransform);
-        cldrVariables = new VariableReplacer();
-        for (Entry<String, String> entry : xpathVariables.entrySet()) {
-            cldrVariables.add(entry.getKey(), cldrFile.getStringValue(entry.getValue()));
-        }
-        for (Map.Entry<Finder, RegexResult> entry : basePathConverter) {
+        VariableReplacer cldrVariables = getCldrVariables(loaded, cldrFile);
+        for (Map.Entry<Finder, RegexResult> entry : loaded.xpathConverter) {
             processedPathConverter.add(entry.getKey(), entry.getValue());
         }
-        for (Entry<String, RegexResult> entry : unprocessedMatchers.entrySet()) {
+        for (Entry<String, RegexResult> entry : loaded.unprocessedMatchers.entrySet()) {
             processedPathConverter.add(cldrVariables.replace(entry.getKey()),
                 entry.getValue());
         }
         return processedPathConverter;
     }
 
-    private void loadConverters() {
-        xpathConverter = new RegexLookup<RegexResult>()
-            .setPatternTransform(regexTransform);
-        fallbackConverter = new RegexLookup<FallbackInfo>()
-            .setValueMerger(new Merger<FallbackInfo>() {
-                @Override
-                public FallbackInfo merge(FallbackInfo a, FallbackInfo into) {
-                    return into.merge(a);
-                }
-            });
-        xpathVariables = new HashMap<String, String>();
+    /**
+     * @return the values of the xpath variables in the converter file for the specified CLDRFile
+     */
+    private static VariableReplacer getCldrVariables(Converters loaded, CLDRFile cldrFile) {
+        VariableReplacer cldrVariables = new VariableReplacer();
+        for (Entry<String, String> entry : loaded.xpathVariables.entrySet()) {
+            cldrVariables.add(entry.getKey(), cldrFile.getStringValue(entry.getValue()));
+        }
+        return cldrVariables;
+    }
+
+    private Converters loadConverters() {
+        Converters loaded = new Converters();
         BufferedReader reader = FileReaders.openFile(NewLdml2IcuConverter.class, converterFile);
         VariableReplacer variables = new VariableReplacer();
         Finder xpathMatcher = null;
@@ -556,7 +570,7 @@ class RegexManager {
                     String varValue = line.substring(pos + 1).trim();
                     // Variables representing xpaths should be replaced later on.
                     if (varValue.startsWith("//")) {
-                        xpathVariables.put(varName, varValue);
+                        loaded.xpathVariables.put(varName, varValue);
                     } else {
                         variables.add(varName, varValue);
                     }
@@ -573,26 +587,27 @@ class RegexManager {
                 if (!line.startsWith(";")) {
                     if (regexResult != null) {
                         if (xpathMatcher.toString().contains("%")) {
-                            unprocessedMatchers.put(xpathMatcher.toString(), regexResult);
+                            loaded.unprocessedMatchers.put(xpathMatcher.toString(), regexResult);
                         } else {
-                            xpathConverter.add(xpathMatcher, regexResult);
+                            loaded.xpathConverter.add(xpathMatcher, regexResult);
                         }
                     }
                     xpathMatcher = new RegexFinder(content[0].replace("[@", "\\[@"));
                     regexResult = new RegexResult();
                 }
                 if (content.length > 1) {
-                    addConverterEntry(xpathMatcher, content, regexResult);
+                    addConverterEntry(loaded, xpathMatcher, content, regexResult);
                 }
             }
-            xpathConverter.add(xpathMatcher, regexResult);
+            loaded.xpathConverter.add(xpathMatcher, regexResult);
         } catch (Exception e) {
             System.err.println("Error reading " + converterFile + " at line " + lineNum + ": " + line);
             e.printStackTrace();
         }
+        return loaded;
     }
 
-    private void addConverterEntry(Finder xpathMatcher, String[] content,
+    private void addConverterEntry(Converters loaded, Finder xpathMatcher, String[] content,
         RegexResult regexResult) {
         String rbPath = content[1];
         // Find arguments in rbPath.
@@ -615,7 +630,7 @@ class RegexManager {
             String[] instruction = content[i].split("=", 2);
             if (instruction[0].equals("fallback")) {
                 // WARNING: fallback might backfire if more than one type of xpath for the same rbpath
-                addFallback(xpathMatcher, rbPath, instruction[1]);
+                addFallback(loaded, xpathMatcher, rbPath, instruction[1]);
             } else {
                 instructions.put(instruction[0], instruction[1]);
             }
@@ -626,6 +641,8 @@ class RegexManager {
     /**
      * Adds an entry to the fallback converter.
      *
+     * @param loaded
+     *            the converters being loaded
      * @param xpathMatcher
      *            the xpath matcher that determines if a fallback value
      *            is necessary
@@ -634,7 +651,7 @@ class RegexManager {
      * @param fallbackValue
      *            the fallback value
      */
-    private void addFallback(Finder xpathMatcher, String rbPath, String fallbackValue) {
+    private void addFallback(Converters loaded, Finder xpathMatcher, String rbPath, String fallbackValue) {
         ArrayList<StringBuffer> args = new ArrayList<StringBuffer>();
         int numBraces = 0;
         int argNum = 0;
@@ -685,7 +702,7 @@ class RegexManager {
         rbPattern.append(rbPath.substring(lastIndex));
         FallbackInfo info = new FallbackInfo(argsUsed, args.size());
         info.addItem(xpathMatcher, fallbackXpath, fallbackValue.split("\\s"));
-        fallbackConverter.add(new RegexFinder(rbPattern.toString()), info);
+        loaded.fallbackConverter.add(new RegexFinder(rbPattern.toString()), info);
     }
 
     void addFallbackValues(Map<String, CldrArray> pathValueMap) {
@@ -699,7 +716,9 @@ class RegexManager {
      * @param pathValueMap
      */
     void addFallbackValues(CLDRFile cldrFile, Map<String, CldrArray> pathValueMap) {
-        RegexLookup<FallbackInfo> fallbackConverter = getFallbackConverter();
+        Converters loaded = converters.get();
+        RegexLookup<FallbackInfo> fallbackConverter = loaded.fallbackConverter;
+        VariableReplacer cldrVariables = cldrFile == null ? null : getCldrVariables(loaded, cldrFile);
         for (String rbPath : pathValueMap.keySet()) {
             Output<String[]> arguments = new Output<String[]>();
             FallbackInfo fallbackInfo = fallbackConverter.get(rbPath, null, arguments);
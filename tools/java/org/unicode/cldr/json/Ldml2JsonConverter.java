@@ -3,8 +3,11 @@ package org.unicode.cldr.json;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -13,6 +16,12 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -26,6 +35,7 @@ import org.unicode.cldr.util.CLDRFile.DraftStatus;
 import org.unicode.cldr.util.CLDRPaths;
 import org.unicode.cldr.util.CLDRTool;
 import org.unicode.cldr.util.CldrUtility;
+import org.unicode.cldr.util.ConversionManifest;
 import org.unicode.cldr.util.CoverageInfo;
 import org.unicode.cldr.util.DtdData;
 import org.unicode.cldr.util.DtdType;
@@ -45,6 +55,7 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
 import com.google.gson.stream.JsonWriter;
 import com.ibm.icu.dev.util.CollectionUtilities;
+import com.ibm.icu.util.ICUException;
 
 /**
  * Utility methods to extract data from CLDR repository and export it in JSON
@@ -62,11 +73,12 @@ public class Ldml2JsonConverter {
 
     private static final StandardCodes sc = StandardCodes.make();
     private Set<String> defaultContentLocales = SupplementalDataInfo.getInstance().getDefaultContentLocales();
-    private Set<String> skippedDefaultContentLocales = new TreeSet<String>();
+    // The sets filled in while converting are concurrent, since locales may be converted in parallel.
+    private Set<String> skippedDefaultContentLocales = new ConcurrentSkipListSet<String>();
 
     private class availableLocales {
-        Set<String> modern = new TreeSet<String>();
-        Set<String> full = new TreeSet<String>();
+        Set<String> modern = new ConcurrentSkipListSet<String>();
+        Set<String> full = new ConcurrentSkipListSet<String>();
     }
 
     private availableLocales avl = new availableLocales();
@@ -98,7 +110,14 @@ public class Ldml2JsonConverter {
                     "Whether to group data files into installable packages")
                 .add("identity", 'i', "(true|false)", "true",
                     "Whether to copy the identity info into all sections containing data")
-                .add("konfig", 'k', ".*", null, "LDML to JSON configuration file");
+                .add("konfig", 'k', ".*", null, "LDML to JSON configuration file")
+                .add("jobs", 'j', "\\d+", "1",
+                    "Number of files to convert in parallel")
+                .add("pretty", 'y', "(true|false)", "true",
+                    "Whether to pretty-print the output JSON; false writes compact JSON")
+                .add("incremental", 'e', "(true|false)", "false",
+                    "Whether to only convert the files whose source files (and, for resolved data, those of their parent locales) "
+                        + "have changed since the last incremental run");
 
     public static void main(String[] args) throws Exception {
         options.parse(args, true);
@@ -112,11 +131,13 @@ public class Ldml2JsonConverter {
             options.get("coverage").getValue(),
             options.get("match").getValue(),
             Boolean.parseBoolean(options.get("packages").getValue()),
-            options.get("konfig").getValue());
+            options.get("konfig").getValue(),
+            Boolean.parseBoolean(options.get("pretty").getValue()),
+            Boolean.parseBoolean(options.get("incremental").getValue()));
 
         long start = System.currentTimeMillis();
         DraftStatus status = DraftStatus.valueOf(options.get("draftstatus").getValue());
-        l2jc.processDirectory(options.get("type").getValue(), status);
+        l2jc.processDirectory(options.get("type").getValue(), status, Integer.parseInt(options.get("jobs").getValue()));
         long end = System.currentTimeMillis();
         System.out.println("Finished in " + (end - start) + " ms");
     }
@@ -137,10 +158,16 @@ public class Ldml2JsonConverter {
     private boolean writePackages;
     // Type of run for this converter: main, supplemental, or segments
     private RunType type;
+    // Whether the output JSON is indented; otherwise it is written without whitespace
+    private boolean prettyPrint;
+    // Whether to skip the files whose inputs haven't changed since the last incremental run
+    private boolean incremental;
+    // The inputs and outputs of each file, for incremental runs
+    private ConversionManifest manifest;
 
     private class JSONSection implements Comparable<JSONSection> {
         public String section;
-        public Matcher matcher;
+        public Pattern pattern;
         public String packageName;
 
         public int compareTo(JSONSection other) {
@@ -149,14 +176,12 @@ public class Ldml2JsonConverter {
 
     }
 
-    private Map<JSONSection, List<CldrItem>> sectionItems = new TreeMap<JSONSection, List<CldrItem>>();
-
     private Map<String, String> dependencies;
     private List<JSONSection> sections;
     private Set<String> packages;
 
     public Ldml2JsonConverter(String cldrDir, String outputDir, String runType, boolean fullNumbers, boolean resolve, String coverage, String match,
-        boolean writePackages, String configFile) {
+        boolean writePackages, String configFile, boolean prettyPrint, boolean incremental) {
         this.cldrCommonDir = cldrDir;
         this.outputDir = outputDir;
         this.type = RunType.valueOf(runType);
@@ -165,9 +190,11 @@ public class Ldml2JsonConverter {
         this.match = match;
         this.writePackages = writePackages;
         this.coverageValue = Level.get(coverage).getLevel();
+        this.prettyPrint = prettyPrint;
+        this.incremental = incremental;
 
         sections = new ArrayList<JSONSection>();
-        packages = new TreeSet<String>();
+        packages = new ConcurrentSkipListSet<String>();
         dependencies = new HashMap<String, String>();
 
         FileProcessor myReader = new FileProcessor() {
@@ -203,7 +230,7 @@ public class Ldml2JsonConverter {
                 if (hasSection && hasPath) {
                     JSONSection j = new JSONSection();
                     j.section = section;
-                    j.matcher = PatternCache.get(path).matcher("");
+                    j.pattern = PatternCache.get(path);
                     if (hasPackage) {
                         j.packageName = packageName;
                     }
@@ -239,9 +266,15 @@ public class Ldml2JsonConverter {
         // Add a section at the end of the list that will match anything not already matched.
         JSONSection j = new JSONSection();
         j.section = "other";
-        j.matcher = PatternCache.get(".*").matcher("");
+        j.pattern = PatternCache.get(".*");
         sections.add(j);
 
+        if (type == RunType.rbnf) {
+            for (JSONSection js : sections) {
+                js.packageName = "rbnf";
+            }
+        }
+
     }
 
     /**
@@ -289,7 +322,19 @@ public class Ldml2JsonConverter {
         return result;
     }
 
-    private void mapPathsToSections(CLDRFile file, String pathPrefix, SupplementalDataInfo sdi)
+    /**
+     * Send the items of a file to the writers for the sections that they match, in DTD order.
+     *
+     * @param file
+     *            CLDRFile object.
+     * @param pathPrefix
+     *            The prefix that replaces /ldml/ or /supplementalData/ in the paths.
+     * @param writers
+     *            The writer for each section, or null if the section is not written.
+     * @throws IOException
+     * @throws ParseException
+     */
+    private void mapPathsToSections(CLDRFile file, String pathPrefix, SupplementalDataInfo sdi, SectionWriter[] writers)
         throws IOException, ParseException {
 
         String locID = file.getLocaleID();
@@ -311,6 +356,15 @@ public class Ldml2JsonConverter {
             fileDtdType = DtdType.ldml;
         }
         CoverageInfo covInfo = CLDRConfig.getInstance().getCoverageInfo();
+        Matcher[] sectionMatchers = new Matcher[sections.size()];
+        for (int i = 0; i < sections.size(); ++i) {
+            sectionMatchers[i] = sections.get(i).pattern.matcher("");
+        }
+        Matcher versionInfoMatcher = PatternCache.get(".*/(identity|version).*").matcher("");
+        boolean copyIdentityInfo = Boolean.parseBoolean(options.get("identity").getValue());
+        // The identity and version info comes first in DTD order, so it has all been seen before any section
+        // is started. It is copied to the start of each section that has real data, rather than going to "other".
+        List<CldrItem> identityItems = new ArrayList<CldrItem>();
         for (Iterator<String> it = file.iterator("", DtdData.getInstance(fileDtdType).getDtdComparator(null)); it.hasNext();) {
             int cv = Level.UNDETERMINED.getLevel();
             String path = it.next();
@@ -361,279 +415,302 @@ public class Ldml2JsonConverter {
             String transformedPath = transformPath(path, pathPrefix);
             String transformedFullPath = transformPath(fullPath, pathPrefix);
 
-            for (JSONSection js : sections) {
-                js.matcher.reset(transformedPath);
-                if (js.matcher.matches()) {
+            for (int i = 0; i < sections.size(); ++i) {
+                if (sectionMatchers[i].reset(transformedPath).matches()) {
                     CldrItem item = new CldrItem(transformedPath, transformedFullPath, path, fullPath, value);
-
-                    List<CldrItem> cldrItems = sectionItems.get(js);
-                    if (cldrItems == null) {
-                        cldrItems = new ArrayList<CldrItem>();
+                    SectionWriter writer = writers[i];
+                    if (sections.get(i).section.equals("other") && versionInfoMatcher.reset(transformedPath).matches()) {
+                        identityItems.add(item);
+                    } else if (writer != null) {
+                        if (!writer.isStarted() && copyIdentityInfo) {
+                            for (CldrItem identityItem : identityItems) {
+                                writer.add(identityItem);
+                            }
+                        }
+                        writer.add(item);
                     }
-                    cldrItems.add(item);
-                    sectionItems.put(js, cldrItems);
                     break;
                 }
             }
         }
+    }
 
-        Matcher versionInfoMatcher = PatternCache.get(".*/(identity|version).*").matcher("");
-        // Automatically copy the version info to any sections that had real data in them.
-        JSONSection otherSection = sections.get(sections.size() - 1);
-        List<CldrItem> others = sectionItems.get(otherSection);
-        if (others == null) {
-            return;
+    /**
+     * Get the writer for a section of a file, creating its output directories.
+     *
+     * @return the writer, or null if the section is not written for this file.
+     */
+    private SectionWriter getSectionWriter(JSONSection js, String dirName, String filename) {
+        String outFilename;
+        if (type == RunType.rbnf) {
+            outFilename = filename.replaceAll("_", "-") + ".json";
+        } else {
+            outFilename = js.section + ".json";
         }
-        List<CldrItem> otherSectionItems = new ArrayList<CldrItem>(others);
-        int addedItemCount = 0;
-        boolean copyIdentityInfo = Boolean.parseBoolean(options.get("identity").getValue());
-
-        for (CldrItem item : otherSectionItems) {
-            String thisPath = item.getPath();
-            versionInfoMatcher.reset(thisPath);
-            if (versionInfoMatcher.matches()) {
-                for (JSONSection js : sections) {
-                    if (sectionItems.get(js) != null && !js.section.equals("other") && copyIdentityInfo) {
-                        List<CldrItem> hit = sectionItems.get(js);
-                        hit.add(addedItemCount, item);
-                        sectionItems.put(js, hit);
+        String tier = "";
+        boolean writeOther = Boolean.parseBoolean(options.get("other").getValue());
+        if (js.section.equals("other") && !writeOther) {
+            return null;
+        }
+        StringBuilder outputDirname = new StringBuilder(outputDir);
+        if (writePackages) {
+            if (type != RunType.supplemental && type != RunType.rbnf) {
+                LocaleIDParser lp = new LocaleIDParser();
+                lp.set(filename);
+                if (defaultContentLocales.contains(filename) &&
+                    lp.getRegion().length() > 0) {
+                    if (type == RunType.main) {
+                        skippedDefaultContentLocales.add(filename.replaceAll("_", "-"));
                     }
-                    if (js.section.equals("other")) {
-                        List<CldrItem> hit = sectionItems.get(js);
-                        hit.remove(item);
-                        sectionItems.put(js, hit);
+                    return null;
+                }
+                Level localeCoverageLevel = sc.getLocaleCoverageLevel("Cldr", filename);
+                if (localeCoverageLevel == Level.MODERN || filename.equals("root")) {
+                    tier = "-modern";
+                    if (type == RunType.main) {
+                        avl.modern.add(filename.replaceAll("_", "-"));
                     }
+                } else {
+                    tier = "-full";
+                }
+                if (type == RunType.main) {
+                    avl.full.add(filename.replaceAll("_", "-"));
                 }
-                addedItemCount++;
             }
+            if (js.packageName != null) {
+                String packageName = "cldr-" + js.packageName + tier;
+                outputDirname.append("/" + packageName);
+                packages.add(packageName);
+            }
+            outputDirname.append("/" + dirName + "/");
+            if (type != RunType.supplemental && type != RunType.rbnf) {
+                outputDirname.append(filename.replaceAll("_", "-"));
+            }
+            if (DEBUG) {
+                System.out.println("outDir: " + outputDirname);
+                System.out.println("pack: " + js.packageName);
+                System.out.println("dir: " + dirName);
+            }
+        }
+
+        File dir = new File(outputDirname.toString());
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+
+        List<String> outputDirs = new ArrayList<String>();
+        outputDirs.add(outputDirname.toString());
+        if (writePackages && type == RunType.main && tier.equals("-modern")) {
+            outputDirs.add(outputDirname.toString().replaceFirst("-modern", "-full"));
         }
+        return new SectionWriter(outFilename, outputDirs, filename);
     }
 
     /**
-     * Convert CLDR's XML data to JSON format.
-     *
-     * @param file
-     *            CLDRFile object.
-     * @param outFilename
-     *            The file name used to save JSON data.
-     * @throws IOException
-     * @throws ParseException
+     * Converts the items of one section of one file to JSON, writing them as they arrive, so that the
+     * items of a file are never all held at once. The output file is created when the first item arrives,
+     * so a section without data has no file. When the output goes to more than one directory, it is
+     * written to the first and copied to the others.
      */
-    private void convertCldrItems(String dirName, String filename, String pathPrefix)
-        throws IOException, ParseException {
-        // zone and timezone items are queued for sorting first before they are
-        // processed.
+    private class SectionWriter {
+        private final String outFilename;
+        private final List<String> outputDirs;
+        private final String filename;
+
+        private PrintWriter outf;
+        private JsonWriter out;
+
+        private final ArrayList<CldrItem> sortingItems = new ArrayList<CldrItem>();
+        private final ArrayList<CldrItem> arrayItems = new ArrayList<CldrItem>();
+        private final ArrayList<CldrNode> nodesForLastItem = new ArrayList<CldrNode>();
+        private String lastLeadingArrayItemPath = null;
+        private int valueCount = 0;
+        private String previousIdentityPath = null;
+
+        SectionWriter(String outFilename, List<String> outputDirs, String filename) {
+            this.outFilename = outFilename;
+            this.outputDirs = outputDirs;
+            this.filename = filename;
+        }
 
-        for (JSONSection js : sections) {
-            String outFilename;
-            if (type == RunType.rbnf) {
-                outFilename = filename.replaceAll("_", "-") + ".json";
-            } else {
-                outFilename = js.section + ".json";
-            }
-            String tier = "";
-            boolean writeOther = Boolean.parseBoolean(options.get("other").getValue());
-            if (js.section.equals("other") && !writeOther) {
-                continue;
-            } else {
-                StringBuilder outputDirname = new StringBuilder(outputDir);
-                if (writePackages) {
-                    if (type != RunType.supplemental && type != RunType.rbnf) {
-                        LocaleIDParser lp = new LocaleIDParser();
-                        lp.set(filename);
-                        if (defaultContentLocales.contains(filename) &&
-                            lp.getRegion().length() > 0) {
-                            if (type == RunType.main) {
-                                skippedDefaultContentLocales.add(filename.replaceAll("_", "-"));
-                            }
-                            continue;
-                        }
-                        Level localeCoverageLevel = sc.getLocaleCoverageLevel("Cldr", filename);
-                        if (localeCoverageLevel == Level.MODERN || filename.equals("root")) {
-                            tier = "-modern";
-                            if (type == RunType.main) {
-                                avl.modern.add(filename.replaceAll("_", "-"));
-                            }
-                        } else {
-                            tier = "-full";
-                        }
-                        if (type == RunType.main) {
-                            avl.full.add(filename.replaceAll("_", "-"));
-                        }
-                    } else if (type == RunType.rbnf) {
-                        js.packageName = "rbnf";
-                        tier = "";
-                    }
-                    if (js.packageName != null) {
-                        String packageName = "cldr-" + js.packageName + tier;
-                        outputDirname.append("/" + packageName);
-                        packages.add(packageName);
-                    }
-                    outputDirname.append("/" + dirName + "/");
-                    if (type != RunType.supplemental && type != RunType.rbnf) {
-                        outputDirname.append(filename.replaceAll("_", "-"));
-                    }
-                    if (DEBUG) {
-                        System.out.println("outDir: " + outputDirname);
-                        System.out.println("pack: " + js.packageName);
-                        System.out.println("dir: " + dirName);
-                    }
-                }
+        boolean isStarted() {
+            return out != null;
+        }
 
-                File dir = new File(outputDirname.toString());
-                if (!dir.exists()) {
-                    dir.mkdirs();
+        /**
+         * @return the files that the section was written to, or an empty list if it had no data
+         */
+        List<File> getFiles() {
+            List<File> result = new ArrayList<File>();
+            if (out != null) {
+                for (String dir : outputDirs) {
+                    result.add(new File(dir, outFilename));
                 }
+            }
+            return result;
+        }
 
-                List<String> outputDirs = new ArrayList<String>();
-                outputDirs.add(outputDirname.toString());
-                if (writePackages && type == RunType.main && tier.equals("-modern")) {
-                    outputDirs.add(outputDirname.toString().replaceFirst("-modern", "-full"));
-                }
+        /**
+         * Convert the next item of the section to JSON. Items must arrive in DTD order.
+         *
+         * @param item
+         *            The CldrItem to be processed.
+         * @throws IOException
+         * @throws ParseException
+         */
+        void add(CldrItem item) throws IOException, ParseException {
+            if (out == null) {
+                outf = FileUtilities.openUTF8Writer(outputDirs.get(0), outFilename);
+                out = new JsonWriter(outf);
+                out.setIndent(prettyPrint ? "  " : "");
+            }
 
-                for (String outputDir : outputDirs) {
-                    List<CldrItem> theItems = sectionItems.get(js);
-                    if (theItems == null || theItems.size() == 0) {
-                        continue;
+            if (type == RunType.rbnf) {
+                item.setValue(item.getValue().replace('→', '>'));
+                item.setValue(item.getValue().replace('←', '<'));
+                if (item.getFullPath().contains("@value")) {
+                    int indexStart = item.getFullPath().indexOf("@value") + 8;
+                    int indexEnd = item.getFullPath().indexOf("]", indexStart) - 1;
+                    if (indexStart >= 0 && indexEnd >= 0 && indexEnd > indexStart) {
+                        String sub = item.getFullPath().substring(indexStart, indexEnd);
+                        /* System.out.println("sub: " + sub);
+                        System.out.println("full: " + item.getFullPath());
+                        System.out.println("val: " + item.getValue());*/
+                        item.setFullPath(item.getFullPath().replace(sub, item.getValue()));
+                        item.setFullPath(item.getFullPath().replaceAll("@value", "@" + sub));
+                        //System.out.println("modifyfull: " + item.getFullPath());
+                        item.setValue("");
                     }
-                    PrintWriter outf = FileUtilities.openUTF8Writer(outputDir, outFilename);
-                    JsonWriter out = new JsonWriter(outf);
-                    out.setIndent("  ");
-
-                    ArrayList<CldrItem> sortingItems = new ArrayList<CldrItem>();
-                    ArrayList<CldrItem> arrayItems = new ArrayList<CldrItem>();
-
-                    ArrayList<CldrNode> nodesForLastItem = new ArrayList<CldrNode>();
-                    String lastLeadingArrayItemPath = null;
-                    String leadingArrayItemPath = "";
-                    int valueCount = 0;
-                    String previousIdentityPath = null;
-                    for (CldrItem item : theItems) {
-
-                        if (type == RunType.rbnf) {
-                            item.setValue(item.getValue().replace('→', '>'));
-                            item.setValue(item.getValue().replace('←', '<'));
-                            if (item.getFullPath().contains("@value")) {
-                                int indexStart = item.getFullPath().indexOf("@value") + 8;
-                                int indexEnd = item.getFullPath().indexOf("]", indexStart) - 1;
-                                if (indexStart >= 0 && indexEnd >= 0 && indexEnd > indexStart) {
-                                    String sub = item.getFullPath().substring(indexStart, indexEnd);
-                                    /* System.out.println("sub: " + sub);
-                                    System.out.println("full: " + item.getFullPath());
-                                    System.out.println("val: " + item.getValue());*/
-                                    item.setFullPath(item.getFullPath().replace(sub, item.getValue()));
-                                    item.setFullPath(item.getFullPath().replaceAll("@value", "@" + sub));
-                                    //System.out.println("modifyfull: " + item.getFullPath());
-                                    item.setValue("");
-                                }
-                            }
+                }
 
-                        }
-                        // ADJUST ACCESS=PRIVATE/PUBLIC BASED ON ICU RULE -- START
-                        if (type == RunType.rbnf) {
-                            String fullpath = item.getFullPath();
-                            if (fullpath.contains("/ruleset")) {
-                                int ruleStartIndex = fullpath.indexOf("/ruleset[");
-                                String checkString = fullpath.substring(ruleStartIndex);
-
-                                int ruleEndIndex = 0;
-                                if (checkString.contains("/")) {
-                                    ruleEndIndex = fullpath.indexOf("/", ruleStartIndex + 1);
-                                }
-                                if (ruleEndIndex > ruleStartIndex) {
-                                    String oldRulePath = fullpath.substring(ruleStartIndex, ruleEndIndex);
-
-                                    String newRulePath = oldRulePath;
-                                    if (newRulePath.contains("@type")) {
-                                        int typeIndexStart = newRulePath.indexOf("\"", newRulePath.indexOf("@type"));
-                                        int typeIndexEnd = newRulePath.indexOf("\"", typeIndexStart + 1);
-                                        String type = newRulePath.substring(typeIndexStart + 1, typeIndexEnd);
-
-                                        String newType = "";
-                                        if (newRulePath.contains("@access")) {
-                                            newType = "%%" + type;
-                                        } else {
-                                            newType = "%" + type;
-                                        }
-                                        newRulePath = newRulePath.replace(type, newType);
-                                        item.setPath(item.getPath().replace(type, newType));
-                                    }
-                                    fullpath = fullpath.replace(oldRulePath, newRulePath);
-                                    item.setFullPath(fullpath);
-
-                                }
-                            }
-                        }
-                        // ADJUST ACCESS=PRIVATE/PUBLIC BASED ON ICU RULE -- END
-
-                        // items in the identity section of a file should only ever contain the lowest level, even if using
-                        // resolving source, so if we have duplicates ( caused by attributes used as a value ) then suppress
-                        // them here.
-                        if (item.getPath().contains("/identity/")) {
-                            String[] parts = item.getPath().split("\\[");
-                            if (parts[0].equals(previousIdentityPath)) {
-                                continue;
+            }
+            // ADJUST ACCESS=PRIVATE/PUBLIC BASED ON ICU RULE -- START
+            if (type == RunType.rbnf) {
+                String fullpath = item.getFullPath();
+                if (fullpath.contains("/ruleset")) {
+                    int ruleStartIndex = fullpath.indexOf("/ruleset[");
+                    String checkString = fullpath.substring(ruleStartIndex);
+
+                    int ruleEndIndex = 0;
+                    if (checkString.contains("/")) {
+                        ruleEndIndex = fullpath.indexOf("/", ruleStartIndex + 1);
+                    }
+                    if (ruleEndIndex > ruleStartIndex) {
+                        String oldRulePath = fullpath.substring(ruleStartIndex, ruleEndIndex);
+
+                        String newRulePath = oldRulePath;
+                        if (newRulePath.contains("@type")) {
+                            int typeIndexStart = newRulePath.indexOf("\"", newRulePath.indexOf("@type"));
+                            int typeIndexEnd = newRulePath.indexOf("\"", typeIndexStart + 1);
+                            String type = newRulePath.substring(typeIndexStart + 1, typeIndexEnd);
+
+                            String newType = "";
+                            if (newRulePath.contains("@access")) {
+                                newType = "%%" + type;
                             } else {
-                                XPathParts xpp = XPathParts.getFrozenInstance(item.getPath());
-                                String territory = xpp.findAttributeValue("territory", "type");
-                                LocaleIDParser lp = new LocaleIDParser().set(filename);
-                                if (territory != null && territory.length() > 0 && !territory.equals(lp.getRegion())) {
-                                    continue;
-                                }
-                                previousIdentityPath = parts[0];
+                                newType = "%" + type;
                             }
+                            newRulePath = newRulePath.replace(type, newType);
+                            item.setPath(item.getPath().replace(type, newType));
                         }
+                        fullpath = fullpath.replace(oldRulePath, newRulePath);
+                        item.setFullPath(fullpath);
 
-                        // some items need to be split to multiple item before processing. None
-                        // of those items need to be sorted.
-                        CldrItem[] items = item.split();
-                        if (items == null) {
-                            items = new CldrItem[1];
-                            items[0] = item;
-                        }
-                        valueCount += items.length;
+                    }
+                }
+            }
+            // ADJUST ACCESS=PRIVATE/PUBLIC BASED ON ICU RULE -- END
+
+            // items in the identity section of a file should only ever contain the lowest level, even if using
+            // resolving source, so if we have duplicates ( caused by attributes used as a value ) then suppress
+            // them here.
+            if (item.getPath().contains("/identity/")) {
+                String[] parts = item.getPath().split("\\[");
+                if (parts[0].equals(previousIdentityPath)) {
+                    return;
+                } else {
+                    XPathParts xpp = XPathParts.getFrozenInstance(item.getPath());
+                    String territory = xpp.findAttributeValue("territory", "type");
+                    LocaleIDParser lp = new LocaleIDParser().set(filename);
+                    if (territory != null && territory.length() > 0 && !territory.equals(lp.getRegion())) {
+                        return;
+                    }
+                    previousIdentityPath = parts[0];
+                }
+            }
 
-                        for (CldrItem newItem : items) {
-                            // alias will be dropped in conversion, don't count it.
-                            if (newItem.isAliasItem()) {
-                                valueCount--;
-                            }
+            // some items need to be split to multiple item before processing. None
+            // of those items need to be sorted.
+            CldrItem[] items = item.split();
+            if (items == null) {
+                items = new CldrItem[1];
+                items[0] = item;
+            }
+            valueCount += items.length;
 
-                            // Items like zone items need to be sorted first before write them out.
-                            if (newItem.needsSort()) {
-                                resolveArrayItems(out, nodesForLastItem, arrayItems);
-                                sortingItems.add(newItem);
-                            } else {
-                                Matcher matcher = LdmlConvertRules.ARRAY_ITEM_PATTERN.matcher(
-                                    newItem.getPath());
-                                if (matcher.matches()) {
-                                    resolveSortingItems(out, nodesForLastItem, sortingItems);
-                                    leadingArrayItemPath = matcher.group(1);
-                                    if (lastLeadingArrayItemPath != null &&
-                                        !lastLeadingArrayItemPath.equals(leadingArrayItemPath)) {
-                                        resolveArrayItems(out, nodesForLastItem, arrayItems);
-                                    }
-                                    lastLeadingArrayItemPath = leadingArrayItemPath;
-                                    arrayItems.add(newItem);
-                                } else {
-                                    resolveSortingItems(out, nodesForLastItem, sortingItems);
-                                    resolveArrayItems(out, nodesForLastItem, arrayItems);
-                                    outputCldrItem(out, nodesForLastItem, newItem);
-                                    lastLeadingArrayItemPath = "";
-                                }
-                            }
-                        }
-                    }
+            for (CldrItem newItem : items) {
+                // alias will be dropped in conversion, don't count it.
+                if (newItem.isAliasItem()) {
+                    valueCount--;
+                }
 
-                    resolveSortingItems(out, nodesForLastItem, sortingItems);
+                // Items like zone items need to be sorted first before write them out.
+                if (newItem.needsSort()) {
                     resolveArrayItems(out, nodesForLastItem, arrayItems);
-                    System.out.println(String.format("  %s = %d values", outFilename, valueCount));
-                    closeNodes(out, nodesForLastItem.size() - 2, 0);
-                    outf.println();
-                    out.close();
+                    sortingItems.add(newItem);
+                } else {
+                    Matcher matcher = LdmlConvertRules.ARRAY_ITEM_PATTERN.matcher(
+                        newItem.getPath());
+                    if (matcher.matches()) {
+                        resolveSortingItems(out, nodesForLastItem, sortingItems);
+                        String leadingArrayItemPath = matcher.group(1);
+                        if (lastLeadingArrayItemPath != null &&
+                            !lastLeadingArrayItemPath.equals(leadingArrayItemPath)) {
+                            resolveArrayItems(out, nodesForLastItem, arrayItems);
+                        }
+                        lastLeadingArrayItemPath = leadingArrayItemPath;
+                        arrayItems.add(newItem);
+                    } else {
+                        resolveSortingItems(out, nodesForLastItem, sortingItems);
+                        resolveArrayItems(out, nodesForLastItem, arrayItems);
+                        outputCldrItem(out, nodesForLastItem, newItem);
+                        lastLeadingArrayItemPath = "";
+                    }
                 }
             }
         }
+
+        /**
+         * Write out any pending items and close the file, if it was started.
+         *
+         * @throws IOException
+         * @throws ParseException
+         */
+        void finish() throws IOException, ParseException {
+            if (out == null) {
+                return;
+            }
+            resolveSortingItems(out, nodesForLastItem, sortingItems);
+            resolveArrayItems(out, nodesForLastItem, arrayItems);
+            System.out.println(String.format("  %s = %d values", outFilename, valueCount));
+            closeNodes(out, nodesForLastItem.size() - 2, 0);
+            outf.println();
+            out.close();
+            File written = new File(outputDirs.get(0), outFilename);
+            for (int i = 1; i < outputDirs.size(); ++i) {
+                Files.copy(written.toPath(), new File(outputDirs.get(i), outFilename).toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        /**
+         * Close the output file, if it was opened; it may be unfinished if the conversion failed.
+         */
+        void close() {
+            if (outf != null) {
+                outf.close();
+            }
+        }
     }
 
     /**
@@ -1201,32 +1278,87 @@ public class Ldml2JsonConverter {
      */
     public void processDirectory(String dirName, DraftStatus minimalDraftStatus)
         throws IOException, ParseException {
-        SupplementalDataInfo sdi = SupplementalDataInfo.getInstance(cldrCommonDir + "supplemental");
-        Factory cldrFactory = Factory.make(
+        processDirectory(dirName, minimalDraftStatus, 1);
+    }
+
+    /**
+     * Process files in a directory of CLDR file tree, converting up to the given number of files at once.
+     * The SupplementalDataInfo and the section patterns are shared by all the conversions.
+     *
+     * @param dirName
+     *            The directory in which xml file will be transformed.
+     * @param minimalDraftStatus
+     *            The minimumDraftStatus that will be accepted.
+     * @param jobs
+     *            The number of files to convert in parallel.
+     * @throws IOException
+     * @throws ParseException
+     */
+    public void processDirectory(final String dirName, final DraftStatus minimalDraftStatus, int jobs)
+        throws IOException, ParseException {
+        final SupplementalDataInfo sdi = SupplementalDataInfo.getInstance(cldrCommonDir + "supplemental");
+        final Factory cldrFactory = Factory.make(
             cldrCommonDir + dirName + "/", ".*");
-        Set<String> files = cldrFactory.getAvailable();
-        for (String filename : files) {
+        List<String> files = new ArrayList<String>();
+        for (String filename : cldrFactory.getAvailable()) {
             if (LdmlConvertRules.IGNORE_FILE_SET.contains(filename)) {
                 continue;
             }
             if (!filename.matches(match)) {
                 continue;
             }
-
-            System.out.println("Processing file " + dirName + "/" + filename);
-            String pathPrefix;
-            CLDRFile file = cldrFactory.make(filename, resolve && type == RunType.main, minimalDraftStatus);
-
-            sectionItems.clear();
-            if (type == RunType.main) {
-                pathPrefix = "/cldr/" + dirName + "/" + filename.replaceAll("_", "-") + "/";
-            } else {
-                pathPrefix = "/cldr/" + dirName + "/";
+            files.add(filename);
+        }
+        if (incremental) {
+            List<File> sharedInputs = new ArrayList<File>();
+            File[] supplementalFiles = new File(cldrCommonDir + "supplemental").listFiles();
+            if (supplementalFiles != null) {
+                Arrays.sort(supplementalFiles);
+                for (File file : supplementalFiles) {
+                    if (file.getName().endsWith(".xml")) {
+                        sharedInputs.add(file);
+                    }
+                }
             }
-            mapPathsToSections(file, pathPrefix, sdi);
-
-            convertCldrItems(dirName, filename, pathPrefix);
+            manifest = new ConversionManifest(new File(outputDir, ".ldml2json_" + dirName + "_manifest"),
+                getManifestConfig(minimalDraftStatus), sharedInputs);
+        }
 
+        if (jobs > 1 && !writePackages && type != RunType.supplemental && type != RunType.rbnf) {
+            // every locale would write the same files in outputDir
+            System.out.println("Converting one file at a time, since without packages the files have the same output.");
+            jobs = 1;
+        }
+        if (jobs > 1 && type == RunType.supplemental && Boolean.parseBoolean(options.get("other").getValue())) {
+            // every supplemental file would write its unmatched paths to the same other.json
+            System.out.println("Converting one file at a time, since the files have the same other.json output.");
+            jobs = 1;
+        }
+        if (jobs > 1) {
+            ExecutorService executor = Executors.newFixedThreadPool(jobs);
+            try {
+                List<Future<Void>> results = new ArrayList<Future<Void>>();
+                for (final String filename : files) {
+                    results.add(executor.submit(new Callable<Void>() {
+                        @Override
+                        public Void call() throws IOException, ParseException {
+                            processFile(cldrFactory, sdi, dirName, filename, minimalDraftStatus);
+                            return null;
+                        }
+                    }));
+                }
+                for (Future<Void> result : results) {
+                    result.get();
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                throw new ICUException(e);
+            } finally {
+                executor.shutdown();
+            }
+        } else {
+            for (String filename : files) {
+                processFile(cldrFactory, sdi, dirName, filename, minimalDraftStatus);
+            }
         }
 
         if (writePackages) {
@@ -1241,6 +1373,83 @@ public class Ldml2JsonConverter {
             }
 
         }
+        if (manifest != null) {
+            manifest.save();
+        }
+    }
+
+    /**
+     * @return the options and sections that the output depends on, for the manifest
+     */
+    private String getManifestConfig(DraftStatus minimalDraftStatus) {
+        StringBuilder config = new StringBuilder()
+            .append("type=").append(type)
+            .append(";resolved=").append(resolve)
+            .append(";draftstatus=").append(minimalDraftStatus)
+            .append(";coverage=").append(coverageValue)
+            .append(";fullnumbers=").append(fullNumbers)
+            .append(";packages=").append(writePackages)
+            .append(";pretty=").append(prettyPrint)
+            .append(";other=").append(options.get("other").getValue())
+            .append(";identity=").append(options.get("identity").getValue())
+            .append('\n');
+        for (JSONSection js : sections) {
+            config.append(js.section).append(';').append(js.pattern.pattern()).append(';').append(js.packageName).append('\n');
+        }
+        return config.toString();
+    }
+
+    /**
+     * Convert one file, writing each of its sections.
+     */
+    private void processFile(Factory cldrFactory, SupplementalDataInfo sdi, String dirName, String filename,
+        DraftStatus minimalDraftStatus) throws IOException, ParseException {
+        // Always get the writers, since they also record the packages and locales for the packaging files.
+        SectionWriter[] writers = new SectionWriter[sections.size()];
+        for (int i = 0; i < sections.size(); ++i) {
+            writers[i] = getSectionWriter(sections.get(i), dirName, filename);
+        }
+        String digest = null;
+        if (manifest != null) {
+            // Resolved data also depends on the parent locales.
+            List<File> inputs = resolve && type == RunType.main
+                ? ConversionManifest.getLocaleFiles(cldrFactory, filename)
+                : Collections.singletonList(new File(cldrFactory.getSourceDirectoryForLocale(filename), filename + ".xml"));
+            digest = manifest.getDigest(inputs);
+            if (manifest.isUpToDate(filename, digest)) {
+                System.out.println("Unchanged file " + dirName + "/" + filename);
+                return;
+            }
+        }
+
+        System.out.println("Processing file " + dirName + "/" + filename);
+        String pathPrefix;
+        CLDRFile file = cldrFactory.make(filename, resolve && type == RunType.main, minimalDraftStatus);
+
+        if (type == RunType.main) {
+            pathPrefix = "/cldr/" + dirName + "/" + filename.replaceAll("_", "-") + "/";
+        } else {
+            pathPrefix = "/cldr/" + dirName + "/";
+        }
+        List<File> written = new ArrayList<File>();
+        try {
+            mapPathsToSections(file, pathPrefix, sdi, writers);
+            for (SectionWriter writer : writers) {
+                if (writer != null) {
+                    writer.finish();
+                    written.addAll(writer.getFiles());
+                }
+            }
+        } finally {
+            for (SectionWriter writer : writers) {
+                if (writer != null) {
+                    writer.close();
+                }
+            }
+        }
+        if (manifest != null) {
+            manifest.put(filename, digest, written);
+        }
     }
 
     /**
@@ -3,11 +3,14 @@ package org.unicode.cldr.test;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -17,7 +20,13 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.unicode.cldr.draft.FileUtilities;
 import org.unicode.cldr.test.CheckCLDR.CheckStatus;
@@ -69,6 +78,8 @@ import com.ibm.icu.impl.Row;
 import com.ibm.icu.lang.UCharacter;
 import com.ibm.icu.text.Collator;
 import com.ibm.icu.text.UnicodeSet;
+import com.ibm.icu.util.ICUException;
+import com.ibm.icu.util.ICUUncheckedIOException;
 import com.ibm.icu.util.ULocale;
 
 /**
@@ -115,7 +126,8 @@ public class ConsoleCheckCLDR {
         ID_VIEW = 18,
         SUBTYPE_FILTER = 19,
         SOURCE_ALL = 20,
-        BAILEY = 21
+        BAILEY = 21,
+        JOBS = 23
     // VOTE_RESOLVE2 = 21
     ;
 
@@ -157,7 +169,9 @@ public class ConsoleCheckCLDR {
             "Partially qualified directories. Standard subdirectories added if not specified (/main, /annotations, /subdivisions). (Conflicts with -s.)")
             .setMatch(".*").setFlag('S').setDefault("common,seed,exemplars")), //, 'S', <changed>),
         bailey(new Params().setHelp("check bailey values (" + CldrUtility.INHERITANCE_MARKER + ")")), //, 'b', UOption.NO_ARG)
-        exemplarError(new Params().setFlag('E').setHelp("include to force strict Exemplar check"));
+        exemplarError(new Params().setFlag('E').setHelp("include to force strict Exemplar check")),
+        jobs(new Params().setHelp("Number of locales to check in parallel, eg -j 8")
+            .setMatch("\\d+")); //, 'j', UOption.REQUIRES_ARG)
 
         // BOILERPLATE TO COPY
         final Option option;
@@ -201,7 +215,8 @@ public class ConsoleCheckCLDR {
         UOption.create("subtype_filter", 'y', UOption.REQUIRES_ARG),
         UOption.create("source_all", 'S', UOption.OPTIONAL_ARG).setDefault("common,seed,exemplars"),
         UOption.create("bailey", 'b', UOption.NO_ARG),
-        UOption.create("exemplarError", 'E', UOption.NO_ARG)
+        UOption.create("exemplarError", 'E', UOption.NO_ARG),
+        UOption.create("jobs", 'j', UOption.REQUIRES_ARG)
         // UOption.create("vote resolution2", 'w', UOption.OPTIONAL_ARG).setDefault(Utility.BASE_DIRECTORY +
         // "incoming/vetted/main/votes/"),
     };
@@ -240,6 +255,7 @@ public class ConsoleCheckCLDR {
         "-u \t User, eg -uu148",
         "-y \t error/warning subtype filter, eg unexpectedOrderOfEraYear",
         "-b \t check bailey values (" + CldrUtility.INHERITANCE_MARKER + ")",
+        "-j \t Number of locales to check in parallel, eg -j 8",
     };
 
     static Counter<ErrorType> subtotalCount = new Counter<ErrorType>(true); // new ErrorCount();
@@ -270,9 +286,8 @@ public class ConsoleCheckCLDR {
         if (factoryFilter.equals("key")) {
             factoryFilter = "(en|ru|nl|fr|de|it|pl|es|tr|th|ja|zh|ko|ar|bg|sr|uk|ca|hr|cs|da|fil|fi|hu|id|lv|lt|nb|pt|ro|sk|sl|sv|vi|el|he|fa|hi|am|af|et|is|ms|sw|zu|bn|mr|ta|eu|gl|ur|gu|kn|ml|te|zh_Hant|pt_PT|en_GB)";
         }
-        String checkFilter = options[TEST_FILTER].value;
+        checkFilter = options[TEST_FILTER].value;
         String subtypeFilterString = options[SUBTYPE_FILTER].value;
-        EnumSet<Subtype> subtypeFilter = null;
         if (subtypeFilterString != null) {
             subtypeFilter = EnumSet.noneOf(Subtype.class);
             Matcher m = PatternCache.get(subtypeFilterString).matcher("");
@@ -293,17 +308,17 @@ public class ConsoleCheckCLDR {
         // }
 
         SHOW_EXAMPLES = options[EXAMPLES].doesOccur;
-        boolean showAll = options[SHOWALL].doesOccur;
-        boolean checkFlexibleDates = options[DATE_FORMATS].doesOccur;
+        showAll = options[SHOWALL].doesOccur;
+        checkFlexibleDates = options[DATE_FORMATS].doesOccur;
         String pathFilterString = options[PATH_FILTER].value;
         Matcher pathFilter = null;
         if (!pathFilterString.equals(".*")) {
-            pathFilter = PatternCache.get(pathFilterString).matcher("");
+            pathFilterPattern = PatternCache.get(pathFilterString);
+            pathFilter = pathFilterPattern.matcher("");
         }
-        boolean checkOnSubmit = options[CHECK_ON_SUBMIT].doesOccur;
+        checkOnSubmit = options[CHECK_ON_SUBMIT].doesOccur;
         boolean noaliases = options[NO_ALIASES].doesOccur;
 
-        Level coverageLevel = null;
         String coverageLevelInput = options[COVERAGE].value;
         if (coverageLevelInput != null) {
             coverageLevel = Level.get(coverageLevelInput);
@@ -313,7 +328,7 @@ public class ConsoleCheckCLDR {
             }
         }
 
-        Organization organization = options[ORGANIZATION].value == null ? null : Organization.fromString(options[ORGANIZATION].value);
+        organization = options[ORGANIZATION].value == null ? null : Organization.fromString(options[ORGANIZATION].value);
         if (organization != null) {
             Set<Organization> organizations = StandardCodes.make().getLocaleCoverageOrganizations();
             if (!organizations.contains(organization)) {
@@ -325,7 +340,6 @@ public class ConsoleCheckCLDR {
         // set the envronment to UNITTEST as suggested
         cldrConf.setEnvironment(Environment.UNITTEST);
         // get the Phase from CLDRConfig object
-        final Phase phase;
         //   Phase phase = Phase.BUILD;
         if (options[PHASE].doesOccur) {
             String phaseVal = options[PHASE].value;
@@ -360,7 +374,7 @@ public class ConsoleCheckCLDR {
             phase = cldrConf.getPhase();
         }
 
-        boolean baileyTest = options[BAILEY].doesOccur;
+        baileyTest = options[BAILEY].doesOccur;
 
         File sourceDirectories[] = null;
 
@@ -406,7 +420,7 @@ public class ConsoleCheckCLDR {
         // System.out.println(cc.compare("Antarctica/Rothera", "America/Cordoba"));
         // System.out.println(cc.compare("Antarctica/Rothera", "America/Indianapolis"));
 
-        String user = options[USER].value;
+        user = options[USER].value;
 
         System.out.println("Source directories:\n");
         for (File f : sourceDirectories) {
@@ -432,7 +446,7 @@ public class ConsoleCheckCLDR {
 //        System.out.println("subtype filter: " + subtypeFilter);
 
         // set up the test
-        Factory cldrFactory = SimpleFactory.make(sourceDirectories, factoryFilter)
+        cldrFactory = SimpleFactory.make(sourceDirectories, factoryFilter)
             .setSupplementalDirectory(new File(CLDRPaths.SUPPLEMENTAL_DIRECTORY));
         CompoundCheckCLDR checkCldr = CheckCLDR.getCheckAll(cldrFactory, checkFilter);
         if (checkCldr.getFilteredTestList().size() == 0) {
@@ -446,45 +460,219 @@ public class ConsoleCheckCLDR {
         checkCldr.setDisplayInformation(english);
         checkCldr.setEnglishFile(english);
         setExampleGenerator(new ExampleGenerator(english, english, CLDRPaths.SUPPLEMENTAL_DIRECTORY));
-        PathShower pathShower = new PathShower();
 
         // call on the files
         Set<String> locales = new TreeSet<String>(baseFirstCollator);
         locales.addAll(cldrFactory.getAvailable());
 
-        List<CheckStatus> result = new ArrayList<CheckStatus>();
-        Set<PathHeader> paths = new TreeSet<PathHeader>(); // CLDRFile.ldmlComparator);
-        Map m = new TreeMap();
-        // double testNumber = 0;
-        Map<String, String> options = new HashMap<String, String>();
-        FlexibleDateFromCLDR fset = new FlexibleDateFromCLDR();
-        Set<String> englishPaths = null;
-
-        Set<String> fatalErrors = new TreeSet<String>();
-
         showHeaderLine();
 
         supplementalDataInfo = SupplementalDataInfo.getInstance(CLDRPaths.SUPPLEMENTAL_DIRECTORY);
 
-        LocaleIDParser localeIDParser = new LocaleIDParser();
-        String lastBaseLanguage = "";
-        PathHeader.Factory pathHeaderFactory = PathHeader.getFactory(english);
+        pathHeaderFactory = PathHeader.getFactory(english);
+
+        // also add the English paths
+        // CollectionUtilities.addAll(checkCldr.getDisplayInformation().iterator(pathFilter), paths);
+        Set<String> englishPaths = new HashSet<String>();
+        final CLDRFile displayFile = CheckCLDR.getDisplayInformation();
+        addPrettyPaths(displayFile, pathFilter, pathHeaderFactory, noaliases, true, englishPaths);
+        addPrettyPaths(displayFile, displayFile.getExtraPaths(), pathFilter, pathHeaderFactory, noaliases,
+            true, englishPaths);
+        englishPaths = Collections.unmodifiableSet(englishPaths); // for robustness
+        // paths.addAll(englishPaths);
+
+        int jobs = options[JOBS].doesOccur ? Integer.parseInt(options[JOBS].value) : 1;
+        if (jobs > 1) {
+            checkInParallel(locales, jobs);
+        } else {
+            LocaleChecker checker = new LocaleChecker(checkCldr);
+            for (String localeID : locales) {
+                checker.check(localeID, new LocaleOutput(false));
+            }
+        }
+
+        if (ErrorFile.errorFileWriter != null) {
+            ErrorFile.closeErrorFile();
+        }
+
+        if (ErrorFile.generated_html_directory != null) {
+            ErrorFile.writeErrorCountsText();
+            ErrorFile.writeErrorFileIndex();
+        }
+        System.out.println();
+        for (ErrorType type : totalCount.keySet()) {
+            System.out.println("# Total " + type + ":\t" + totalCount.getCount(type));
+        }
+
+        System.out.println();
+        System.out.println("# Total elapsed time: " + totalTimer);
+        if (fatalErrors.size() != 0) {
+            System.out.println("# FATAL ERRORS:");
+        }
+        long errorCount = totalCount.getCount(ErrorType.error) + fatalErrors.size();
+        if (errorCount != 0) {
+            //            System.exit((int) errorCount); // cast is safe; we'll never have that many errors
+            System.out.println();
+            System.out.println("<< FAILURE - Error count is " + errorCount + " . >>");
+            System.exit(-1);
+        } else {
+            System.out.println();
+            System.out.println("<< SUCCESS - No errors found. >>");
+        }
+        if (LogicalGrouping.GET_TYPE_COUNTS) {
+            for (String s : LogicalGrouping.typeCount.keySet()) {
+                System.out.println(s + "=" + LogicalGrouping.typeCount.get(s));
+            }
+        }
+        checkCldr.handleFinish();
+    }
+
+    /**
+     * Check the locales on a pool of worker threads. Each worker has its own CheckCLDR, since
+     * the checks hold per-file state from setCldrFileToCheck. The output of each locale is
+     * replayed on this thread in locale order, so the output and counts are the same as a serial run.
+     */
+    private static void checkInParallel(Collection<String> locales, int jobs) {
+        final List<CompoundCheckCLDR> workerChecks = Collections.synchronizedList(new ArrayList<CompoundCheckCLDR>());
+        final ThreadLocal<LocaleChecker> checkers = new ThreadLocal<LocaleChecker>() {
+            @Override
+            protected LocaleChecker initialValue() {
+                CompoundCheckCLDR checkCldr = CheckCLDR.getCheckAll(cldrFactory, checkFilter);
+                checkCldr.setEnglishFile(english);
+                workerChecks.add(checkCldr);
+                return new LocaleChecker(checkCldr);
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(jobs);
+        // Only check a few locales ahead of the output, since each finished locale holds
+        // its output, and the CLDRFile it refers to, until it is replayed.
+        final int maxPending = jobs * 2;
+        boolean finished = false;
+        try {
+            Deque<Future<LocaleOutput>> pending = new ArrayDeque<Future<LocaleOutput>>();
+            Iterator<String> it = locales.iterator();
+            while (true) {
+                while (pending.size() < maxPending && it.hasNext()) {
+                    final String localeID = it.next();
+                    pending.add(executor.submit(new Callable<LocaleOutput>() {
+                        @Override
+                        public LocaleOutput call() {
+                            LocaleOutput out = new LocaleOutput(true);
+                            checkers.get().check(localeID, out);
+                            return out;
+                        }
+                    }));
+                }
+                if (pending.isEmpty()) {
+                    break;
+                }
+                pending.remove().get().replay();
+            }
+            finished = true;
+        } catch (InterruptedException | ExecutionException e) {
+            throw new ICUException(e);
+        } finally {
+            if (finished) {
+                executor.shutdown();
+            } else {
+                // Don't go on checking the remaining locales after a failure.
+                executor.shutdownNow();
+            }
+        }
+        for (CompoundCheckCLDR checkCldr : workerChecks) {
+            checkCldr.handleFinish();
+        }
+    }
+
+    /**
+     * The output for one locale. When running serially each item is run at once;
+     * in parallel the items are kept, to be replayed in order on the main thread.
+     */
+    private static class LocaleOutput {
+        private final List<Runnable> deferred;
+
+        LocaleOutput(boolean defer) {
+            deferred = defer ? new ArrayList<Runnable>() : null;
+        }
+
+        void add(Runnable item) {
+            if (deferred == null) {
+                item.run();
+            } else {
+                deferred.add(item);
+            }
+        }
+
+        void println(final String line) {
+            add(new Runnable() {
+                @Override
+                public void run() {
+                    System.out.println(line);
+                }
+            });
+        }
+
+        void showValue(final CLDRFile cldrFile, final String prettyPath, final String localeID, final String example,
+            final String path, final String value, final String fullPath, final String statusString,
+            final Subtype subType, final ExampleContext exampleContext) {
+            add(new Runnable() {
+                @Override
+                public void run() {
+                    ConsoleCheckCLDR.showValue(cldrFile, prettyPath, localeID, example, path, value, fullPath,
+                        statusString, subType, exampleContext);
+                }
+            });
+        }
+
+        void showSummary(final String localeID, final Level level, final String value) {
+            add(new Runnable() {
+                @Override
+                public void run() {
+                    ConsoleCheckCLDR.showSummary(localeID, level, value);
+                }
+            });
+        }
+
+        void replay() {
+            for (Runnable item : deferred) {
+                item.run();
+            }
+        }
+    }
+
+    /**
+     * Checks one locale at a time, with the settings from main.
+     */
+    private static class LocaleChecker {
+        private final CompoundCheckCLDR checkCldr;
+        private final Matcher pathFilter = pathFilterPattern == null ? null : pathFilterPattern.matcher("");
+        private final LocaleIDParser localeIDParser = new LocaleIDParser();
+        private final PathShower pathShower = new PathShower();
+        private final List<CheckStatus> result = new ArrayList<CheckStatus>();
+        private final Set<PathHeader> paths = new TreeSet<PathHeader>(); // CLDRFile.ldmlComparator);
+        @SuppressWarnings("rawtypes")
+        private final Map m = new TreeMap();
+        private final Map<String, String> options = new HashMap<String, String>();
+
+        LocaleChecker(CompoundCheckCLDR checkCldr) {
+            this.checkCldr = checkCldr;
+        }
 
-        final List<String> specialPurposeLocales = new ArrayList<String>(Arrays.asList("en_US_POSIX", "en_ZZ", "und", "und_ZZ"));
-        for (String localeID : locales) {
-            if (CLDRFile.isSupplementalName(localeID)) continue;
+        @SuppressWarnings("unchecked")
+        void check(final String localeID, final LocaleOutput out) {
+            if (CLDRFile.isSupplementalName(localeID)) return;
             if (supplementalDataInfo.getDefaultContentLocales().contains(localeID)) {
-                System.out.println("# Skipping default content locale: " + localeID);
-                continue;
+                out.println("# Skipping default content locale: " + localeID);
+                return;
             }
 
             // We don't really need to check the POSIX locale, as it is a special purpose locale
-            if (specialPurposeLocales.contains(localeID)) {
-                System.out.println("# Skipping special purpose locale: " + localeID);
-                continue;
+            if (SPECIAL_PURPOSE_LOCALES.contains(localeID)) {
+                out.println("# Skipping special purpose locale: " + localeID);
+                return;
             }
 
-            boolean isLanguageLocale = localeID.equals(localeIDParser.set(localeID).getLanguageScript());
+            final boolean isLanguageLocale = localeID.equals(localeIDParser.set(localeID).getLanguageScript());
             options.clear();
 
             if (MyOptions.exemplarError.option.doesOccur()) {
@@ -498,10 +686,10 @@ public class ConsoleCheckCLDR {
             }
             if (organization != null) {
                 Map<String, Level> locale_status = StandardCodes.make().getLocaleToLevel(organization);
-                if (locale_status == null) continue;
+                if (locale_status == null) return;
                 level = locale_status.get(localeID);
-                if (level == null) continue;
-                if (level.compareTo(Level.BASIC) <= 0) continue;
+                if (level == null) return;
+                if (level.compareTo(Level.BASIC) <= 0) return;
             } else if (!isLanguageLocale) {
                 // otherwise, skip all language locales
                 options.put(Options.Option.CheckCoverage_skip.getKey(), "true");
@@ -512,7 +700,7 @@ public class ConsoleCheckCLDR {
             options.put(Options.Option.phase.getKey(), phase.toString());
             //options.put(Options.Option.SHOW_TIMES.getKey(), "true");
 
-            if (SHOW_LOCALE) System.out.println();
+            if (SHOW_LOCALE) out.println("");
 
             // options.put("CheckCoverage.requiredLevel","comprehensive");
 
@@ -532,21 +720,35 @@ public class ConsoleCheckCLDR {
                 }
                 //englishFile = cldrFactory.make("en", true);
             } catch (RuntimeException e) {
-                fatalErrors.add(localeID);
-                System.out.println("FATAL ERROR: " + localeID);
-                e.printStackTrace(System.out);
-                continue;
+                final StringWriter stackTrace = new StringWriter();
+                e.printStackTrace(new PrintWriter(stackTrace));
+                out.add(new Runnable() {
+                    @Override
+                    public void run() {
+                        fatalErrors.add(localeID);
+                        System.out.println("FATAL ERROR: " + localeID);
+                        System.out.print(stackTrace);
+                    }
+                });
+                return;
             }
 
             // generate HTML if asked for
             if (ErrorFile.generated_html_directory != null) {
-                String baseLanguage = localeIDParser.set(localeID).getLanguageScript();
-
-                if (!baseLanguage.equals(lastBaseLanguage)) {
-                    lastBaseLanguage = baseLanguage;
-                    ErrorFile.openErrorFile(localeID, baseLanguage);
-                }
-
+                final String baseLanguage = localeIDParser.set(localeID).getLanguageScript();
+                out.add(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!baseLanguage.equals(lastBaseLanguage)) {
+                            lastBaseLanguage = baseLanguage;
+                            try {
+                                ErrorFile.openErrorFile(localeID, baseLanguage);
+                            } catch (IOException e) {
+                                throw new ICUUncheckedIOException(e);
+                            }
+                        }
+                    }
+                });
             }
 
             if (user != null) {
@@ -557,7 +759,12 @@ public class ConsoleCheckCLDR {
             }
             checkCldr.setCldrFileToCheck(file, options, result);
 
-            subtotalCount.clear();
+            out.add(new Runnable() {
+                @Override
+                public void run() {
+                    subtotalCount.clear();
+                }
+            });
 
             for (Iterator<CheckStatus> it3 = result.iterator(); it3.hasNext();) {
                 CheckStatus status = it3.next();
@@ -577,12 +784,12 @@ public class ConsoleCheckCLDR {
                 if (checkOnSubmit) {
                     if (!status.isCheckOnSubmit() || !statusType.equals(CheckStatus.errorType)) continue;
                 }
-                showValue(file, null, localeID, null, null, null, null, statusString, status.getSubtype(), null);
+                out.showValue(file, null, localeID, null, null, null, null, statusString, status.getSubtype(), null);
                 // showSummary(checkCldr, localeID, level, statusString);
             }
             paths.clear();
             // CollectionUtilities.addAll(file.iterator(pathFilter), paths);
-            CoverageInfo covInfo = cldrConf.getCoverageInfo();
+            CoverageInfo covInfo = CLDRConfig.getInstance().getCoverageInfo();
             for (String path : file.fullIterable()) {
                 if (pathFilter != null && !pathFilter.reset(path).find()) {
                     continue;
@@ -598,21 +805,9 @@ public class ConsoleCheckCLDR {
             // addPrettyPaths(file, pathFilter, prettyPathMaker, noaliases, false, paths);
             // addPrettyPaths(file, file.getExtraPaths(), pathFilter, prettyPathMaker, noaliases, false, paths);
 
-            // also add the English paths
-            // CollectionUtilities.addAll(checkCldr.getDisplayInformation().iterator(pathFilter), paths);
-            // initialize the first time in.
-            if (englishPaths == null) {
-                englishPaths = new HashSet<String>();
-                final CLDRFile displayFile = CheckCLDR.getDisplayInformation();
-                addPrettyPaths(displayFile, pathFilter, pathHeaderFactory, noaliases, true, englishPaths);
-                addPrettyPaths(displayFile, displayFile.getExtraPaths(), pathFilter, pathHeaderFactory, noaliases,
-                    true, englishPaths);
-                englishPaths = Collections.unmodifiableSet(englishPaths); // for robustness
-            }
-            // paths.addAll(englishPaths);
-
             UnicodeSet missingExemplars = new UnicodeSet();
             UnicodeSet missingCurrencyExemplars = new UnicodeSet();
+            final FlexibleDateFromCLDR fset = checkFlexibleDates ? new FlexibleDateFromCLDR() : null;
             if (checkFlexibleDates) {
                 fset.set(file);
             }
@@ -621,7 +816,6 @@ public class ConsoleCheckCLDR {
             // only create if we are going to use
             ExampleGenerator exampleGenerator = SHOW_EXAMPLES ? new ExampleGenerator(file, englishFile,
                 CLDRPaths.DEFAULT_SUPPLEMENTAL_DIRECTORY) : null;
-            ExampleContext exampleContext = new ExampleContext();
 
             // Status pathStatus = new Status();
             int pathCount = 0;
@@ -631,6 +825,8 @@ public class ConsoleCheckCLDR {
                 pathCount++;
                 String path = pathHeader.getOriginalPath();
                 String prettyPath = pathHeader.toString().replace('\t', '|').replace(' ', '_');
+                // the context is per path, since the output of the path may be replayed later
+                ExampleContext exampleContext = new ExampleContext();
                 // String prettyPath = it2.next();
                 // String path = prettyPathMaker.getOriginal(prettyPath);
                 // if (path == null) {
@@ -665,7 +861,7 @@ public class ConsoleCheckCLDR {
                 if (SHOW_EXAMPLES) {
                     example = ExampleGenerator.simplify(exampleGenerator.getExampleHtml(path, value, exampleContext,
                         ExampleType.NATIVE));
-                    showExamples(checkCldr, prettyPath, localeID, path, value, fullPath, example,
+                    showExamples(file, out, prettyPath, localeID, path, value, fullPath, example,
                         exampleContext);
                     // continue; // don't show problems
                 }
@@ -711,11 +907,11 @@ public class ConsoleCheckCLDR {
                                 m.clear();
                                 // m.put("pattern", fd.getPattern());
                                 // m.put("input", fd.getRandomInput());
-                                if (d.processPost(m)) System.out.println("\tDemo:\t" + fd.getPlainText(m));
+                                if (d.processPost(m)) out.println("\tDemo:\t" + fd.getPlainText(m));
                             }
                             continue;
                         }
-                        showValue(file, prettyPath, localeID, example, path, value, fullPath, statusString,
+                        out.showValue(file, prettyPath, localeID, example, path, value, fullPath, statusString,
                             status.getSubtype(), exampleContext);
                         showedOne = true;
 
@@ -754,7 +950,7 @@ public class ConsoleCheckCLDR {
                         // }
                         // }
                         if (!showedOne && showAll) {
-                            showValue(file, prettyPath, localeID, example, path, value, fullPath, "ok", Subtype.none,
+                            out.showValue(file, prettyPath, localeID, example, path, value, fullPath, "ok", Subtype.none,
                                 exampleContext);
                             showedOne = true;
                             // pathShower.showHeader(path, value);
@@ -765,15 +961,20 @@ public class ConsoleCheckCLDR {
             }
 
             if (resolveVotesDirectory != null) {
-                LocaleVotingData.resolveErrors(localeID);
+                out.add(new Runnable() {
+                    @Override
+                    public void run() {
+                        LocaleVotingData.resolveErrors(localeID);
+                    }
+                });
             }
 
-            showSummary(checkCldr, localeID, level, "Items (including inherited):\t" + pathCount);
+            out.showSummary(localeID, level, "Items (including inherited):\t" + pathCount);
             if (missingExemplars.size() != 0) {
                 missingExemplars.removeAll(new UnicodeSet("[[:Uppercase:]-[İ]]")); // remove uppercase #4670
                 if (missingExemplars.size() != 0) {
                     Collator col = Collator.getInstance(new ULocale(localeID));
-                    showSummary(checkCldr, localeID, level, "Total missing from general exemplars:\t" + new UnicodeSetPrettyPrinter()
+                    out.showSummary(localeID, level, "Total missing from general exemplars:\t" + new UnicodeSetPrettyPrinter()
                         .setOrdering(col != null ? col : Collator.getInstance(ULocale.ROOT))
                         .setSpaceComparator(col != null ? col : Collator.getInstance(ULocale.ROOT)
                             .setStrength2(Collator.PRIMARY))
@@ -783,7 +984,7 @@ public class ConsoleCheckCLDR {
             }
             if (missingCurrencyExemplars.size() != 0) {
                 Collator col = Collator.getInstance(new ULocale(localeID));
-                showSummary(checkCldr, localeID, level, "Total missing from currency exemplars:\t"
+                out.showSummary(localeID, level, "Total missing from currency exemplars:\t"
                     + new UnicodeSetPrettyPrinter()
                         .setOrdering(col != null ? col : Collator.getInstance(ULocale.ROOT))
                         .setSpaceComparator(col != null ? col : Collator.getInstance(ULocale.ROOT)
@@ -791,11 +992,22 @@ public class ConsoleCheckCLDR {
                         .setCompressRanges(true)
                         .format(missingCurrencyExemplars));
             }
-            for (ErrorType type : subtotalCount.keySet()) {
-                showSummary(checkCldr, localeID, level, "Subtotal " + type + ":\t" + subtotalCount.getCount(type));
-            }
+            final Level finalLevel = level;
+            out.add(new Runnable() {
+                @Override
+                public void run() {
+                    for (ErrorType type : subtotalCount.keySet()) {
+                        showSummary(localeID, finalLevel, "Subtotal " + type + ":\t" + subtotalCount.getCount(type));
+                    }
+                }
+            });
             if (checkFlexibleDates) {
-                fset.showFlexibles();
+                out.add(new Runnable() {
+                    @Override
+                    public void run() {
+                        fset.showFlexibles();
+                    }
+                });
             }
             if (SHOW_EXAMPLES) {
                 // ldml/dates/timeZoneNames/zone[@type="America/Argentina/San_Juan"]/exemplarCity
@@ -811,50 +1023,21 @@ public class ConsoleCheckCLDR {
                     if (fullPath != null) {
                         continue;
                     }
+                    ExampleContext exampleContext = new ExampleContext();
                     String example = ExampleGenerator.simplify(exampleGenerator.getExampleHtml(path, null,
                         exampleContext, ExampleType.NATIVE));
-                    showExamples(checkCldr, prettyPath, localeID, path, null, fullPath, example,
+                    showExamples(file, out, prettyPath, localeID, path, null, fullPath, example,
                         exampleContext);
                 }
             }
-            System.out.println("# Elapsed time: " + timer);
-            System.out.flush();
-        }
-
-        if (ErrorFile.errorFileWriter != null) {
-            ErrorFile.closeErrorFile();
-        }
-
-        if (ErrorFile.generated_html_directory != null) {
-            ErrorFile.writeErrorCountsText();
-            ErrorFile.writeErrorFileIndex();
-        }
-        System.out.println();
-        for (ErrorType type : totalCount.keySet()) {
-            System.out.println("# Total " + type + ":\t" + totalCount.getCount(type));
-        }
-
-        System.out.println();
-        System.out.println("# Total elapsed time: " + totalTimer);
-        if (fatalErrors.size() != 0) {
-            System.out.println("# FATAL ERRORS:");
-        }
-        long errorCount = totalCount.getCount(ErrorType.error) + fatalErrors.size();
-        if (errorCount != 0) {
-            //            System.exit((int) errorCount); // cast is safe; we'll never have that many errors
-            System.out.println();
-            System.out.println("<< FAILURE - Error count is " + errorCount + " . >>");
-            System.exit(-1);
-        } else {
-            System.out.println();
-            System.out.println("<< SUCCESS - No errors found. >>");
-        }
-        if (LogicalGrouping.GET_TYPE_COUNTS) {
-            for (String s : LogicalGrouping.typeCount.keySet()) {
-                System.out.println(s + "=" + LogicalGrouping.typeCount.get(s));
-            }
+            out.println("# Elapsed time: " + timer);
+            out.add(new Runnable() {
+                @Override
+                public void run() {
+                    System.out.flush();
+                }
+            });
         }
-        checkCldr.handleFinish();
     }
 
     static class LocaleVotingData {
@@ -1435,7 +1618,7 @@ public class ConsoleCheckCLDR {
         public static Counter<Row.R4<String, ErrorType, Subtype, String>> sectionToProblemsToLocaleToCount = new Counter<Row.R4<String, ErrorType, Subtype, String>>();
     }
 
-    private static void showSummary(CheckCLDR checkCldr, String localeID, Level level, String value) {
+    private static void showSummary(String localeID, Level level, String value) {
         String line = "# " + getLocaleAndName(localeID) + "\tSummary\t" + level + "\t" + value;
         System.out.println(line);
         // if (generated_html != null) {
@@ -1445,11 +1628,11 @@ public class ConsoleCheckCLDR {
         // }
     }
 
-    private static void showExamples(CheckCLDR checkCldr, String prettyPath, String localeID,
+    private static void showExamples(CLDRFile cldrFile, LocaleOutput out, String prettyPath, String localeID,
         String path, String value, String fullPath, String example,
         ExampleContext exampleContext) {
         if (example != null) {
-            showValue(checkCldr.getCldrFileToCheck(), prettyPath, localeID, example, path, value, fullPath, "ok",
+            out.showValue(cldrFile, prettyPath, localeID, example, path, value, fullPath, "ok",
                 Subtype.none, exampleContext);
         }
     }
@@ -1636,6 +1819,24 @@ public class ConsoleCheckCLDR {
     private static SupplementalDataInfo supplementalDataInfo;
     private static CLDRFile english;
 
+    // settings from main, shared by the LocaleCheckers
+    private static final List<String> SPECIAL_PURPOSE_LOCALES = Arrays.asList("en_US_POSIX", "en_ZZ", "und", "und_ZZ");
+    private static Factory cldrFactory;
+    private static String checkFilter;
+    private static EnumSet<Subtype> subtypeFilter;
+    private static Pattern pathFilterPattern;
+    private static boolean showAll;
+    private static boolean checkFlexibleDates;
+    private static boolean checkOnSubmit;
+    private static boolean baileyTest;
+    private static Level coverageLevel;
+    private static Organization organization;
+    private static Phase phase;
+    private static String user;
+    private static PathHeader.Factory pathHeaderFactory;
+    private static final Set<String> fatalErrors = new TreeSet<String>();
+    private static String lastBaseLanguage = "";
+
     public static class PathShower {
         String localeID;
         boolean newLocale = true;
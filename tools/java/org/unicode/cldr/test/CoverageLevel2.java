@@ -154,21 +154,20 @@ public class CoverageLevel2 {
         if (path == null) {
             return Level.UNDETERMINED;
         }
-        synchronized (lookup) { // synchronize on the class, since the Matchers are changed during the matching process
-            Level result;
-            if (DEBUG_LOOKUP) { // for testing
-                Output<String[]> checkItems = new Output<String[]>();
-                Output<Finder> matcherFound = new Output<Finder>();
-                List<String> failures = new ArrayList<String>();
-                result = lookup.get(path, myInfo, checkItems, matcherFound, failures);
-                for (String s : failures) {
-                    System.out.println(s);
-                }
-            } else {
-                result = lookup.get(path, myInfo, null);
+        // No lock needed: each RegexFinder guards its own Matcher, and the match groups are returned per call
+        Level result;
+        if (DEBUG_LOOKUP) { // for testing
+            Output<String[]> checkItems = new Output<String[]>();
+            Output<Finder> matcherFound = new Output<Finder>();
+            List<String> failures = new ArrayList<String>();
+            result = lookup.get(path, myInfo, checkItems, matcherFound, failures);
+            for (String s : failures) {
+                System.out.println(s);
             }
-            return result == null ? Level.COMPREHENSIVE : result;
+        } else {
+            result = lookup.get(path, myInfo, null);
         }
+        return result == null ? Level.COMPREHENSIVE : result;
     }
 
     public int getIntLevel(String path) {
@@ -15,7 +15,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -35,6 +35,7 @@ import org.unicode.cldr.util.ICUServiceBuilder;
 import org.unicode.cldr.util.LanguageTagParser;
 import org.unicode.cldr.util.Level;
 import org.unicode.cldr.util.PathDescription;
+import org.unicode.cldr.util.PathInterner;
 import org.unicode.cldr.util.PatternCache;
 import org.unicode.cldr.util.PluralSamples;
 import org.unicode.cldr.util.SupplementalDataInfo;
@@ -46,6 +47,11 @@ import org.unicode.cldr.util.TransliteratorUtilities;
 import org.unicode.cldr.util.XListFormatter.ListTypeLength;
 import org.unicode.cldr.util.XPathParts;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
 import com.ibm.icu.impl.Row.R3;
 import com.ibm.icu.impl.Utility;
 import com.ibm.icu.text.BreakIterator;
@@ -133,7 +139,15 @@ public class ExampleGenerator {
      */
     private boolean verboseErrors = false;
 
-    private Calendar calendar = Calendar.getInstance(ZONE_SAMPLE, ULocale.ENGLISH);
+    /**
+     * The ICU formatters are not thread-safe, so each thread gets its own.
+     */
+    private final ThreadLocal<Calendar> calendar = new ThreadLocal<Calendar>() {
+        @Override
+        protected Calendar initialValue() {
+            return Calendar.getInstance(ZONE_SAMPLE, ULocale.ENGLISH);
+        }
+    };
 
     static {
         Calendar calendar = Calendar.getInstance(ZONE_SAMPLE, ULocale.ENGLISH);
@@ -157,15 +171,80 @@ public class ExampleGenerator {
     private CLDRFile englishFile;
     Matcher URLMatcher = URL_PATTERN.matcher("");
 
-    private Map<String, String> cache = new ConcurrentHashMap<String, String>();
+    /**
+     * Maximum number of examples that each ExampleGenerator caches; the least recently used are
+     * dropped first. Set with -DCLDR_EXAMPLE_CACHE_SIZE=n.
+     */
+    private static final int CACHE_LIMIT = Integer.getInteger("CLDR_EXAMPLE_CACHE_SIZE", 10000);
+
+    private static final LongAdder cacheHits = new LongAdder();
+    private static final LongAdder cacheMisses = new LongAdder();
+    private static final LongAdder cacheEvictions = new LongAdder();
+
+    private static final RemovalListener<ExampleKey, String> COUNT_EVICTIONS = new RemovalListener<ExampleKey, String>() {
+        @Override
+        public void onRemoval(RemovalNotification<ExampleKey, String> notification) {
+            if (notification.wasEvicted()) {
+                cacheEvictions.increment();
+            }
+        }
+    };
+
+    /**
+     * Get the statistics for the example caches, over all ExampleGenerators.
+     * Only the hit, miss and eviction counts are filled in.
+     */
+    public static CacheStats getCacheStatistics() {
+        long misses = cacheMisses.sum();
+        return new CacheStats(cacheHits.sum(), misses, misses, 0, 0, cacheEvictions.sum());
+    }
+
+    /**
+     * The key for the example cache: the path, by its PathInterner ID, and the value.
+     * Only paths that are already interned (those of loaded files) are cached, so that
+     * examples for ad-hoc paths don't add them to the interner.
+     */
+    private static final class ExampleKey {
+        private final int pathId;
+        private final String value;
+
+        ExampleKey(int pathId, String value) {
+            this.pathId = pathId;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ExampleKey)) {
+                return false;
+            }
+            ExampleKey other = (ExampleKey) obj;
+            return pathId == other.pathId && value.equals(other.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return pathId * 31 + value.hashCode();
+        }
+    }
+
+    private final Cache<ExampleKey, String> cache = CacheBuilder.newBuilder()
+        .maximumSize(CACHE_LIMIT)
+        .removalListener(COUNT_EVICTIONS)
+        .build();
 
     private static final String NONE = "\uFFFF";
 
-    private ICUServiceBuilder icuServiceBuilder = new ICUServiceBuilder();
+    private final ThreadLocal<ICUServiceBuilder> icuServiceBuilder = new ThreadLocal<ICUServiceBuilder>() {
+        @Override
+        protected ICUServiceBuilder initialValue() {
+            return new ICUServiceBuilder().setCldrFile(cldrFile);
+        }
+    };
 
     private PluralInfo pluralInfo;
 
-    private PluralSamples patternExamples;
+    private volatile PluralSamples patternExamples;
 
     private Map<String, String> subdivisionIdToName;
 
@@ -226,7 +305,8 @@ public class ExampleGenerator {
     private String creationTime = null; // only used if DEBUG_EXAMPLE_GENERATOR
 
     /**
-     * Create an Example Generator. If this is shared across threads, it must be synchronized.
+     * Create an Example Generator. It may be shared across threads: the ICU formatters are kept per thread,
+     * and the example cache is thread-safe.
      *
      * @param resolvedCldrFile
      * @param supplementalDataDirectory
@@ -246,8 +326,6 @@ public class ExampleGenerator {
                 supplementalDataInfo = SupplementalDataInfo.getInstance(supplementalDataDirectory);
             }
         }
-        icuServiceBuilder.setCldrFile(cldrFile);
-
         pluralInfo = supplementalDataInfo.getPlurals(PluralType.cardinal, cldrFile.getLocaleID());
         
         if (DEBUG_EXAMPLE_GENERATOR) {
@@ -294,7 +372,7 @@ public class ExampleGenerator {
         if (value == null) {
             return null;
         }
-        String cacheKey = null;
+        ExampleKey cacheKey = null;
         String result = null;
         /*
          * TODO: enable cache also for non-null type and context. (Or possibly context isn't
@@ -303,16 +381,22 @@ public class ExampleGenerator {
          * Reference: https://unicode.org/cldr/trac/ticket/11787
          */
         boolean useCache = (CACHING && type == null && context == null);
+        int pathId = useCache ? PathInterner.getExistingId(xpath) : -1;
+        if (pathId < 0) {
+            useCache = false;
+        }
         try {
             if (useCache) {
-                cacheKey = xpath + "," + value;
-                result = cache.get(cacheKey);
+                cacheKey = new ExampleKey(pathId, value);
+                result = cache.getIfPresent(cacheKey);
                 if (result != null) {
+                    cacheHits.increment();
                     if (result == NONE) {
                         return null;
                     }
                     return result;
                 }
+                cacheMisses.increment();
             }
             // If generating examples for an inheritance marker, then we need to find the
             // "real" value to generate from.
@@ -586,7 +670,7 @@ public class ExampleGenerator {
             R3<Integer, Integer, Boolean> info = dayPeriodInfo.getFirstDayPeriodInfo(dayPeriod);
             int time = (((info.get0() + info.get1()) % DayPeriodInfo.DAY_LIMIT) / 2);
             //String calendar = parts.getAttributeValue(3, "type");
-            String timeFormatString = icuServiceBuilder.formatDayPeriod(time, backgroundStartSymbol + value + backgroundEndSymbol);
+            String timeFormatString = icuServiceBuilder.get().formatDayPeriod(time, backgroundStartSymbol + value + backgroundEndSymbol);
             examples.add(invertBackground(timeFormatString));
         }
         return formatExampleList(examples.toArray(new String[examples.size()]));
@@ -601,7 +685,7 @@ public class ExampleGenerator {
         if (amount == null) {
             return "n/a";
         }
-        DecimalFormat numberFormat = icuServiceBuilder.getNumberFormat(1);
+        DecimalFormat numberFormat = icuServiceBuilder.get().getNumberFormat(1);
         return format(value, backgroundStartSymbol + numberFormat.format(amount) + backgroundEndSymbol);
     }
 
@@ -651,7 +735,7 @@ public class ExampleGenerator {
             unit2mid = getFormattedUnit("duration-second", unitLength, oneValue, "");
             break;
         case "times":
-            unit1mid = getFormattedUnit("force-newton", unitLength, oneValue, icuServiceBuilder.getNumberFormat(1).format(amount));
+            unit1mid = getFormattedUnit("force-newton", unitLength, oneValue, icuServiceBuilder.get().getNumberFormat(1).format(amount));
             unit2mid = getFormattedUnit("length-meter", unitLength, amount, "");
         break;
         }
@@ -686,7 +770,7 @@ public class ExampleGenerator {
     }
 
     private String handleMiscPatterns(XPathParts parts, String value) {
-        DecimalFormat numberFormat = icuServiceBuilder.getNumberFormat(0);
+        DecimalFormat numberFormat = icuServiceBuilder.get().getNumberFormat(0);
         String start = backgroundStartSymbol + numberFormat.format(99) + backgroundEndSymbol;
         if ("range".equals(parts.getAttributeValue(-1, "type"))) {
             String end = backgroundStartSymbol + numberFormat.format(144) + backgroundEndSymbol;
@@ -696,16 +780,17 @@ public class ExampleGenerator {
         }
     }
 
-    IntervalFormat intervalFormat = new IntervalFormat();
-
-    static Calendar generatingCalendar = Calendar.getInstance(ULocale.US);
+    private final ThreadLocal<IntervalFormat> intervalFormat = new ThreadLocal<IntervalFormat>() {
+        @Override
+        protected IntervalFormat initialValue() {
+            return new IntervalFormat();
+        }
+    };
 
     private static Date getDate(int year, int month, int date, int hour, int minute, int second) {
-        synchronized (generatingCalendar) {
-            generatingCalendar.setTimeZone(GMT_ZONE_SAMPLE);
-            generatingCalendar.set(year, month, date, hour, minute, second);
-            return generatingCalendar.getTime();
-        }
+        Calendar generatingCalendar = Calendar.getInstance(GMT_ZONE_SAMPLE, ULocale.US);
+        generatingCalendar.set(year, month, date, hour, minute, second);
+        return generatingCalendar.getTime();
     }
 
     static Date FIRST_INTERVAL = getDate(2008, 1, 13, 5, 7, 9);
@@ -733,8 +818,7 @@ public class ExampleGenerator {
         // intervalFormatFallback
         // //ldml/dates/calendars/calendar[@type="gregorian"]/dateTimeFormats/intervalFormats/intervalFormatItem[@id="yMd"]/greatestDifference[@id="y"]
         // find where to split the value
-        intervalFormat.setPattern(parts, value);
-        return intervalFormat.format(FIRST_INTERVAL, SECOND_INTERVAL.get(greatestDifference));
+        return intervalFormat.get().setPattern(parts, value).format(FIRST_INTERVAL, SECOND_INTERVAL.get(greatestDifference));
     }
 
     private String handleDelimiters(XPathParts parts, String xpath, String value) {
@@ -820,7 +904,7 @@ public class ExampleGenerator {
     }
 
     private String getFormattedUnit(String unitType, UnitLength unitWidth, FixedDecimal unitAmount) {
-        DecimalFormat numberFormat = icuServiceBuilder.getNumberFormat(1);
+        DecimalFormat numberFormat = icuServiceBuilder.get().getNumberFormat(1);
         return getFormattedUnit(unitType, unitWidth, unitAmount, numberFormat.format(unitAmount));
     }
 
@@ -930,7 +1014,7 @@ public class ExampleGenerator {
         }
         String calendar = parts.getAttributeValue(3, "type");
 
-        SimpleDateFormat sdf = icuServiceBuilder.getDateFormat(calendar, 0, DateFormat.MEDIUM, null);
+        SimpleDateFormat sdf = icuServiceBuilder.get().getDateFormat(calendar, 0, DateFormat.MEDIUM, null);
         String zone = cldrFile.getStringValue("//ldml/dates/timeZoneNames/gmtZeroFormat");
         String result = format(value, setBackground(sdf.format(DATE_SAMPLE)), setBackground(zone));
         return result;
@@ -977,19 +1061,19 @@ public class ExampleGenerator {
                 }
             }
             String calendar = parts.findAttributeValue("calendar", "type");
-            firstFormat = icuServiceBuilder.getDateFormat(calendar, first.toString());
+            firstFormat = icuServiceBuilder.get().getDateFormat(calendar, first.toString());
             firstFormat.setTimeZone(GMT_ZONE_SAMPLE);
 
-            secondFormat = icuServiceBuilder.getDateFormat(calendar, second.toString());
+            secondFormat = icuServiceBuilder.get().getDateFormat(calendar, second.toString());
             secondFormat.setTimeZone(GMT_ZONE_SAMPLE);
             return this;
         }
     }
 
     private String handleDurationUnit(String value) {
-        //            ULocale locale = new ULocale(this.icuServiceBuilder.getCldrFile().getLocaleID());
+        //            ULocale locale = new ULocale(this.icuServiceBuilder.get().getCldrFile().getLocaleID());
         //            SimpleDateFormat df = new SimpleDateFormat(value.replace('h', 'H'), locale);
-        DateFormat df = this.icuServiceBuilder.getDateFormat("gregorian", value.replace('h', 'H'));
+        DateFormat df = this.icuServiceBuilder.get().getDateFormat("gregorian", value.replace('h', 'H'));
         df.setTimeZone(TimeZone.GMT_ZONE);
         long time = ((5 * 60 + 37) * 60 + 23) * 1000;
         return df.format(new Date(time));
@@ -1041,7 +1125,7 @@ public class ExampleGenerator {
             context.setExampleCount(exampleCount);
         }
         String result = "";
-        DecimalFormat currencyFormat = icuServiceBuilder.getCurrencyFormat(unitType);
+        DecimalFormat currencyFormat = icuServiceBuilder.get().getCurrencyFormat(unitType);
         int decimalCount = currencyFormat.getMinimumFractionDigits();
 
         // we will cycle until we have (at most) two examples.
@@ -1136,7 +1220,7 @@ public class ExampleGenerator {
             // get the format for the currency
             // TODO fix this for special currency overrides
 
-            DecimalFormat unitDecimalFormat = icuServiceBuilder.getNumberFormat(1); // decimal
+            DecimalFormat unitDecimalFormat = icuServiceBuilder.get().getNumberFormat(1); // decimal
             unitDecimalFormat.setMaximumFractionDigits(example.getVisibleDecimalDigitCount());
             unitDecimalFormat.setMinimumFractionDigits(example.getVisibleDecimalDigitCount());
 
@@ -1208,7 +1292,7 @@ public class ExampleGenerator {
             // We don't have an example for the list symbol either.
             return null;
         }
-        DecimalFormat x = icuServiceBuilder.getNumberFormat(index, numberSystem);
+        DecimalFormat x = icuServiceBuilder.get().getNumberFormat(index, numberSystem);
         String example;
         String formattedValue;
         if (isSuperscripting) {
@@ -1234,7 +1318,7 @@ public class ExampleGenerator {
     }
 
     private String handleNumberingSystem(String value) {
-        NumberFormat x = icuServiceBuilder.getGenericNumberFormat(value);
+        NumberFormat x = icuServiceBuilder.get().getGenericNumberFormat(value);
         x.setGroupingUsed(false);
         return x.format(NUMBER_SAMPLE_WHOLE);
     }
@@ -1363,13 +1447,13 @@ public class ExampleGenerator {
             String dateNumbersOverride = parts.findAttributeValue("pattern", "numbers");
             parts = XPathParts.getFrozenInstance(cldrFile.getFullXPath(timeFormatXPath));
             String timeNumbersOverride = parts.findAttributeValue("pattern", "numbers");
-            SimpleDateFormat df = icuServiceBuilder.getDateFormat(calendar, dateFormatValue, dateNumbersOverride);
-            SimpleDateFormat tf = icuServiceBuilder.getDateFormat(calendar, timeFormatValue, timeNumbersOverride);
+            SimpleDateFormat df = icuServiceBuilder.get().getDateFormat(calendar, dateFormatValue, dateNumbersOverride);
+            SimpleDateFormat tf = icuServiceBuilder.get().getDateFormat(calendar, timeFormatValue, timeNumbersOverride);
             df.setTimeZone(ZONE_SAMPLE);
             tf.setTimeZone(ZONE_SAMPLE);
             String dfResult = "'" + df.format(DATE_SAMPLE) + "'";
             String tfResult = "'" + tf.format(DATE_SAMPLE) + "'";
-            SimpleDateFormat dtf = icuServiceBuilder.getDateFormat(calendar,
+            SimpleDateFormat dtf = icuServiceBuilder.get().getDateFormat(calendar,
                 MessageFormat.format(value, (Object[]) new String[] { setBackground(tfResult), setBackground(dfResult) }));
             return dtf.format(DATE_SAMPLE);
         } else {
@@ -1378,7 +1462,7 @@ public class ExampleGenerator {
                 return startItalicSymbol + "n/a" + endItalicSymbol;
             } else {
                 String numbersOverride = parts.findAttributeValue("pattern", "numbers");
-                SimpleDateFormat sdf = icuServiceBuilder.getDateFormat(calendar, value, numbersOverride);
+                SimpleDateFormat sdf = icuServiceBuilder.get().getDateFormat(calendar, value, numbersOverride);
                 sdf.setTimeZone(ZONE_SAMPLE);
                 String defaultNumberingSystem = cldrFile.getWinningValue("//ldml/numbers/defaultNumberingSystem");
                 String timeSeparator = cldrFile.getWinningValue("//ldml/numbers/symbols[@numberSystem='" + defaultNumberingSystem + "']/timeSeparator");
@@ -1413,7 +1497,7 @@ public class ExampleGenerator {
         String currencySymbol = cldrFile.getWinningValue(checkPath);
         String numberSystem = parts.getAttributeValue(2, "numberSystem"); // null if not present
 
-        DecimalFormat df = icuServiceBuilder.getCurrencyFormat(currency, currencySymbol, numberSystem);
+        DecimalFormat df = icuServiceBuilder.get().getCurrencyFormat(currency, currencySymbol, numberSystem);
         df.applyPattern(value);
 
         String countValue = parts.getAttributeValue(-1, "count");
@@ -1456,7 +1540,7 @@ public class ExampleGenerator {
      */
     private String handleDecimalFormat(XPathParts parts, String value) {
         String numberSystem = parts.getAttributeValue(2, "numberSystem"); // null if not present
-        DecimalFormat numberFormat = icuServiceBuilder.getNumberFormat(value, numberSystem);
+        DecimalFormat numberFormat = icuServiceBuilder.get().getNumberFormat(value, numberSystem);
         String countValue = parts.getAttributeValue(-1, "count");
         if (countValue != null) {
             return formatCountDecimal(numberFormat, countValue);
@@ -1545,7 +1629,7 @@ public class ExampleGenerator {
                 value = cf.format(NUMBER_SAMPLE);
             }
             String result;
-            DecimalFormat x = icuServiceBuilder.getCurrencyFormat(currency, value);
+            DecimalFormat x = icuServiceBuilder.get().getCurrencyFormat(currency, value);
             result = x.format(NUMBER_SAMPLE);
             result = setBackground(result).replace(value, backgroundEndSymbol + value + backgroundStartSymbol);
             return result;
@@ -1557,7 +1641,7 @@ public class ExampleGenerator {
 
     private String handleDateRangePattern(String value) {
         String result;
-        SimpleDateFormat dateFormat = icuServiceBuilder.getDateFormat("gregorian", 2, 0);
+        SimpleDateFormat dateFormat = icuServiceBuilder.get().getDateFormat("gregorian", 2, 0);
         result = format(value, setBackground(dateFormat.format(DATE_SAMPLE)),
             setBackground(dateFormat.format(DATE_SAMPLE2)));
         return result;
@@ -1889,8 +1973,9 @@ public class ExampleGenerator {
         }
         String[] plusMinus = gmtHourString.split(";");
 
-        SimpleDateFormat dateFormat = icuServiceBuilder.getDateFormat("gregorian", plusMinus[hours >= 0 ? 0 : 1]);
+        SimpleDateFormat dateFormat = icuServiceBuilder.get().getDateFormat("gregorian", plusMinus[hours >= 0 ? 0 : 1]);
         dateFormat.setTimeZone(ZONE_SAMPLE);
+        Calendar calendar = this.calendar.get();
         calendar.set(1999, 9, 27, Math.abs(hours), minutes, 0); // 1999-09-13 13:25:59
         Date sample = calendar.getTime();
         String hourString = dateFormat.format(sample);
@@ -1909,8 +1994,9 @@ public class ExampleGenerator {
             timeFormat = "HH:mm";
         }
         // the following is <= because the TZDB inverts the hours
-        SimpleDateFormat dateFormat = icuServiceBuilder.getDateFormat("gregorian", timeFormat);
+        SimpleDateFormat dateFormat = icuServiceBuilder.get().getDateFormat("gregorian", timeFormat);
         dateFormat.setTimeZone(ZONE_SAMPLE);
+        Calendar calendar = this.calendar.get();
         calendar.set(1999, 9, 13, 13, 25, 59); // 1999-09-13 13:25:59
         Date sample = calendar.getTime();
         String result = dateFormat.format(sample);
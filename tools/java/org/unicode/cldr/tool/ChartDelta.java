@@ -3,11 +3,16 @@ package org.unicode.cldr.tool;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -15,6 +20,11 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -29,6 +39,7 @@ import org.unicode.cldr.util.CLDRPaths;
 import org.unicode.cldr.util.CldrUtility;
 import org.unicode.cldr.util.Counter;
 import org.unicode.cldr.util.DtdData;
+import org.unicode.cldr.util.DtdData.SortKey;
 import org.unicode.cldr.util.DtdType;
 import org.unicode.cldr.util.Factory;
 import org.unicode.cldr.util.LanguageTagParser;
@@ -50,10 +61,12 @@ import com.google.common.collect.Multimap;
 import com.google.common.collect.TreeMultimap;
 import com.ibm.icu.dev.util.CollectionUtilities;
 import com.ibm.icu.impl.Relation;
+import com.ibm.icu.impl.Row;
 import com.ibm.icu.impl.Row.R2;
 import com.ibm.icu.impl.Row.R3;
 import com.ibm.icu.impl.Row.R4;
 import com.ibm.icu.text.NumberFormat;
+import com.ibm.icu.util.ICUException;
 import com.ibm.icu.util.ICUUncheckedIOException;
 import com.ibm.icu.util.Output;
 
@@ -73,6 +86,7 @@ public class ChartDelta extends Chart {
     enum MyOptions {
         fileFilter(new Params().setHelp("filter by dir/locale, eg: ^main/en$ or .*/en").setDefault(".*").setMatch(".*")),
         verbose(new Params().setHelp("verbose debugging messages")),
+        jobs(new Params().setHelp("number of locale groups to diff in parallel").setDefault("1").setMatch("\\d+")),
         ;
 
         // BOILERPLATE TO COPY
@@ -96,10 +110,16 @@ public class ChartDelta extends Chart {
 
     private Matcher fileFilter;
     private boolean verbose;
+    private int jobs;
 
     public ChartDelta(Matcher fileFilter, boolean verbose) {
+        this(fileFilter, verbose, 1);
+    }
+
+    public ChartDelta(Matcher fileFilter, boolean verbose, int jobs) {
         this.fileFilter = fileFilter;
         this.verbose = verbose;
+        this.jobs = jobs;
     }
 
     public static void main(String[] args) {
@@ -107,7 +127,8 @@ public class ChartDelta extends Chart {
         MyOptions.parse(args, true);
         Matcher fileFilter = !MyOptions.fileFilter.option.doesOccur() ? null : PatternCache.get(MyOptions.fileFilter.option.getValue()).matcher("");
         boolean verbose = MyOptions.verbose.option.doesOccur();
-        ChartDelta temp = new ChartDelta(fileFilter, verbose);
+        int jobs = Integer.parseInt(MyOptions.jobs.option.getValue());
+        ChartDelta temp = new ChartDelta(fileFilter, verbose, jobs);
         temp.writeChart(null);
         temp.showTotals();
     }
@@ -182,9 +203,9 @@ public class ChartDelta extends Chart {
 
     Counter<ChangeType> counter = new Counter<>();
     Map<String, Counter<ChangeType>> fileCounters = new TreeMap<>();
-    Set<String> badHeaders = new TreeSet<>();
+    Set<String> badHeaders = Collections.synchronizedSet(new TreeSet<String>());
 
-    private void addChange(String file, ChangeType changeType, int count) {
+    private synchronized void addChange(String file, ChangeType changeType, int count) {
         counter.add(changeType, count); // unified add
         Counter<ChangeType> fileCounter = fileCounters.get(file);
         if (fileCounter == null) {
@@ -306,114 +327,243 @@ public class ChartDelta extends Chart {
 
             // do keyboards later
 
-            Status currentStatus = new Status();
-            Status oldStatus = new Status();
-            Set<PathDiff> diff = new TreeSet<>();
-            Set<String> paths = new HashSet<>();
-
+            // Diff the locales of each base in parallel, but write the charts in order,
+            // keeping only a few bases ahead so that their diffs aren't all held at once.
             Relation<PathHeader, String> diffAll = Relation.of(new TreeMap<PathHeader, Set<String>>(), TreeSet.class);
-//        XPathParts pathPlain = new XPathParts();
-            for (Entry<String, Set<String>> baseNLocale : baseToLocales.keyValuesSet()) {
-                String base = baseNLocale.getKey();
-//            int qCount = 0;
-                for (int i = 0; i < factories.size(); ++i) {
-                    Factory factory = factories.get(i);
-                    Factory oldFactory = oldFactories.get(i);
-                    List<File> sourceDirs = Arrays.asList(factory.getSourceDirectories());
-                    if (sourceDirs.size() != 1) {
-                        throw new IllegalArgumentException("Internal error: expect single source dir");
-                    }
-                    File sourceDir = sourceDirs.get(0);
-                    String sourceDirLeaf = sourceDir.getName();
-                    //System.out.println(sourceDirLeaf);
-                    boolean resolving = !sourceDirLeaf.contains("subdivisions")
-                        && !sourceDirLeaf.contains("transforms");
-                    for (String locale : baseNLocale.getValue()) {
-                        //System.out.println("\t" + locale);
-                        String nameAndLocale = sourceDirLeaf + "/" + locale;
-                        if (fileFilter != null && !fileFilter.reset(nameAndLocale).find()) {
-                            if (verbose) {
-                                System.out.println("SKIPPING: " + nameAndLocale);
+            ExecutorService executor = Executors.newFixedThreadPool(jobs);
+            try {
+                Deque<R2<String, Future<R2<Set<PathDiff>, Relation<PathHeader, String>>>>> pending = new ArrayDeque<>();
+                Iterator<Entry<String, Set<String>>> bases = baseToLocales.keyValuesSet().iterator();
+                while (bases.hasNext() || !pending.isEmpty()) {
+                    while (bases.hasNext() && pending.size() < jobs * 2) {
+                        final Entry<String, Set<String>> baseNLocale = bases.next();
+                        pending.add(Row.of(baseNLocale.getKey(), executor.submit(new Callable<R2<Set<PathDiff>, Relation<PathHeader, String>>>() {
+                            @Override
+                            public R2<Set<PathDiff>, Relation<PathHeader, String>> call() {
+                                return diffBase(baseNLocale.getValue(), factories, oldFactories);
                             }
-                            continue;
-                        }
-//                    boolean isBase = locale.equals(base);
-                        if (verbose) {
-                            System.out.println(nameAndLocale);
-                        }
-                        CLDRFile current = makeWithFallback(factory, locale, resolving);
-                        CLDRFile old = makeWithFallback(oldFactory, locale, resolving);
-                        if (!locale.equals("root") && current.getLocaleID().equals("root") && old.getLocaleID().equals("root")) {
-                            continue;
-                        }
-                        if (old == EMPTY_CLDR && current == EMPTY_CLDR) {
-                            continue;
-                        }
-                        paths.clear();
-                        for (String path : current.fullIterable()) {
-                            paths.add(path);
-                        }
-                        for (String path : old.fullIterable()) {
-                            paths.add(path);
-                        }
+                        })));
+                    }
+                    R2<String, Future<R2<Set<PathDiff>, Relation<PathHeader, String>>>> next = pending.remove();
+                    R2<Set<PathDiff>, Relation<PathHeader, String>> result = next.get1().get();
+                    for (Entry<PathHeader, Set<String>> entry : result.get1().keyValuesSet()) {
+                        diffAll.putAll(entry.getKey(), entry.getValue());
+                    }
+                    writeDiffs(anchors, next.get0(), result.get0(), tsvFile, counts);
+                }
+            } catch (InterruptedException | ExecutionException e) {
+                throw new ICUException(e);
+            } finally {
+                executor.shutdown();
+            }
+            writeDiffs(anchors, diffAll);
 
-                        Output<String> reformattedValue = new Output<String>();
-                        Output<Boolean> hasReformattedValue = new Output<Boolean>();
+            writeCounter(tsvCountFile, "Count", counts);
+            tsvFile.println("# EOF");
+            tsvCountFile.println("# EOF");
+        }
 
-                        for (String path : paths) {
-                            if (path.startsWith("//ldml/identity")
-                                || path.endsWith("/alias")
-                                || path.startsWith("//ldml/segmentations") // do later
-                                || path.startsWith("//ldml/rbnf") // do later
-                                ) {
-                                continue;
-                            }
-                            if (path.contains("/tRule")) {
-                                int debug = 0;
-                            }
-                            PathHeader ph = getPathHeader(path);
-                            if (ph == null) {
-                                continue;
-                            }
+    }
 
-                            String oldValue = null;
-                            String currentValue = null;
-
-                            {
-                                String sourceLocaleCurrent = current.getSourceLocaleID(path, currentStatus);
-                                String sourceLocaleOld = getReformattedPath(oldStatus, old, path, reformattedValue, hasReformattedValue);
-
-                                // filter out stuff that differs at a higher level
-                                if (!sourceLocaleCurrent.equals(locale)
-                                    && !sourceLocaleOld.equals(locale)) {
-                                    continue;
-                                }
-                                if (!path.equals(currentStatus.pathWhereFound)
-                                    && !path.equals(oldStatus.pathWhereFound)) {
-                                    continue;
-                                }
-                                // fix some incorrect cases?
-
-                                currentValue = current.getStringValue(path);
-                                oldValue = hasReformattedValue.value ? reformattedValue.value : old.getStringValue(path);
-                            }
-                            // handle non-distinguishing attributes
-                            addPathDiff(sourceDir, old, current, locale, ph, diff);
+    /**
+     * Diff the locales with the same base language, in each directory.
+     *
+     * @return the differences, and for each changed path the locales where it changed
+     */
+    private R2<Set<PathDiff>, Relation<PathHeader, String>> diffBase(Set<String> locales, List<Factory> factories,
+        List<Factory> oldFactories) {
+        Set<PathDiff> diff = new TreeSet<>();
+        Relation<PathHeader, String> diffAll = Relation.of(new TreeMap<PathHeader, Set<String>>(), TreeSet.class);
+        for (int i = 0; i < factories.size(); ++i) {
+            Factory factory = factories.get(i);
+            Factory oldFactory = oldFactories.get(i);
+            List<File> sourceDirs = Arrays.asList(factory.getSourceDirectories());
+            if (sourceDirs.size() != 1) {
+                throw new IllegalArgumentException("Internal error: expect single source dir");
+            }
+            File sourceDir = sourceDirs.get(0);
+            String sourceDirLeaf = sourceDir.getName();
+            //System.out.println(sourceDirLeaf);
+            boolean resolving = !sourceDirLeaf.contains("subdivisions")
+                && !sourceDirLeaf.contains("transforms");
+            for (String locale : locales) {
+                //System.out.println("\t" + locale);
+                String nameAndLocale = sourceDirLeaf + "/" + locale;
+                if (fileFilter != null && !fileFilter.pattern().matcher(nameAndLocale).find()) {
+                    if (verbose) {
+                        System.out.println("SKIPPING: " + nameAndLocale);
+                    }
+                    continue;
+                }
+                if (verbose) {
+                    System.out.println(nameAndLocale);
+                }
+                CLDRFile current = makeWithFallback(factory, locale, resolving);
+                CLDRFile old = makeWithFallback(oldFactory, locale, resolving);
+                if (!locale.equals("root") && current.getLocaleID().equals("root") && old.getLocaleID().equals("root")) {
+                    continue;
+                }
+                if (old == EMPTY_CLDR && current == EMPTY_CLDR) {
+                    continue;
+                }
+                diffLocale(sourceDir, locale, current, old, diff, diffAll);
+            }
+        }
+        return Row.of(diff, diffAll);
+    }
 
-                            addValueDiff(sourceDir, oldValue, currentValue, locale, ph, diff, diffAll);
+    /**
+     * Diff the paths of two versions of a locale, visiting each path once. Only references to the paths
+     * are kept for the whole locale, grouped by their top-level element. The paths of one top-level
+     * element at a time are sorted into DTD order (see MERGE_ORDER), in both versions, and merged as
+     * they are diffed, so that the sort keys of all of the paths are never held at once.
+     */
+    private void diffLocale(File sourceDir, String locale, CLDRFile current, CLDRFile old, Set<PathDiff> diff,
+        Relation<PathHeader, String> diffAll) {
+        Status currentStatus = new Status();
+        Status oldStatus = new Status();
+        Output<String> reformattedValue = new Output<String>();
+        Output<Boolean> hasReformattedValue = new Output<Boolean>();
+
+        Map<String, List<String>> currentSections = getSections(current);
+        Map<String, List<String>> oldSections = getSections(old);
+        Set<String> sections = new TreeSet<String>(currentSections.keySet());
+        sections.addAll(oldSections.keySet());
+        for (String section : sections) {
+            // remove each section as it is reached, so that its paths can be collected
+            List<SortKey> currentKeys = getSortedKeys(current, currentSections.remove(section));
+            List<SortKey> oldKeys = getSortedKeys(old, oldSections.remove(section));
+            int currentIndex = 0;
+            int oldIndex = 0;
+            while (currentIndex < currentKeys.size() || oldIndex < oldKeys.size()) {
+                String path;
+                if (oldIndex >= oldKeys.size()) {
+                    path = currentKeys.get(currentIndex++).path;
+                } else if (currentIndex >= currentKeys.size()) {
+                    path = oldKeys.get(oldIndex++).path;
+                } else {
+                    SortKey currentKey = currentKeys.get(currentIndex);
+                    SortKey oldKey = oldKeys.get(oldIndex);
+                    int comparison = MERGE_ORDER.compare(currentKey, oldKey);
+                    if (comparison > 0) {
+                        path = oldKey.path;
+                        ++oldIndex;
+                    } else {
+                        path = currentKey.path;
+                        ++currentIndex;
+                        if (comparison == 0 && path.equals(oldKey.path)) {
+                            ++oldIndex;
                         }
                     }
                 }
-                writeDiffs(anchors, base, diff, tsvFile, counts);
-                diff.clear();
+                diffPath(sourceDir, locale, current, old, path, currentStatus, oldStatus,
+                    reformattedValue, hasReformattedValue, diff, diffAll);
             }
-            writeDiffs(anchors, diffAll);
+        }
+    }
 
-            writeCounter(tsvCountFile, "Count", counts);
-            tsvFile.println("# EOF");
-            tsvCountFile.println("# EOF");
+    private void diffPath(File sourceDir, String locale, CLDRFile current, CLDRFile old, String path,
+        Status currentStatus, Status oldStatus, Output<String> reformattedValue, Output<Boolean> hasReformattedValue,
+        Set<PathDiff> diff, Relation<PathHeader, String> diffAll) {
+        if (path.startsWith("//ldml/identity")
+            || path.endsWith("/alias")
+            || path.startsWith("//ldml/segmentations") // do later
+            || path.startsWith("//ldml/rbnf") // do later
+            ) {
+            return;
+        }
+        PathHeader ph = getPathHeader(path);
+        if (ph == null) {
+            return;
+        }
+
+        String oldValue = null;
+        String currentValue = null;
+
+        {
+            String sourceLocaleCurrent = current.getSourceLocaleID(path, currentStatus);
+            String sourceLocaleOld = getReformattedPath(oldStatus, old, path, reformattedValue, hasReformattedValue);
+
+            // filter out stuff that differs at a higher level
+            if (!sourceLocaleCurrent.equals(locale)
+                && !sourceLocaleOld.equals(locale)) {
+                return;
+            }
+            if (!path.equals(currentStatus.pathWhereFound)
+                && !path.equals(oldStatus.pathWhereFound)) {
+                return;
+            }
+            // fix some incorrect cases?
+
+            currentValue = current.getStringValue(path);
+            oldValue = hasReformattedValue.value ? reformattedValue.value : old.getStringValue(path);
+        }
+        // handle non-distinguishing attributes
+        addPathDiff(sourceDir, old, current, locale, ph, diff);
+
+        addValueDiff(sourceDir, oldValue, currentValue, locale, ph, diff, diffAll);
+    }
+
+    /**
+     * The order of the paths for diffing: those that fit the current DTD in DTD order, then those that
+     * don't, such as paths of an old release whose elements, attributes or values have since been removed,
+     * by string. The files of both releases are keyed with the current DTD, so a path gets the same key in
+     * each. SortKey.compareTo isn't used for the paths that don't fit, since it falls back to the
+     * DtdComparator, which can throw for them, and doesn't order them consistently with the others.
+     */
+    private static final Comparator<SortKey> MERGE_ORDER = new Comparator<SortKey>() {
+        @Override
+        public int compare(SortKey a, SortKey b) {
+            boolean aFits = a.fitsDtd();
+            boolean bFits = b.fitsDtd();
+            if (aFits && bFits) {
+                return a.compareTo(b);
+            } else if (aFits != bFits) {
+                return aFits ? -1 : 1;
+            } else {
+                return a.path.compareTo(b.path);
+            }
+        }
+    };
+
+    /**
+     * @return the paths of the file, by the path of their top-level element, such as //ldml/dates
+     */
+    private static Map<String, List<String>> getSections(CLDRFile file) {
+        Map<String, List<String>> result = new HashMap<>();
+        if (file == EMPTY_CLDR) {
+            return result;
+        }
+        for (String path : file.fullIterable()) {
+            int start = path.indexOf('/', 2) + 1; // after the root element
+            int end = start;
+            while (end < path.length() && path.charAt(end) != '/' && path.charAt(end) != '[') {
+                ++end;
+            }
+            String section = path.substring(0, end);
+            List<String> paths = result.get(section);
+            if (paths == null) {
+                result.put(section, paths = new ArrayList<>());
+            }
+            paths.add(path);
         }
+        return result;
+    }
 
+    /**
+     * @return the DTD sort keys of the paths of a section of the file, sorted by MERGE_ORDER
+     */
+    private static List<SortKey> getSortedKeys(CLDRFile file, List<String> paths) {
+        if (paths == null) {
+            return Collections.emptyList();
+        }
+        DtdData dtdData = file.getDtdData();
+        List<SortKey> result = new ArrayList<>(paths.size());
+        for (String path : paths) {
+            result.add(dtdData.getSortKey(path));
+        }
+        Collections.sort(result, MERGE_ORDER);
+        return result;
     }
 
     private String getReformattedPath(Status oldStatus, CLDRFile old, String path, Output<String> value, Output<Boolean> hasReformattedValue) {
@@ -448,19 +598,24 @@ public class ChartDelta extends Chart {
         return old.getSourceLocaleID(oldStylePath, oldStatus);
     }
 
-    PathStarrer starrer = new PathStarrer().setSubstitutionPattern("%A");
+    private final ThreadLocal<PathStarrer> starrer = new ThreadLocal<PathStarrer>() {
+        @Override
+        protected PathStarrer initialValue() {
+            return new PathStarrer().setSubstitutionPattern("%A");
+        }
+    };
 
     private PathHeader getPathHeader(String path) {
         try {
             PathHeader ph = phf.fromPath(path);
             if (ph.getPageId() == PageId.Unknown) {
-                String star = starrer.set(path);
+                String star = starrer.get().set(path);
                 badHeaders.add(star);
                 return null;
             }
             return ph;
         } catch (Exception e) {
-            String star = starrer.set(path);
+            String star = starrer.get().set(path);
             badHeaders.add(star);
             // System.err.println("Skipping path with bad PathHeader: " + path);
             return null;
@@ -20,7 +20,8 @@ import com.ibm.icu.util.ULocale;
 
 public class FormattedFileWriter extends java.io.Writer {
     public static final String CHART_TARGET_DIR = CLDRPaths.CHART_DIRECTORY + "/supplemental/";
-    public static final Collator COL = Collator.getInstance(ULocale.ROOT).setStrength2(Collator.IDENTICAL);
+    // Frozen, since the chart generators sort their anchors with it at the same time.
+    public static final Collator COL = Collator.getInstance(ULocale.ROOT).setStrength2(Collator.IDENTICAL).freeze();
     //public static final PairComparator<String,String> PC = new PairComparator(COL, null);
     public static final ArrayComparator PC = new ArrayComparator(COL);
 
@@ -1,29 +1,193 @@
 package org.unicode.cldr.tool;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.unicode.cldr.util.CLDRConfig;
 import org.unicode.cldr.util.CLDRPaths;
 import org.unicode.cldr.util.DateTimeFormats;
 import org.unicode.cldr.util.FileCopier;
+import org.unicode.cldr.util.PathHeader;
 import org.unicode.cldr.util.VerifyCompactNumbers;
 import org.unicode.cldr.util.VerifyZones;
 
+import com.ibm.icu.util.ICUException;
+
+/**
+ * Generates all of the charts. The chart generators are independent, so they run in parallel,
+ * after the shared data in CLDRConfig (factories, supplemental data, English, etc.) has been
+ * loaded once, so that the generators don't each load it, or race to. The number of generators
+ * to run at once is set with -Dcharts.jobs=N; 1 runs them one after another, as before.
+ */
 public class GenerateAllCharts {
-    public static void main(String[] args) throws Exception {
+    private static final int JOBS = Integer.getInteger("charts.jobs", Runtime.getRuntime().availableProcessors());
+
+    /**
+     * A chart generator, or several that have to run in sequence.
+     */
+    private static abstract class ChartTask implements Callable<Long> {
+        final String name;
+
+        ChartTask(String name) {
+            this.name = name;
+        }
+
+        abstract void run() throws Exception;
+
+        /**
+         * @return the time taken, in milliseconds
+         */
+        @Override
+        public Long call() throws Exception {
+            long start = System.currentTimeMillis();
+            run();
+            long time = System.currentTimeMillis() - start;
+            System.out.println("Generated " + name + " in " + time + "ms");
+            return time;
+        }
+    }
+
+    public static void main(final String[] args) throws Exception {
+        long start = System.currentTimeMillis();
         FileCopier.copy(GenerateAllCharts.class, "index.css", CLDRPaths.CHART_DIRECTORY);
         FileCopier.copy(GenerateAllCharts.class, "main-index.html", CLDRPaths.CHART_DIRECTORY, "index.html");
         FormattedFileWriter.copyIncludeHtmls(CLDRPaths.CHART_DIRECTORY);
+        warmUp();
+        System.out.println("Loaded shared data in " + (System.currentTimeMillis() - start) + "ms");
+
+        List<ChartTask> tasks = Arrays.asList(
+            new ChartTask("ShowLanguages") {
+                @Override
+                void run() throws Exception {
+                    ShowLanguages.main(args);
+                }
+            },
+            new ChartTask("ChartAnnotations") {
+                @Override
+                void run() throws Exception {
+                    new ChartAnnotations().writeChart(null);
+                }
+            },
+            new ChartTask("ChartSubdivisionNames") {
+                @Override
+                void run() throws Exception {
+                    new ChartSubdivisionNames().writeChart(null);
+                }
+            },
+            new ChartTask("GenerateBcp47Text") {
+                @Override
+                void run() throws Exception {
+                    GenerateBcp47Text.main(args);
+                }
+            },
+            new ChartTask("GenerateSidewaysView") {
+                @Override
+                void run() throws Exception {
+                    GenerateSidewaysView.main(args);
+                }
+            },
+            new ChartTask("ShowData") {
+                @Override
+                void run() throws Exception {
+                    ShowData.main(args);
+                }
+            },
+            // GenerateTransformCharts.main(args);
+            new ChartTask("ShowKeyboards") {
+                @Override
+                void run() throws Exception {
+                    ShowKeyboards.main(args);
+                }
+            },
+            new ChartTask("ChartDelta") {
+                @Override
+                void run() throws Exception {
+                    ChartDelta.main(args);
+                }
+            },
+            new ChartTask("ChartCollation") {
+                @Override
+                void run() throws Exception {
+                    ChartCollation.main(args);
+                }
+            },
+            // These all write to the verify directory, so they run in sequence.
+            new ChartTask("VerifyCompactNumbers, VerifyZones, DateTimeFormats") {
+                @Override
+                void run() throws Exception {
+                    VerifyCompactNumbers.main(args);
+                    VerifyZones.main(args);
+                    DateTimeFormats.main(args);
+                }
+            });
+
+        List<Long> times = new ArrayList<Long>();
+        if (JOBS <= 1) {
+            for (ChartTask task : tasks) {
+                times.add(task.call());
+            }
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(JOBS);
+            // take the results as the tasks finish, so that the first failure is seen at once
+            CompletionService<Long> completion = new ExecutorCompletionService<Long>(executor);
+            boolean finished = false;
+            try {
+                Map<Future<Long>, Integer> taskIndexes = new HashMap<Future<Long>, Integer>();
+                for (int i = 0; i < tasks.size(); ++i) {
+                    taskIndexes.put(completion.submit(tasks.get(i)), i);
+                }
+                Long[] results = new Long[tasks.size()];
+                for (int i = 0; i < tasks.size(); ++i) {
+                    Future<Long> result = completion.take();
+                    results[taskIndexes.get(result)] = result.get();
+                }
+                times.addAll(Arrays.asList(results));
+                finished = true;
+            } catch (InterruptedException | ExecutionException e) {
+                throw new ICUException(e);
+            } finally {
+                if (finished) {
+                    executor.shutdown();
+                } else {
+                    // stop the other generators, rather than letting them run to the end
+                    executor.shutdownNow();
+                }
+            }
+        }
+
+        System.out.println();
+        for (int i = 0; i < tasks.size(); ++i) {
+            System.out.println(String.format("%-56s%10dms", tasks.get(i).name, times.get(i)));
+        }
+        System.out.println(String.format("%-56s%10dms", "Total, with " + JOBS + " jobs", System.currentTimeMillis() - start));
+    }
 
-        ShowLanguages.main(args);
-        new ChartAnnotations().writeChart(null);
-        new ChartSubdivisionNames().writeChart(null);
-        GenerateBcp47Text.main(args);
-        GenerateSidewaysView.main(args);
-        ShowData.main(args);
-        //GenerateTransformCharts.main(args);
-        ShowKeyboards.main(args);
-        ChartDelta.main(args);
-        ChartCollation.main(args);
-        VerifyCompactNumbers.main(args);
-        VerifyZones.main(args);
-        DateTimeFormats.main(args);
+    /**
+     * Load the data shared by the chart generators, so that it is only loaded once,
+     * and so that the lazily created singletons are created before there are several threads.
+     */
+    private static void warmUp() {
+        CLDRConfig config = CLDRConfig.getInstance();
+        config.getSupplementalDataInfo();
+        config.getStandardCodes();
+        config.getCoverageInfo();
+        config.getCldrFactory();
+        config.getAnnotationsFactory();
+        config.getSubdivisionFactory();
+        config.getCollationFactory();
+        config.getRoot();
+        PathHeader.getFactory(config.getEnglish());
+        config.getCollator();
+        config.getCollatorRoot();
     }
 }
@@ -10,8 +10,15 @@ import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.unicode.cldr.tool.FilterFactory;
 import org.unicode.cldr.tool.Option;
@@ -26,13 +33,15 @@ import org.unicode.cldr.util.SimpleXMLSource;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
+import com.ibm.icu.util.ICUException;
 
 /**
  * Class designed for the resolution of CLDR XML Files (e.g., removing aliases
  * but leaving the inheritance structure intact).
  *
- * Instances of this class are not thread-safe. Any attempts to use an object of
- * this class in multiple threads must be externally synchronized.
+ * Instances of this class are thread-safe. Each locale is resolved once, and the
+ * resolved file is shared by all the threads that need it, such as those resolving
+ * its children.
  *
  * @author ryanmentley@google.com (Ryan Mentley), jchye@google.com (Jennifer Chye)
  *
@@ -60,7 +69,8 @@ public class CldrResolver {
                 .add("mindraftstatus", 'm', ".*", "unconfirmed", "The minimum draft status")
                 .add("verbosity", 'v', "\\d", "2", "The verbosity level for comments during generation")
                 .add("usealtvalues", 'a', null, null, "Use alternate values in FilterFactory for the locale data to be resolved.")
-                .add("organization", 'o', ".*", null, "Filter by this organization's coverage level");
+                .add("organization", 'o', ".*", null, "Filter by this organization's coverage level")
+                .add("jobs", 'j', "\\d+", "1", "The number of locales to resolve in parallel");
 
     /* Private instance variables */
     private Factory cldrFactory;
@@ -133,7 +143,8 @@ public class CldrResolver {
 
         // Perform the resolution
         String localeRegex = options.get("locale").getValue();
-        resolver.resolve(localeRegex, destDir);
+        int jobs = Integer.parseInt(options.get("jobs").getValue());
+        resolver.resolve(localeRegex, new File(destDir), jobs);
         ResolverUtils.debugPrintln("Execution complete.", 3);
     }
 
@@ -165,18 +176,68 @@ public class CldrResolver {
      * @throws IllegalArgumentException if outputDir is not a directory
      */
     public void resolve(String localeRegex, File outputDir) {
+        resolve(localeRegex, outputDir, 1);
+    }
+
+    /**
+     * Resolves all locales that match the given regular expression and outputs
+     * their XML files to the given directory, resolving several locales at once.
+     * The locales are resolved in order of their depth in the inheritance chain,
+     * root first, so that the resolved parents are ready when the children that
+     * are resolved against them start.
+     *
+     * @param localeRegex a regular expression that will be matched against the
+     *        names of locales
+     * @param outputDir the directory to which to output the partially-resolved
+     *        XML files
+     * @param jobs the number of locales to resolve in parallel
+     * @throws IllegalArgumentException if outputDir is not a directory
+     */
+    public void resolve(String localeRegex, final File outputDir, int jobs) {
         if (!outputDir.isDirectory()) {
             throw new IllegalArgumentException(outputDir.getPath() + " is not a directory");
         }
 
-        // Iterate through all the locales
+        // Group the locales by depth
+        Map<Integer, List<String>> levels = new TreeMap<Integer, List<String>>();
         for (String locale : getLocaleNames(localeRegex)) {
-            // Resolve the file
-            ResolverUtils.debugPrintln("Processing locale " + locale + "...", 2);
-            CLDRFile resolved = resolveLocale(locale);
+            int depth = 0;
+            for (String parent = LocaleIDParser.getSimpleParent(locale); parent != null; parent = LocaleIDParser.getSimpleParent(parent)) {
+                ++depth;
+            }
+            List<String> level = levels.get(depth);
+            if (level == null) {
+                levels.put(depth, level = new ArrayList<String>());
+            }
+            level.add(locale);
+        }
 
-            // Output the file to disk
-            printToFile(resolved, outputDir);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, jobs));
+        try {
+            for (List<String> level : levels.values()) {
+                List<Future<Void>> results = new ArrayList<Future<Void>>();
+                for (final String locale : level) {
+                    results.add(executor.submit(new Callable<Void>() {
+                        @Override
+                        public Void call() {
+                            // Resolve the file
+                            ResolverUtils.debugPrintln("Processing locale " + locale + "...", 2);
+                            CLDRFile resolved = resolveLocale(locale);
+
+                            // Output the file to disk
+                            printToFile(resolved, outputDir);
+                            return null;
+                        }
+                    }));
+                }
+                for (Future<Void> result : results) {
+                    result.get();
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new ICUException(e);
+        } finally {
+            executor.shutdown();
         }
     }
 
@@ -214,16 +275,22 @@ public class CldrResolver {
      * @param resolutionType the type of resolution to perform
      * @return a {@link CLDRFile} containing the resolved data
      */
-    public CLDRFile resolveLocale(String locale) {
-        // Create CLDRFile for current (base) locale
-        CLDRFile base = cldrFactory.make(locale, true);
-        CLDRFile resolved = resolvedCache.getIfPresent(locale);
-        if (resolved != null) return resolved;
-
-        ResolverUtils.debugPrintln("Processing " + locale + "...", 2);
-        resolved = resolveLocaleInternal(base, resolutionType);
-        resolvedCache.put(locale, resolved);
-        return resolved;
+    public CLDRFile resolveLocale(final String locale) {
+        try {
+            // If another thread is resolving the locale, wait for it rather than resolving it again
+            return resolvedCache.get(locale, new Callable<CLDRFile>() {
+                @Override
+                public CLDRFile call() {
+                    // Create CLDRFile for current (base) locale
+                    CLDRFile base = cldrFactory.make(locale, true);
+                    ResolverUtils.debugPrintln("Processing " + locale + "...", 2);
+                    // frozen, since it is shared between threads
+                    return resolveLocaleInternal(base, resolutionType).freeze();
+                }
+            });
+        } catch (ExecutionException e) {
+            throw new ICUException(e.getCause());
+        }
     }
 
     private CLDRFile resolveLocaleInternal(CLDRFile file, ResolutionType resolutionType) {
@@ -404,8 +404,7 @@ public class CLDRFile implements Freezable<CLDRFile>, Iterable<String> {
      * @return true if we write the file, false if we cancel due to skipping all paths
      */
     public boolean write(PrintWriter pw, Map<String, ?> options) {
-        Set<String> orderedSet = new TreeSet<String>(getComparator());
-        CollectionUtilities.addAll(dataSource.iterator(), orderedSet);
+        Collection<String> orderedSet = sortPaths(dataSource.iterator(), getComparator());
 
         String firstPath = null;
         String firstFullPath = null;
@@ -1241,9 +1240,20 @@ public class CLDRFile implements Freezable<CLDRFile>, Iterable<String> {
             ? dataSource.iterator()
                 : dataSource.iterator(prefix);
             if (comparator == null) return it;
-            Set<String> orderedSet = new TreeSet<String>(comparator);
-            CollectionUtilities.addAll(it, orderedSet);
-            return orderedSet.iterator();
+            return sortPaths(it, comparator).iterator();
+    }
+
+    /**
+     * Get the paths in the order of the comparator, without duplicates. DTD comparators sort
+     * using sort keys, so that each path is only parsed once.
+     */
+    private static Collection<String> sortPaths(Iterator<String> paths, Comparator<String> comparator) {
+        if (comparator instanceof DtdData.DtdComparator) {
+            return ((DtdData.DtdComparator) comparator).sort(paths);
+        }
+        Set<String> orderedSet = new TreeSet<String>(comparator);
+        CollectionUtilities.addAll(paths, orderedSet);
+        return orderedSet;
     }
 
     public Iterable<String> fullIterable() {
@@ -2824,7 +2834,8 @@ public class CLDRFile implements Freezable<CLDRFile>, Iterable<String> {
 
         public static final String stats() {
             return "distinguishingMap:" + distinguishingMap.size() + " " +
-                "normalizedPathMap:" + normalizedPathMap.size();
+                "normalizedPathMap:" + normalizedPathMap.size() + " " +
+                "pathInterner:" + PathInterner.size();
         }
 
         private static Map<String, String> distinguishingMap = new ConcurrentHashMap<String, String>();
@@ -2915,6 +2926,8 @@ public class CLDRFile implements Freezable<CLDRFile>, Iterable<String> {
                 if (result.equals(xpath)) { // don't save the copy if we don't have to.
                     result = xpath;
                 }
+                // share one instance of each distinguishing path across all files
+                result = PathInterner.intern(result);
                 distinguishingMap.put(xpath, result);
             }
             if (normalizedPath != null) {
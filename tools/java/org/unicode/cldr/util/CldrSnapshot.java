@@ -0,0 +1,534 @@
+package org.unicode.cldr.util;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.unicode.cldr.util.CLDRFile.DraftStatus;
+import org.unicode.cldr.util.XPathParts.Comments;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.ibm.icu.util.ICUUncheckedIOException;
+
+/**
+ * A compact binary snapshot of the (unresolved) data for a set of locales, which can be
+ * memory-mapped instead of parsing the LDML XML files. A snapshot is written once from any
+ * Factory, and then read back through a SnapshotFactory, whose XMLSources read directly from the
+ * mapped buffer. Resolution is done as usual by the ResolvingSource, over the mapped sources.
+ * <p>
+ * The file layout is (all ints big-endian):
+ *
+ * <pre>
+ * header:   magic, version, draftStatus ordinal, supplementalDirectory string (or -1)
+ * strings:  count, byte offsets[count + 1] (into the blob)
+ * paths:    hash table size, table[size] (string + 1, or 0 if empty), probed linearly on String.hashCode
+ * locales:  count, then per locale: localeID string, nonInheriting, first entry, entry count
+ * entries:  count, then per entry: path string, value string, full path string (or -1 if the same as the path)
+ * blob:     the UTF-8 bytes of all of the strings
+ * </pre>
+ *
+ * The entries for each locale are sorted by path string ID, for binary search. Comments are not
+ * stored. A snapshot is limited to 2G bytes, the size of a single mapped buffer.
+ */
+public final class CldrSnapshot {
+    private static final int MAGIC = 0x434C4453; // "CLDS"
+    private static final int VERSION = 1;
+    private static final int ENTRY_INTS = 3;
+
+    private final File file;
+    private final ByteBuffer buffer;
+    private final DraftStatus draftStatus;
+    private final String supplementalDirectory;
+    private final int stringCount;
+    private final int stringOffsetsStart;
+    private final int hashSize;
+    private final int hashStart;
+    private final int entriesStart;
+    private final int blobStart;
+    private final Map<String, int[]> localeToEntries; // localeID => {nonInheriting, first, count}
+
+    /**
+     * Decoded strings, filled in lazily. Racing threads can only ever store equal, immutable Strings.
+     */
+    private final String[] strings;
+
+    private CldrSnapshot(File file, ByteBuffer buffer) {
+        this.file = file;
+        this.buffer = buffer;
+        int pos = 0;
+        if (buffer.getInt(pos) != MAGIC || buffer.getInt(pos + 4) != VERSION) {
+            throw new IllegalArgumentException("Not a CLDR snapshot (version " + VERSION + "): " + file);
+        }
+        draftStatus = DraftStatus.values()[buffer.getInt(pos + 8)];
+        int supplementalDirectoryId = buffer.getInt(pos + 12);
+        pos += 16;
+        stringCount = buffer.getInt(pos);
+        strings = new String[stringCount];
+        stringOffsetsStart = pos + 4;
+        pos = stringOffsetsStart + 4 * (stringCount + 1);
+        hashSize = buffer.getInt(pos);
+        hashStart = pos + 4;
+        pos = hashStart + 4 * hashSize;
+        int localeCount = buffer.getInt(pos);
+        pos += 4;
+        // ordered by the data, which is sorted by localeID
+        Map<String, int[]> locales = new LinkedHashMap<String, int[]>();
+        for (int i = 0; i < localeCount; ++i) {
+            locales.put(getString(buffer.getInt(pos)),
+                new int[] { buffer.getInt(pos + 4), buffer.getInt(pos + 8), buffer.getInt(pos + 12) });
+            pos += 16;
+        }
+        localeToEntries = Collections.unmodifiableMap(locales);
+        int entryCount = buffer.getInt(pos);
+        entriesStart = pos + 4;
+        blobStart = entriesStart + 4 * ENTRY_INTS * entryCount;
+        supplementalDirectory = supplementalDirectoryId < 0 ? null : getString(supplementalDirectoryId);
+    }
+
+    /**
+     * Map a snapshot file written by {@link #write(Factory, Collection, File)}.
+     */
+    public static CldrSnapshot open(File file) {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+            FileChannel channel = raf.getChannel()) {
+            // The mapping stays valid after the channel is closed.
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new CldrSnapshot(file, buffer);
+        } catch (IOException e) {
+            throw new ICUUncheckedIOException("Can't map snapshot " + file, e);
+        }
+    }
+
+    /**
+     * Write a snapshot of the unresolved data for the given locales (and all of their parents,
+     * so that the snapshot can resolve them) from the factory.
+     */
+    public static void write(Factory factory, Collection<String> localeIDs, File file) {
+        Set<String> locales = new TreeSet<String>();
+        for (String localeID : localeIDs) {
+            for (String current = localeID; current != null; current = LocaleIDParser.getParent(current)) {
+                if (factory.getAvailable().contains(current)) {
+                    locales.add(current);
+                }
+            }
+        }
+        Map<String, Integer> stringToId = new LinkedHashMap<String, Integer>();
+        List<int[]> localeRecords = new ArrayList<int[]>();
+        List<int[]> allEntries = new ArrayList<int[]>();
+        File supplementalDirectory = factory.getSupplementalDirectory();
+        int supplementalDirectoryId = supplementalDirectory == null ? -1
+            : addString(supplementalDirectory.getPath(), stringToId);
+        for (String localeID : locales) {
+            XMLSource source = factory.makeSource(localeID);
+            List<int[]> entries = new ArrayList<int[]>();
+            for (String path : source) {
+                String value = source.getValueAtDPath(path);
+                if (value == null) {
+                    continue;
+                }
+                String fullPath = source.getFullPathAtDPath(path);
+                int pathId = addString(path, stringToId);
+                int valueId = addString(value, stringToId);
+                int fullPathId = fullPath == null || fullPath.equals(path) ? -1 : addString(fullPath, stringToId);
+                entries.add(new int[] { pathId, valueId, fullPathId });
+            }
+            Collections.sort(entries, ENTRY_COMPARATOR);
+            localeRecords.add(new int[] { addString(localeID, stringToId), source.isNonInheriting() ? 1 : 0,
+                allEntries.size(), entries.size() });
+            allEntries.addAll(entries);
+        }
+
+        // build the path hash table
+        List<String> strings = new ArrayList<String>(stringToId.keySet());
+        Set<String> paths = new TreeSet<String>();
+        for (int[] entry : allEntries) {
+            paths.add(strings.get(entry[0]));
+        }
+        int hashSize = Integer.highestOneBit(Math.max(paths.size(), 1) * 2) * 2;
+        int[] table = new int[hashSize];
+        for (String path : paths) {
+            int slot = path.hashCode() & (hashSize - 1);
+            while (table[slot] != 0) {
+                slot = (slot + 1) & (hashSize - 1);
+            }
+            table[slot] = stringToId.get(path) + 1;
+        }
+
+        // build the blob and its offsets
+        int[] offsets = new int[strings.size() + 1];
+        List<byte[]> bytes = new ArrayList<byte[]>();
+        long blobSize = 0;
+        for (int i = 0; i < strings.size(); ++i) {
+            byte[] b = strings.get(i).getBytes(StandardCharsets.UTF_8);
+            bytes.add(b);
+            offsets[i] = (int) blobSize;
+            blobSize += b.length;
+            if (blobSize > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Snapshot too large: use fewer locales per file");
+            }
+        }
+        offsets[strings.size()] = (int) blobSize;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(factory.getMinimalDraftStatus().ordinal());
+            out.writeInt(supplementalDirectoryId);
+            out.writeInt(strings.size());
+            for (int offset : offsets) {
+                out.writeInt(offset);
+            }
+            out.writeInt(hashSize);
+            for (int slot : table) {
+                out.writeInt(slot);
+            }
+            out.writeInt(localeRecords.size());
+            for (int[] record : localeRecords) {
+                for (int item : record) {
+                    out.writeInt(item);
+                }
+            }
+            out.writeInt(allEntries.size());
+            for (int[] entry : allEntries) {
+                for (int item : entry) {
+                    out.writeInt(item);
+                }
+            }
+            for (byte[] b : bytes) {
+                out.write(b);
+            }
+            if (out.size() < 0) { // DataOutputStream.size() wraps at 2G
+                throw new IllegalArgumentException("Snapshot too large: use fewer locales per file");
+            }
+        } catch (IOException e) {
+            throw new ICUUncheckedIOException("Can't write snapshot " + file, e);
+        }
+    }
+
+    private static int addString(String string, Map<String, Integer> stringToId) {
+        Integer result = stringToId.get(string);
+        if (result == null) {
+            stringToId.put(string, result = stringToId.size());
+        }
+        return result;
+    }
+
+    private static final Comparator<int[]> ENTRY_COMPARATOR = new Comparator<int[]>() {
+        @Override
+        public int compare(int[] o1, int[] o2) {
+            return Integer.compare(o1[0], o2[0]);
+        }
+    };
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * The locales in the snapshot, in sorted order.
+     */
+    public Set<String> getAvailable() {
+        return localeToEntries.keySet();
+    }
+
+    /**
+     * The minimal draft status of the factory that the snapshot was written from.
+     */
+    public DraftStatus getDraftStatus() {
+        return draftStatus;
+    }
+
+    /**
+     * Get a (frozen) source for the locale, reading directly from the mapped snapshot.
+     *
+     * @return null if the locale is not in the snapshot
+     */
+    public XMLSource makeSource(String localeID) {
+        int[] record = localeToEntries.get(localeID);
+        return record == null ? null : new SnapshotSource(localeID, record[0] != 0, record[1], record[2]);
+    }
+
+    /**
+     * Get a factory over the snapshot. The factory caches the files that it makes.
+     */
+    public Factory makeFactory() {
+        return new SnapshotFactory(this);
+    }
+
+    private String getString(int id) {
+        String result = strings[id];
+        if (result == null) {
+            int start = buffer.getInt(stringOffsetsStart + 4 * id);
+            int limit = buffer.getInt(stringOffsetsStart + 4 * (id + 1));
+            byte[] b = new byte[limit - start];
+            for (int i = 0; i < b.length; ++i) {
+                b[i] = buffer.get(blobStart + start + i); // absolute gets are safe to share across threads
+            }
+            result = new String(b, StandardCharsets.UTF_8);
+            strings[id] = result;
+        }
+        return result;
+    }
+
+    /**
+     * Get the string ID of a path, or -1 if no locale in the snapshot has it.
+     */
+    private int getPathId(String path) {
+        int mask = hashSize - 1;
+        for (int slot = path.hashCode() & mask;; slot = (slot + 1) & mask) {
+            int id = buffer.getInt(hashStart + 4 * slot) - 1;
+            if (id < 0) {
+                return -1;
+            }
+            if (getString(id).equals(path)) {
+                return id;
+            }
+        }
+    }
+
+    private int getEntryInt(int entry, int field) {
+        return buffer.getInt(entriesStart + 4 * (ENTRY_INTS * entry + field));
+    }
+
+    /**
+     * A read-only source for one locale in the snapshot.
+     */
+    private class SnapshotSource extends XMLSource {
+        private final int first;
+        private final int count;
+        private Comments comments = new Comments();
+
+        private SnapshotSource(String localeID, boolean nonInheriting, int first, int count) {
+            setLocaleID(localeID);
+            setNonInheriting(nonInheriting);
+            this.first = first;
+            this.count = count;
+            locked = true;
+        }
+
+        /**
+         * Binary search for the entry for the path, returning -1 if there is none.
+         */
+        private int findEntry(String path) {
+            int pathId = getPathId(path);
+            if (pathId < 0) {
+                return -1;
+            }
+            int low = first;
+            int high = first + count - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int midId = getEntryInt(mid, 0);
+                if (midId < pathId) {
+                    low = mid + 1;
+                } else if (midId > pathId) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public String getValueAtDPath(String path) {
+            int entry = findEntry(path);
+            return entry < 0 ? null : getString(getEntryInt(entry, 1));
+        }
+
+        @Override
+        public String getFullPathAtDPath(String path) {
+            int entry = findEntry(path);
+            if (entry < 0) {
+                return null;
+            }
+            int fullPathId = getEntryInt(entry, 2);
+            return fullPathId < 0 ? getString(getEntryInt(entry, 0)) : getString(fullPathId);
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                int entry = first;
+
+                @Override
+                public boolean hasNext() {
+                    return entry < first + count;
+                }
+
+                @Override
+                public String next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return getString(getEntryInt(entry++, 0));
+                }
+            };
+        }
+
+        @Override
+        public void getPathsWithValue(String valueToMatch, String pathPrefix, Set<String> result) {
+            String normalized = SimpleXMLSource.normalize(valueToMatch);
+            for (int entry = first; entry < first + count; ++entry) {
+                String path = getString(getEntryInt(entry, 0));
+                if (pathPrefix != null && !path.startsWith(pathPrefix)) {
+                    continue;
+                }
+                String value = getString(getEntryInt(entry, 1));
+                if (!CldrUtility.INHERITANCE_MARKER.equals(value)
+                    && SimpleXMLSource.normalize(value).equals(normalized)) {
+                    result.add(path);
+                }
+            }
+        }
+
+        @Override
+        public Comments getXpathComments() {
+            return comments;
+        }
+
+        @Override
+        public void setXpathComments(Comments comments) {
+            this.comments = comments;
+        }
+
+        @Override
+        public void putFullPathAtDPath(String distinguishingXPath, String fullxpath) {
+            throw new UnsupportedOperationException("Attempt to modify locked object");
+        }
+
+        @Override
+        public void putValueAtDPath(String distinguishingXPath, String value) {
+            throw new UnsupportedOperationException("Attempt to modify locked object");
+        }
+
+        @Override
+        public void removeValueAtDPath(String distinguishingXPath) {
+            throw new UnsupportedOperationException("Attempt to modify locked object");
+        }
+
+        @Override
+        public XMLSource freeze() {
+            return this;
+        }
+
+        /**
+         * The mapped data can't be modified, so a thawed clone is a SimpleXMLSource copy.
+         */
+        @Override
+        public XMLSource cloneAsThawed() {
+            SimpleXMLSource result = new SimpleXMLSource(getLocaleID());
+            result.setNonInheriting(isNonInheriting());
+            for (String path : this) {
+                result.putValueAtDPath(path, getValueAtDPath(path));
+                String fullPath = getFullPathAtDPath(path);
+                if (!fullPath.equals(path)) {
+                    result.putFullPathAtDPath(path, fullPath);
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * A factory whose files are read from the snapshot. The draft status is fixed when the
+     * snapshot is written, so the status passed to make() is ignored.
+     */
+    private static class SnapshotFactory extends Factory {
+        private final CldrSnapshot snapshot;
+        private final Set<String> available;
+        private final Map<String, CLDRFile> unresolvedCache = new ConcurrentHashMap<String, CLDRFile>();
+        private final Map<String, CLDRFile> resolvedCache = new ConcurrentHashMap<String, CLDRFile>();
+
+        private SnapshotFactory(CldrSnapshot snapshot) {
+            this.snapshot = snapshot;
+            this.available = ImmutableSet.copyOf(snapshot.getAvailable());
+            if (snapshot.supplementalDirectory != null) {
+                setSupplementalDirectory(new File(snapshot.supplementalDirectory));
+            }
+        }
+
+        @Override
+        protected CLDRFile handleMake(final String localeID, boolean resolved, final DraftStatus madeWithMinimalDraftStatus) {
+            if (!available.contains(localeID)) {
+                throw new SimpleFactory.NoSourceDirectoryException(localeID);
+            }
+            if (resolved) {
+                return resolvedCache.computeIfAbsent(localeID, new Function<String, CLDRFile>() {
+                    @Override
+                    public CLDRFile apply(String t) {
+                        return new CLDRFile(makeResolvingSource(localeID, madeWithMinimalDraftStatus)).freeze();
+                    }
+                });
+            }
+            return unresolvedCache.computeIfAbsent(localeID, new Function<String, CLDRFile>() {
+                @Override
+                public CLDRFile apply(String t) {
+                    return new CLDRFile(snapshot.makeSource(localeID)).freeze();
+                }
+            });
+        }
+
+        @Override
+        public File[] getSourceDirectories() {
+            return new File[] { snapshot.getFile().getAbsoluteFile().getParentFile() };
+        }
+
+        @Override
+        public List<File> getSourceDirectoriesForLocale(String localeName) {
+            return available.contains(localeName) ? ImmutableList.copyOf(getSourceDirectories()) : null;
+        }
+
+        @Override
+        public DraftStatus getMinimalDraftStatus() {
+            return snapshot.getDraftStatus();
+        }
+
+        @Override
+        protected Set<String> handleGetAvailable() {
+            return available;
+        }
+
+        @Override
+        public String toString() {
+            return "{" + getClass().getName() + " file=" + snapshot.getFile() + "}";
+        }
+    }
+
+    /**
+     * Write a snapshot of all of the locales in a directory.
+     * Usage: CldrSnapshot sourceDirectory snapshotFile
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.err.println("Usage: CldrSnapshot sourceDirectory snapshotFile");
+            return;
+        }
+        Factory factory = SimpleFactory.make(args[0], ".*");
+        long start = System.currentTimeMillis();
+        write(factory, factory.getAvailable(), new File(args[1]));
+        System.out.println("Wrote " + factory.getAvailable().size() + " locales to " + args[1]
+            + " in " + (System.currentTimeMillis() - start) + " ms");
+    }
+}
@@ -0,0 +1,199 @@
+package org.unicode.cldr.util;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.unicode.cldr.draft.FileUtilities;
+
+/**
+ * Records, for each unit of a conversion (such as a locale), a digest of its input files
+ * and the list of output files it wrote, so that a later run of the converter can skip the
+ * units whose inputs haven't changed. The digest of each unit also covers a configuration
+ * string and a set of shared input files (such as the supplemental data), so changing the
+ * converter options or the shared data reruns every unit.
+ * <p>
+ * The manifest is a text file with one line per unit: the unit, its digest, and its output
+ * files relative to the directory of the manifest, separated by tabs. Units that are not
+ * converted in a run keep their lines from the previous run. The methods are thread-safe.
+ */
+public class ConversionManifest {
+    private static final String DIGEST_ALGORITHM = "SHA-1";
+
+    private final File file;
+    private final File baseDir;
+    private final byte[] configDigest;
+    private final Map<String, Entry> entries = new TreeMap<String, Entry>(); // guarded by this
+
+    private static final class Entry {
+        final String digest;
+        final List<String> outputs;
+
+        Entry(String digest, List<String> outputs) {
+            this.digest = digest;
+            this.outputs = outputs;
+        }
+    }
+
+    /**
+     * Load the manifest, if the file exists.
+     *
+     * @param file
+     *            the manifest file, usually in the output directory
+     * @param config
+     *            the converter configuration that the output depends on, such as its options
+     * @param sharedInputs
+     *            files that the output of every unit depends on
+     */
+    public ConversionManifest(File file, String config, Collection<File> sharedInputs) throws IOException {
+        this.file = file;
+        this.baseDir = file.getAbsoluteFile().toPath().normalize().toFile().getParentFile();
+        MessageDigest digest = newDigest();
+        digest.update(config.getBytes(StandardCharsets.UTF_8));
+        digestFiles(digest, sharedInputs);
+        configDigest = digest.digest();
+        if (file.exists()) {
+            try (BufferedReader in = FileReaders.openFile(baseDir.getPath(), file.getName())) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    String[] fields = line.split("\t");
+                    if (fields.length < 2) {
+                        continue;
+                    }
+                    entries.put(fields[0], new Entry(fields[1],
+                        Collections.unmodifiableList(Arrays.asList(fields).subList(2, fields.length))));
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the source files of a locale and of each locale in its parent chain, up to root,
+     * from the directories of the factory. The files of locales that aren't in the factory are left out.
+     */
+    public static List<File> getLocaleFiles(Factory factory, String localeID) {
+        List<File> result = new ArrayList<File>();
+        for (String id = localeID; id != null; id = LocaleIDParser.getParent(id)) {
+            List<File> dirs = factory.getSourceDirectoriesForLocale(id);
+            if (dirs == null) {
+                continue;
+            }
+            for (File dir : dirs) {
+                result.add(new File(dir, id + ".xml"));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Compute the digest of the inputs of a unit: the configuration, the shared inputs,
+     * and the names and contents of the given files. Files that don't exist are included by name only.
+     */
+    public String getDigest(Collection<File> inputs) throws IOException {
+        MessageDigest digest = newDigest();
+        digest.update(configDigest);
+        digestFiles(digest, inputs);
+        StringBuilder result = new StringBuilder();
+        for (byte b : digest.digest()) {
+            result.append(String.format("%02x", b & 0xFF));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns true if the unit was converted from inputs with the given digest,
+     * and all of the files it wrote still exist.
+     */
+    public synchronized boolean isUpToDate(String unit, String digest) {
+        Entry entry = entries.get(unit);
+        if (entry == null || !entry.digest.equals(digest)) {
+            return false;
+        }
+        for (String output : entry.outputs) {
+            if (!new File(baseDir, output).exists()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the output files recorded for a unit, relative to the directory of the manifest.
+     *
+     * @return the files, or an empty list if the unit isn't recorded
+     */
+    public synchronized List<String> getOutputs(String unit) {
+        Entry entry = entries.get(unit);
+        return entry == null ? Collections.<String> emptyList() : entry.outputs;
+    }
+
+    /**
+     * Record the digest of a unit that has been converted, and the files that it wrote.
+     */
+    public void put(String unit, String digest, Collection<File> outputs) {
+        List<String> relative = new ArrayList<String>();
+        for (File output : outputs) {
+            relative.add(baseDir.toPath().relativize(output.getAbsoluteFile().toPath().normalize()).toString());
+        }
+        synchronized (this) {
+            entries.put(unit, new Entry(digest, Collections.unmodifiableList(relative)));
+        }
+    }
+
+    /**
+     * Write the manifest, replacing the file atomically.
+     */
+    public synchronized void save() throws IOException {
+        File temp = new File(baseDir, file.getName() + ".tmp");
+        try (PrintWriter out = FileUtilities.openUTF8Writer(baseDir.getPath(), temp.getName())) {
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                out.print(entry.getKey());
+                out.print('\t');
+                out.print(entry.getValue().digest);
+                for (String output : entry.getValue().outputs) {
+                    out.print('\t');
+                    out.print(output);
+                }
+                out.println();
+            }
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void digestFiles(MessageDigest digest, Collection<File> files) throws IOException {
+        for (File input : files) {
+            digest.update(input.getName().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            if (input.exists()) {
+                digest.update(Files.readAllBytes(input.toPath()));
+            }
+            digest.update((byte) 0);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException(e); // darn'd checked exceptions
+        }
+    }
+}
@@ -766,7 +766,188 @@ public class DtdData extends XMLFileReader.SimpleHandler {
         return dtdComparator;
     }
 
-    private class DtdComparator implements Comparator<String> {
+    /**
+     * Get a key for sorting the path in the order of getDtdComparator. Comparing two keys gives the
+     * same result as comparing the paths, but the path is only parsed once, when the key is made;
+     * comparing keys just compares arrays of ordinals.
+     */
+    public SortKey getSortKey(String path) {
+        return dtdComparator.getSortKey(path);
+    }
+
+    /**
+     * Sort paths into the order of getDtdComparator, dropping duplicates, like adding them to a TreeSet.
+     * Faster for large sets, since each path is parsed once instead of at every comparison.
+     */
+    public List<String> sortPaths(Iterator<String> paths) {
+        return dtdComparator.sort(paths);
+    }
+
+    /**
+     * A path, with its position in the DTD precomputed; see getSortKey.
+     */
+    public static final class SortKey implements Comparable<SortKey> {
+        private static final int END_OF_ATTRIBUTES = Integer.MIN_VALUE;
+        private static final int Q_ATTRIBUTE = -1;
+
+        public final String path;
+        private final DtdComparator comparator;
+        /**
+         * For each element after the root: its index among its parent's children; then for each
+         * attribute present, in DTD order, -2 - (the attribute's index in the element), and the value's
+         * code; then END_OF_ATTRIBUTES. The added _q attribute comes first, as Q_ATTRIBUTE.
+         * A value code is the value's index in an enumerated attribute, or the _q number, or
+         * -1 - (an index into values) for values compared as strings.
+         * <p>
+         * Null when the path doesn't fit the DTD (such as the fake elements used in diffing);
+         * such keys are compared with the DtdComparator.
+         */
+        private final int[] codes;
+        private final String[] values;
+        private final Attribute[] valueAttributes;
+
+        private SortKey(DtdComparator comparator, String path, int[] codes, String[] values, Attribute[] valueAttributes) {
+            this.comparator = comparator;
+            this.path = path;
+            this.codes = codes;
+            this.values = values;
+            this.valueAttributes = valueAttributes;
+        }
+
+        @Override
+        public int compareTo(SortKey other) {
+            if (codes == null || other.codes == null) {
+                return comparator.compare(path, other.path);
+            }
+            int[] codesB = other.codes;
+            int min = Math.min(codes.length, codesB.length);
+            boolean isValue = false;
+            for (int i = 0; i < min; ++i) {
+                int a = codes[i];
+                int b = codesB[i];
+                if (isValue && a < 0) { // both are values of the same attribute, compared as strings
+                    String valueA = values[-1 - a];
+                    String valueB = other.values[-1 - b];
+                    if (!valueA.equals(valueB)) {
+                        Comparator<String> valueComparator = valueAttributes[-1 - a].attributeValueComparator;
+                        return valueComparator != null ? valueComparator.compare(valueA, valueB) : valueA.compareTo(valueB);
+                    }
+                    isValue = false;
+                    continue;
+                }
+                if (a != b) {
+                    return a < b ? -1 : 1;
+                }
+                isValue = !isValue && a < 0 && a != END_OF_ATTRIBUTES;
+            }
+            // the same up to here, so one path has fewer elements
+            return codes.length - codesB.length;
+        }
+
+        /**
+         * Does the path fit the DTD? If not, compareTo falls back to the DtdComparator,
+         * which may throw for elements or attributes that aren't in the DTD.
+         */
+        public boolean fitsDtd() {
+            return codes != null;
+        }
+
+        @Override
+        public String toString() {
+            return path;
+        }
+    }
+
+    class DtdComparator implements Comparator<String> {
+        private SortKey getSortKey(String path) {
+            XPathParts parts = XPathParts.getFrozenInstance(path);
+            if (!ROOT.name.equals(parts.getElement(0))) {
+                return new SortKey(this, path, null, null, null);
+            }
+            int[] codes = new int[parts.size() * 4];
+            int length = 0;
+            List<String> values = new ArrayList<String>();
+            List<Attribute> valueAttributes = new ArrayList<Attribute>();
+            Element parent = ROOT;
+            for (int i = 1; i < parts.size(); ++i) {
+                Element element = nameToElement.get(parts.getElement(i));
+                Integer childIndex = element == null ? null : parent.children.get(element);
+                if (childIndex == null) {
+                    return new SortKey(this, path, null, null, null);
+                }
+                Map<String, String> attributes = parts.getAttributes(i);
+                // at most the _q, two codes for each attribute, and the end
+                if (length + 4 + 2 * attributes.size() > codes.length) {
+                    codes = Arrays.copyOf(codes, 2 * codes.length + 2 * attributes.size() + 4);
+                }
+                codes[length++] = childIndex;
+                int remaining = attributes.size();
+                String qValue = attributes.get("_q");
+                if (qValue != null) {
+                    int q;
+                    try {
+                        q = Integer.parseInt(qValue);
+                    } catch (NumberFormatException e) {
+                        q = -1;
+                    }
+                    if (q < 0) {
+                        return new SortKey(this, path, null, null, null);
+                    }
+                    codes[length++] = SortKey.Q_ATTRIBUTE;
+                    codes[length++] = q;
+                    --remaining;
+                }
+                int attributeIndex = 0;
+                for (Attribute attribute : element.attributes.keySet()) {
+                    if (remaining == 0) {
+                        break;
+                    }
+                    String value = attributes.get(attribute.name);
+                    if (value != null) {
+                        --remaining;
+                        codes[length++] = -2 - attributeIndex;
+                        if (attribute.attributeValueComparator == null && attribute.values.size() != 0) {
+                            Integer valueIndex = attribute.values.get(value);
+                            if (valueIndex == null) {
+                                return new SortKey(this, path, null, null, null);
+                            }
+                            codes[length++] = valueIndex;
+                        } else {
+                            codes[length++] = -1 - values.size();
+                            values.add(value);
+                            valueAttributes.add(attribute);
+                        }
+                    }
+                    ++attributeIndex;
+                }
+                if (remaining != 0) { // attributes not in the DTD
+                    return new SortKey(this, path, null, null, null);
+                }
+                codes[length++] = SortKey.END_OF_ATTRIBUTES;
+                parent = element;
+            }
+            return new SortKey(this, path, Arrays.copyOf(codes, length),
+                values.toArray(new String[values.size()]),
+                valueAttributes.toArray(new Attribute[valueAttributes.size()]));
+        }
+
+        List<String> sort(Iterator<String> paths) {
+            List<SortKey> keys = new ArrayList<SortKey>();
+            while (paths.hasNext()) {
+                keys.add(getSortKey(paths.next()));
+            }
+            Collections.sort(keys); // stable, so the first of any duplicates is kept, as in a TreeSet
+            List<String> result = new ArrayList<String>(keys.size());
+            SortKey last = null;
+            for (SortKey key : keys) {
+                if (last == null || last.compareTo(key) != 0) {
+                    result.add(key.path);
+                }
+                last = key;
+            }
+            return result;
+        }
+
         @Override
         public int compare(String path1, String path2) {
             XPathParts a = XPathParts.getFrozenInstance(path1);
@@ -2,16 +2,26 @@ package org.unicode.cldr.util;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 import org.unicode.cldr.util.CLDRFile.DraftStatus;
 import org.unicode.cldr.util.CLDRLocale.SublocaleProvider;
 import org.unicode.cldr.util.XMLSource.ResolvingSource;
 
+import com.google.common.base.Throwables;
+
 /**
  * A factory is the normal method to produce a set of CLDRFiles from a directory of XML files.
  * See SimpleFactory for a concrete subclass.
@@ -116,6 +126,63 @@ public abstract class Factory implements SublocaleProvider {
         return make(localeID, resolved, getMinimalDraftStatus());
     }
 
+    /**
+     * Load (and cache) the CLDRFiles for the given locales concurrently, using the executor.
+     * The locales are loaded level by level along the LocaleIDParser parent chain, so that all
+     * parents are present before their children are resolved, and each parent is parsed only once.
+     * Returns once all of the files are loaded; the first failure (if any) is rethrown.
+     *
+     * @param localeIDs the locales to load
+     * @param resolved whether the resolved files are wanted (the parents are always loaded unresolved)
+     * @param executor the executor to run the loads on
+     */
+    public void preload(Collection<String> localeIDs, final boolean resolved, Executor executor) {
+        final Set<String> requested = new HashSet<String>(localeIDs);
+        // Group the requested locales and all of their ancestors by depth (root = 0)
+        TreeMap<Integer, Set<String>> levels = new TreeMap<Integer, Set<String>>();
+        Map<String, Integer> depths = new HashMap<String, Integer>();
+        for (String localeID : requested) {
+            getDepth(localeID, depths, levels);
+        }
+        Set<String> available = handleGetAvailable();
+        for (Set<String> level : levels.values()) {
+            List<CompletableFuture<Void>> futures = new ArrayList<CompletableFuture<Void>>();
+            for (final String localeID : level) {
+                final boolean isRequested = requested.contains(localeID);
+                if (!isRequested && !available.contains(localeID)) {
+                    continue;
+                }
+                futures.add(CompletableFuture.runAsync(new Runnable() {
+                    @Override
+                    public void run() {
+                        make(localeID, resolved && isRequested);
+                    }
+                }, executor));
+            }
+            try {
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()])).join();
+            } catch (CompletionException e) {
+                Throwables.throwIfUnchecked(e.getCause());
+                throw e;
+            }
+        }
+    }
+
+    private static int getDepth(String localeID, Map<String, Integer> depths, TreeMap<Integer, Set<String>> levels) {
+        Integer result = depths.get(localeID);
+        if (result == null) {
+            String parent = LocaleIDParser.getParent(localeID);
+            result = parent == null ? 0 : getDepth(parent, depths, levels) + 1;
+            depths.put(localeID, result);
+            Set<String> level = levels.get(result);
+            if (level == null) {
+                levels.put(result, level = new TreeSet<String>());
+            }
+            level.add(localeID);
+        }
+        return result;
+    }
+
     public CLDRFile makeWithFallback(String localeID) {
         return makeWithFallback(localeID, getMinimalDraftStatus());
     }
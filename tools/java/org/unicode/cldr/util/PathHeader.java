@@ -15,6 +15,8 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -22,6 +24,7 @@ import org.unicode.cldr.draft.ScriptMetadata;
 import org.unicode.cldr.draft.ScriptMetadata.Info;
 import org.unicode.cldr.tool.LikelySubtags;
 import org.unicode.cldr.util.RegexLookup.Finder;
+import org.unicode.cldr.util.RegexLookup.LookupType;
 import org.unicode.cldr.util.With.SimpleIterator;
 
 import com.google.common.base.Splitter;
@@ -346,9 +349,8 @@ public class PathHeader implements Comparable<PathHeader> {
     private final SubstringOrder codeSuborder;
 
     static final Pattern SEMI = PatternCache.get("\\s*;\\s*");
-    static final Matcher ALT_MATCHER = PatternCache.get(
-        "\\[@alt=\"([^\"]*+)\"]")
-        .matcher("");
+    static final Pattern ALT_PATTERN = PatternCache.get(
+        "\\[@alt=\"([^\"]*+)\"]");
 
     static final Collator alphabetic = CLDRConfig.getInstance().getCollatorRoot();
 
@@ -428,7 +430,7 @@ public class PathHeader implements Comparable<PathHeader> {
      *
      * @param englishFile
      */
-    public static Factory getFactory(CLDRFile englishFile) {
+    public static synchronized Factory getFactory(CLDRFile englishFile) {
         if (factorySingleton == null) {
             if (englishFile == null) {
                 throw new IllegalArgumentException("English CLDRFile must not be null");
@@ -600,30 +602,43 @@ public class PathHeader implements Comparable<PathHeader> {
 
     public static class Factory implements Transform<String, PathHeader> {
         static final RegexLookup<RawData> lookup = RegexLookup
-            .of(new PathHeaderTransform())
-            .setPatternTransform(
-                RegexLookup.RegexFinderTransformPath)
+            .<RawData> of(LookupType.PREFIX_TRIE_LOOKUP, RegexLookup.RegexFinderTransformPath)
+            .setValueTransform(new PathHeaderTransform())
             .loadFromFile(
                 PathHeader.class,
                 "data/PathHeader.txt");
-        // synchronized with lookup
-        static final Output<String[]> args = new Output<String[]>();
-        // synchronized with lookup
+        // synchronized with counter
         static final Counter<RawData> counter = new Counter<RawData>();
-        // synchronized with lookup
+        // synchronized with counter
         static final Map<RawData, String> samples = new HashMap<RawData, String>();
-        // synchronized with lookup
-        static int order;
-        static SubstringOrder suborder;
 
-        static final Map<String, PathHeader> cache = new HashMap<String, PathHeader>();
-        // synchronized with cache
+        /**
+         * The state used while building one PathHeader: the arguments from the regex match,
+         * and the order and suborder set by fix() and the functions it calls.
+         * Kept per thread, so that PathHeaders can be built in parallel.
+         */
+        private static class FixState {
+            final Output<String[]> args = new Output<String[]>();
+            int order;
+            SubstringOrder suborder;
+        }
+
+        private static final ThreadLocal<FixState> fixState = new ThreadLocal<FixState>() {
+            @Override
+            protected FixState initialValue() {
+                return new FixState();
+            }
+        };
+
+        static final ConcurrentMap<String, PathHeader> cache = new ConcurrentHashMap<String, PathHeader>();
+        // synchronized with sectionPageToPaths
         static final Map<SectionId, Map<PageId, SectionPage>> sectionToPageToSectionPage = new EnumMap<SectionId, Map<PageId, SectionPage>>(
             SectionId.class);
         static final Relation<SectionPage, String> sectionPageToPaths = Relation
             .of(new TreeMap<SectionPage, Set<String>>(),
                 HashSet.class);
         private static CLDRFile englishFile;
+        // synchronized with counter
         private Set<String> matchersFound = new HashSet<String>();
 
         /**
@@ -656,9 +671,7 @@ public class PathHeader implements Comparable<PathHeader> {
          * Use only when trying to find unmatched patterns
          */
         public void clearCache() {
-            synchronized (cache) {
-                cache.clear();
-            }
+            cache.clear();
         }
 
         /**
@@ -683,80 +696,79 @@ public class PathHeader implements Comparable<PathHeader> {
             if (path == null) {
                 throw new NullPointerException("Path cannot be null");
             }
-            synchronized (cache) {
-                PathHeader old = cache.get(path);
-                if (old != null) {
-                    return old;
-                }
+            PathHeader old = cache.get(path);
+            if (old != null) {
+                return old;
             }
-            synchronized (lookup) {
-                String cleanPath = path;
-                // special handling for alt
-                String alt = null;
-                int altPos = cleanPath.indexOf("[@alt=");
-                if (altPos >= 0 && !cleanPath.endsWith("/symbol[@alt=\"narrow\"]")) {
-                    if (ALT_MATCHER.reset(cleanPath).find()) {
-                        alt = ALT_MATCHER.group(1);
-                        cleanPath = cleanPath.substring(0, ALT_MATCHER.start())
-                            + cleanPath.substring(ALT_MATCHER.end());
-                        int pos = alt.indexOf("proposed");
-                        if (pos >= 0 && !path.startsWith("//ldml/collations")) {
-                            alt = pos == 0 ? null : alt.substring(0, pos - 1);
-                            // drop "proposed",
-                            // change "xxx-proposed" to xxx.
-                        }
-                    } else {
-                        throw new IllegalArgumentException();
+            String cleanPath = path;
+            // special handling for alt
+            String alt = null;
+            int altPos = cleanPath.indexOf("[@alt=");
+            if (altPos >= 0 && !cleanPath.endsWith("/symbol[@alt=\"narrow\"]")) {
+                Matcher altMatcher = ALT_PATTERN.matcher(cleanPath);
+                if (altMatcher.find()) {
+                    alt = altMatcher.group(1);
+                    cleanPath = cleanPath.substring(0, altMatcher.start())
+                        + cleanPath.substring(altMatcher.end());
+                    int pos = alt.indexOf("proposed");
+                    if (pos >= 0 && !path.startsWith("//ldml/collations")) {
+                        alt = pos == 0 ? null : alt.substring(0, pos - 1);
+                        // drop "proposed",
+                        // change "xxx-proposed" to xxx.
                     }
+                } else {
+                    throw new IllegalArgumentException();
                 }
-                Output<Finder> matcherFound = new Output<Finder>();
-                RawData data = lookup.get(cleanPath, null, args, matcherFound, failures);
-                if (data == null) {
-                    return null;
-                }
+            }
+            FixState state = fixState.get();
+            Output<Finder> matcherFound = new Output<Finder>();
+            RawData data = lookup.get(cleanPath, null, state.args, matcherFound, failures);
+            if (data == null) {
+                return null;
+            }
+            synchronized (counter) {
                 matchersFound.add(matcherFound.value.toString());
                 counter.add(data, 1);
                 if (!samples.containsKey(data)) {
                     samples.put(data, cleanPath);
                 }
-                try {
-                    PathHeader result = new PathHeader(
-                        SectionId.forString(fix(data.section, 0)),
-                        PageId.forString(fix(data.page, 0)),
-                        fix(data.header, data.headerOrder),
-                        order, // only valid after call to fix. TODO, make
-                        // this cleaner
-                        fix(data.code + (alt == null ? "" : ("-" + alt)), data.codeOrder),
-                        order, // only valid after call to fix
-                        suborder,
-                        data.status,
-                        path);
-                    synchronized (cache) {
-                        PathHeader old = cache.get(path);
-                        if (old == null) {
-                            cache.put(path, result);
-                        } else {
-                            result = old;
-                        }
-                        Map<PageId, SectionPage> pageToPathHeaders = sectionToPageToSectionPage
-                            .get(result.sectionId);
-                        if (pageToPathHeaders == null) {
-                            sectionToPageToSectionPage.put(result.sectionId, pageToPathHeaders = new EnumMap<PageId, SectionPage>(PageId.class));
-                        }
-                        SectionPage sectionPage = pageToPathHeaders.get(result.pageId);
-                        if (sectionPage == null) {
-                            sectionPage = new SectionPage(result.sectionId, result.pageId);
-                            pageToPathHeaders.put(result.pageId, sectionPage);
-                        }
-                        sectionPageToPaths.put(sectionPage, path);
-                    }
-                    return result;
-                } catch (Exception e) {
-                    throw new IllegalArgumentException(
-                        "Probably mismatch in Page/Section enum, or too few capturing groups in regex for " + cleanPath,
-                        e);
+            }
+            PathHeader result;
+            try {
+                result = new PathHeader(
+                    SectionId.forString(fix(data.section, 0)),
+                    PageId.forString(fix(data.page, 0)),
+                    fix(data.header, data.headerOrder),
+                    state.order, // only valid after call to fix. TODO, make
+                    // this cleaner
+                    fix(data.code + (alt == null ? "" : ("-" + alt)), data.codeOrder),
+                    state.order, // only valid after call to fix
+                    state.suborder,
+                    data.status,
+                    path);
+            } catch (Exception e) {
+                throw new IllegalArgumentException(
+                    "Probably mismatch in Page/Section enum, or too few capturing groups in regex for " + cleanPath,
+                    e);
+            }
+            old = cache.putIfAbsent(path, result);
+            if (old != null) {
+                return old; // another thread got there first
+            }
+            synchronized (sectionPageToPaths) {
+                Map<PageId, SectionPage> pageToPathHeaders = sectionToPageToSectionPage
+                    .get(result.sectionId);
+                if (pageToPathHeaders == null) {
+                    sectionToPageToSectionPage.put(result.sectionId, pageToPathHeaders = new EnumMap<PageId, SectionPage>(PageId.class));
+                }
+                SectionPage sectionPage = pageToPathHeaders.get(result.pageId);
+                if (sectionPage == null) {
+                    sectionPage = new SectionPage(result.sectionId, result.pageId);
+                    pageToPathHeaders.put(result.pageId, sectionPage);
                 }
+                sectionPageToPaths.put(sectionPage, path);
             }
+            return result;
         }
 
         private static class SectionPage implements Comparable<SectionPage> {
@@ -819,7 +831,7 @@ public class PathHeader implements Comparable<PathHeader> {
          */
         public static Set<String> getCachedPaths(SectionId sectionId, PageId page) {
             Set<String> target = new HashSet<String>();
-            synchronized (cache) {
+            synchronized (sectionPageToPaths) {
                 Map<PageId, SectionPage> pageToSectionPage = sectionToPageToSectionPage
                     .get(sectionId);
                 if (pageToSectionPage == null) {
@@ -1020,7 +1032,7 @@ public class PathHeader implements Comparable<PathHeader> {
          * @deprecated
          */
         public Counter<CounterData> getInternalCounter() {
-            synchronized (lookup) {
+            synchronized (counter) {
                 Counter<CounterData> result = new Counter<CounterData>();
                 for (Map.Entry<Finder, RawData> foo : lookup) {
                     Finder finder = foo.getKey();
@@ -1048,7 +1060,6 @@ public class PathHeader implements Comparable<PathHeader> {
         // static Map<String, String> likelySubtags =
         // supplementalDataInfo.getLikelySubtags();
         static LikelySubtags likelySubtags = new LikelySubtags();
-        static HyphenSplitter hyphenSplitter = new HyphenSplitter();
         static Transform<String, String> catFromTerritory;
         static Transform<String, String> catFromTimezone;
         static {
@@ -1058,13 +1069,13 @@ public class PathHeader implements Comparable<PathHeader> {
             functionMap.put("month", new Transform<String, String>() {
                 public String transform(String source) {
                     int m = Integer.parseInt(source);
-                    order = m;
+                    setOrder(m);
                     return months[m - 1];
                 }
             });
             functionMap.put("count", new Transform<String, String>() {
                 public String transform(String source) {
-                    suborder = new SubstringOrder(source);
+                    setSuborder(new SubstringOrder(source));
                     return source;
                 }
             });
@@ -1072,19 +1083,19 @@ public class PathHeader implements Comparable<PathHeader> {
                 public String transform(String source) {
                     int pos = source.indexOf('-');
                     source = pos + source.substring(pos);
-                    suborder = new SubstringOrder(source); // make 10000-...
+                    setSuborder(new SubstringOrder(source)); // make 10000-...
                     // into 5-
                     return source;
                 }
             });
             functionMap.put("currencySymbol", new Transform<String, String>() {
                 public String transform(String source) {
-                    order = 901;
+                    setOrder(901);
                     if (source.endsWith("narrow")) {
-                        order = 902;
+                        setOrder(902);
                     }
                     if (source.endsWith("variant")) {
-                        order = 903;
+                        setOrder(903);
                     }
                     return source;
                 }
@@ -1099,26 +1110,26 @@ public class PathHeader implements Comparable<PathHeader> {
                             continue;
                         }
                     }
-                    order = pos;
-                    suborder = new SubstringOrder(pos + "-" + source); //
+                    setOrder(pos);
+                    setSuborder(new SubstringOrder(pos + "-" + source)); //
                     return source;
                 }
             });
             functionMap.put("day", new Transform<String, String>() {
                 public String transform(String source) {
                     int m = days.indexOf(source);
-                    order = m;
+                    setOrder(m);
                     return source;
                 }
             });
             functionMap.put("dayPeriod", new Transform<String, String>() {
                 public String transform(String source) {
                     try {
-                        order = dayPeriods.getNumericOrder(source);
+                        setOrder(dayPeriods.getNumericOrder(source));
                     } catch (Exception e) {
                         // if an old item is tried, like "evening", this will fail.
                         // so that old data still works, hack this.
-                        order = Math.abs(source.hashCode() << 16);
+                        setOrder(Math.abs(source.hashCode() << 16));
                     }
                     return source;
                 }
@@ -1141,7 +1152,7 @@ public class PathHeader implements Comparable<PathHeader> {
             functionMap.put("calField", new Transform<String, String>() {
                 public String transform(String source) {
                     String[] fields = source.split(":", 3);
-                    order = 0;
+                    int order = 0;
                     final List<String> widthValues = Arrays.asList(
                         "wide", "abbreviated", "short", "narrow");
                     final List<String> calendarFieldValues = Arrays.asList(
@@ -1209,6 +1220,8 @@ public class PathHeader implements Comparable<PathHeader> {
                         }
                     }
 
+                    setOrder(order);
+
                     String[] fixedFields = new String[fields.length];
                     for (int i = 0; i < fields.length; i++) {
                         String s = fixNames.get(fields[i]);
@@ -1228,12 +1241,12 @@ public class PathHeader implements Comparable<PathHeader> {
             });
             functionMap.put("categoryFromScript", new Transform<String, String>() {
                 public String transform(String source) {
-                    String script = hyphenSplitter.split(source);
+                    String script = beforeHyphen(source);
                     Info info = ScriptMetadata.getInfo(script);
                     if (info == null) {
                         info = ScriptMetadata.getInfo("Zzzz");
                     }
-                    order = 100 - info.idUsage.ordinal();
+                    setOrder(100 - info.idUsage.ordinal());
                     return info.idUsage.name;
                 }
             });
@@ -1285,7 +1298,7 @@ public class PathHeader implements Comparable<PathHeader> {
             });
             functionMap.put("scriptFromLanguage", new Transform<String, String>() {
                 public String transform(String source0) {
-                    String language = hyphenSplitter.split(source0);
+                    String language = beforeHyphen(source0);
                     String script = likelySubtags.getLikelyScript(language);
                     if (script == null) {
                         script = likelySubtags.getLikelyScript(language);
@@ -1301,7 +1314,7 @@ public class PathHeader implements Comparable<PathHeader> {
                 public String transform(String source) {
                     String territory = getSubdivisionsTerritory(source, null);
                     String container = Containment.getContainer(territory);
-                    order = Containment.getOrder(territory);
+                    setOrder(Containment.getOrder(territory));
                     return englishFile.getName(CLDRFile.TERRITORY_NAME, container);
                 }
             });
@@ -1386,9 +1399,9 @@ public class PathHeader implements Comparable<PathHeader> {
                         "daylight-long",
                         "daylight-short");
                     if (codeValues.contains(source)) {
-                        order = codeValues.indexOf(source);
+                        setOrder(codeValues.indexOf(source));
                     } else {
-                        order = codeValues.size();
+                        setOrder(codeValues.size());
                     }
                     return source;
                 }
@@ -1415,9 +1428,9 @@ public class PathHeader implements Comparable<PathHeader> {
                         "fallbackFormat");
 
                     if (fieldOrder.contains(source)) {
-                        order = fieldOrder.indexOf(source);
+                        setOrder(fieldOrder.indexOf(source));
                     } else {
-                        order = fieldOrder.size();
+                        setOrder(fieldOrder.size());
                     }
 
                     String result = fieldNames.get(source);
@@ -1427,7 +1440,7 @@ public class PathHeader implements Comparable<PathHeader> {
             functionMap.put("unit", new Transform<String, String>() {
                 public String transform(String source) {
                     int m = unitOrder.indexOf(source);
-                    order = m;
+                    setOrder(m);
                     return source.substring(source.indexOf('-') + 1);
                 }
             });
@@ -1436,7 +1449,7 @@ public class PathHeader implements Comparable<PathHeader> {
                 // Probably only works well for small values, like -5 through +4.
                 public String transform(String source) {
                     Integer pos = Integer.valueOf(source) + 5;
-                    suborder = new SubstringOrder(pos.toString());
+                    setSuborder(new SubstringOrder(pos.toString()));
                     return source;
                 }
             });
@@ -1446,7 +1459,7 @@ public class PathHeader implements Comparable<PathHeader> {
                 public String transform(String source) {
                     if (PathHeader.UNIFORM_CONTINENTS) {
                         String container = getMetazonePageTerritory(source);
-                        order = Containment.getOrder(container);
+                        setOrder(Containment.getOrder(container));
                         return englishFile.getName(CLDRFile.TERRITORY_NAME, container);
                     } else {
                         String continent = metazoneToContinent.get(source);
@@ -1548,7 +1561,7 @@ public class PathHeader implements Comparable<PathHeader> {
                     }
 
                     if (territory.equals("ZZ")) {
-                        order = 999;
+                        setOrder(999);
                         return englishFile.getName(CLDRFile.TERRITORY_NAME, territory) + ": " + source0;
                     } else {
                         return catFromTerritory.transform(territory) + ": "
@@ -1568,7 +1581,7 @@ public class PathHeader implements Comparable<PathHeader> {
                     }
 
                     if (territory.equals("ZZ")) {
-                        order = 999;
+                        setOrder(999);
                         subContinent = englishFile.getName(CLDRFile.TERRITORY_NAME, territory);
                     } else {
                         subContinent = catFromTerritory.transform(territory);
@@ -1614,7 +1627,7 @@ public class PathHeader implements Comparable<PathHeader> {
                 };
 
                 public String transform(String source) {
-                    order = getIndex(source, datefield);
+                    setOrder(getIndex(source, datefield));
                     return source;
                 }
             });
@@ -1656,7 +1669,7 @@ public class PathHeader implements Comparable<PathHeader> {
                 };
 
                 public String transform(String source) {
-                    order = getIndex(source, relativeDateField) + 100;
+                    setOrder(getIndex(source, relativeDateField) + 100);
                     return "Relative " + longNames[getIndex(source, relativeDateField)];
                 }
             });
@@ -1670,10 +1683,10 @@ public class PathHeader implements Comparable<PathHeader> {
 
                 public String transform(String source) {
                     String[] parts = source.split("-");
-                    order = getIndex(parts[0], symbols);
+                    setOrder(getIndex(parts[0], symbols));
                     // e.g. "currencies-one"
                     if (parts.length > 1) {
-                        suborder = new SubstringOrder(parts[1]);
+                        setSuborder(new SubstringOrder(parts[1]));
                     }
                     return source;
                 }
@@ -1688,9 +1701,9 @@ public class PathHeader implements Comparable<PathHeader> {
                         "standard-scientific");
 
                     if (fieldOrder.contains(source)) {
-                        order = fieldOrder.indexOf(source);
+                        setOrder(fieldOrder.indexOf(source));
                     } else {
-                        order = fieldOrder.size();
+                        setOrder(fieldOrder.size());
                     }
 
                     return source;
@@ -1702,7 +1715,7 @@ public class PathHeader implements Comparable<PathHeader> {
                     // Put localeKeyTypePattern behind localePattern and
                     // localeSeparator.
                     if (source.equals("localeKeyTypePattern")) {
-                        order = 10;
+                        setOrder(10);
                     }
                     return source;
                 }
@@ -1712,14 +1725,14 @@ public class PathHeader implements Comparable<PathHeader> {
 
                 @Override
                 public String transform(String source) {
-                    order = getIndex(source, listParts);
+                    setOrder(getIndex(source, listParts));
                     return source;
                 }
             });
             functionMap.put("alphaOrder", new Transform<String, String>() {
                 @Override
                 public String transform(String source) {
-                    order = 0;
+                    setOrder(0);
                     return source;
                 }
             });
@@ -1765,7 +1778,7 @@ public class PathHeader implements Comparable<PathHeader> {
                 @Override
                 public String transform(String source) {
                     String minorCat = Emoji.getMinorCategory(source);
-                    order = Emoji.getEmojiMinorOrder(source);
+                    setOrder(Emoji.getEmojiMinorOrder(source));
                     return minorCat;
                 }
             });
@@ -1778,13 +1791,21 @@ public class PathHeader implements Comparable<PathHeader> {
                 public String transform(String source) {
                     int dashPos = source.indexOf(' ');
                     String emoji = source.substring(0, dashPos);
-                    order = (Emoji.getEmojiToOrder(emoji) << 1) + (source.endsWith("name") ? 0 : 1);
+                    setOrder((Emoji.getEmojiToOrder(emoji) << 1) + (source.endsWith("name") ? 0 : 1));
                     return source;
                 }
             });
 
         }
 
+        private static void setOrder(int order) {
+            fixState.get().order = order;
+        }
+
+        private static void setSuborder(SubstringOrder suborder) {
+            fixState.get().suborder = suborder;
+        }
+
         private static int getIndex(String item, String[] array) {
             for (int i = 0; i < array.length; i++) {
                 if (item.equals(array[i])) {
@@ -1805,21 +1826,12 @@ public class PathHeader implements Comparable<PathHeader> {
             return englishFile.getName(CLDRFile.LANGUAGE_NAME, languageOnlyPart).substring(0, 1).toUpperCase();
         }
 
-        static class HyphenSplitter {
-            String main;
-            String extras;
-
-            String split(String source) {
-                int hyphenPos = source.indexOf('-');
-                if (hyphenPos < 0) {
-                    main = source;
-                    extras = "";
-                } else {
-                    main = source.substring(0, hyphenPos);
-                    extras = source.substring(hyphenPos);
-                }
-                return main;
-            }
+        /**
+         * Return the part of the source before the first hyphen, or all of it if there is none.
+         */
+        private static String beforeHyphen(String source) {
+            int hyphenPos = source.indexOf('-');
+            return hyphenPos < 0 ? source : source.substring(0, hyphenPos);
         }
 
         /**
@@ -1834,9 +1846,10 @@ public class PathHeader implements Comparable<PathHeader> {
                 int debug = 0;
             }
             String oldInput = input;
-            input = RegexLookup.replace(input, args.value);
-            order = orderIn;
-            suborder = null;
+            FixState state = fixState.get();
+            input = RegexLookup.replace(input, state.args.value);
+            state.order = orderIn;
+            state.suborder = null;
             int pos = 0;
             while (true) {
                 int functionStart = input.indexOf('&', pos);
@@ -1884,7 +1897,9 @@ public class PathHeader implements Comparable<PathHeader> {
          */
         public Set<String> getUnmatchedRegexes() {
             Map<String, RawData> outputUnmatched = new LinkedHashMap<String, RawData>();
-            lookup.getUnmatchedPatterns(matchersFound, outputUnmatched);
+            synchronized (counter) {
+                lookup.getUnmatchedPatterns(matchersFound, outputUnmatched);
+            }
             return outputUnmatched.keySet();
         }
 
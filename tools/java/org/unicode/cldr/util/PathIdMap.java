@@ -0,0 +1,230 @@
+package org.unicode.cldr.util;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A map from distinguishing paths to values, keyed by the IDs of the paths in the {@link PathInterner},
+ * as used by SimpleXMLSource. The keys and values are kept in two open-addressed arrays, so an entry
+ * takes an int and a reference, rather than a hash map entry with its own reference to the path;
+ * the paths themselves are shared by all of the maps through the PathInterner.
+ * <p>
+ * Paths that are put are added to the PathInterner, so only distinguishing paths of the data may be put.
+ * Gets don't lock, and see the value of a put that has returned; puts and removes lock the map.
+ * Iteration is weakly consistent, as with ConcurrentHashMap. Null values aren't allowed.
+ */
+public final class PathIdMap<V> {
+    private static final int MIN_CAPACITY = 8;
+
+    /**
+     * The slots of the map. A removed entry keeps its key, with a null value, until the table is rebuilt.
+     */
+    private static final class Table {
+        final AtomicIntegerArray keys; // the ID + 1, or 0 for an empty slot
+        final AtomicReferenceArray<Object> values;
+
+        Table(int capacity) {
+            keys = new AtomicIntegerArray(capacity);
+            values = new AtomicReferenceArray<Object>(capacity);
+        }
+
+        int capacity() {
+            return keys.length();
+        }
+    }
+
+    private volatile Table table = new Table(MIN_CAPACITY);
+    private int used = 0; // slots with a key, including removed entries; guarded by this
+    private volatile int size = 0;
+
+    public PathIdMap() {
+    }
+
+    /**
+     * Make a copy of another map.
+     */
+    public PathIdMap(PathIdMap<V> other) {
+        synchronized (other) {
+            Table source = other.table;
+            table = new Table(getCapacity(other.size));
+            for (int i = 0; i < source.capacity(); ++i) {
+                Object value = source.values.get(i);
+                if (value != null) {
+                    insert(table, source.keys.get(i), value);
+                    ++used;
+                }
+            }
+            size = used;
+        }
+    }
+
+    /**
+     * @return the value for the path, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public V get(String path) {
+        int id = PathInterner.getExistingId(path);
+        if (id < 0) {
+            return null; // never put in any map
+        }
+        Table t = table;
+        int slot = find(t, id + 1);
+        return slot < 0 ? null : (V) t.values.get(slot);
+    }
+
+    /**
+     * Set the value for the path.
+     *
+     * @return the old value, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized V put(String path, V value) {
+        if (value == null) {
+            throw new NullPointerException("null value for " + path);
+        }
+        int key = PathInterner.getId(path) + 1;
+        int slot = find(table, key);
+        if (slot >= 0) {
+            Object old = table.values.getAndSet(slot, value);
+            if (old == null) {
+                ++size;
+            }
+            return (V) old;
+        }
+        if ((used + 1) * 4 > table.capacity() * 3) {
+            rebuild();
+        }
+        insert(table, key, value);
+        ++used;
+        ++size;
+        return null;
+    }
+
+    /**
+     * Remove the value for the path.
+     *
+     * @return the old value, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized V remove(String path) {
+        int id = PathInterner.getExistingId(path);
+        if (id < 0) {
+            return null;
+        }
+        int slot = find(table, id + 1);
+        if (slot < 0) {
+            return null;
+        }
+        Object old = table.values.getAndSet(slot, null);
+        if (old != null) {
+            --size;
+        }
+        return (V) old;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the paths with values, as the canonical instances from the PathInterner
+     */
+    public Iterator<String> keyIterator() {
+        final Table t = table;
+        return new Iterator<String>() {
+            private int slot = advance(0);
+
+            private int advance(int from) {
+                while (from < t.capacity() && (t.keys.get(from) == 0 || t.values.get(from) == null)) {
+                    ++from;
+                }
+                return from;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return slot < t.capacity();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                String result = PathInterner.getPath(t.keys.get(slot) - 1);
+                slot = advance(slot + 1);
+                return result;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * @return the slot with the key, or -1 if there is none
+     */
+    private static int find(Table t, int key) {
+        int mask = t.capacity() - 1;
+        for (int slot = hash(key) & mask;; slot = (slot + 1) & mask) {
+            int k = t.keys.get(slot);
+            if (k == key) {
+                return slot;
+            } else if (k == 0) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Add a key that isn't in the table. The value is set first, so that a reader that finds the key sees it.
+     */
+    private static void insert(Table t, int key, Object value) {
+        int mask = t.capacity() - 1;
+        int slot = hash(key) & mask;
+        while (t.keys.get(slot) != 0) {
+            slot = (slot + 1) & mask;
+        }
+        t.values.set(slot, value);
+        t.keys.set(slot, key);
+    }
+
+    /**
+     * Copy the entries into a new table, dropping the removed ones, and publish it.
+     * Readers still using the old table see the entries as they were.
+     */
+    private void rebuild() {
+        Table old = table;
+        Table t = new Table(getCapacity(size + 1));
+        int count = 0;
+        for (int i = 0; i < old.capacity(); ++i) {
+            Object value = old.values.get(i);
+            if (value != null) {
+                insert(t, old.keys.get(i), value);
+                ++count;
+            }
+        }
+        used = count;
+        table = t;
+    }
+
+    /**
+     * @return a power of two with room for the entries at a load of at most one half
+     */
+    private static int getCapacity(int entries) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < entries * 2) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,116 @@
+package org.unicode.cldr.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide table of distinguishing xpaths. Each path is given a dense int ID (0..size()-1),
+ * and a single canonical String instance, so that the many maps keyed by distinguishing paths
+ * share one copy of each path rather than holding duplicates. SimpleXMLSource keys its maps
+ * by the IDs (see {@link PathIdMap}).
+ * Callers still compare paths with String.equals: a path from elsewhere need not be the canonical instance.
+ * <p>
+ * The table is never cleared, and lives as long as the class, so it only grows. Only the distinguishing
+ * paths of files being loaded should be added (with getId or intern), since their number is bounded by
+ * the DTDs and the data. Code that looks up arbitrary paths, such as caches keyed by paths from callers,
+ * must use getExistingId, and treat a path that isn't in the table as uncached.
+ * <p>
+ * IDs are only valid within the current process; they are not stable across runs.
+ * Lookups of known paths do not lock; only adding a new path does.
+ */
+public final class PathInterner {
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final Map<String, Integer> PATH_TO_ID = new ConcurrentHashMap<String, Integer>();
+    private static final Object ADD_SYNC = new Object();
+
+    /**
+     * The ID to path table, in fixed-size chunks so that it can grow without copying paths.
+     * Written only under ADD_SYNC, and always before the ID is published in PATH_TO_ID.
+     */
+    private static volatile String[][] idToPath = new String[16][];
+    private static int size = 0; // guarded by ADD_SYNC
+
+    private PathInterner() {
+    }
+
+    /**
+     * Get the ID for a path, adding it if it is new. Only for known distinguishing paths; see the class description.
+     *
+     * @param path
+     *            a distinguishing path
+     * @return a value from 0 to size()-1
+     */
+    public static int getId(String path) {
+        Integer result = PATH_TO_ID.get(path);
+        if (result != null) {
+            return result;
+        }
+        synchronized (ADD_SYNC) {
+            result = PATH_TO_ID.get(path);
+            if (result != null) {
+                return result;
+            }
+            int id = size;
+            String[][] chunks = idToPath;
+            int chunk = id >>> CHUNK_BITS;
+            if (chunk >= chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunks.length * 2);
+            }
+            if (chunks[chunk] == null) {
+                chunks[chunk] = new String[CHUNK_SIZE];
+            }
+            chunks[chunk][id & CHUNK_MASK] = path;
+            idToPath = chunks;
+            ++size;
+            PATH_TO_ID.put(path, id);
+            return id;
+        }
+    }
+
+    /**
+     * Get the ID for a path, without adding it. Use this for paths from arbitrary input.
+     *
+     * @return the ID, or -1 if the path has not been added.
+     */
+    public static int getExistingId(String path) {
+        Integer result = PATH_TO_ID.get(path);
+        return result == null ? -1 : result;
+    }
+
+    /**
+     * Get the path for an ID returned by getId.
+     *
+     * @throws IllegalArgumentException if the ID has not been assigned
+     */
+    public static String getPath(int id) {
+        String[][] chunks = idToPath;
+        int chunk = id >>> CHUNK_BITS;
+        String result = id < 0 || chunk >= chunks.length || chunks[chunk] == null
+            ? null
+            : chunks[chunk][id & CHUNK_MASK];
+        if (result == null) {
+            throw new IllegalArgumentException("No path for ID " + id);
+        }
+        return result;
+    }
+
+    /**
+     * Get the canonical instance of a path, adding it if it is new. Only for known distinguishing paths.
+     */
+    public static String intern(String path) {
+        return path == null ? null : getPath(getId(path));
+    }
+
+    /**
+     * The number of paths added so far.
+     */
+    public static int size() {
+        synchronized (ADD_SYNC) {
+            return size;
+        }
+    }
+}
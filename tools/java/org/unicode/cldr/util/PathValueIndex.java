@@ -0,0 +1,325 @@
+package org.unicode.cldr.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * An index from the values of a CLDRFile to its paths, for finding the paths whose values contain or
+ * start with a string, in time that depends on the number of paths found rather than on the size of
+ * the file. Values and queries are normalized with {@link SimpleXMLSource#normalize(String)}, as in
+ * {@link XMLSource#getPathsWithValue(String, String, Set)}, so case and punctuation are ignored.
+ * <p>
+ * The grams of a value are the substrings of up to three characters starting at each of its positions.
+ * Each gram maps to the paths that have it. A query of three or more characters is looked up by the
+ * gram of its with the fewest paths; a shorter one by all of the grams that start with it. The paths
+ * found are then checked against their values.
+ * <p>
+ * The index can be kept up to date by listening to the sources that the values of the file come from
+ * (see {@link #listenTo(XMLSource)}); the paths that changed are indexed again at the next query.
+ * Paths whose values come from a changed path through an alias are not noticed. The methods are
+ * thread-safe.
+ */
+public class PathValueIndex implements XMLSource.Listener {
+    private static final int GRAM_LENGTH = 3;
+
+    private final CLDRFile file;
+    private final Map<String, Integer> pathToId = new HashMap<String, Integer>();
+    private final List<String> paths = new ArrayList<String>();
+    private final List<String> values = new ArrayList<String>(); // normalized, or null if the path has no value
+    private final TreeMap<String, Postings> gramToIds = new TreeMap<String, Postings>();
+    private final Set<String> changedPaths = new HashSet<String>();
+
+    /**
+     * The ids of the paths with a gram, in no particular order.
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size = 0;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        void remove(int id) {
+            for (int i = 0; i < size; ++i) {
+                if (ids[i] == id) {
+                    ids[i] = ids[--size];
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Index the values of all of the paths of the file.
+     *
+     * @param file
+     *            the file, usually resolved
+     */
+    public PathValueIndex(CLDRFile file) {
+        this.file = file;
+        for (String path : file) {
+            index(path);
+        }
+    }
+
+    /**
+     * Listen to changes in a source of the values of the file, such as its unresolved source,
+     * or the unresolved source of one of its parents.
+     * The source only holds a weak reference, so the index must be kept by its user.
+     */
+    public PathValueIndex listenTo(XMLSource source) {
+        source.addListener(this);
+        return this;
+    }
+
+    @Override
+    public synchronized void valueChanged(String xpath, XMLSource source) {
+        changedPaths.add(xpath);
+    }
+
+    /**
+     * How the value of a path matches a query.
+     */
+    public enum Match {
+        EXACT, PREFIX, SUBSTRING
+    }
+
+    /**
+     * Add the paths whose values contain the query, after normalization.
+     *
+     * @return the result, or a new set if it was null
+     */
+    public synchronized Set<String> getPathsContaining(String query, Set<String> result) {
+        return find(query, false, result);
+    }
+
+    /**
+     * Add the paths whose values start with the query, after normalization.
+     *
+     * @return the result, or a new set if it was null
+     */
+    public synchronized Set<String> getPathsStartingWith(String query, Set<String> result) {
+        return find(query, true, result);
+    }
+
+    /**
+     * Get at most limit of the paths whose values contain the query, after normalization. The paths whose
+     * values equal the query are kept first, then those whose values start with it, then the others.
+     *
+     * @return the paths kept, for each kind of match
+     */
+    public synchronized Map<Match, List<String>> getRankedPathsContaining(String query, int limit) {
+        Map<Match, List<String>> result = new EnumMap<Match, List<String>>(Match.class);
+        for (Match match : Match.values()) {
+            result.put(match, new ArrayList<String>());
+        }
+        String normalized = SimpleXMLSource.normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return result;
+        }
+        List<String> exact = result.get(Match.EXACT);
+        List<String> prefix = result.get(Match.PREFIX);
+        List<String> substring = result.get(Match.SUBSTRING);
+        Set<Integer> seen = new HashSet<Integer>();
+        candidates: for (Postings postings : getCandidates(normalized, false)) {
+            for (int i = 0; i < postings.size; ++i) {
+                int id = postings.ids[i];
+                String value = values.get(id);
+                if (!value.contains(normalized) || !seen.add(id)) {
+                    continue;
+                }
+                // keep up to limit of each kind, since better matches may still come
+                if (value.equals(normalized)) {
+                    exact.add(paths.get(id));
+                    if (exact.size() >= limit) {
+                        break candidates;
+                    }
+                } else if (value.startsWith(normalized)) {
+                    if (prefix.size() < limit) {
+                        prefix.add(paths.get(id));
+                    }
+                } else if (substring.size() < limit) {
+                    substring.add(paths.get(id));
+                }
+            }
+        }
+        int remaining = limit;
+        for (List<String> matches : result.values()) {
+            if (matches.size() > remaining) {
+                matches.subList(remaining, matches.size()).clear();
+            }
+            remaining -= matches.size();
+        }
+        return result;
+    }
+
+    /**
+     * Get at most limit of the paths whose values contain the query in any of the indexes. Each index is
+     * searched for up to limit paths of its own, so that one index can't crowd out the others. The paths
+     * whose values equal the query come first, then those whose values start with it, then the others;
+     * within each, the paths are taken from the indexes in turn.
+     *
+     * @return the paths, best matches first
+     */
+    public static Set<String> getPathsContaining(String query, int limit, PathValueIndex... indexes) {
+        List<Map<Match, List<String>>> found = new ArrayList<Map<Match, List<String>>>();
+        for (PathValueIndex index : indexes) {
+            found.add(index.getRankedPathsContaining(query, limit));
+        }
+        Set<String> result = new LinkedHashSet<String>();
+        for (Match match : Match.values()) {
+            for (int i = 0;; ++i) {
+                boolean more = false;
+                for (Map<Match, List<String>> matches : found) {
+                    List<String> paths = matches.get(match);
+                    if (i < paths.size()) {
+                        more = true;
+                        result.add(paths.get(i));
+                        if (result.size() >= limit) {
+                            return result;
+                        }
+                    }
+                }
+                if (!more) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of paths with values in the index
+     */
+    public synchronized int size() {
+        indexChangedPaths();
+        int result = 0;
+        for (String value : values) {
+            if (value != null) {
+                ++result;
+            }
+        }
+        return result;
+    }
+
+    private Set<String> find(String query, boolean prefix, Set<String> result) {
+        if (result == null) {
+            result = new HashSet<String>();
+        }
+        String normalized = SimpleXMLSource.normalize(query);
+        if (normalized.isEmpty()) {
+            return result;
+        }
+        for (Postings postings : getCandidates(normalized, prefix)) {
+            for (int i = 0; i < postings.size; ++i) {
+                int id = postings.ids[i];
+                String value = values.get(id);
+                if (prefix ? value.startsWith(normalized) : value.contains(normalized)) {
+                    result.add(paths.get(id));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the postings to check for a normalized query, which include every path whose value
+     * contains the query (or starts with it), along with others.
+     */
+    private Collection<Postings> getCandidates(String normalized, boolean prefix) {
+        indexChangedPaths();
+        if (normalized.length() >= GRAM_LENGTH) {
+            Postings fewest = null;
+            for (int i = 0; i + GRAM_LENGTH <= normalized.length(); ++i) {
+                Postings postings = gramToIds.get(normalized.substring(i, i + GRAM_LENGTH));
+                if (postings == null) {
+                    return Collections.emptyList();
+                }
+                if (fewest == null || postings.size < fewest.size) {
+                    fewest = postings;
+                }
+                if (prefix) {
+                    break; // only the first gram is at the start
+                }
+            }
+            return Collections.singletonList(fewest);
+        } else {
+            // the grams that start with the query include one at each position where it occurs
+            return gramToIds.subMap(normalized, true, normalized + Character.MAX_VALUE, true).values();
+        }
+    }
+
+    private void indexChangedPaths() {
+        if (changedPaths.isEmpty()) {
+            return;
+        }
+        for (String path : changedPaths) {
+            index(path);
+        }
+        changedPaths.clear();
+    }
+
+    /**
+     * Index the current value of the path, replacing its old value.
+     */
+    private void index(String path) {
+        String value = file.getStringValue(path);
+        String normalized = value == null ? null : SimpleXMLSource.normalize(value);
+        Integer id = pathToId.get(path);
+        if (id == null) {
+            if (normalized == null) {
+                return;
+            }
+            id = paths.size();
+            paths.add(path);
+            values.add(null);
+            pathToId.put(path, id);
+        }
+        String oldNormalized = values.get(id);
+        if (Objects.equals(oldNormalized, normalized)) {
+            return;
+        }
+        if (oldNormalized != null) {
+            for (String gram : getGrams(oldNormalized)) {
+                Postings postings = gramToIds.get(gram);
+                postings.remove(id);
+                if (postings.size == 0) {
+                    gramToIds.remove(gram);
+                }
+            }
+        }
+        if (normalized != null) {
+            for (String gram : getGrams(normalized)) {
+                Postings postings = gramToIds.get(gram);
+                if (postings == null) {
+                    gramToIds.put(gram, postings = new Postings());
+                }
+                postings.add(id);
+            }
+        }
+        values.set(id, normalized);
+    }
+
+    private static Set<String> getGrams(String normalized) {
+        Set<String> result = new LinkedHashSet<String>();
+        for (int i = 0; i < normalized.length(); ++i) {
+            result.add(normalized.substring(i, Math.min(normalized.length(), i + GRAM_LENGTH)));
+        }
+        return result;
+    }
+}
@@ -1,9 +1,11 @@
 package org.unicode.cldr.util;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -39,10 +41,16 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
     private Transform<String, ? extends T> valueTransform;
     private Merger<T> valueMerger;
     private final boolean allowNull = false;
-    private static PathStarrer pathStarrer = new PathStarrer().setSubstitutionPattern("*");
+    // PathStarrer keeps state, so each thread has its own
+    private static final ThreadLocal<PathStarrer> pathStarrer = new ThreadLocal<PathStarrer>() {
+        @Override
+        protected PathStarrer initialValue() {
+            return new PathStarrer().setSubstitutionPattern("*");
+        }
+    };
 
     public enum LookupType {
-        STAR_PATTERN_LOOKUP, OPTIMIZED_DIRECTORY_PATTERN_LOOKUP, STANDARD
+        STAR_PATTERN_LOOKUP, OPTIMIZED_DIRECTORY_PATTERN_LOOKUP, PREFIX_TRIE_LOOKUP, STANDARD
     };
 
     private LookupType _lookupType;
@@ -67,6 +75,14 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
      * However regex's no longer need to follow any specific format (Slower but more versatile).
      */
 
+    /*
+     * PREFIX_TRIE_LOOKUP
+     *
+     * Files each regex in a trie under its literal prefix (eg ^//ldml/numbers/ in ^//ldml/numbers/(.*)), so that a
+     * lookup only runs the regex's whose prefixes the source starts with. Gives the same results as STANDARD, and
+     * allows concurrent lookups. Works best when most of the regex's are anchored with ^, as with RegexFinderTransformPath.
+     */
+
     public RegexLookup(LookupType type) {
         _lookupType = type;
         switch (type) {
@@ -78,6 +94,9 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
             //   RTEntries = new RegexTree<T>();
             storage = new RegexTree<T>();
             break;
+        case PREFIX_TRIE_LOOKUP:
+            storage = new PrefixTrie<T>();
+            break;
         default:
             MEntries = new LinkedHashMap<Finder, T>();
             break;
@@ -111,9 +130,15 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
 
     public static class RegexFinder extends Finder {
         /**
-         * The matcher used by this RegexFinder
+         * The matcher used by this RegexFinder on each thread, so that lookups on different threads
+         * don't have to wait for each other.
          */
-        private final Matcher matcher;
+        private final ThreadLocal<Matcher> matcher = new ThreadLocal<Matcher>() {
+            @Override
+            protected Matcher initialValue() {
+                return pattern.matcher("");
+            }
+        };
 
         /**
          * The Pattern used by this RegexFinder
@@ -122,7 +147,6 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
 
         public RegexFinder(String pattern) {
             this.pattern = Pattern.compile(pattern, Pattern.COMMENTS);
-            matcher = this.pattern.matcher("");
         }
 
         /**
@@ -130,32 +154,32 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
          * if it is non null
          */
         public boolean matches(String item, Object context, Info info) {
-            synchronized (matcher) {
-                try {
-                    boolean result = matcher.reset(item).matches();
-                    extractInfo(info, result);
-                    return result;
-                } catch (StringIndexOutOfBoundsException e) {
-                    // We don't know what causes this error (cldrbug 5051) so
-                    // make the exception message more detailed.
-                    throw new IllegalArgumentException("Matching error caused by pattern: ["
-                        + matcher.toString() + "] on text: [" + item + "]", e);
-                }
+            Matcher m = matcher.get();
+            try {
+                boolean result = m.reset(item).matches();
+                extractInfo(m, info, result);
+                return result;
+            } catch (StringIndexOutOfBoundsException e) {
+                // We don't know what causes this error (cldrbug 5051) so
+                // make the exception message more detailed.
+                throw new IllegalArgumentException("Matching error caused by pattern: ["
+                    + m.toString() + "] on text: [" + item + "]", e);
             }
         }
 
         /**
          * Extract match related information into  the info field, if result is true, and info
          * is not null.
+         * @param m
          * @param info
          * @param result
          */
-        private void extractInfo(Info info, boolean result) {
+        private void extractInfo(Matcher m, Info info, boolean result) {
             if (result && info != null) {
-                int limit = matcher.groupCount() + 1;
+                int limit = m.groupCount() + 1;
                 String[] value = new String[limit];
                 for (int i = 0; i < limit; ++i) {
-                    value[i] = matcher.group(i);
+                    value[i] = m.group(i);
                 }
                 info.value = value;
             }
@@ -166,22 +190,20 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
          * if it is non-null
          */
         public boolean find(String item, Object context, Info info) {
-            synchronized (matcher) {
-                try {
-                    boolean result = matcher.reset(item).find();
-                    extractInfo(info, result);
-                    return result;
-                } catch (StringIndexOutOfBoundsException e) {
-                    // We don't know what causes this error (cldrbug 5051) so
-                    // make the exception message more detailed.
-                    throw new IllegalArgumentException("Matching error caused by pattern: ["
-                        + matcher.toString() + "] on text: [" + item + "]", e);
-                }
+            Matcher m = matcher.get();
+            try {
+                boolean result = m.reset(item).find();
+                extractInfo(m, info, result);
+                return result;
+            } catch (StringIndexOutOfBoundsException e) {
+                // We don't know what causes this error (cldrbug 5051) so
+                // make the exception message more detailed.
+                throw new IllegalArgumentException("Matching error caused by pattern: ["
+                    + m.toString() + "] on text: [" + item + "]", e);
             }
         }
 
         public String toString() {
-            // Use pattern here, to avoid having to synchronize on matcher
             return pattern.pattern();
         }
 
@@ -201,9 +223,7 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
 
         @Override
         public int getFailPoint(String source) {
-            synchronized (matcher) {
-                return RegexUtilities.findMismatch(matcher, source);
-            }
+            return RegexUtilities.findMismatch(matcher.get(), source);
         }
     }
 
@@ -258,24 +278,14 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
         @Override
         public List<T> getAll(String pattern, Object context, List<Finder> matcherList, Output<String[]> firstInfo) {
             List<RTNode> list = new ArrayList<RTNode>();
+            Map<RTNode, String[]> infos = new IdentityHashMap<RTNode, String[]>();
             List<T> retList = new ArrayList<T>();
 
-            root.addToList(pattern, context, list);
+            root.addToList(pattern, context, list, infos);
             Collections.sort(list, rankComparator);
 
-            boolean isFirst = true;
             if (firstInfo != null && !list.isEmpty()) {
-                RTNode firstNode = list.get(0);
-                if (firstNode._info != null) {
-                    firstInfo.value = firstNode._info.value;
-                }
-            }
-
-            for (RTNode n : list) {
-                if (isFirst) {
-                    firstInfo.value = n._info.value;
-                    isFirst = false;
-                }
+                firstInfo.value = infos.get(list.get(0));
             }
 
             for (RTNode n : list) {
@@ -462,36 +472,22 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
             }
 
             //traverse tree to get list of all values who's key matcher matches pattern
-            public void addToList(String pattern, Object context, List<RTNode> list) {
+            //the match groups go into infos, not into the nodes, so that lookups can run concurrently
+            public void addToList(String pattern, Object context, List<RTNode> list, Map<RTNode, String[]> infos) {
                 if (_children.size() == 0) {
                     return;
                 } else {
                     Info firstInfo = new Info();
                     for (RTNode child : _children) {
-                        boolean found;
-                        synchronized (child._finder) {
-                            found = child._finder.find(pattern, context, firstInfo);
-                        }
-
                         //check if child matches pattern
-                        if (found) {
+                        if (child._finder.find(pattern, context, firstInfo)) {
                             if (child._rank != -1) {
                                 list.add(child);
                             }
-                            // if this node's info value is unset, set it to the result of the
-                            // lookup
-//                            if (child._info!=null && child._info.value==null) {
-                            if (child._info != null) {
-                                // set the value to the result of the last find
-                                child._info.value = firstInfo.value;
-                            } else {
-                                // for some reason, child._info is null, so simply initialize it.
-                                child._info = new Info();
-                                // set the value to the result of the last find
-                                child._info.value = firstInfo.value;
-                            }
+                            // set the value to the result of the last find
+                            infos.put(child, firstInfo.value);
                             //check if child is the parent of node then enter that node
-                            child.addToList(pattern, context, list);
+                            child.addToList(pattern, context, list, infos);
                         }
                     }
                 }
@@ -559,7 +555,7 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
 
         public void put(Finder pattern, T value) {
             //System.out.println("pattern.toString() is => "+pattern.toString());
-            String starPattern = pathStarrer.transform2(pattern.toString().replaceAll("\\(\\[\\^\"\\]\\*\\)", "*"));
+            String starPattern = pathStarrer.get().transform2(pattern.toString().replaceAll("\\(\\[\\^\"\\]\\*\\)", "*"));
             //System.out.println("Putting => "+starPattern);
             List<SPNode> candidates = _spmap.get(starPattern);
             if (candidates == null) {
@@ -572,7 +568,7 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
         }
 
         public T get(Finder finder) {
-            String starPattern = pathStarrer.transform2(finder.toString());
+            String starPattern = pathStarrer.get().transform2(finder.toString());
             List<SPNode> candidates = _spmap.get(starPattern);
             if (candidates == null) {
                 return null;
@@ -589,7 +585,7 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
             List<SPNode> list = new ArrayList<SPNode>();
             List<T> retList = new ArrayList<T>();
 
-            String starPattern = pathStarrer.transform2(pattern);
+            String starPattern = pathStarrer.get().transform2(pattern);
             List<SPNode> candidates = _spmap.get(starPattern);
             if (candidates == null) {
                 return retList;
@@ -661,6 +657,233 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
         }
     }
 
+    /**
+     * Storage for PREFIX_TRIE_LOOKUP. Each pattern is filed in a trie under its literal prefix: the text that
+     * any match must start with, such as "//ldml/dates/calendars/calendar" for
+     * "^//ldml/dates/calendars/calendar[@type=\"(%A)\"]". A lookup walks the trie once along the source,
+     * collecting the patterns whose prefixes it passes; only those are run, in the order they were added,
+     * and only the first that matches extracts its groups. Patterns without a usable prefix (not anchored,
+     * top-level alternation, or a Finder other than a plain RegexFinder) are filed at the root and always run.
+     * <p>
+     * Returns the same results as STANDARD. Safe for concurrent lookups once loaded.
+     */
+    private static class PrefixTrie<T> implements StorageInterfaceBase<T> {
+        private final PrefixNode<T> root = new PrefixNode<T>();
+        private final Map<Finder, T> entries = new LinkedHashMap<Finder, T>();
+
+        @Override
+        public int size() {
+            return entries.size();
+        }
+
+        @Override
+        public void put(Finder finder, T value) {
+            String prefix = getLiteralPrefix(finder);
+            PrefixNode<T> node = root;
+            for (int i = 0; i < prefix.length(); ++i) {
+                node = node.getOrAddChild(prefix.charAt(i));
+            }
+            node.entries.add(new PrefixEntry<T>(finder, value, entries.size()));
+            entries.put(finder, value);
+        }
+
+        @Override
+        public T get(Finder finder) {
+            return entries.get(finder);
+        }
+
+        @Override
+        public T get(String pattern, Object context, Output<String[]> arguments, Output<Finder> matcherFound) {
+            for (PrefixEntry<T> candidate : getCandidates(pattern)) {
+                Info info = new Info();
+                if (candidate.finder.find(pattern, context, info)) {
+                    if (arguments != null) {
+                        arguments.value = info.value;
+                    }
+                    if (matcherFound != null) {
+                        matcherFound.value = candidate.finder;
+                    }
+                    return candidate.value;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public List<T> getAll(String pattern, Object context, List<Finder> matcherList, Output<String[]> firstInfo) {
+            List<T> retList = new ArrayList<T>();
+            for (PrefixEntry<T> candidate : getCandidates(pattern)) {
+                Info info = new Info();
+                if (candidate.finder.find(pattern, context, info)) {
+                    if (firstInfo != null && retList.isEmpty()) {
+                        firstInfo.value = info.value;
+                    }
+                    retList.add(candidate.value);
+                    if (matcherList != null) {
+                        matcherList.add(candidate.finder);
+                    }
+                }
+            }
+            return retList;
+        }
+
+        /**
+         * The entries whose prefixes the source starts with, in the order they were added.
+         */
+        private List<PrefixEntry<T>> getCandidates(String source) {
+            List<PrefixEntry<T>> result = new ArrayList<PrefixEntry<T>>(root.entries);
+            boolean needsSort = false;
+            PrefixNode<T> node = root;
+            for (int i = 0; i < source.length(); ++i) {
+                node = node.getChild(source.charAt(i));
+                if (node == null) {
+                    break;
+                }
+                if (!node.entries.isEmpty()) {
+                    needsSort |= !result.isEmpty();
+                    result.addAll(node.entries);
+                }
+            }
+            if (needsSort) {
+                Collections.sort(result);
+            }
+            return result;
+        }
+
+        @Override
+        public Set<Entry<Finder, T>> entrySet() {
+            return entries.entrySet();
+        }
+
+        @Override
+        public String toString() {
+            return entries.toString();
+        }
+
+        /**
+         * The literal prefix of a finder's pattern, or "" if there is none that every match must start with.
+         */
+        static String getLiteralPrefix(Finder finder) {
+            if (finder.getClass() != RegexFinder.class) {
+                return ""; // a subclass may change what find() means
+            }
+            Pattern pattern = ((RegexFinder) finder).pattern;
+            if ((pattern.flags() & (Pattern.CASE_INSENSITIVE | Pattern.LITERAL)) != 0) {
+                return "";
+            }
+            return getLiteralPrefix(pattern.pattern(), (pattern.flags() & Pattern.COMMENTS) != 0);
+        }
+
+        static String getLiteralPrefix(String regex, boolean comments) {
+            int i = skipSpace(regex, 0, comments);
+            if (i >= regex.length() || regex.charAt(i) != '^' || hasTopLevelAlternation(regex)) {
+                return "";
+            }
+            StringBuilder result = new StringBuilder();
+            i = skipSpace(regex, i + 1, comments);
+            while (i < regex.length()) {
+                char ch = regex.charAt(i);
+                int next = i + 1;
+                if (ch == '\\') {
+                    if (next >= regex.length() || Character.isLetterOrDigit(regex.charAt(next))) {
+                        break; // \d, \Q, \1, etc.
+                    }
+                    ch = regex.charAt(next++);
+                } else if (".[](){}*+?|^$#".indexOf(ch) >= 0) {
+                    break;
+                }
+                next = skipSpace(regex, next, comments);
+                if (next < regex.length()) {
+                    char quantifier = regex.charAt(next);
+                    if (quantifier == '?' || quantifier == '*' || quantifier == '{') {
+                        break; // the character is optional
+                    } else if (quantifier == '+') {
+                        result.append(ch); // the character is required, but may repeat
+                        break;
+                    }
+                }
+                result.append(ch);
+                i = next;
+            }
+            return result.toString();
+        }
+
+        private static int skipSpace(String regex, int i, boolean comments) {
+            while (comments && i < regex.length() && Character.isWhitespace(regex.charAt(i))) {
+                ++i;
+            }
+            return i;
+        }
+
+        private static boolean hasTopLevelAlternation(String regex) {
+            int depth = 0;
+            int classDepth = 0;
+            for (int i = 0; i < regex.length(); ++i) {
+                char ch = regex.charAt(i);
+                if (ch == '\\') {
+                    ++i;
+                } else if (ch == '[') {
+                    ++classDepth;
+                } else if (ch == ']' && classDepth > 0) {
+                    --classDepth;
+                } else if (classDepth > 0) {
+                    continue;
+                } else if (ch == '(') {
+                    ++depth;
+                } else if (ch == ')') {
+                    --depth;
+                } else if (ch == '|' && depth == 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class PrefixNode<T> {
+        private char[] keys = new char[0];
+        @SuppressWarnings("unchecked")
+        private PrefixNode<T>[] children = new PrefixNode[0];
+        private final List<PrefixEntry<T>> entries = new ArrayList<PrefixEntry<T>>(1);
+
+        PrefixNode<T> getChild(char ch) {
+            for (int i = 0; i < keys.length; ++i) {
+                if (keys[i] == ch) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        PrefixNode<T> getOrAddChild(char ch) {
+            PrefixNode<T> result = getChild(ch);
+            if (result == null) {
+                keys = Arrays.copyOf(keys, keys.length + 1);
+                children = Arrays.copyOf(children, children.length + 1);
+                keys[keys.length - 1] = ch;
+                children[children.length - 1] = result = new PrefixNode<T>();
+            }
+            return result;
+        }
+    }
+
+    private static class PrefixEntry<T> implements Comparable<PrefixEntry<T>> {
+        final Finder finder;
+        final T value;
+        final int rank;
+
+        PrefixEntry(Finder finder, T value, int rank) {
+            this.finder = finder;
+            this.value = value;
+            this.rank = rank;
+        }
+
+        @Override
+        public int compareTo(PrefixEntry<T> other) {
+            return Integer.compare(rank, other.rank);
+        }
+    }
+
     /**
      * The basic class of an information node, featuring a Finder, a value and an Info
      *
@@ -764,15 +987,14 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
                 for (Map.Entry<Finder, T> entry : storage.entrySet()) {
 //                for (Map.Entry<Finder, T> entry : SPEntries.entrySet()) {
                     Finder matcher = entry.getKey();
-                    synchronized (matcher) {
-                        int failPoint = matcher.getFailPoint(source);
-                        String show = source.substring(0, failPoint) + "☹" + source.substring(failPoint) + "\t"
-                            + matcher.toString();
-                        failures.add(show);
-                    }
+                    int failPoint = matcher.getFailPoint(source);
+                    String show = source.substring(0, failPoint) + "☹" + source.substring(failPoint) + "\t"
+                        + matcher.toString();
+                    failures.add(show);
                 }
             }
-        } else if (_lookupType == RegexLookup.LookupType.OPTIMIZED_DIRECTORY_PATTERN_LOOKUP) {
+        } else if (_lookupType == RegexLookup.LookupType.OPTIMIZED_DIRECTORY_PATTERN_LOOKUP
+            || _lookupType == RegexLookup.LookupType.PREFIX_TRIE_LOOKUP) {
             //      T ret = RTEntries.get(source, context, arguments, matcherFound);
             T ret = storage.get(source, context, arguments, matcherFound);
             if (ret != null) {
@@ -783,35 +1005,31 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
                 for (Map.Entry<Finder, T> entry : storage.entrySet()) {
 //                for (Map.Entry<Finder, T> entry : RTEntries.entrySet()) {
                     Finder matcher = entry.getKey();
-                    synchronized (matcher) {
-                        int failPoint = matcher.getFailPoint(source);
-                        String show = source.substring(0, failPoint) + "☹" + source.substring(failPoint) + "\t"
-                            + matcher.toString();
-                        failures.add(show);
-                    }
+                    int failPoint = matcher.getFailPoint(source);
+                    String show = source.substring(0, failPoint) + "☹" + source.substring(failPoint) + "\t"
+                        + matcher.toString();
+                    failures.add(show);
                 }
             }
         } else {
             //slow but versatile implementation
             for (Map.Entry<Finder, T> entry : MEntries.entrySet()) {
                 Finder matcher = entry.getKey();
-                synchronized (matcher) {
-                    Info firstInfo = new Info();
-                    if (matcher.find(source, context, firstInfo)) {
-                        if (arguments != null) {
+                Info firstInfo = new Info();
+                if (matcher.find(source, context, firstInfo)) {
+                    if (arguments != null) {
 //                            arguments.value = matcher.getInfo();
-                            arguments.value = firstInfo.value;
-                        }
-                        if (matcherFound != null) {
-                            matcherFound.value = matcher;
-                        }
-                        return entry.getValue();
-                    } else if (failures != null) {
-                        int failPoint = matcher.getFailPoint(source);
-                        String show = source.substring(0, failPoint) + "☹" + source.substring(failPoint) + "\t"
-                            + matcher.toString();
-                        failures.add(show);
+                        arguments.value = firstInfo.value;
+                    }
+                    if (matcherFound != null) {
+                        matcherFound.value = matcher;
                     }
+                    return entry.getValue();
+                } else if (failures != null) {
+                    int failPoint = matcher.getFailPoint(source);
+                    String show = source.substring(0, failPoint) + "☹" + source.substring(failPoint) + "\t"
+                        + matcher.toString();
+                    failures.add(show);
                 }
             }
         }
@@ -848,16 +1066,15 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
                 for (Map.Entry<Finder, T> entry : storage.entrySet()) {
 //                for (Map.Entry<Finder, T> entry : SPEntries.entrySet()) {
                     Finder matcher = entry.getKey();
-                    synchronized (matcher) {
-                        int failPoint = matcher.getFailPoint(source);
-                        String show = source.substring(0, failPoint) + "☹" + source.substring(failPoint) + "\t"
-                            + matcher.toString();
-                        failures.add(show);
-                    }
+                    int failPoint = matcher.getFailPoint(source);
+                    String show = source.substring(0, failPoint) + "☹" + source.substring(failPoint) + "\t"
+                        + matcher.toString();
+                    failures.add(show);
                 }
             }
             return null;
-        } else if (_lookupType == RegexLookup.LookupType.OPTIMIZED_DIRECTORY_PATTERN_LOOKUP) {
+        } else if (_lookupType == RegexLookup.LookupType.OPTIMIZED_DIRECTORY_PATTERN_LOOKUP
+            || _lookupType == RegexLookup.LookupType.PREFIX_TRIE_LOOKUP) {
             Output<String[]> info = new Output<>();
 //            List<T> matches = RTEntries.getAll(source, context, matcherList,info);
             List<T> matches = storage.getAll(source, context, matcherList, info);
@@ -869,12 +1086,10 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
                 for (Map.Entry<Finder, T> entry : storage.entrySet()) {
 //                for (Map.Entry<Finder, T> entry : RTEntries.entrySet()) {
                     Finder matcher = entry.getKey();
-                    synchronized (matcher) {
-                        int failPoint = matcher.getFailPoint(source);
-                        String show = source.substring(0, failPoint) + "☹" + source.substring(failPoint) + "\t"
-                            + matcher.toString();
-                        failures.add(show);
-                    }
+                    int failPoint = matcher.getFailPoint(source);
+                    String show = source.substring(0, failPoint) + "☹" + source.substring(failPoint) + "\t"
+                        + matcher.toString();
+                    failures.add(show);
                 }
             }
             return null;
@@ -915,7 +1130,8 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
 //            entrySet = SPEntries.entrySet();
             entrySet = storage.entrySet();
             break;
-        case OPTIMIZED_DIRECTORY_PATTERN_LOOKUP:
+        case OPTIMIZED_DIRECTORY_PATTERN_LOOKUP: // fallthrough
+        case PREFIX_TRIE_LOOKUP:
 //            entrySet = RTEntries.entrySet();
             entrySet = storage.entrySet();
             break;
@@ -1062,7 +1278,8 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
         T old;
         switch (_lookupType) {
         case STAR_PATTERN_LOOKUP: // fallthrough
-        case OPTIMIZED_DIRECTORY_PATTERN_LOOKUP:
+        case OPTIMIZED_DIRECTORY_PATTERN_LOOKUP: // fallthrough
+        case PREFIX_TRIE_LOOKUP:
             old = storage.get(pattern);
 //            old = SPEntries.get(pattern);
             break;
@@ -1078,7 +1295,8 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
         if (old == null) {
             switch (_lookupType) {
             case STAR_PATTERN_LOOKUP: // fallthrough
-            case OPTIMIZED_DIRECTORY_PATTERN_LOOKUP:
+            case OPTIMIZED_DIRECTORY_PATTERN_LOOKUP: // fallthrough
+            case PREFIX_TRIE_LOOKUP:
                 storage.put(pattern, target);
 //                SPEntries.put(pattern, target);
                 break;
@@ -1103,7 +1321,8 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
     public Iterator<Map.Entry<Finder, T>> iterator() {
         switch (_lookupType) {
         case STAR_PATTERN_LOOKUP: // fall through
-        case OPTIMIZED_DIRECTORY_PATTERN_LOOKUP:
+        case OPTIMIZED_DIRECTORY_PATTERN_LOOKUP: // fall through
+        case PREFIX_TRIE_LOOKUP:
 //            return Collections.unmodifiableCollection(SPEntries.entrySet()).iterator();
             return Collections.unmodifiableCollection(storage.entrySet()).iterator();
 //        case OPTIMIZED_DIRECTORY_PATTERN_LOOKUP:
@@ -1142,7 +1361,8 @@ public class RegexLookup<T> implements Iterable<Map.Entry<Finder, T>> {
     public int size() {
         switch (_lookupType) {
         case STAR_PATTERN_LOOKUP: // fall through
-        case OPTIMIZED_DIRECTORY_PATTERN_LOOKUP:
+        case OPTIMIZED_DIRECTORY_PATTERN_LOOKUP: // fall through
+        case PREFIX_TRIE_LOOKUP:
 //            return SPEntries.size();
             return storage.size();
 //        case OPTIMIZED_DIRECTORY_PATTERN_LOOKUP:
@@ -11,15 +11,21 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.regex.Matcher;
 
 import org.unicode.cldr.util.CLDRFile.DraftStatus;
 
+import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableList.Builder;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.ibm.icu.util.ICUException;
 import com.ibm.icu.util.ICUUncheckedIOException;
 
 public class SimpleFactory extends Factory {
@@ -481,11 +487,11 @@ public class SimpleFactory extends Factory {
     /**
      * Make a CLDR file. The result is a locked file, so that it can be cached. If you want to modify it,
      * use clone().
+     * <p>
+     * Loading is done once per cache key: threads asking for the same locale wait for the
+     * single load in flight, while other locales load in parallel and cache hits never wait.
      */
-    @SuppressWarnings("unchecked")
-    public CLDRFile handleMake(String localeName, boolean resolved, DraftStatus minimalDraftStatus) {
-        @SuppressWarnings("rawtypes")
-        final Map mapToSynchronizeOn;
+    public CLDRFile handleMake(final String localeName, final boolean resolved, final DraftStatus minimalDraftStatus) {
         final List<File> parentDirs = getSourceDirectoriesForLocale(localeName);
         /*
          *  Parameter check: parentDir being null means the source directory could not be found - throw exception here
@@ -495,70 +501,62 @@ public class SimpleFactory extends Factory {
             // changed from IllegalArgumentException, which does't let us filter exceptions.
             throw new NoSourceDirectoryException(localeName);
         }
-        final Object cacheKey;
-        CLDRFile result; // result of the lookup / generation
         if (USE_OLD_HANDLEMAKE_CODE) {
             final Map<String, CLDRFile> cache = resolved ? resolvedCache[minimalDraftStatus.ordinal()] : mainCache[minimalDraftStatus.ordinal()];
-            mapToSynchronizeOn = cache;
-            cacheKey = localeName;
-            result = cache.get(localeName);
-        } else {
-            // Use double-check idiom
-            cacheKey = new CLDRCacheKey(localeName, resolved, minimalDraftStatus, parentDirs);
-            //        result = cache.get(localeName);
-            //  result=combinedCache.asMap().get(cacheKey);
-            result = combinedCache.getIfPresent(cacheKey);
-            mapToSynchronizeOn = combinedCache.asMap();
+            synchronized (cache) {
+                CLDRFile result = cache.get(localeName);
+                if (result == null) {
+                    result = loadFile(localeName, resolved, minimalDraftStatus, parentDirs);
+                    cache.put(localeName, result);
+                }
+                return result;
+            }
         }
+        final CLDRCacheKey cacheKey = new CLDRCacheKey(localeName, resolved, minimalDraftStatus, parentDirs);
+        CLDRFile result = combinedCache.getIfPresent(cacheKey);
         if (result != null) {
             if (DEBUG_SIMPLEFACTORY) {
                 System.out.println("HandleMake:Returning cached result for locale " + localeName);
             }
             return result;
         }
-//        synchronized (cache) {
-        synchronized (mapToSynchronizeOn) {
-            // Check cache twice to ensure that CLDRFile is only loaded once
-            // even with multiple threads.
-            //            result = cache.get(localeName);
-            //     result=combinedCache.get(cacheKey);
-            Object returned = mapToSynchronizeOn.get(cacheKey);
-            if (returned instanceof CLDRFile) {
-                result = (CLDRFile) returned;
-            }
-            if (result != null) {
-                if (DEBUG_SIMPLEFACTORY) {
-                    System.out.println("HandleMake:Returning cached result for locale " + localeName);
-                }
-                return result;
-            }
-            if (resolved) {
-                result = new CLDRFile(makeResolvingSource(localeName, minimalDraftStatus));
-            } else {
-                if (parentDirs != null) {
-                    if (DEBUG_SIMPLEFACTORY) {
-                        StringBuilder sb = new StringBuilder();
-                        sb.append("HandleMake: Calling makeFile with locale: ");
-                        sb.append(localeName);
-                        sb.append(", parentDir: ");
-                        sb.append(parentDirs);
-                        sb.append(", DraftStatus: ");
-                        sb.append(minimalDraftStatus);
-                        System.out.println(sb.toString());
-                    }
-                    result = makeFile(localeName, parentDirs, minimalDraftStatus);
-                    result.freeze();
+        // The Guava cache keeps one loading future per key, so only this key is blocked while
+        // the XML is parsed. Resolving loads the (differently keyed) unresolved parents recursively.
+        try {
+            return combinedCache.get(cacheKey, new Callable<CLDRFile>() {
+                @Override
+                public CLDRFile call() throws Exception {
+                    return loadFile(localeName, resolved, minimalDraftStatus, parentDirs);
                 }
-            }
-            if (result != null) {
-                mapToSynchronizeOn.put(cacheKey, result);
-                //                combinedCache.put(cacheKey, result);
-                //                cache.put(localeName, result);
-            }
-            return result;
+            });
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new ICUException("Unable to load locale " + localeName, e.getCause());
         }
     }
 
+    /**
+     * Load (and freeze) the CLDRFile for the given locale; the caller is responsible for caching.
+     */
+    private CLDRFile loadFile(String localeName, boolean resolved, DraftStatus minimalDraftStatus, List<File> parentDirs) {
+        if (resolved) {
+            return new CLDRFile(makeResolvingSource(localeName, minimalDraftStatus));
+        }
+        if (DEBUG_SIMPLEFACTORY) {
+            StringBuilder sb = new StringBuilder();
+            sb.append("HandleMake: Calling makeFile with locale: ");
+            sb.append(localeName);
+            sb.append(", parentDir: ");
+            sb.append(parentDirs);
+            sb.append(", DraftStatus: ");
+            sb.append(minimalDraftStatus);
+            System.out.println(sb.toString());
+        }
+        CLDRFile result = makeFile(localeName, parentDirs, minimalDraftStatus);
+        result.freeze();
+        return result;
+    }
+
     /**
      * Produce a CLDRFile from a localeName, given a directory.
      *
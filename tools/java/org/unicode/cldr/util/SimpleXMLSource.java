@@ -1,10 +1,8 @@
 package org.unicode.cldr.util;
 
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 
@@ -16,8 +14,9 @@ import com.ibm.icu.text.UnicodeSet;
 import com.ibm.icu.util.VersionInfo;
 
 public class SimpleXMLSource extends XMLSource {
-    private Map<String, String> xpath_value = CldrUtility.newConcurrentHashMap();
-    private Map<String, String> xpath_fullXPath = CldrUtility.newConcurrentHashMap();
+    // keyed by the PathInterner IDs of the paths, which are shared by all of the sources
+    private PathIdMap<String> xpath_value = new PathIdMap<String>();
+    private PathIdMap<String> xpath_fullXPath = new PathIdMap<String>();
     private Comments xpath_comments = new Comments(); // map from paths to comments.
     private Relation<String, String> VALUE_TO_PATH = null;
     private Object VALUE_TO_PATH_MUTEX = new Object();
@@ -75,14 +74,13 @@ public class SimpleXMLSource extends XMLSource {
     // }
     // }
     public void removeValueAtDPath(String distinguishingXPath) {
-        String oldValue = xpath_value.get(distinguishingXPath);
-        xpath_value.remove(distinguishingXPath);
+        String oldValue = xpath_value.remove(distinguishingXPath);
         xpath_fullXPath.remove(distinguishingXPath);
         updateValuePathMapping(distinguishingXPath, oldValue, null);
     }
 
     public Iterator<String> iterator() { // must be unmodifiable or locked
-        return Collections.unmodifiableSet(xpath_value.keySet()).iterator();
+        return xpath_value.keyIterator();
     }
 
     public XMLSource freeze() {
@@ -93,8 +91,8 @@ public class SimpleXMLSource extends XMLSource {
     public XMLSource cloneAsThawed() {
         SimpleXMLSource result = (SimpleXMLSource) super.cloneAsThawed();
         result.xpath_comments = (Comments) result.xpath_comments.clone();
-        result.xpath_fullXPath = CldrUtility.newConcurrentHashMap(result.xpath_fullXPath);
-        result.xpath_value = CldrUtility.newConcurrentHashMap(result.xpath_value);
+        result.xpath_fullXPath = new PathIdMap<String>(result.xpath_fullXPath);
+        result.xpath_value = new PathIdMap<String>(result.xpath_value);
         return result;
     }
 
@@ -103,8 +101,8 @@ public class SimpleXMLSource extends XMLSource {
     }
 
     public void putValueAtDPath(String distinguishingXPath, String value) {
-        String oldValue = xpath_value.get(distinguishingXPath);
-        xpath_value.put(distinguishingXPath, value);
+        distinguishingXPath = PathInterner.intern(distinguishingXPath);
+        String oldValue = xpath_value.put(distinguishingXPath, value);
         updateValuePathMapping(distinguishingXPath, oldValue, value);
     }
 
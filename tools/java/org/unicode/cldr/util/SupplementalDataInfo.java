@@ -9,7 +9,6 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
-import java.util.Deque;
 import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.HashMap;
@@ -27,7 +26,9 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -44,11 +45,17 @@ import org.unicode.cldr.util.SupplementalDataInfo.PluralInfo.Count;
 import org.unicode.cldr.util.Validity.Status;
 
 import com.google.common.base.Splitter;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.TreeMultimap;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.ibm.icu.dev.util.CollectionUtilities;
 import com.ibm.icu.impl.IterableComparator;
 import com.ibm.icu.impl.Relation;
@@ -66,6 +73,7 @@ import com.ibm.icu.text.PluralRules.SampleType;
 import com.ibm.icu.text.SimpleDateFormat;
 import com.ibm.icu.text.UnicodeSet;
 import com.ibm.icu.util.Freezable;
+import com.ibm.icu.util.ICUException;
 import com.ibm.icu.util.ICUUncheckedIOException;
 import com.ibm.icu.util.Output;
 import com.ibm.icu.util.TimeZone;
@@ -2279,109 +2287,106 @@ public class SupplementalDataInfo {
      * @return
      */
     public Level getCoverageLevel(String xpath, String loc) {
-        Level result = null;
-        result = coverageCache.get(xpath, loc);
-        if (result == null) {
-            CoverageLevel2 cov = localeToCoverageLevelInfo.get(loc);
-            if (cov == null) {
-                cov = CoverageLevel2.getInstance(this, loc);
-                localeToCoverageLevelInfo.put(loc, cov);
-            }
-
-            result = cov.getLevel(xpath);
-            coverageCache.put(xpath, loc, result);
-        }
-        return result;
+        return coverageCache.get(xpath, loc);
     }
 
     /**
-     * Cache Data structure with object expiry,
-     * List that can hold up to MAX_LOCALES caches of locales, when one locale hasn't been used for a while it will removed and GC'd
+     * Statistics for the cache used by getCoverageLevel. The hit and miss counts are per path;
+     * the load and eviction counts are per locale.
      */
-    private class CoverageCache {
-        private final Deque<Node> localeList = new LinkedList<>();
-        private final int MAX_LOCALES = 10;
-
-        /**
-         * Object to sync on for modifying the locale list
-         */
-        private final Object LOCALE_LIST_ITER_SYNC = new Object();
-
-        /*
-         * constructor
-         */
-        public CoverageCache() {
-//            localeList = new LinkedList<Node>();
-        }
-
-        /*
-         * retrieves coverage level associated with two keys if it exists in the cache, otherwise returns null
-         * @param xpath
-         * @param loc
-         * @return the coverage level of the above two keys
-         */
-        public Level get(String xpath, String loc) {
-            synchronized (LOCALE_LIST_ITER_SYNC) {
-                Iterator<Node> it = localeList.iterator();
-                Node reAddNode = null;
-                while (it.hasNext()) {
-//            for (Iterator<Node> it = localeList.iterator(); it.hasNext();) {
-                    Node node = it.next();
-                    if (node.loc.equals(loc)) {
-                        reAddNode = node;
-                        it.remove();
-                        break;
+    public CacheStats getCoverageCacheStatistics() {
+        return coverageCache.getStatistics();
+    }
 
+    /**
+     * Cache for getCoverageLevel. Holds up to MAX_LOCALES locales, evicting the least recently used one.
+     * Each locale has its CoverageLevel2, and the levels found so far, indexed by PathInterner ID.
+     * Only paths that are already interned (those of loaded files) are cached; others are computed each time.
+     * Lookups of cached levels don't lock.
+     */
+    private static class CoverageCache {
+        private static final int MAX_LOCALES = 10;
+        private static final Level[] LEVELS = Level.values();
+
+        private final SupplementalDataInfo sdi;
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        // a single segment, so that eviction is LRU over all the locales; reads still don't lock
+        private final Cache<String, LocaleCoverage> localeToCoverage = CacheBuilder.newBuilder()
+            .maximumSize(MAX_LOCALES)
+            .concurrencyLevel(1)
+            .recordStats()
+            .build();
+
+        public CoverageCache(SupplementalDataInfo sdi) {
+            this.sdi = sdi;
+        }
+
+        public Level get(String xpath, final String loc) {
+            LocaleCoverage coverage;
+            try {
+                coverage = localeToCoverage.get(loc, new Callable<LocaleCoverage>() {
+                    @Override
+                    public LocaleCoverage call() {
+                        return new LocaleCoverage(CoverageLevel2.getInstance(sdi, loc));
                     }
-                }
-                if (reAddNode != null) {
-                    localeList.addFirst(reAddNode);
-                    return reAddNode.map.get(xpath);
-                }
-                return null;
+                });
+            } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+                Throwables.throwIfUnchecked(e.getCause());
+                throw new ICUException("Can't get coverage for " + loc, e.getCause());
+            }
+            int id = PathInterner.getExistingId(xpath);
+            if (id < 0) {
+                // not a path of a loaded file, so not cached, to keep ad-hoc paths out of the interner
+                misses.increment();
+                return coverage.coverageLevel.getLevel(xpath);
+            }
+            Level result = coverage.get(id);
+            if (result != null) {
+                hits.increment();
+                return result;
             }
+            misses.increment();
+            result = coverage.coverageLevel.getLevel(xpath);
+            coverage.put(id, result);
+            return result;
         }
 
-        /*
-         * places a coverage level into the cache, with two keys
-         * @param xpath
-         * @param loc
-         * @param covLevel    the coverage level of the above two keys
-         */
-        public void put(String xpath, String loc, Level covLevel) {
-            synchronized (LOCALE_LIST_ITER_SYNC) {
-                //if locale's map is already in the cache add to it
-//            for (Iterator<Node> it = localeList.iterator(); it.hasNext();) {
-                for (Node node : localeList) {
-//                Node node = it.next();
-                    if (node.loc.equals(loc)) {
-                        node.map.put(xpath, covLevel);
-                        return;
-                    }
-                }
+        public CacheStats getStatistics() {
+            CacheStats localeStats = localeToCoverage.stats();
+            return new CacheStats(hits.sum(), misses.sum(), localeStats.loadSuccessCount(),
+                localeStats.loadExceptionCount(), localeStats.totalLoadTime(), localeStats.evictionCount());
+        }
 
-                //if it is not, add a new map with the coverage level, and remove the last map in the list (used most seldom) if the list is too large
-                Map<String, Level> newMap = new ConcurrentHashMap<String, Level>();
-                newMap.put(xpath, covLevel);
-                localeList.addFirst(new Node(loc, newMap));
+        private static class LocaleCoverage {
+            private final CoverageLevel2 coverageLevel;
+            /**
+             * Level ordinal + 1 for each path ID, or 0 if not yet known. Grown under the lock; a level
+             * written to a stale copy during growth is just computed again later.
+             */
+            private volatile byte[] levels = new byte[0];
 
-                if (localeList.size() > MAX_LOCALES) {
-                    localeList.removeLast();
-                }
+            LocaleCoverage(CoverageLevel2 coverageLevel) {
+                this.coverageLevel = coverageLevel;
             }
-        }
 
-        /*
-         * node to hold a location and a Map
-         */
-        private class Node {
-            //public fields to emulate a C/C++ struct
-            public String loc;
-            public Map<String, Level> map;
+            Level get(int id) {
+                byte[] current = levels;
+                int value = id < current.length ? current[id] : 0;
+                return value == 0 ? null : LEVELS[value - 1];
+            }
 
-            public Node(String _loc, Map<String, Level> _map) {
-                loc = _loc;
-                map = _map;
+            void put(int id, Level level) {
+                byte[] current = levels;
+                if (id >= current.length) {
+                    synchronized (this) {
+                        current = levels;
+                        if (id >= current.length) {
+                            levels = current = Arrays.copyOf(current, Math.max(id + 1, PathInterner.size() + 1024));
+                        }
+                    }
+                }
+                current[id] = (byte) (level.ordinal() + 1);
             }
         }
     }
@@ -2894,8 +2899,7 @@ public class SupplementalDataInfo {
 
     private Map<DayPeriodInfo.Type, Map<String, DayPeriodInfo>> typeToLocaleToDayPeriodInfo = new EnumMap<DayPeriodInfo.Type, Map<String, DayPeriodInfo>>(
         DayPeriodInfo.Type.class);
-    private Map<String, CoverageLevel2> localeToCoverageLevelInfo = new ConcurrentHashMap<String, CoverageLevel2>();
-    private CoverageCache coverageCache = new CoverageCache();
+    private CoverageCache coverageCache = new CoverageCache(this);
     private transient String lastPluralLocales = "";
     private transient PluralType lastPluralWasOrdinal = null;
     private transient Map<Count, String> lastPluralMap = new EnumMap<Count, String>(Count.class);
@@ -208,7 +208,6 @@ public class VettingViewer<T> {
         return outdatedPaths;
     }
 
-    static private PathHeader.Factory pathTransform;
     static final Pattern breaks = PatternCache.get("\\|");
     static final OutdatedPaths outdatedPaths = new OutdatedPaths();
 
@@ -410,6 +409,7 @@ public class VettingViewer<T> {
 
     private final Factory cldrFactory;
     private final CLDRFile englishFile;
+    private final PathHeader.Factory pathTransform;
     private final UsersChoice<T> userVoteStatus;
     private final SupplementalDataInfo supplementalDataInfo;
     private final String baselineTitle = "Baseline";
@@ -432,9 +432,7 @@ public class VettingViewer<T> {
         super();
         this.cldrFactory = cldrFactory;
         englishFile = cldrFactory.make("en", true);
-        if (pathTransform == null) {
-            pathTransform = PathHeader.getFactory(englishFile);
-        }
+        pathTransform = PathHeader.getFactory(englishFile);
         this.userVoteStatus = userVoteStatus;
         this.supplementalDataInfo = supplementalDataInfo;
         this.defaultContentLocales = supplementalDataInfo.getDefaultContentLocales();
@@ -1135,11 +1133,14 @@ public class VettingViewer<T> {
         return testMessage.append(usersValue);
     }
 
-    static final NumberFormat nf = NumberFormat.getIntegerInstance(ULocale.ENGLISH);
+    /**
+     * Not shared between viewers, since a NumberFormat isn't thread-safe and viewers may run at the same time.
+     */
+    private final NumberFormat nf = NumberFormat.getIntegerInstance(ULocale.ENGLISH);
     private Relation<String, String> reasonsToPaths;
     private CLDRURLS urls = CLDRConfig.getInstance().urls();
 
-    static {
+    {
         nf.setGroupingUsed(true);
     }
 
@@ -21,12 +21,19 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.unicode.cldr.util.SupplementalDataInfo.PluralInfo.Count;
 import org.unicode.cldr.util.XPathParts.Comments;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
 import com.ibm.icu.impl.Utility;
 import com.ibm.icu.util.Freezable;
 import com.ibm.icu.util.Output;
@@ -47,8 +54,8 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
 
     private String localeID;
     private boolean nonInheriting;
-    private TreeMap<String, String> aliases;
-    private LinkedHashMap<String, List<String>> reverseAliases;
+    private volatile TreeMap<String, String> aliases;
+    private volatile LinkedHashMap<String, List<String>> reverseAliases;
     protected boolean locked;
     transient String[] fixedPath = new String[1];
 
@@ -387,29 +394,37 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
      * @return a mapping of paths to their aliases. Note that since root is the
      *         only locale to have aliases, all other locales will have no mappings.
      */
-    protected synchronized TreeMap<String, String> getAliases() {
+    protected TreeMap<String, String> getAliases() {
         // The cache assumes that aliases will never change over the lifetime of
-        // an XMLSource.
-        if (aliases == null) {
-            aliases = new TreeMap<String, String>();
-            // Look for aliases and create mappings for them.
-            // Aliases are only ever found in root.
-            for (String path : this) {
-                if (!Alias.isAliasPath(path)) continue;
-                String fullPath = getFullPathAtDPath(path);
-                Alias temp = Alias.make(fullPath);
-                if (temp == null) continue;
-                aliases.put(temp.getOldPath(), temp.getNewPath());
+        // an XMLSource. Only building it locks, since every ResolvingSource reads root's.
+        TreeMap<String, String> result = aliases;
+        if (result == null) {
+            synchronized (this) {
+                result = aliases;
+                if (result == null) {
+                    result = new TreeMap<String, String>();
+                    // Look for aliases and create mappings for them.
+                    // Aliases are only ever found in root.
+                    for (String path : this) {
+                        if (!Alias.isAliasPath(path)) continue;
+                        String fullPath = getFullPathAtDPath(path);
+                        Alias temp = Alias.make(fullPath);
+                        if (temp == null) continue;
+                        result.put(temp.getOldPath(), temp.getNewPath());
+                    }
+                    aliases = result;
+                }
             }
         }
-        return aliases;
+        return result;
     }
 
     /**
      * @return a reverse mapping of aliases
      */
     private LinkedHashMap<String, List<String>> getReverseAliases() {
-        if (reverseAliases != null) return reverseAliases;
+        LinkedHashMap<String, List<String>> result = reverseAliases;
+        if (result != null) return result;
         // Aliases are only ever found in root.
         Map<String, String> aliases = getAliases();
         Map<String, List<String>> reverse = new HashMap<String, List<String>>();
@@ -423,8 +438,9 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
         }
 
         // Sort map.
-        reverseAliases = new LinkedHashMap<String, List<String>>(new TreeMap<String, List<String>>(reverse));
-        return reverseAliases;
+        result = new LinkedHashMap<String, List<String>>(new TreeMap<String, List<String>>(reverse));
+        reverseAliases = result;
+        return result;
     }
 
     /**
@@ -432,6 +448,7 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
      */
     private void clearCache() {
         aliases = null;
+        reverseAliases = null;
     }
 
     /**
@@ -730,7 +747,48 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
         // }
         // }
 
-        Map<String, String> getFullPathAtDPathCache = new HashMap<String, String>();
+        /**
+         * Maximum number of paths for which each ResolvingSource caches the alias location, and separately
+         * the full path. Set with -DCLDR_RESOLUTION_CACHE_SIZE=n.
+         */
+        private static final int CACHE_LIMIT = Integer.getInteger("CLDR_RESOLUTION_CACHE_SIZE", 100000);
+
+        private static final LongAdder cacheHits = new LongAdder();
+        private static final LongAdder cacheMisses = new LongAdder();
+        private static final LongAdder cacheEvictions = new LongAdder();
+
+        private static final RemovalListener<Object, Object> COUNT_EVICTIONS = new RemovalListener<Object, Object>() {
+            @Override
+            public void onRemoval(RemovalNotification<Object, Object> notification) {
+                if (notification.wasEvicted()) {
+                    cacheEvictions.increment();
+                }
+            }
+        };
+
+        private static <V> Cache<String, V> makeCache() {
+            return CacheBuilder.newBuilder()
+                .maximumSize(CACHE_LIMIT)
+                .<String, V> removalListener(COUNT_EVICTIONS)
+                .build();
+        }
+
+        /**
+         * Get the statistics for the alias location and full path caches, over all ResolvingSources.
+         * Only the hit, miss and eviction counts are filled in.
+         */
+        public static CacheStats getCacheStatistics() {
+            long misses = cacheMisses.sum();
+            return new CacheStats(cacheHits.sum(), misses, misses, 0, 0, cacheEvictions.sum());
+        }
+
+        private final transient Cache<String, AliasLocation> locationCache = makeCache();
+        private final transient Cache<String, String> fullPathCache = makeCache();
+
+        /**
+         * Incremented by valueChanged. A value computed while it changes may be stale, so isn't kept.
+         */
+        private final transient AtomicInteger cacheGeneration = new AtomicInteger();
 
         public String getFullPathAtDPath(String xpath) {
             String result = currentSource.getFullPathAtDPath(xpath);
@@ -740,6 +798,7 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
             // This is tricky. We need to find the alias location's path and full path.
             // then we need to the the non-distinguishing elements from them,
             // and add them into the requested path.
+            int generation = cacheGeneration.get();
             AliasLocation fullStatus = getCachedFullStatus(xpath, true /* skipInheritanceMarker */);
             if (fullStatus != null) {
                 String fullPathWhereFound = getSource(fullStatus).getFullPathAtDPath(fullStatus.pathWhereFound);
@@ -748,7 +807,7 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
                 } else if (fullPathWhereFound.equals(fullStatus.pathWhereFound)) {
                     result = xpath; // no difference
                 } else {
-                    result = getFullPath(xpath, fullStatus, fullPathWhereFound);
+                    result = getFullPath(xpath, fullStatus, fullPathWhereFound, generation);
                 }
             }
             //
@@ -775,9 +834,15 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
             return result;
         }
 
-        private String getFullPath(String xpath, AliasLocation fullStatus, String fullPathWhereFound) {
-            String result = getFullPathAtDPathCache.get(xpath);
-            if (result == null) {
+        /**
+         * @param generation the cacheGeneration before fullStatus and fullPathWhereFound were found
+         */
+        private String getFullPath(String xpath, AliasLocation fullStatus, String fullPathWhereFound, int generation) {
+            String result = fullPathCache.getIfPresent(xpath);
+            if (result != null) {
+                cacheHits.increment();
+            } else {
+                cacheMisses.increment();
                 // find the differences, and add them into xpath
                 // we do this by walking through each element, adding the corresponding attribute values.
                 // we add attributes FROM THE END, in case the lengths are different!
@@ -800,7 +865,10 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
                     }
                 }
                 result = xpathParts.toString();
-                getFullPathAtDPathCache.put(xpath, result);
+                fullPathCache.put(xpath, result);
+                if (generation != cacheGeneration.get()) {
+                    fullPathCache.invalidate(xpath);
+                }
             }
             return result;
         }
@@ -842,7 +910,7 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
              * TODO: consider using a cache also when skipInheritanceMarker is false.
              * Can't use the same cache for skipInheritanceMarker true and false.
              * Could use two caches, or add skipInheritanceMarker to the key (append 'T' or 'F' to xpath).
-             * The situation is complicated by use of getSourceLocaleIDCache also in valueChanged.
+             * The situation is complicated by use of locationCache also in valueChanged.
              * 
              * There is no caching problem with skipFirst, since that is always false here -- though
              * getBaileyValue could use a cache if there was one for skipFirst true.
@@ -852,14 +920,21 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
             if (!skipInheritanceMarker) {
                 return getPathLocation(xpath, false /* skipFirst */, skipInheritanceMarker);
             }
-            synchronized (getSourceLocaleIDCache) {
-                AliasLocation fullStatus = getSourceLocaleIDCache.get(xpath);
-                if (fullStatus == null) {
-                    fullStatus = getPathLocation(xpath, false /* skipFirst */, skipInheritanceMarker);
-                    getSourceLocaleIDCache.put(xpath, fullStatus); // cache copy
-                }
+            AliasLocation fullStatus = locationCache.getIfPresent(xpath);
+            if (fullStatus != null) {
+                cacheHits.increment();
                 return fullStatus;
             }
+            // Not computed under a lock: getPathLocation recurses through aliases, and two threads
+            // computing the same location just do a little extra work.
+            cacheMisses.increment();
+            int generation = cacheGeneration.get();
+            fullStatus = getPathLocation(xpath, false /* skipFirst */, skipInheritanceMarker);
+            locationCache.put(xpath, fullStatus);
+            if (generation != cacheGeneration.get()) {
+                locationCache.invalidate(xpath);
+            }
+            return fullStatus;
         }
 
         @Override
@@ -875,8 +950,6 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
             return result;
         }
 
-        private transient Map<String, AliasLocation> getSourceLocaleIDCache = new WeakHashMap<String, AliasLocation>();
-
         /**
          * Get the source locale ID for the given path, for this ResolvingSource.
          *
@@ -951,6 +1024,22 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
                 }
             }
             // Path not found, check if an alias exists
+            String aliasedPath = getAliasedPath(xpath);
+
+            if (aliasedPath != null) {
+                // Call getCachedFullStatus recursively to avoid recalculating cached aliases.
+                return getCachedFullStatus(aliasedPath, skipInheritanceMarker);
+            }
+
+            // Fallback location.
+            return new AliasLocation(xpath, CODE_FALLBACK_ID);
+        }
+
+        /**
+         * Get the path that a path not found in any source is redirected to, by root's aliases,
+         * or by the count fallback; or null if there is none.
+         */
+        private String getAliasedPath(String xpath) {
             TreeMap<String, String> aliases = sources.get("root").getAliases();
             String aliasedPath = aliases.get(xpath);
 
@@ -982,14 +1071,49 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
                     }
                 }
             }
+            return aliasedPath;
+        }
 
-            if (aliasedPath != null) {
-                // Call getCachedFullStatus recursively to avoid recalculating cached aliases.
-                return getCachedFullStatus(aliasedPath, skipInheritanceMarker);
+        /**
+         * Get the paths that getAliasedPath redirects to the given path. Rather than scanning all
+         * the aliases, this looks up each element prefix of the path in root's reverse aliases, and
+         * tries each count, so the time depends on the length of the path and the number of results.
+         */
+        private Set<String> getPathsAliasingTo(String xpath) {
+            Set<String> result = new HashSet<String>();
+            Map<String, List<String>> reverseAliases = getReverseAliases();
+            // for an alias from //ldml/a to //ldml/b, //ldml/a/c is redirected to //ldml/b/c
+            for (int i = xpath.indexOf('/', 2); ; i = xpath.indexOf('/', i + 1)) {
+                int prefixEnd = i < 0 ? xpath.length() : i;
+                List<String> aliasingPrefixes = reverseAliases.get(xpath.substring(0, prefixEnd));
+                if (aliasingPrefixes != null) {
+                    String suffix = xpath.substring(prefixEnd);
+                    for (String aliasingPrefix : aliasingPrefixes) {
+                        addIfAliasingTo(aliasingPrefix + suffix, xpath, result);
+                    }
+                }
+                if (i < 0) {
+                    break;
+                }
             }
+            if (xpath.contains("[@count=")) {
+                for (Count count : Count.VALUES) {
+                    addIfAliasingTo(COUNT_EQUALS.matcher(xpath).replaceAll("[@count=\"" + count + "\"]"), xpath, result);
+                }
+            } else if (xpath.endsWith("/displayName")) {
+                addIfAliasingTo(xpath + "[@count=\"other\"]", xpath, result);
+            }
+            return result;
+        }
 
-            // Fallback location.
-            return new AliasLocation(xpath, CODE_FALLBACK_ID);
+        /**
+         * Add the candidate if getAliasedPath really does redirect it to the path; a longer alias
+         * or a different count rule may take precedence.
+         */
+        private void addIfAliasingTo(String candidate, String xpath, Set<String> result) {
+            if (!candidate.equals(xpath) && xpath.equals(getAliasedPath(candidate))) {
+                result.add(candidate);
+            }
         }
 
         /**
@@ -1109,7 +1233,7 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
             return sources.get("root").getReverseAliases();
         }
 
-        private transient Set<String> cachedKeySet = null;
+        private transient volatile Set<String> cachedKeySet = null;
 
         /**
          * @return an iterator over all the xpaths in this XMLSource.
@@ -1119,13 +1243,15 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
         }
 
         private Set<String> getCachedKeySet() {
-            if (cachedKeySet == null) {
-                cachedKeySet = fillKeys();
+            Set<String> result = cachedKeySet;
+            if (result == null) {
+                result = fillKeys();
                 // System.out.println("CachedKeySet: " + cachedKeySet);
                 // cachedKeySet.addAll(constructedItems.keySet());
-                cachedKeySet = Collections.unmodifiableSet(cachedKeySet);
+                result = Collections.unmodifiableSet(result);
+                cachedKeySet = result;
             }
-            return cachedKeySet;
+            return result;
         }
 
         public void putFullPathAtDPath(String distinguishingXPath, String fullxpath) {
@@ -1154,22 +1280,31 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
 
         @Override
         public void valueChanged(String xpath, XMLSource nonResolvingSource) {
-            synchronized (getSourceLocaleIDCache) {
-                AliasLocation location = getSourceLocaleIDCache.remove(xpath);
-                if (location == null) {
-                    return;
-                }
-                // Paths aliasing to this path (directly or indirectly) may be affected,
-                // so clear them as well.
-                // There's probably a more elegant way to fix the paths than simply
-                // throwing everything out.
-                Set<String> dependentPaths = getDirectAliases(new String[] { xpath });
-                if (dependentPaths.size() > 0) {
-                    for (String path : dependentPaths) {
-                        getSourceLocaleIDCache.remove(path);
+            cacheGeneration.incrementAndGet();
+            Set<String> dependentPaths = getDependentPaths(xpath);
+            locationCache.invalidateAll(dependentPaths);
+            fullPathCache.invalidateAll(dependentPaths);
+        }
+
+        /**
+         * Get the path, plus the paths whose resolution may depend on it: those that getAliasedPath
+         * redirects to it, directly or indirectly.
+         * This doesn't stop at a path that isn't cached, since with a bounded cache a path can have
+         * been evicted while paths aliasing to it are still cached.
+         */
+        private Set<String> getDependentPaths(String xpath) {
+            Set<String> result = new HashSet<String>();
+            result.add(xpath);
+            List<String> toVisit = new ArrayList<String>();
+            toVisit.add(xpath);
+            while (!toVisit.isEmpty()) {
+                for (String dependent : getPathsAliasingTo(toVisit.remove(toVisit.size() - 1))) {
+                    if (result.add(dependent)) {
+                        toVisit.add(dependent);
                     }
                 }
             }
+            return result;
         }
 
         /**
@@ -1593,7 +1728,9 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
      * Adds a listener to this XML source.
      */
     public void addListener(Listener listener) {
-        listeners.add(new WeakReference<Listener>(listener));
+        synchronized (listeners) { // resolving sources for the same locale can be made in different threads
+            listeners.add(new WeakReference<Listener>(listener));
+        }
     }
 
     /**
@@ -1606,16 +1743,23 @@ public abstract class XMLSource implements Freezable<XMLSource>, Iterable<String
      *            the xpath where the change occurred.
      */
     protected void notifyListeners(String xpath) {
-        int i = 0;
-        while (i < listeners.size()) {
-            Listener listener = listeners.get(i).get();
-            if (listener == null) { // listener has been garbage-collected.
-                listeners.remove(i);
-            } else {
-                listener.valueChanged(xpath, this);
-                i++;
+        List<Listener> live = new ArrayList<Listener>();
+        synchronized (listeners) {
+            int i = 0;
+            while (i < listeners.size()) {
+                Listener listener = listeners.get(i).get();
+                if (listener == null) { // listener has been garbage-collected.
+                    listeners.remove(i);
+                } else {
+                    live.add(listener);
+                    i++;
+                }
             }
         }
+        // call the listeners without the lock, since they may take locks of their own
+        for (Listener listener : live) {
+            listener.valueChanged(xpath, this);
+        }
     }
 
     /**
@@ -19,7 +19,14 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
-
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSet.Builder;
 import com.ibm.icu.impl.Utility;
@@ -45,7 +52,38 @@ public final class XPathParts implements Freezable<XPathParts> {
 
     private Map<String, Map<String, String>> suppressionMap;
     
-    private static final Map<String, XPathParts> cache = new ConcurrentHashMap<String, XPathParts>();
+    /**
+     * Maximum number of frozen instances to cache; 0 (the default) means unbounded.
+     * Long-running processes such as the Survey Tool can set -DCLDR_XPATH_CACHE_SIZE=n to bound it.
+     */
+    private static final int CACHE_LIMIT = Integer.getInteger("CLDR_XPATH_CACHE_SIZE", 0);
+
+    private static final LongAdder cacheHits = new LongAdder();
+    private static final LongAdder cacheMisses = new LongAdder();
+    private static final LongAdder cacheEvictions = new LongAdder();
+
+    private static final ConcurrentMap<String, XPathParts> cache = CACHE_LIMIT <= 0
+        ? new ConcurrentHashMap<String, XPathParts>()
+        : CacheBuilder.newBuilder()
+            .maximumSize(CACHE_LIMIT)
+            .removalListener(new RemovalListener<String, XPathParts>() {
+                @Override
+                public void onRemoval(RemovalNotification<String, XPathParts> notification) {
+                    if (notification.wasEvicted()) {
+                        cacheEvictions.increment();
+                    }
+                }
+            })
+            .<String, XPathParts> build()
+            .asMap();
+
+    private static final Function<String, XPathParts> PARSE_FROZEN = new Function<String, XPathParts>() {
+        @Override
+        public XPathParts apply(String path) {
+            cacheMisses.increment();
+            return new XPathParts().addInternal(path, true).freeze();
+        }
+    };
 
     public XPathParts() {
         this.suppressionMap = null;
@@ -1231,13 +1269,32 @@ public final class XPathParts implements Freezable<XPathParts> {
         return xppClone;
     }
 
-    public static synchronized XPathParts getFrozenInstance(String path) {
+    /**
+     * Get a frozen (and shared) instance for the path. This does not lock on a hit;
+     * a miss parses the path once, even if several threads ask for it at the same time.
+     */
+    public static XPathParts getFrozenInstance(String path) {
         XPathParts result = cache.get(path);
-        if (result == null) {
-            result = new XPathParts().addInternal(path, true).freeze();
-            cache.put(path, result);
+        if (result != null) {
+            cacheHits.increment();
+            return result;
         }
-        return result;
+        return cache.computeIfAbsent(path, PARSE_FROZEN);
+    }
+
+    /**
+     * Get the statistics for the cache used by getFrozenInstance. Only the hit, miss and eviction counts are filled in.
+     */
+    public static CacheStats getCacheStatistics() {
+        long misses = cacheMisses.sum();
+        return new CacheStats(cacheHits.sum(), misses, misses, 0, 0, cacheEvictions.sum());
+    }
+
+    /**
+     * Get the number of frozen instances currently cached by getFrozenInstance.
+     */
+    public static int getCacheSize() {
+        return cache.size();
     }
 
     public static XPathParts getInstance(String path) {